@@ -31,9 +31,8 @@ public class AuthorizationService {
     private SharedProjectItemDaoJpa sharedProjectItemDaoJpa;
 
     public <T extends ProjectItemModel> void validateRequesterInProjectGroup(String requester, T projectItem) {
-        if (this.sharedProjectItemDaoJpa.getSharedProjectItems(requester).stream()
-                .anyMatch(item -> Objects.equals(item.getId(), projectItem.getId()) &&
-                        Objects.equals(item.getContentType(), projectItem.getContentType()))) {
+        if (this.sharedProjectItemDaoJpa.isSharedWith(
+                requester, projectItem.getContentType(), projectItem.getId())) {
             return;
         }
         validateRequesterInProjectGroup(requester, projectItem.getProject());
@@ -168,9 +167,8 @@ public class AuthorizationService {
         switch (operation) {
             case UPDATE:
                 // contents of project item being shared specifically can be edited
-                if (this.sharedProjectItemDaoJpa.getSharedProjectItems(requester).stream()
-                        .anyMatch(item -> Objects.equals(item.getId(), projectItem.getId()) &&
-                                Objects.equals(item.getContentType(), projectItem.getContentType()))) {
+                if (this.sharedProjectItemDaoJpa.isSharedWith(
+                        requester, projectItem.getContentType(), projectItem.getId())) {
                     return;
                 }
             case DELETE:
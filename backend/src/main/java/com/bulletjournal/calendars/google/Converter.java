@@ -18,6 +18,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -210,4 +211,18 @@ public class Converter {
                 task.getAssignees().stream().map(a -> a.getName()).collect(Collectors.toList()),
                 task.getTimezone(), task.getRecurrenceRule(), Collections.emptyList(), task.getLocation());
     }
+
+    /**
+     * Task content text of the event, with the description as html
+     */
+    public static String toContentText(GoogleCalendarEvent event) {
+        String text = event.getContent().getBaseText();
+        if (StringUtils.isNotBlank(event.getContent().getText())) {
+            List<String> l = Arrays.stream(event.getContent().getText().split(System.lineSeparator()))
+                    .map(s -> s.isEmpty() ? "<br/>" : "<p>" + s + "</p>").collect(Collectors.toList());
+            String html = StringUtils.join(l, "");
+            text = "{\"delta\":{\"ops\":" + text + "},\"$$$html$$$\":\"" + html + "\"}";
+        }
+        return text;
+    }
 }
@@ -0,0 +1,231 @@
+package com.bulletjournal.calendars.google;
+
+import com.bulletjournal.clients.GoogleCalClient;
+import com.bulletjournal.clients.UserClient;
+import com.bulletjournal.config.GoogleCalendarSyncConfig;
+import com.bulletjournal.repository.GoogleCalendarProjectDaoJpa;
+import com.bulletjournal.repository.TaskDaoJpa;
+import com.bulletjournal.repository.models.GoogleCalendarProject;
+import com.bulletjournal.util.CustomThreadFactory;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.Events;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Incremental sync of watched Google Calendars.
+ * <p>
+ * A watch notification queues a sync of its calendar, which pulls only the events changed since the
+ * calendar's stored sync token and upserts their tasks. Calendars are synced concurrently on a bounded
+ * pool; notifications arriving while a calendar is syncing are folded into one more run.
+ */
+@Service
+public class GoogleCalendarSyncService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GoogleCalendarSyncService.class);
+
+    private static final long AWAIT_TERMINATION_SECONDS = 5;
+
+    private static final int SYNC_TOKEN_EXPIRED = 410;
+
+    private static final String CANCELLED = "cancelled";
+
+    private final GoogleCalClient googleCalClient;
+
+    private final GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa;
+
+    private final TaskDaoJpa taskDaoJpa;
+
+    private final GoogleCalendarSyncConfig syncConfig;
+
+    private final Set<String> syncing = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> resyncRequested = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, String> timezones = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService;
+
+    @Autowired
+    public GoogleCalendarSyncService(GoogleCalClient googleCalClient,
+                                     GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa,
+                                     TaskDaoJpa taskDaoJpa,
+                                     GoogleCalendarSyncConfig syncConfig) {
+        this.googleCalClient = googleCalClient;
+        this.googleCalendarProjectDaoJpa = googleCalendarProjectDaoJpa;
+        this.taskDaoJpa = taskDaoJpa;
+        this.syncConfig = syncConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        this.executorService = new ThreadPoolExecutor(
+                this.syncConfig.getThreads(), this.syncConfig.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.syncConfig.getQueueCapacity()),
+                new CustomThreadFactory("GoogleCalendarSync"));
+    }
+
+    /**
+     * Queue a sync of the calendar watched by the channel
+     */
+    public void requestSync(String channelId) {
+        GoogleCalendarProject googleCalendarProject = this.googleCalendarProjectDaoJpa.getByChannelId(channelId);
+        requestSyncOfCalendar(googleCalendarProject.getId());
+    }
+
+    private void requestSyncOfCalendar(String calendarId) {
+        if (!this.syncing.add(calendarId)) {
+            this.resyncRequested.add(calendarId);
+            return;
+        }
+        try {
+            this.executorService.execute(() -> runSync(calendarId));
+        } catch (RejectedExecutionException e) {
+            this.syncing.remove(calendarId);
+            LOGGER.error("Too many calendar syncs queued, dropped sync of {}", calendarId);
+        }
+    }
+
+    private void runSync(String calendarId) {
+        try {
+            do {
+                this.resyncRequested.remove(calendarId);
+                try {
+                    sync(calendarId);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to sync calendar {}", calendarId, e);
+                }
+            } while (this.resyncRequested.remove(calendarId));
+        } finally {
+            this.syncing.remove(calendarId);
+        }
+        // a request may have come in after the last check
+        if (this.resyncRequested.remove(calendarId)) {
+            requestSyncOfCalendar(calendarId);
+        }
+    }
+
+    /**
+     * Pull the events changed since the stored sync token and apply them to the watched project
+     */
+    void sync(String calendarId) throws IOException {
+        GoogleCalendarProject googleCalendarProject = this.googleCalendarProjectDaoJpa.get(calendarId);
+        String requester = googleCalendarProject.getOwner();
+        MDC.put(UserClient.USER_NAME_KEY, requester);
+        try {
+            Calendar service = this.googleCalClient.getCalendarService();
+            List<Event> changed = new ArrayList<>();
+            String syncToken;
+            try {
+                syncToken = listEvents(service, calendarId, googleCalendarProject.getToken(), changed);
+            } catch (GoogleJsonResponseException e) {
+                if (e.getStatusCode() != SYNC_TOKEN_EXPIRED) {
+                    throw e;
+                }
+                // token invalidated by Google, start over from now without importing existing events
+                LOGGER.info("Sync token of calendar {} expired, resetting", calendarId);
+                this.googleCalendarProjectDaoJpa.setTokenByCalendarId(calendarId, getInitialSyncToken(service, calendarId));
+                return;
+            }
+
+            LOGGER.info("Calendar {}: {} changed events", calendarId, changed.size());
+            if (!changed.isEmpty()) {
+                String timezone = getTimezone(service, calendarId);
+                Long projectId = googleCalendarProject.getProject().getId();
+                for (Event event : changed) {
+                    applyEvent(event, projectId, googleCalendarProject, requester, timezone);
+                }
+            }
+            // saved after the changes so that a failed run is pulled again
+            this.googleCalendarProjectDaoJpa.setTokenByCalendarId(calendarId, syncToken);
+        } finally {
+            MDC.remove(UserClient.USER_NAME_KEY);
+        }
+    }
+
+    private void applyEvent(Event event, Long projectId, GoogleCalendarProject googleCalendarProject,
+                            String requester, String timezone) {
+        if (CANCELLED.equals(event.getStatus())) {
+            this.taskDaoJpa.deleteTaskByGoogleEvenId(event.getId(), googleCalendarProject.getProject());
+            return;
+        }
+        GoogleCalendarEvent calendarEvent = Converter.toTask(event, timezone);
+        this.taskDaoJpa.upsertGoogleCalendarEventTask(projectId, requester,
+                Converter.toCreateTaskParams(calendarEvent), calendarEvent.getEventId(),
+                Converter.toContentText(calendarEvent));
+    }
+
+    /**
+     * Page through events.list and collect the items
+     *
+     * @return next sync token, which comes with the last page
+     */
+    private String listEvents(Calendar service, String calendarId, String syncToken, List<Event> items)
+            throws IOException {
+        String pageToken = null;
+        Events events;
+        do {
+            Calendar.Events.List request = service.events().list(calendarId).setPageToken(pageToken);
+            if (syncToken != null) {
+                request.setSyncToken(syncToken);
+            }
+            events = request.execute();
+            if (events.getItems() != null) {
+                items.addAll(events.getItems());
+            }
+            pageToken = events.getNextPageToken();
+        } while (pageToken != null);
+        return events.getNextSyncToken();
+    }
+
+    /**
+     * Sync token for changes from now on to events of the last year onwards
+     */
+    public String getInitialSyncToken(Calendar service, String calendarId) throws IOException {
+        java.util.Calendar cal = java.util.Calendar.getInstance();
+        cal.add(java.util.Calendar.YEAR, -1);
+        DateTime timeMin = new DateTime(cal.getTime(), TimeZone.getTimeZone("UTC"));
+        String pageToken = null;
+        Events events;
+        do {
+            events = service.events().list(calendarId).setTimeMin(timeMin)
+                    .setPageToken(pageToken).execute();
+            pageToken = events.getNextPageToken();
+        } while (pageToken != null);
+        return events.getNextSyncToken();
+    }
+
+    private String getTimezone(Calendar service, String calendarId) throws IOException {
+        String timezone = this.timezones.get(calendarId);
+        if (timezone == null) {
+            timezone = service.calendarList().get(calendarId).execute().getTimeZone();
+            this.timezones.put(calendarId, timezone);
+        }
+        return timezone;
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.executorService != null) {
+            this.executorService.shutdown();
+            try {
+                this.executorService.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
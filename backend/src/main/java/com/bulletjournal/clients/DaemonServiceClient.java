@@ -4,7 +4,10 @@ import com.bulletjournal.config.DaemonClientConfig;
 import com.bulletjournal.notifications.NotificationService;
 import com.bulletjournal.notifications.SampleTaskChange;
 import com.bulletjournal.protobuf.daemon.grpc.services.DaemonGrpc;
+import com.bulletjournal.protobuf.daemon.grpc.types.ConvertDeltasToHtmlRequest;
+import com.bulletjournal.protobuf.daemon.grpc.types.ConvertDeltasToHtmlResponse;
 import com.bulletjournal.protobuf.daemon.grpc.types.ConvertJsonObjectsToHtmlRequest;
+import com.bulletjournal.protobuf.daemon.grpc.types.ConvertJsonObjectsToHtmlResponse;
 import com.bulletjournal.protobuf.daemon.grpc.types.NotificationStreamMsg;
 import com.bulletjournal.protobuf.daemon.grpc.types.SubscribeNotificationMsg;
 import com.bulletjournal.protobuf.daemon.grpc.types.SubscribeSampleTaskMsg;
@@ -19,6 +22,10 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 public class DaemonServiceClient {
@@ -38,9 +45,6 @@ public class DaemonServiceClient {
     @Autowired
     private DaemonClientConfig daemonClientConfig;
 
-    @GrpcClient("daemonClient")
-    private DaemonGrpc.DaemonBlockingStub daemonBlockingStub;
-
     @GrpcClient("daemonClient")
     private DaemonGrpc.DaemonStub daemonAsyncStub;
 
@@ -65,20 +69,42 @@ public class DaemonServiceClient {
         }
     }
 
-    public String convertDeltaToHtml(String deltaString) {
-        if (!this.daemonClientConfig.isEnabled()) {
-            LOGGER.info("daemonClientConfig not Enabled, convertDeltaToHtml returns null");
-            return null;
-        }
-        try {
-            return this.daemonBlockingStub.convertDeltaToHtml(
-                    ConvertJsonObjectsToHtmlRequest.newBuilder()
-                            .setDeltaString(deltaString).build())
-                    .getHtmlOutput();
-        } catch (Exception ex) {
-            LOGGER.error("Error converting " + deltaString, ex);
-            return null;
-        }
+    public boolean isEnabled() {
+        return this.daemonClientConfig.isEnabled();
+    }
+
+    /**
+     * Convert a batch of deltas with one non-blocking call.
+     *
+     * @return html in the same order as deltaStrings, an entry is null if the daemon could not convert it
+     */
+    public CompletableFuture<List<String>> convertDeltasToHtml(List<String> deltaStrings) {
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        ConvertDeltasToHtmlRequest.Builder request = ConvertDeltasToHtmlRequest.newBuilder();
+        deltaStrings.forEach(d -> request.addRequests(
+                ConvertJsonObjectsToHtmlRequest.newBuilder().setDeltaString(d).build()));
+        this.daemonAsyncStub
+                .withDeadlineAfter(this.daemonClientConfig.getConvertTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .convertDeltasToHtml(request.build(), new StreamObserver<ConvertDeltasToHtmlResponse>() {
+                    @Override
+                    public void onNext(ConvertDeltasToHtmlResponse response) {
+                        future.complete(response.getResponsesList().stream()
+                                .map(ConvertJsonObjectsToHtmlResponse::getHtmlOutput)
+                                .map(html -> html.isEmpty() ? null : html)
+                                .collect(Collectors.toList()));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        LOGGER.error("convertDeltasToHtml failed: {}", Status.fromThrowable(t));
+                        future.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        return future;
     }
 
     private void subscribeNotification() {
@@ -9,6 +9,7 @@ import com.bulletjournal.repository.UserAliasDaoJpa;
 import com.bulletjournal.repository.UserDaoJpa;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
@@ -21,8 +22,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.LinkedHashMap;
-import java.util.Optional;
+import java.util.*;
 
 @Component
 public class UserClient {
@@ -104,6 +104,35 @@ public class UserClient {
         return this.userAliasDaoJpa.updateUserAlias(user);
     }
 
+    /**
+     * Users by username, reading cached users in one call and the requester's aliases once.
+     * DO NOT wrap this function inside @Transactional
+     */
+    public Map<String, User> getUsers(Collection<String> usernames) {
+        Map<String, User> users = new HashMap<>();
+        Set<String> distinct = new HashSet<>(usernames);
+        if (distinct.isEmpty()) {
+            return users;
+        }
+        Map<String, String> aliases = Collections.emptyMap();
+        String requester = MDC.get(USER_NAME_KEY);
+        if (requester != null) {
+            aliases = this.userAliasDaoJpa.getAliases(requester);
+        }
+        for (User user : this.redisUserRepository.findAllById(distinct)) {
+            if (user != null && distinct.contains(user.getName())) {
+                user.setAlias(aliases.getOrDefault(user.getName(), user.getName()));
+                users.put(user.getName(), user);
+            }
+        }
+        for (String username : distinct) {
+            if (!users.containsKey(username)) {
+                users.put(username, getUser(username));
+            }
+        }
+        return users;
+    }
+
     private String getUserTimeZone(LinkedHashMap userInfo) {
         if (this.ssoAPIKey == null) {
             return DEFAULT_USER_TIME_ZONE;
@@ -0,0 +1,51 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "task.completed.archive")
+public class CompletedTaskArchiveConfig {
+
+    private boolean enabled = false;
+
+    private long intervalInHours = 24;
+
+    // monthly partitions created ahead of time, rows past the last one land in completed_tasks_default
+    private int monthsAhead = 3;
+
+    // months of completed tasks kept in completed_tasks before moving to completed_tasks_archive
+    private int retentionMonths = 24;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getIntervalInHours() {
+        return intervalInHours;
+    }
+
+    public void setIntervalInHours(long intervalInHours) {
+        this.intervalInHours = intervalInHours;
+    }
+
+    public int getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    public void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    public int getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+}
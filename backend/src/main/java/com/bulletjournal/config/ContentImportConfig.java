@@ -0,0 +1,42 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "content.import")
+public class ContentImportConfig {
+
+    // contents inserted per transaction
+    private int chunkSize = 100;
+
+    // threads converting deltas to html
+    private int converterThreads = 2;
+
+    // pause between two chunks, lets other writers get a connection
+    private long chunkDelayMillis = 100;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getConverterThreads() {
+        return converterThreads;
+    }
+
+    public void setConverterThreads(int converterThreads) {
+        this.converterThreads = converterThreads;
+    }
+
+    public long getChunkDelayMillis() {
+        return chunkDelayMillis;
+    }
+
+    public void setChunkDelayMillis(long chunkDelayMillis) {
+        this.chunkDelayMillis = chunkDelayMillis;
+    }
+}
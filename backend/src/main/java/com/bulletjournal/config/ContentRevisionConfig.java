@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "revision")
 public class ContentRevisionConfig {
     private Integer maxRevisionNumber;
+    private Integer snapshotInterval = 5;
 
     public Integer getMaxRevisionNumber() {
         return maxRevisionNumber;
@@ -15,4 +16,12 @@ public class ContentRevisionConfig {
     public void setMaxRevisionNumber(Integer maxRevisionNumber) {
         this.maxRevisionNumber = maxRevisionNumber;
     }
+
+    public Integer getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Integer snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
 }
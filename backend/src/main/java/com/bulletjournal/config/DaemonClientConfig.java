@@ -9,6 +9,16 @@ public class DaemonClientConfig {
 
     private boolean enabled;
 
+    // max number of deltas sent in one ConvertDeltasToHtml call
+    private int convertBatchSize = 50;
+
+    // max number of ConvertDeltasToHtml calls waiting for a response
+    private int convertMaxInFlight = 4;
+
+    private int convertQueueCapacity = 1000;
+
+    private long convertTimeoutMillis = 5000;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -16,4 +26,36 @@ public class DaemonClientConfig {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
+
+    public int getConvertBatchSize() {
+        return convertBatchSize;
+    }
+
+    public void setConvertBatchSize(int convertBatchSize) {
+        this.convertBatchSize = convertBatchSize;
+    }
+
+    public int getConvertMaxInFlight() {
+        return convertMaxInFlight;
+    }
+
+    public void setConvertMaxInFlight(int convertMaxInFlight) {
+        this.convertMaxInFlight = convertMaxInFlight;
+    }
+
+    public int getConvertQueueCapacity() {
+        return convertQueueCapacity;
+    }
+
+    public void setConvertQueueCapacity(int convertQueueCapacity) {
+        this.convertQueueCapacity = convertQueueCapacity;
+    }
+
+    public long getConvertTimeoutMillis() {
+        return convertTimeoutMillis;
+    }
+
+    public void setConvertTimeoutMillis(long convertTimeoutMillis) {
+        this.convertTimeoutMillis = convertTimeoutMillis;
+    }
 }
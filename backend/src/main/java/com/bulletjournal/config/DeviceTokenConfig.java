@@ -0,0 +1,93 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "device.token")
+public class DeviceTokenConfig {
+
+    // each shard is an independently locked LRU cache of cacheSize / cacheShards users
+    private int cacheShards = 16;
+
+    private int cacheSize = 10000;
+
+    // bounds how long another instance may push to a token it removed
+    private long cacheTtlSeconds = 300;
+
+    // registrations of known tokens are buffered and written as one update per interval
+    private long lastSeenFlushIntervalSeconds = 60;
+
+    private boolean sweepEnabled = false;
+
+    private long sweepIntervalInHours = 24;
+
+    private int sweepBatchSize = 1000;
+
+    // tokens not registered again within this many days are no longer pushed to and get swept
+    private int retentionDays = 60;
+
+    public int getCacheShards() {
+        return cacheShards;
+    }
+
+    public void setCacheShards(int cacheShards) {
+        this.cacheShards = cacheShards;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public long getLastSeenFlushIntervalSeconds() {
+        return lastSeenFlushIntervalSeconds;
+    }
+
+    public void setLastSeenFlushIntervalSeconds(long lastSeenFlushIntervalSeconds) {
+        this.lastSeenFlushIntervalSeconds = lastSeenFlushIntervalSeconds;
+    }
+
+    public boolean isSweepEnabled() {
+        return sweepEnabled;
+    }
+
+    public void setSweepEnabled(boolean sweepEnabled) {
+        this.sweepEnabled = sweepEnabled;
+    }
+
+    public long getSweepIntervalInHours() {
+        return sweepIntervalInHours;
+    }
+
+    public void setSweepIntervalInHours(long sweepIntervalInHours) {
+        this.sweepIntervalInHours = sweepIntervalInHours;
+    }
+
+    public int getSweepBatchSize() {
+        return sweepBatchSize;
+    }
+
+    public void setSweepBatchSize(int sweepBatchSize) {
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+}
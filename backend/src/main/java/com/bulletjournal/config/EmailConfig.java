@@ -0,0 +1,103 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "email")
+public class EmailConfig {
+
+    // max messages per Mailjet send call
+    private int batchSize = 50;
+
+    private int workerThreads = 2;
+
+    private int queueCapacity = 5000;
+
+    // how long a caller waits for queue space before the email is dropped
+    private long enqueueTimeoutMillis = 1000;
+
+    // identical emails to the same recipient within this window are sent once
+    private long dedupWindowSeconds = 600;
+
+    private int dedupCacheSize = 100000;
+
+    private long metricsLogSeconds = 60;
+
+    // a batch whose send call failed as a whole is retried this many times with exponential backoff
+    private int maxRetries = 3;
+
+    private long retryBackoffMillis = 1000;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getEnqueueTimeoutMillis() {
+        return enqueueTimeoutMillis;
+    }
+
+    public void setEnqueueTimeoutMillis(long enqueueTimeoutMillis) {
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+    }
+
+    public long getDedupWindowSeconds() {
+        return dedupWindowSeconds;
+    }
+
+    public void setDedupWindowSeconds(long dedupWindowSeconds) {
+        this.dedupWindowSeconds = dedupWindowSeconds;
+    }
+
+    public int getDedupCacheSize() {
+        return dedupCacheSize;
+    }
+
+    public void setDedupCacheSize(int dedupCacheSize) {
+        this.dedupCacheSize = dedupCacheSize;
+    }
+
+    public long getMetricsLogSeconds() {
+        return metricsLogSeconds;
+    }
+
+    public void setMetricsLogSeconds(long metricsLogSeconds) {
+        this.metricsLogSeconds = metricsLogSeconds;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+}
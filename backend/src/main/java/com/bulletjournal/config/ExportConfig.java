@@ -0,0 +1,64 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "export")
+public class ExportConfig {
+
+    private int workerThreads = 2;
+    private int queueCapacity = 20;
+    private int resultCacheSize = 50;
+    private long resultCacheSeconds = 300;
+    private long jobRetentionSeconds = 600;
+    private long renderTimeoutSeconds = 60;
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    public long getResultCacheSeconds() {
+        return resultCacheSeconds;
+    }
+
+    public void setResultCacheSeconds(long resultCacheSeconds) {
+        this.resultCacheSeconds = resultCacheSeconds;
+    }
+
+    public long getJobRetentionSeconds() {
+        return jobRetentionSeconds;
+    }
+
+    public void setJobRetentionSeconds(long jobRetentionSeconds) {
+        this.jobRetentionSeconds = jobRetentionSeconds;
+    }
+
+    public long getRenderTimeoutSeconds() {
+        return renderTimeoutSeconds;
+    }
+
+    public void setRenderTimeoutSeconds(long renderTimeoutSeconds) {
+        this.renderTimeoutSeconds = renderTimeoutSeconds;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "fcm")
+public class FcmConfig {
+
+    // max messages per FCM batch request
+    private int batchSize = 500;
+
+    private int workerThreads = 4;
+
+    // batches waiting for a worker, further batches are sent by the caller
+    private int queueCapacity = 100;
+
+    private int messagesPerSecond = 5000;
+
+    private int maxRetries = 3;
+
+    private long retryBackoffMillis = 1000;
+
+    private long invalidTokenFlushSeconds = 10;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    public void setMessagesPerSecond(int messagesPerSecond) {
+        this.messagesPerSecond = messagesPerSecond;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    public long getInvalidTokenFlushSeconds() {
+        return invalidTokenFlushSeconds;
+    }
+
+    public void setInvalidTokenFlushSeconds(long invalidTokenFlushSeconds) {
+        this.invalidTokenFlushSeconds = invalidTokenFlushSeconds;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "google.calendar.sync")
+public class GoogleCalendarSyncConfig {
+
+    // calendars synced concurrently
+    private int threads = 4;
+
+    private int queueCapacity = 200;
+
+    private boolean watchRenewalEnabled = false;
+
+    private long watchRenewalIntervalMinutes = 60;
+
+    // renew watch channels expiring within this window
+    private long watchRenewalAheadHours = 24;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isWatchRenewalEnabled() {
+        return watchRenewalEnabled;
+    }
+
+    public void setWatchRenewalEnabled(boolean watchRenewalEnabled) {
+        this.watchRenewalEnabled = watchRenewalEnabled;
+    }
+
+    public long getWatchRenewalIntervalMinutes() {
+        return watchRenewalIntervalMinutes;
+    }
+
+    public void setWatchRenewalIntervalMinutes(long watchRenewalIntervalMinutes) {
+        this.watchRenewalIntervalMinutes = watchRenewalIntervalMinutes;
+    }
+
+    public long getWatchRenewalAheadHours() {
+        return watchRenewalAheadHours;
+    }
+
+    public void setWatchRenewalAheadHours(long watchRenewalAheadHours) {
+        this.watchRenewalAheadHours = watchRenewalAheadHours;
+    }
+}
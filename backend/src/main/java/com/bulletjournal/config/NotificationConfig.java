@@ -24,6 +24,9 @@ public class NotificationConfig {
         private int maxRetentionTimeInDays;
         private int intervalInSeconds;
         private int historyMaxRetentionDays;
+        private int maxCountPerUser = 100;
+        private boolean trimEnabled = false;
+        private int trimIntervalInSeconds = 3600;
 
         public int getMaxRetentionTimeInDays() {
             return maxRetentionTimeInDays;
@@ -49,6 +52,30 @@ public class NotificationConfig {
             this.historyMaxRetentionDays = historyMaxRetentionDays;
         }
 
+        public int getMaxCountPerUser() {
+            return maxCountPerUser;
+        }
+
+        public void setMaxCountPerUser(int maxCountPerUser) {
+            this.maxCountPerUser = maxCountPerUser;
+        }
+
+        public boolean isTrimEnabled() {
+            return trimEnabled;
+        }
+
+        public void setTrimEnabled(boolean trimEnabled) {
+            this.trimEnabled = trimEnabled;
+        }
+
+        public int getTrimIntervalInSeconds() {
+            return trimIntervalInSeconds;
+        }
+
+        public void setTrimIntervalInSeconds(int trimIntervalInSeconds) {
+            this.trimIntervalInSeconds = trimIntervalInSeconds;
+        }
+
     }
 
 }
@@ -0,0 +1,50 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "project.access")
+public class ProjectAccessConfig {
+
+    private int cacheSize = 10000;
+
+    // bounds how long another instance may serve project ids its own invalidation did not see
+    private long cacheTtlSeconds = 60;
+
+    private int groupMembersCacheSize = 10000;
+
+    private int sharedItemsCacheSize = 10000;
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public int getGroupMembersCacheSize() {
+        return groupMembersCacheSize;
+    }
+
+    public void setGroupMembersCacheSize(int groupMembersCacheSize) {
+        this.groupMembersCacheSize = groupMembersCacheSize;
+    }
+
+    public int getSharedItemsCacheSize() {
+        return sharedItemsCacheSize;
+    }
+
+    public void setSharedItemsCacheSize(int sharedItemsCacheSize) {
+        this.sharedItemsCacheSize = sharedItemsCacheSize;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "sample.task.scroll")
+public class SampleTaskScrollConfig {
+
+    // same as the SampleTasks redis hash it replaced, users may stay on a page for hours before scrolling
+    private long ttlSeconds = 60000;
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
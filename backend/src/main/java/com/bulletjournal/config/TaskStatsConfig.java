@@ -0,0 +1,30 @@
+package com.bulletjournal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "task.stats")
+public class TaskStatsConfig {
+
+    // task_stats_daily is kept in sync by triggers, the rebuild only repairs drift
+    private boolean rebuildEnabled = false;
+
+    private long rebuildIntervalInHours = 24;
+
+    public boolean isRebuildEnabled() {
+        return rebuildEnabled;
+    }
+
+    public void setRebuildEnabled(boolean rebuildEnabled) {
+        this.rebuildEnabled = rebuildEnabled;
+    }
+
+    public long getRebuildIntervalInHours() {
+        return rebuildIntervalInHours;
+    }
+
+    public void setRebuildIntervalInHours(long rebuildIntervalInHours) {
+        this.rebuildIntervalInHours = rebuildIntervalInHours;
+    }
+}
@@ -0,0 +1,183 @@
+package com.bulletjournal.contents;
+
+import com.bulletjournal.clients.DaemonServiceClient;
+import com.bulletjournal.config.DaemonClientConfig;
+import com.bulletjournal.util.CustomThreadFactory;
+import com.bulletjournal.util.DeltaHtmlConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Converts content deltas to html off the request path.
+ * <p>
+ * Conversions are queued after the writing transaction commits and sent to the daemon in batches,
+ * with at most convertMaxInFlight batches awaiting a response. Deltas the daemon cannot convert,
+ * or all of them when the daemon is disabled, are converted locally by {@link DeltaHtmlConverter}.
+ */
+@Service
+public class ContentHtmlConverter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentHtmlConverter.class);
+
+    private static final long AWAIT_TERMINATION_SECONDS = 5;
+
+    private final DaemonServiceClient daemonServiceClient;
+
+    private final DaemonClientConfig daemonClientConfig;
+
+    private BlockingQueue<Conversion> queue;
+
+    private Semaphore inFlight;
+
+    private ExecutorService dispatcher;
+
+    private ExecutorService fallbackExecutor;
+
+    private volatile boolean running = true;
+
+    private static class Conversion {
+        final String deltaOps;
+        final Consumer<String> callback;
+
+        Conversion(String deltaOps, Consumer<String> callback) {
+            this.deltaOps = deltaOps;
+            this.callback = callback;
+        }
+    }
+
+    @Autowired
+    public ContentHtmlConverter(DaemonServiceClient daemonServiceClient, DaemonClientConfig daemonClientConfig) {
+        this.daemonServiceClient = daemonServiceClient;
+        this.daemonClientConfig = daemonClientConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        this.queue = new LinkedBlockingQueue<>(this.daemonClientConfig.getConvertQueueCapacity());
+        this.inFlight = new Semaphore(this.daemonClientConfig.getConvertMaxInFlight());
+        this.fallbackExecutor = Executors.newSingleThreadExecutor(new CustomThreadFactory("DeltaHtmlFallback"));
+        this.dispatcher = Executors.newSingleThreadExecutor(new CustomThreadFactory("DeltaHtmlDispatcher"));
+        this.dispatcher.submit(this::dispatch);
+    }
+
+    /**
+     * Convert deltaOps once the current transaction commits, or right away if there is none.
+     * Nothing is converted if the transaction rolls back.
+     *
+     * @param callback receives the html, called on a converter thread
+     */
+    public void convertAfterCommit(String deltaOps, Consumer<String> callback) {
+        Conversion conversion = new Conversion(deltaOps, callback);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(conversion);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(conversion);
+            }
+        });
+    }
+
+    private void enqueue(Conversion conversion) {
+        if (!this.queue.offer(conversion)) {
+            LOGGER.warn("Delta html queue is full, converting locally");
+            convertLocally(conversion);
+        }
+    }
+
+    private void dispatch() {
+        int batchSize = this.daemonClientConfig.getConvertBatchSize();
+        while (this.running) {
+            try {
+                List<Conversion> batch = new ArrayList<>(batchSize);
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, batchSize - 1);
+                if (!this.daemonServiceClient.isEnabled()) {
+                    this.fallbackExecutor.execute(() -> batch.forEach(this::convertLocally));
+                    continue;
+                }
+                this.inFlight.acquire();
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.error("Delta html dispatcher error", e);
+            }
+        }
+    }
+
+    private void send(List<Conversion> batch) {
+        List<String> deltas = new ArrayList<>(batch.size());
+        batch.forEach(c -> deltas.add(c.deltaOps));
+        CompletableFuture<List<String>> future;
+        try {
+            future = this.daemonServiceClient.convertDeltasToHtml(deltas);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenCompleteAsync((htmls, error) -> {
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    String html = error == null && i < htmls.size() ? htmls.get(i) : null;
+                    if (html == null) {
+                        convertLocally(batch.get(i));
+                    } else {
+                        complete(batch.get(i), html);
+                    }
+                }
+            } finally {
+                this.inFlight.release();
+            }
+        }, this.fallbackExecutor);
+    }
+
+    private void convertLocally(Conversion conversion) {
+        String html;
+        try {
+            html = DeltaHtmlConverter.toHtml(conversion.deltaOps);
+        } catch (Exception e) {
+            LOGGER.error("Fail to convert delta locally: {}", conversion.deltaOps, e);
+            return;
+        }
+        complete(conversion, html);
+    }
+
+    private void complete(Conversion conversion, String html) {
+        try {
+            conversion.callback.accept(html);
+        } catch (Exception e) {
+            LOGGER.error("Fail to apply converted html", e);
+        }
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        this.running = false;
+        if (this.dispatcher != null) {
+            this.dispatcher.shutdownNow();
+        }
+        if (this.fallbackExecutor != null) {
+            this.fallbackExecutor.shutdown();
+            try {
+                this.fallbackExecutor.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
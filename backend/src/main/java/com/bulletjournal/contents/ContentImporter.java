@@ -0,0 +1,187 @@
+package com.bulletjournal.contents;
+
+import com.bulletjournal.config.ContentImportConfig;
+import com.bulletjournal.notifications.ContentBatch;
+import com.bulletjournal.repository.TaskDaoJpa;
+import com.bulletjournal.repository.models.Task;
+import com.bulletjournal.repository.models.TaskContent;
+import com.bulletjournal.util.CustomThreadFactory;
+import com.bulletjournal.util.DeltaContent;
+import com.bulletjournal.util.DeltaHtmlConverter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk imports task contents, e.g. the contents of imported sample tasks.
+ * <p>
+ * Deltas are converted to html on a small pool, then contents are inserted in chunks of chunkSize,
+ * one transaction per chunk. Chunks of all imports go through a single writer thread with
+ * chunkDelayMillis between them, so an import holds at most one connection at a time.
+ */
+@Service
+public class ContentImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentImporter.class);
+
+    private static final long AWAIT_TERMINATION_SECONDS = 5;
+
+    private final ContentImportConfig contentImportConfig;
+
+    private final AtomicInteger importIds = new AtomicInteger();
+
+    private ExecutorService converterPool;
+
+    private ScheduledExecutorService writer;
+
+    @Lazy
+    @Autowired
+    private TaskDaoJpa taskDaoJpa;
+
+    static class Import {
+        final int id;
+        final List<List<TaskContent>> chunks;
+        final int total;
+        final long startedAt = System.currentTimeMillis();
+        // completes once the last chunk has been written or has failed
+        final CompletableFuture<Import> finished = new CompletableFuture<>();
+        final List<Integer> failedChunks = new ArrayList<>();
+        int imported;
+        int failed;
+
+        Import(int id, List<List<TaskContent>> chunks, int total) {
+            this.id = id;
+            this.chunks = chunks;
+            this.total = total;
+        }
+    }
+
+    @Autowired
+    public ContentImporter(ContentImportConfig contentImportConfig) {
+        this.contentImportConfig = contentImportConfig;
+    }
+
+    ContentImporter(ContentImportConfig contentImportConfig, TaskDaoJpa taskDaoJpa) {
+        this.contentImportConfig = contentImportConfig;
+        this.taskDaoJpa = taskDaoJpa;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        this.converterPool = Executors.newFixedThreadPool(this.contentImportConfig.getConverterThreads(),
+                new CustomThreadFactory("ContentImportConverter"));
+        this.writer = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("ContentImportWriter"));
+    }
+
+    /**
+     * Import the batch once the current transaction, which created its tasks, commits
+     */
+    public void importAfterCommit(ContentBatch<TaskContent, Task> batch) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            start(batch);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                start(batch);
+            }
+        });
+    }
+
+    /**
+     * @return the started import, null if the batch has no contents to import
+     */
+    Import start(ContentBatch<TaskContent, Task> batch) {
+        List<TaskContent> contents = new ArrayList<>();
+        for (int i = 0; i < batch.getContents().size(); i++) {
+            TaskContent content = batch.getContents().get(i);
+            if (StringUtils.isBlank(content.getText())) {
+                continue;
+            }
+            content.setProjectItem(batch.getProjectItems().get(i));
+            content.setOwner(batch.getOwners().get(i));
+            contents.add(content);
+        }
+        if (contents.isEmpty()) {
+            return null;
+        }
+
+        int chunkSize = this.contentImportConfig.getChunkSize();
+        List<List<TaskContent>> chunks = new ArrayList<>();
+        List<CompletableFuture<Void>> conversions = new ArrayList<>();
+        for (int i = 0; i < contents.size(); i += chunkSize) {
+            List<TaskContent> chunk = contents.subList(i, Math.min(i + chunkSize, contents.size()));
+            chunks.add(chunk);
+            conversions.add(CompletableFuture.runAsync(() -> chunk.forEach(ContentImporter::convert),
+                    this.converterPool));
+        }
+        Import contentImport = new Import(this.importIds.incrementAndGet(), chunks, contents.size());
+        LOGGER.info("Content import {} started: {} contents in {} chunks",
+                contentImport.id, contentImport.total, chunks.size());
+        writeChunk(contentImport, conversions, 0);
+        return contentImport;
+    }
+
+    private void writeChunk(Import contentImport, List<CompletableFuture<Void>> conversions, int chunk) {
+        conversions.get(chunk).whenComplete((v, error) -> this.writer.execute(() -> {
+            List<TaskContent> contents = contentImport.chunks.get(chunk);
+            try {
+                this.taskDaoJpa.saveContents(contents);
+                contentImport.imported += contents.size();
+                LOGGER.info("Content import {}: {}/{} contents imported", contentImport.id,
+                        contentImport.imported, contentImport.total);
+            } catch (Exception ex) {
+                contentImport.failed += contents.size();
+                contentImport.failedChunks.add(chunk);
+                LOGGER.error("Content import {} failed on chunk {}", contentImport.id, chunk, ex);
+            }
+            if (chunk + 1 < contentImport.chunks.size()) {
+                this.writer.schedule(() -> writeChunk(contentImport, conversions, chunk + 1),
+                        this.contentImportConfig.getChunkDelayMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                LOGGER.info("Content import {} finished: {}/{} contents in {} ms, {} failed in chunks {}",
+                        contentImport.id, contentImport.imported, contentImport.total,
+                        System.currentTimeMillis() - contentImport.startedAt,
+                        contentImport.failed, contentImport.failedChunks);
+                contentImport.finished.complete(contentImport);
+            }
+        }));
+    }
+
+    private static void convert(TaskContent content) {
+        try {
+            DeltaContent deltaContent = new DeltaContent(content.getText());
+            if (!deltaContent.hasDeltaMap()) {
+                return;
+            }
+            deltaContent.setHtml(DeltaHtmlConverter.toHtml(deltaContent.getDeltaOpsString()));
+            content.setText(deltaContent.toJSON());
+        } catch (Exception ex) {
+            LOGGER.error("Fail to convert imported content: {}", content.getText());
+        }
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        this.converterPool.shutdownNow();
+        this.writer.shutdown();
+        try {
+            this.writer.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
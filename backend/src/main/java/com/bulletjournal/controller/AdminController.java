@@ -148,7 +148,7 @@ public class AdminController {
         Before before = user.getReminderBeforeTask();
         String currency = user.getCurrency();
         String theme = user.getTheme() == null ? Theme.LIGHT.name() : user.getTheme();
-        Integer points = user.getPoints();
+        Integer points = this.userDaoJpa.getUserPoints(username);
 
         User self = userClient.getUser(username);
         return new Myself(self, timezone, before, currency, theme, points);
@@ -46,8 +46,9 @@ public class DeviceController {
             deviceTokenDaoJpa.updateUser(existingToken, userName);
             return REPLACED_RESPONSE;
         }
-        LOGGER.debug("Same token {} for user {} already exists, no-op",
+        LOGGER.debug("Same token {} for user {} already exists, refreshing last seen",
             token, userName);
+        deviceTokenDaoJpa.touch(token);
         return EXISTED_RESPONSE;
     }
 }
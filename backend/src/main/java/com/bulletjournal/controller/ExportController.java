@@ -0,0 +1,53 @@
+package com.bulletjournal.controller;
+
+import com.bulletjournal.clients.UserClient;
+import com.bulletjournal.controller.models.ExportJob;
+import com.bulletjournal.messaging.ExportRenderingService;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+
+@RestController
+public class ExportController {
+
+    protected static final String EXPORT_JOB_ROUTE = "/api/exportJobs/{jobId}";
+    protected static final String EXPORT_JOB_DOWNLOAD_ROUTE = "/api/exportJobs/{jobId}/download";
+
+    @Autowired
+    private ExportRenderingService exportRenderingService;
+
+    @GetMapping(EXPORT_JOB_ROUTE)
+    public ExportJob getExportJob(@NotNull @PathVariable String jobId) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        return this.exportRenderingService.getJob(username, jobId);
+    }
+
+    @GetMapping(EXPORT_JOB_DOWNLOAD_ROUTE)
+    public ResponseEntity<Object> downloadExportJob(@NotNull @PathVariable String jobId) throws IOException {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        ByteArrayResource resource = this.exportRenderingService.download(username, jobId);
+        if (resource == null) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(this.exportRenderingService.getJob(username, jobId));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment;filename=" + this.exportRenderingService.getFileName(username, jobId));
+        return ResponseEntity.status(HttpStatus.OK)
+                .headers(headers)
+                .contentLength(resource.contentLength())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(resource);
+    }
+}
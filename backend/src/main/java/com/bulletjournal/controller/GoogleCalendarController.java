@@ -62,6 +62,9 @@ public class GoogleCalendarController {
     @Autowired
     private GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa;
 
+    @Autowired
+    private GoogleCalendarSyncService googleCalendarSyncService;
+
     @Autowired
     private UserClient userClient;
 
@@ -154,19 +157,9 @@ public class GoogleCalendarController {
                 createTaskFromEvent(createGoogleCalendarEventsParams.getProjectId(), username, e)));
     }
 
-    private void deleteTaskFromEvent(String eventId, com.bulletjournal.repository.models.Project project) {
-        taskDaoJpa.deleteTaskByGoogleEvenId(eventId, project);
-    }
-
     private void createTaskFromEvent(Long projectId, String username, GoogleCalendarEvent e) {
         LOGGER.info("createTaskFromEvent: {}", e);
-        String text = e.getContent().getBaseText();
-        if (StringUtils.isNotBlank(e.getContent().getText())) {
-            List<String> l = Arrays.stream(e.getContent().getText().split(System.lineSeparator()))
-                    .map(s -> s.isEmpty() ? "<br/>" : "<p>" + s + "</p>").collect(Collectors.toList());
-            String html = StringUtils.join(l, "");
-            text = "{\"delta\":{\"ops\":" + text + "},\"$$$html$$$\":\"" + html + "\"}";
-        }
+        String text = Converter.toContentText(e);
         LOGGER.info("createTaskFromEvent: {}", text);
         taskDaoJpa.create(projectId, username,
                 Converter.toCreateTaskParams(e), e.getEventId(), text);
@@ -219,20 +212,17 @@ public class GoogleCalendarController {
         LOGGER.info("Created channel {}", createdChannel);
         GoogleCalendarProject googleCalendarProject = this.googleCalendarProjectDaoJpa.create(
                 calendarId, watchCalendarParams.getProjectId(), createdChannel.getId(), GSON.toString(createdChannel),
-                getSyncToken(calendarId), username, createdChannel.getExpiration());
+                this.googleCalendarSyncService.getInitialSyncToken(this.googleCalClient.getCalendarService(), calendarId),
+                username, createdChannel.getExpiration());
         LOGGER.info("Created GoogleCalendarProject {}", googleCalendarProject);
         return googleCalendarProject.getProject().toPresentationModel();
     }
 
     @PostMapping(CHANNEL_NOTIFICATIONS_ROUTE)
-    public void getChannelNotifications(@RequestHeader Map<String, String> headers) throws IOException {
+    public void getChannelNotifications(@RequestHeader Map<String, String> headers) {
         String channelId = headers.get(GOOGLE_CHANNEL_ID_HEADER);
-        GoogleCalendarProject googleCalendarProject = this.googleCalendarProjectDaoJpa.getByChannelId(channelId);
-        String token = googleCalendarProject.getToken();
-        String calendarId = googleCalendarProject.getId();
-        String requester = googleCalendarProject.getOwner();
-        LOGGER.info("Notification for channelId {} token {} calendarId {}", channelId, token, calendarId);
-        incrementSync(calendarId, token, requester);
+        LOGGER.info("Notification for channelId {}", channelId);
+        this.googleCalendarSyncService.requestSync(channelId);
     }
 
     @GetMapping("/api/calendar/google/calendars/{calendarId}/watchedProject")
@@ -265,51 +255,6 @@ public class GoogleCalendarController {
         return googleCalendarProject.getProject().toPresentationModel();
     }
 
-    private String getSyncToken(String calendarId) throws IOException {
-        Calendar service = this.googleCalClient.getCalendarService();
-        Calendar.Events.List request = service.events().list(calendarId);
-        java.util.Calendar cal = java.util.Calendar.getInstance();
-        cal.add(java.util.Calendar.YEAR, -1);
-        request.setTimeMin(new DateTime(cal.getTime(), TimeZone.getTimeZone("UTC")));
-        Events result = request.execute();
-        String syncToken = result.getNextSyncToken();
-        return syncToken;
-    }
-
-    private void incrementSync(String calendarId, String token, String requester) throws IOException {
-        Calendar service = this.googleCalClient.getCalendarService();
-        String timezone = service.calendarList().get(calendarId).execute().getTimeZone();
-        Calendar.Events.List request = service.events().list(calendarId);
-        request.setSyncToken(token);
-        Events result = request.execute();
-        String syncToken = result.getNextSyncToken();
-        GoogleCalendarProject googleCalendarProject =
-                this.googleCalendarProjectDaoJpa.setTokenByCalendarId(calendarId, syncToken);
-        List<Event> events = result.getItems();
-        LOGGER.info("New events: {}", events);
-        events.stream()
-                .forEach(e -> {
-                    if (e.getStatus().equals("cancelled")) {
-                        deleteTaskFromEvent(e.getId(), googleCalendarProject.getProject());
-                        return;
-                    }
-
-                    Optional<com.bulletjournal.repository.models.Task> taskOptional =
-                            taskDaoJpa.getTaskByGoogleCalendarEventId(e.getId(), googleCalendarProject.getProject());
-                    if (taskOptional.isPresent()) {
-                        com.bulletjournal.repository.models.Task task = taskOptional.get();
-                        if (taskDaoJpa.isTaskModified(task, requester)) {
-                            //dont update since we dont want to overwrite the change on bulletjournal side
-                            return;
-                        }
-                        taskDaoJpa.deleteTask(requester, task.getId());
-                    }
-                    GoogleCalendarEvent event = Converter.toTask(e, timezone);
-                    createTaskFromEvent(googleCalendarProject.getProject().getId(), requester, event);
-                });
-    }
-
-
     private String authorize(String username) {
         if (this.googleCalClient.getFlow() == null) {
             throw new IllegalStateException("Google Calendar Settings missing");
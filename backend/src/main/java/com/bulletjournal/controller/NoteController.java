@@ -7,9 +7,9 @@ import com.bulletjournal.controller.models.*;
 import com.bulletjournal.controller.models.params.*;
 import com.bulletjournal.controller.utils.EtagGenerator;
 import com.bulletjournal.es.ESUtil;
+import com.bulletjournal.messaging.ExportRenderingService;
 import com.bulletjournal.messaging.FreeMarkerClient;
 import com.bulletjournal.messaging.MessagingService;
-import com.bulletjournal.messaging.OpenHtmlConverter;
 import com.bulletjournal.notifications.*;
 import com.bulletjournal.notifications.informed.Informed;
 import com.bulletjournal.notifications.informed.RemoveNoteEvent;
@@ -56,6 +56,7 @@ public class NoteController {
     protected static final String NOTE_SET_LABELS_ROUTE = "/api/notes/{noteId}/setLabels";
     protected static final String NOTE_SET_COLOR_ROUTE = "/api/notes/{noteId}/setColor";
     protected static final String MOVE_NOTE_ROUTE = "/api/notes/{noteId}/move";
+    protected static final String MOVE_NOTES_ROUTE = "/api/projects/{projectId}/notes/move";
     protected static final String SHARE_NOTE_ROUTE = "/api/notes/{noteId}/share";
     protected static final String GET_SHARABLES_ROUTE = "/api/notes/{noteId}/sharables";
     protected static final String REVOKE_SHARABLE_ROUTE = "/api/notes/{noteId}/revokeSharable";
@@ -67,6 +68,8 @@ public class NoteController {
     protected static final String SET_CONTENTS_ORDER_ROUTE = "/api/notes/{noteId}/contents/setOrder";
     protected static final String NOTE_EXPORT_EMAIL_ROUTE = "/api/notes/{noteId}/exportEmail";
     protected static final String NOTE_EXPORT_PDF_ROUTE = "/api/notes/{noteId}/exportPdf";
+    protected static final String NOTE_EXPORT_PDF_JOB_ROUTE = "/api/notes/{noteId}/exportPdfJob";
+    protected static final String NOTE_EXPORT_IMAGE_JOB_ROUTE = "/api/notes/{noteId}/exportImageJob";
     protected static final String NOTE_EXPORT_IMAGE_ROUTE = "/api/notes/{noteId}/exportImage";
 
     @Autowired
@@ -87,6 +90,9 @@ public class NoteController {
     @Autowired
     private FreeMarkerClient freeMarkerClient;
 
+    @Autowired
+    private ExportRenderingService exportRenderingService;
+
     @Autowired
     private MessagingService messagingService;
 
@@ -187,13 +193,13 @@ public class NoteController {
     }
 
     @DeleteMapping(NOTES_ROUTE)
-    public ResponseEntity<List<Note>> deleteNotes(@NotNull @PathVariable Long projectId,
+    public ProjectItemsDelta deleteNotes(@NotNull @PathVariable Long projectId,
             @NotNull @RequestParam List<Long> notes) {
         // curl -X DELETE
         // "http://localhost:8080/api/projects/11/transactions?transactions=12&transactions=11&transactions=13&transactions=14"
         // -H "accept: */*"
         if (notes.isEmpty()) {
-            return getNotes(projectId, null, null, null, null, null);
+            return new ProjectItemsDelta();
         }
 
         String username = MDC.get(UserClient.USER_NAME_KEY);
@@ -204,21 +210,19 @@ public class NoteController {
                         .map(t -> (com.bulletjournal.repository.models.Note) t)
                         .collect(Collectors.toList());
         if (noteList.isEmpty()) {
-            return getNotes(projectId, null, null, null, null, null);
+            return new ProjectItemsDelta();
         }
 
         this.noteRepository.deleteInBatch(noteList);
+        ProjectItemsDelta delta = this.noteDaoJpa.removeFromHierarchy(projectId, noteList.stream()
+                .map(com.bulletjournal.repository.models.Note::getId).collect(Collectors.toList()));
 
-        List<String> deleteESDocumentIds = ESUtil.getProjectItemSearchIndexIds(notes, ContentType.TASK);
+        List<String> deleteESDocumentIds = ESUtil.getProjectItemSearchIndexIds(notes, ContentType.NOTE);
         this.notificationService.deleteESDocument(new RemoveElasticsearchDocumentEvent(deleteESDocumentIds));
 
-        for (com.bulletjournal.repository.models.Note note : noteList) {
-            this.notificationService.trackActivity(
-                    new Auditable(projectId, "deleted Note ##" + note.getName() +
-                            "## in BuJo ##" + project.getName() + "##", username,
-                            note.getId(), Timestamp.from(Instant.now()), ContentAction.DELETE_NOTE));
-        }
-        return getNotes(projectId, null, null, null, null, null);
+        this.notificationService.trackActivity(Auditable.ofBatch(projectId, "deleted", "Note", noteList,
+                " in BuJo ##" + project.getName() + "##", username, ContentAction.DELETE_NOTE));
+        return delta;
     }
 
     @PutMapping(NOTES_ROUTE)
@@ -256,6 +260,20 @@ public class NoteController {
                 note.getId(), Timestamp.from(Instant.now()), ContentAction.MOVE_NOTE));
     }
 
+    @PostMapping(MOVE_NOTES_ROUTE)
+    public ProjectItemsDelta moveNotes(@NotNull @PathVariable Long projectId, @NotNull @RequestParam List<Long> notes,
+            @NotNull @RequestBody MoveProjectItemParams moveProjectItemParams) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        Pair<List<com.bulletjournal.repository.models.Note>, ProjectItemsDelta> res = this.noteDaoJpa
+                .move(username, projectId, notes, moveProjectItemParams.getTargetProject());
+        List<com.bulletjournal.repository.models.Note> movedNotes = res.getLeft();
+        if (!movedNotes.isEmpty()) {
+            this.notificationService.trackActivity(Auditable.ofBatch(projectId, "moved", "Note", movedNotes,
+                    " to BuJo ##" + movedNotes.get(0).getProject().getName() + "##", username, ContentAction.MOVE_NOTE));
+        }
+        return res.getRight();
+    }
+
     @PostMapping(SHARE_NOTE_ROUTE)
     public SharableLink shareNote(@NotNull @PathVariable Long noteId,
             @NotNull @RequestBody ShareProjectItemParams shareProjectItemParams) {
@@ -389,7 +407,7 @@ public class NoteController {
       com.bulletjournal.repository.models.Note note = noteDaoJpa.getProjectItem(noteId, username);
       try {
           String html = freeMarkerClient.convertProjectItemIntoPdfHtml(note, params.getContents());
-          ByteArrayResource resource = OpenHtmlConverter.projectItemHtmlToPdf(html);
+          ByteArrayResource resource = exportRenderingService.render(ExportType.PDF, false, html);
 
           HttpHeaders headers = new HttpHeaders();
           headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=note.pdf");
@@ -413,12 +431,7 @@ public class NoteController {
     com.bulletjournal.repository.models.Note note = noteDaoJpa.getProjectItem(noteId, username);
     try {
       String html = freeMarkerClient.convertProjectItemIntoImageHtml(note, params.getContents());
-      ByteArrayResource resource;
-      if (params.isMobile()) {
-        resource = OpenHtmlConverter.projectItemHtmlToImageForMobile(html);
-      } else {
-        resource = OpenHtmlConverter.projectItemHtmlToImageForPC(html);
-      }
+      ByteArrayResource resource = exportRenderingService.render(ExportType.IMAGE, params.isMobile(), html);
 
       HttpHeaders headers = new HttpHeaders();
       headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=note.png");
@@ -433,4 +446,24 @@ public class NoteController {
           .body("Failed to get note as image.");
     }
   }
+
+    @PostMapping(NOTE_EXPORT_PDF_JOB_ROUTE)
+    public ExportJob exportNoteAsPdfJob(
+            @NotNull @PathVariable Long noteId, @NotNull @RequestBody ExportProjectItemParams params)
+            throws IOException, TemplateException {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        com.bulletjournal.repository.models.Note note = noteDaoJpa.getProjectItem(noteId, username);
+        String html = freeMarkerClient.convertProjectItemIntoPdfHtml(note, params.getContents());
+        return exportRenderingService.submit(username, ExportType.PDF, false, html, "note.pdf");
+    }
+
+    @PostMapping(NOTE_EXPORT_IMAGE_JOB_ROUTE)
+    public ExportJob exportNoteAsImageJob(
+            @NotNull @PathVariable Long noteId, @NotNull @RequestBody ExportProjectItemParams params)
+            throws IOException, TemplateException {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        com.bulletjournal.repository.models.Note note = noteDaoJpa.getProjectItem(noteId, username);
+        String html = freeMarkerClient.convertProjectItemIntoImageHtml(note, params.getContents());
+        return exportRenderingService.submit(username, ExportType.IMAGE, params.isMobile(), html, "note.png");
+    }
 }
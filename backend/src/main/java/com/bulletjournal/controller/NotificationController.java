@@ -4,6 +4,7 @@ import com.bulletjournal.authz.AuthorizationService;
 import com.bulletjournal.clients.UserClient;
 import com.bulletjournal.contents.ContentType;
 import com.bulletjournal.controller.models.params.AnswerNotificationParams;
+import com.bulletjournal.controller.models.CursorPage;
 import com.bulletjournal.controller.models.Notification;
 import com.bulletjournal.controller.models.ProjectType;
 import com.bulletjournal.controller.models.params.ShareProjectItemParams;
@@ -41,6 +42,7 @@ import java.util.Objects;
 @RestController
 public class NotificationController {
     protected static final String NOTIFICATIONS_ROUTE = "/api/notifications";
+    protected static final String NOTIFICATION_INBOX_ROUTE = "/api/notifications/inbox";
     protected static final String ANSWER_NOTIFICATION_ROUTE = "/api/notifications/{notificationId}/answer";
     protected static final String ANSWER_PUBLIC_NOTIFICATION_ROUTE = "/api/public/notifications/{uid}/answer";
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificationController.class);
@@ -91,6 +93,14 @@ public class NotificationController {
         return ResponseEntity.ok().headers(responseHeader).body(notificationList);
     }
 
+    @GetMapping(NOTIFICATION_INBOX_ROUTE)
+    public CursorPage<Notification> getNotificationInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int pageSize) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        return this.notificationDaoJpa.getInbox(username, cursor, pageSize);
+    }
+
     @PostMapping(ANSWER_NOTIFICATION_ROUTE)
     public ResponseEntity<?> answerNotification(
             @NotNull @PathVariable Long notificationId,
@@ -17,6 +17,8 @@ import com.bulletjournal.repository.ProjectDaoJpa;
 import com.bulletjournal.controller.models.ProjectSetting;
 import com.bulletjournal.repository.ProjectSettingDaoJpa;
 import com.bulletjournal.repository.ProjectSettingRepository;
+import com.bulletjournal.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +26,10 @@ import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
@@ -44,6 +48,10 @@ public class ProjectController {
     protected static final String PROJECT_SET_OWNER_ROUTE = "/api/projects/{projectId}/setOwner";
     protected static final String PROJECT_SETTINGS_ROUTE = "/api/projects/{projectId}/settings";
     protected static final String PROJECT_HISTORY_ROUTE = "/api/projects/{projectId}/history";
+    protected static final String PROJECT_HISTORY_PAGE_ROUTE = "/api/projects/{projectId}/history/page";
+    protected static final String PROJECT_HISTORY_EXPORT_ROUTE = "/api/projects/{projectId}/history/export";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_PAGE_SIZE = 1000;
     protected static final String UPDATE_SHARED_PROJECTS_ORDER_ROUTE = "/api/updateSharedProjectsOrder";
     private static final Logger LOGGER = LoggerFactory.getLogger(ProjectController.class);
     @Autowired
@@ -58,6 +66,9 @@ public class ProjectController {
     @Autowired
     private UserClient userClient;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private ProjectSettingDaoJpa projectSettingDaoJpa;
 
@@ -192,11 +203,63 @@ public class ProjectController {
             @NotBlank @RequestParam String startDate, @NotBlank @RequestParam String endDate,
             @RequestParam @NotNull ContentAction action, @RequestParam @NotBlank String username) {
         String requester = MDC.get(UserClient.USER_NAME_KEY);
-        return this.auditableDaoJpa.getHistory(projectId, timezone, startDate, endDate, action, username, requester)
-                .stream().map(a -> {
-                    User user = this.userClient.getUser(a.getOriginator().getName());
-                    a.setOriginator(user);
-                    return a;
-                }).collect(Collectors.toList());
+        return setOriginators(this.auditableDaoJpa.getHistory(
+                projectId, timezone, startDate, endDate, action, username, requester));
+    }
+
+    @GetMapping(PROJECT_HISTORY_PAGE_ROUTE)
+    public CursorPage<Activity> getHistoryPage(@NotNull @PathVariable Long projectId,
+            @NotBlank @RequestParam String timezone,
+            @NotBlank @RequestParam String startDate, @NotBlank @RequestParam String endDate,
+            @RequestParam @NotNull ContentAction action, @RequestParam @NotBlank String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int pageSize) {
+        String requester = MDC.get(UserClient.USER_NAME_KEY);
+        CursorPage<Activity> page = this.auditableDaoJpa.getHistoryPage(projectId, timezone, startDate, endDate, action,
+                username, requester, cursor, KeysetCursor.clampPageSize(pageSize));
+        setOriginators(page.getItems());
+        return page;
+    }
+
+    /**
+     * Whole history as newline delimited json, written one page at a time
+     */
+    @GetMapping(PROJECT_HISTORY_EXPORT_ROUTE)
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @NotNull @PathVariable Long projectId, @NotBlank @RequestParam String timezone,
+            @NotBlank @RequestParam String startDate, @NotBlank @RequestParam String endDate,
+            @RequestParam @NotNull ContentAction action, @RequestParam @NotBlank String username) {
+        String requester = MDC.get(UserClient.USER_NAME_KEY);
+        // fail before streaming if the project is not accessible
+        CursorPage<Activity> firstPage = this.auditableDaoJpa.getHistoryPage(projectId, timezone, startDate, endDate,
+                action, username, requester, null, EXPORT_PAGE_SIZE);
+        StreamingResponseBody body = outputStream -> {
+            MDC.put(UserClient.USER_NAME_KEY, requester);
+            try {
+                CursorPage<Activity> page = firstPage;
+                while (true) {
+                    for (Activity activity : setOriginators(page.getItems())) {
+                        outputStream.write(this.objectMapper.writeValueAsBytes(activity));
+                        outputStream.write('\n');
+                    }
+                    outputStream.flush();
+                    if (page.getNextCursor().isEmpty()) {
+                        break;
+                    }
+                    page = this.auditableDaoJpa.getHistoryPage(projectId, timezone, startDate, endDate,
+                            action, username, requester, page.getNextCursor(), EXPORT_PAGE_SIZE);
+                }
+            } finally {
+                MDC.remove(UserClient.USER_NAME_KEY);
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private List<Activity> setOriginators(List<Activity> activities) {
+        Map<String, User> users = this.userClient.getUsers(
+                activities.stream().map(a -> a.getOriginator().getName()).collect(Collectors.toList()));
+        activities.forEach(a -> a.setOriginator(users.get(a.getOriginator().getName())));
+        return activities;
     }
 }
\ No newline at end of file
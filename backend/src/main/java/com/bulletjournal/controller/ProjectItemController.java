@@ -134,8 +134,7 @@ public class ProjectItemController {
                                                                     List<ProjectItem> projectItems, final ProjectType projectType) {
 
         String username = MDC.get(UserClient.USER_NAME_KEY);
-        Set<Long> projectIds = this.projectDaoJpa.getUserProjects(username)
-                .stream().map(p -> p.getId()).collect(Collectors.toSet());
+        Set<Long> projectIds = this.projectDaoJpa.getUserProjectIds(username);
 
         final List<T> items = this.daos.get(projectType).getRecentProjectItemsBetween(startTime, endTime, new ArrayList<>(projectIds));
 
@@ -13,7 +13,6 @@ import com.bulletjournal.notifications.RemoveElasticsearchDocumentEvent;
 import com.bulletjournal.redis.RedisShareItemIdRepository;
 import com.bulletjournal.redis.models.ShareItemIds;
 import com.bulletjournal.repository.*;
-import com.bulletjournal.repository.models.ProjectItemModel;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -123,11 +122,10 @@ public class QueryController {
         SearchScrollHits<SearchIndex> scroll;
         ShareItemIds shareItemIds;
         if (scrollId == null || scrollId.length() == 0) {
-            List<ProjectItemModel> projectItemModels = sharedProjectItemDaoJpa.
-                    getSharedProjectItems(username, null);
-            Map<ContentType, List<Long>> sharedContentIds = this.getContentIdsFromItems(projectItemModels);
+            Map<ContentType, Set<Long>> sharedItemIds = sharedProjectItemDaoJpa.getSharedItemIds(username);
+            Map<ContentType, List<Long>> sharedContentIds = this.getContentIdsFromItems(sharedItemIds);
             List<String> sharedProjectItemIds = generateSharedProjectItemIds(
-                    projectItemModels, sharedContentIds);
+                    sharedItemIds, sharedContentIds);
 
             Map<ContentType, Set<Long>> projectItemIdMap = getProjectItemIds(sharedProjectItemIds);
             scroll = searchIndexDaoJpa.search(username, term, sharedProjectItemIds, pageNo, pageSize);
@@ -181,10 +179,9 @@ public class QueryController {
     // note 6 -> 7, 9, 10
     // => <ContentType.TASK, [1,2]>, <ContentType.NOTE, [5,6]>
     // => <ContentType.TASK, [1,3,5,7]>, <ContentType.NOTE, [1,4,7,9,10]>
-    private Map<ContentType, List<Long>> getContentIdsFromItems(List<ProjectItemModel> projectItemModels) {
+    private Map<ContentType, List<Long>> getContentIdsFromItems(Map<ContentType, Set<Long>> itemIds) {
         Map<ContentType, List<Long>> m = new HashMap<>();
-        projectItemModels.forEach(item ->
-                m.computeIfAbsent(item.getContentType(), k -> new ArrayList<>()).add(item.getId()));
+        itemIds.forEach((contentType, ids) -> m.put(contentType, new ArrayList<>(ids)));
         m.forEach((k, v) -> {
             // item.getId() -> content ids
             switch (k) {
@@ -204,12 +201,14 @@ public class QueryController {
         return m;
     }
 
-    private List<String> generateSharedProjectItemIds(List<ProjectItemModel> items,
+    private List<String> generateSharedProjectItemIds(Map<ContentType, Set<Long>> itemIds,
                                                       Map<ContentType, List<Long>> contents) {
         List<String> ret = new ArrayList<>();
-        for (ProjectItemModel item : items) {
-            ret.add(item.getContentType().name().toLowerCase() + SEARCH_INDEX_SPLITTER + item.getId());
-        }
+        itemIds.forEach((contentType, ids) -> {
+            for (Long id : ids) {
+                ret.add(contentType.name().toLowerCase() + SEARCH_INDEX_SPLITTER + id);
+            }
+        });
 
         contents.forEach((k, v) -> {
             for (Long id : v) {
@@ -21,6 +21,7 @@ import com.bulletjournal.repository.*;
 import com.bulletjournal.repository.factory.ProjectItemDaos;
 import com.bulletjournal.repository.models.ProjectItemModel;
 import com.bulletjournal.util.DeltaContent;
+import com.bulletjournal.util.KeysetCursor;
 import com.bulletjournal.util.StringUtil;
 import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.StringUtils;
@@ -51,6 +52,7 @@ public class SystemController {
     public static final String PUBLIC_ITEM_ROUTE_PREFIX = "/api/public/items/";
     public static final String PUBLIC_ITEM_ROUTE = PUBLIC_ITEM_ROUTE_PREFIX + "{itemId}";
     private static final String CONTACTS_ROUTE = "/api/contacts";
+    private static final String SHARED_ITEMS_ROUTE = "/api/sharedItems";
     private static final String SHARED_ITEM_SET_LABELS_ROUTE = "/api/sharedItems/{itemId}/setLabels";
     private static final String COLLAB_ITEM_ROUTE = "/api/public/collab/{itemId}";
     private static final String COLLAB_ITEM_REQUEST_WRITE_ROUTE = "/api/public/collab/{itemId}/requestWrite";
@@ -280,8 +282,7 @@ public class SystemController {
         Pair<Long, ContentType> found = getSharedItemIdAndType(itemId);
         Long id = found.getLeft();
         ContentType contentType = found.getRight();
-        if (!this.sharedProjectItemDaoJpa.getSharedProjectItems(requester, contentType)
-                .stream().anyMatch(m -> m.getId().equals(id))) {
+        if (!this.sharedProjectItemDaoJpa.isSharedWith(requester, contentType, id)) {
             throw new UnAuthorizedException("Item not shared with user " + requester);
         }
 
@@ -308,6 +309,15 @@ public class SystemController {
         return true;
     }
 
+    @GetMapping(SHARED_ITEMS_ROUTE)
+    public CursorPage<ProjectItem> getSharedItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int pageSize) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        return this.sharedProjectItemDaoJpa.getSharedProjectItems(
+                username, cursor, KeysetCursor.clampPageSize(pageSize));
+    }
+
     @PutMapping(SHARED_ITEM_SET_LABELS_ROUTE)
     public ResponseEntity<?> setLabels(
             @NotNull @PathVariable String itemId, @NotNull @RequestBody List<Long> labels) {
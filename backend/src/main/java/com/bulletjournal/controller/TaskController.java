@@ -8,9 +8,9 @@ import com.bulletjournal.controller.models.params.*;
 import com.bulletjournal.controller.utils.EtagGenerator;
 import com.bulletjournal.es.ESUtil;
 import com.bulletjournal.exceptions.UnAuthorizedException;
+import com.bulletjournal.messaging.ExportRenderingService;
 import com.bulletjournal.messaging.FreeMarkerClient;
 import com.bulletjournal.messaging.MessagingService;
-import com.bulletjournal.messaging.OpenHtmlConverter;
 import com.bulletjournal.notifications.*;
 import com.bulletjournal.notifications.informed.Informed;
 import com.bulletjournal.notifications.informed.RemoveTaskEvent;
@@ -24,6 +24,7 @@ import com.bulletjournal.repository.models.CompletedTask;
 import com.bulletjournal.repository.models.ContentModel;
 import com.bulletjournal.repository.models.ProjectItemModel;
 import com.bulletjournal.repository.models.TaskContent;
+import com.bulletjournal.util.KeysetCursor;
 import freemarker.template.TemplateException;
 import java.io.IOException;
 import org.apache.commons.lang3.StringUtils;
@@ -54,6 +55,7 @@ public class TaskController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskController.class);
     public static final String TASKS_ROUTE = "/api/projects/{projectId}/tasks";
+    protected static final String TASKS_PAGE_ROUTE = "/api/projects/{projectId}/tasks/page";
     protected static final String TASK_ROUTE = "/api/tasks/{taskId}";
     protected static final String SET_TASK_STATUS_ROUTE = "/api/tasks/{taskId}/setStatus";
     protected static final String COMPLETED_TASK_ROUTE = "/api/completedTasks/{taskId}";
@@ -61,13 +63,17 @@ public class TaskController {
     protected static final String COMPLETE_TASK_ROUTE = "/api/tasks/{taskId}/complete";
     protected static final String UNCOMPLETE_TASK_ROUTE = "/api/tasks/{taskId}/uncomplete";
     protected static final String COMPLETED_TASKS_ROUTE = "/api/projects/{projectId}/completedTasks";
+    protected static final String COMPLETED_TASKS_PAGE_ROUTE = "/api/projects/{projectId}/completedTasks/page";
     protected static final String TASK_SET_LABELS_ROUTE = "/api/tasks/{taskId}/setLabels";
     protected static final String MOVE_TASK_ROUTE = "/api/tasks/{taskId}/move";
+    protected static final String MOVE_TASKS_ROUTE = "/api/projects/{projectId}/tasks/move";
     protected static final String SHARE_TASK_ROUTE = "/api/tasks/{taskId}/share";
     protected static final String SET_CONTENTS_ORDER_ROUTE = "/api/tasks/{taskId}/contents/setOrder";
     protected static final String TASK_EXPORT_EMAIL_ROUTE = "/api/tasks/{taskId}/exportEmail";
     protected static final String TASK_EXPORT_IMAGE_ROUTE = "/api/tasks/{taskId}/exportImage";
     protected static final String TASK_EXPORT_PDF_ROUTE = "/api/tasks/{taskId}/exportPdf";
+    protected static final String TASK_EXPORT_PDF_JOB_ROUTE = "/api/tasks/{taskId}/exportPdfJob";
+    protected static final String TASK_EXPORT_IMAGE_JOB_ROUTE = "/api/tasks/{taskId}/exportImageJob";
     protected static final String GET_SHARABLES_ROUTE = "/api/tasks/{taskId}/sharables";
     protected static final String REVOKE_SHARABLE_ROUTE = "/api/tasks/{taskId}/revokeSharable";
     protected static final String REMOVE_SHARED_ROUTE = "/api/tasks/{taskId}/removeShared";
@@ -99,6 +105,9 @@ public class TaskController {
     @Autowired
     private FreeMarkerClient freeMarkerClient;
 
+    @Autowired
+    private ExportRenderingService exportRenderingService;
+
     @Autowired
     private MessagingService messagingService;
 
@@ -132,6 +141,17 @@ public class TaskController {
         return ResponseEntity.ok().body(ProjectItem.addAvatar(tasks, this.userClient));
     }
 
+    @GetMapping(TASKS_PAGE_ROUTE)
+    public CursorPage<Task> getTasksByAssigneePage(@NotNull @PathVariable Long projectId,
+            @NotBlank @RequestParam String assignee, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int pageSize) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        CursorPage<Task> page = this.taskDaoJpa.getTasksByAssigneePage(projectId, username, assignee, cursor,
+                KeysetCursor.clampPageSize(pageSize));
+        page.setItems(ProjectItem.addAvatar(page.getItems(), this.userClient));
+        return page;
+    }
+
     private ResponseEntity<List<Task>> getTasksByOrder(Long projectId, String startDate, String endDate,
             String timezone) {
         String username = MDC.get(UserClient.USER_NAME_KEY);
@@ -216,11 +236,11 @@ public class TaskController {
     }
 
     @PostMapping(COMPLETE_TASKS_ROUTE)
-    public ResponseEntity<List<Task>> completeTasks(@NotNull @PathVariable Long projectId,
-                                                    @RequestParam List<Long> tasks) {
+    public ProjectItemsDelta completeTasks(@NotNull @PathVariable Long projectId,
+                                           @RequestParam List<Long> tasks) {
 
         if (tasks.isEmpty()) {
-            return getTasks(projectId, null, null, null, null, null);
+            return new ProjectItemsDelta();
         }
 
         String username = MDC.get(UserClient.USER_NAME_KEY);
@@ -231,23 +251,20 @@ public class TaskController {
                         .map(t -> (com.bulletjournal.repository.models.Task) t)
                         .collect(Collectors.toList());
         if (taskList.isEmpty()) {
-            return getTasks(projectId, null, null, null, null, null);
+            return new ProjectItemsDelta();
         }
-        List<CompletedTask> completedTaskList = this.taskDaoJpa.completeInBatch(taskList);
+        Set<Long> completedTaskIds = this.taskDaoJpa.completeInBatch(taskList.stream()
+                .map(com.bulletjournal.repository.models.Task::getId).collect(Collectors.toList())).keySet();
+        ProjectItemsDelta delta = this.taskDaoJpa.removeFromHierarchy(projectId, completedTaskIds);
 
         List<String> deleteESDocumentIds = ESUtil.getProjectItemSearchIndexIds(tasks, ContentType.TASK);
         this.notificationService.deleteESDocument(new RemoveElasticsearchDocumentEvent(deleteESDocumentIds));
 
-        this.notificationService.saveCompleteTasks(new SaveCompleteTasksEvent(completedTaskList));
-
-        for (com.bulletjournal.repository.models.Task task : taskList) {
-            this.notificationService.trackActivity(new Auditable(task.getProject().getId(),
-                    "completed Task ##" + task.getName() + "## in BuJo ##" + task.getProject().getName() + "##", username,
-                    task.getId(), Timestamp.from(Instant.now()), ContentAction.COMPLETE_TASK));
-        }
+        this.notificationService.trackActivity(Auditable.ofBatch(projectId, "completed", "Task", taskList,
+                " in BuJo ##" + project.getName() + "##", username, ContentAction.COMPLETE_TASK));
 
         LOGGER.info("completeTasks done");
-        return getTasks(projectId, null, null, null, null, null);
+        return delta;
     }
 
     @PostMapping(SET_TASK_STATUS_ROUTE)
@@ -313,6 +330,19 @@ public class TaskController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping(COMPLETED_TASKS_PAGE_ROUTE)
+    public CursorPage<Task> getCompletedTasksBetweenPage(@NotNull @PathVariable Long projectId,
+            @RequestParam(required = false) String assignee, @NotBlank @RequestParam String startDate,
+            @NotBlank @RequestParam String endDate, @NotBlank @RequestParam String timezone,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int pageSize) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        CursorPage<Task> page = this.taskDaoJpa.getCompletedTasksBetweenPage(projectId, assignee, username, startDate,
+                endDate, timezone, cursor, KeysetCursor.clampPageSize(pageSize));
+        page.setItems(ProjectItem.addAvatar(page.getItems(), this.userClient));
+        return page;
+    }
+
     @DeleteMapping(TASK_ROUTE)
     public ResponseEntity<List<Task>> deleteTask(@NotNull @PathVariable Long taskId) {
         Long projectId = deleteSingleTask(taskId);
@@ -340,13 +370,13 @@ public class TaskController {
     }
 
     @DeleteMapping(TASKS_ROUTE)
-    public ResponseEntity<List<Task>> deleteTasks(@NotNull @PathVariable Long projectId,
+    public ProjectItemsDelta deleteTasks(@NotNull @PathVariable Long projectId,
             @NotNull @RequestParam List<Long> tasks) {
         // curl -X DELETE
         // "http://localhost:8080/api/projects/11/transactions?transactions=12&transactions=11&transactions=13&transactions=14"
         // -H "accept: */*"
         if (tasks.isEmpty()) {
-            return getTasks(projectId, null, null, null, null, null);
+            return new ProjectItemsDelta();
         }
 
         String username = MDC.get(UserClient.USER_NAME_KEY);
@@ -357,21 +387,19 @@ public class TaskController {
                         .map(t -> (com.bulletjournal.repository.models.Task) t)
                         .collect(Collectors.toList());
         if (taskList.isEmpty()) {
-            return getTasks(projectId, null, null, null, null, null);
+            return new ProjectItemsDelta();
         }
 
         this.taskRepository.deleteInBatch(taskList);
+        ProjectItemsDelta delta = this.taskDaoJpa.removeFromHierarchy(projectId, taskList.stream()
+                .map(com.bulletjournal.repository.models.Task::getId).collect(Collectors.toList()));
 
         List<String> deleteESDocumentIds = ESUtil.getProjectItemSearchIndexIds(tasks, ContentType.TASK);
         this.notificationService.deleteESDocument(new RemoveElasticsearchDocumentEvent(deleteESDocumentIds));
 
-        for (com.bulletjournal.repository.models.Task task : taskList) {
-            this.notificationService.trackActivity(
-                    new Auditable(projectId, "deleted Task ##" + task.getName() +
-                            "## in BuJo ##" + project.getName() + "##", username,
-                            task.getId(), Timestamp.from(Instant.now()), ContentAction.DELETE_TASK));
-        }
-        return getTasks(projectId, null, null, null, null, null);
+        this.notificationService.trackActivity(Auditable.ofBatch(projectId, "deleted", "Task", taskList,
+                " in BuJo ##" + project.getName() + "##", username, ContentAction.DELETE_TASK));
+        return delta;
     }
 
     @DeleteMapping(COMPLETED_TASK_ROUTE)
@@ -405,6 +433,20 @@ public class TaskController {
                 task.getId(), Timestamp.from(Instant.now()), ContentAction.MOVE_TASK));
     }
 
+    @PostMapping(MOVE_TASKS_ROUTE)
+    public ProjectItemsDelta moveTasks(@NotNull @PathVariable Long projectId, @NotNull @RequestParam List<Long> tasks,
+            @NotNull @RequestBody MoveProjectItemParams moveProjectItemParams) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        Pair<List<com.bulletjournal.repository.models.Task>, ProjectItemsDelta> res = this.taskDaoJpa
+                .move(username, projectId, tasks, moveProjectItemParams.getTargetProject());
+        List<com.bulletjournal.repository.models.Task> movedTasks = res.getLeft();
+        if (!movedTasks.isEmpty()) {
+            this.notificationService.trackActivity(Auditable.ofBatch(projectId, "moved", "Task", movedTasks,
+                    " to BuJo ##" + movedTasks.get(0).getProject().getName() + "##", username, ContentAction.MOVE_TASK));
+        }
+        return res.getRight();
+    }
+
     @PostMapping(SHARE_TASK_ROUTE)
     public SharableLink shareTask(@NotNull @PathVariable Long taskId,
             @NotNull @RequestBody ShareProjectItemParams shareProjectItemParams) {
@@ -451,7 +493,7 @@ public class TaskController {
         com.bulletjournal.repository.models.Task task = taskDaoJpa.getProjectItem(taskId, username);
         try {
             String html = freeMarkerClient.convertProjectItemIntoPdfHtml(task, params.getContents());
-            ByteArrayResource resource = OpenHtmlConverter.projectItemHtmlToPdf(html);
+            ByteArrayResource resource = exportRenderingService.render(ExportType.PDF, false, html);
 
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=task.pdf");
@@ -476,12 +518,7 @@ public class TaskController {
 
       try {
         String html = freeMarkerClient.convertProjectItemIntoImageHtml(task, params.getContents());
-        ByteArrayResource resource;
-        if (params.isMobile()) {
-          resource = OpenHtmlConverter.projectItemHtmlToImageForMobile(html);
-        } else {
-          resource = OpenHtmlConverter.projectItemHtmlToImageForPC(html);
-        }
+        ByteArrayResource resource = exportRenderingService.render(ExportType.IMAGE, params.isMobile(), html);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=task.png");
@@ -497,6 +534,26 @@ public class TaskController {
       }
     }
 
+    @PostMapping(TASK_EXPORT_PDF_JOB_ROUTE)
+    public ExportJob exportTaskAsPdfJob(
+            @NotNull @PathVariable Long taskId, @NotNull @RequestBody ExportProjectItemParams params)
+            throws IOException, TemplateException {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        com.bulletjournal.repository.models.Task task = taskDaoJpa.getProjectItem(taskId, username);
+        String html = freeMarkerClient.convertProjectItemIntoPdfHtml(task, params.getContents());
+        return exportRenderingService.submit(username, ExportType.PDF, false, html, "task.pdf");
+    }
+
+    @PostMapping(TASK_EXPORT_IMAGE_JOB_ROUTE)
+    public ExportJob exportTaskAsImageJob(
+            @NotNull @PathVariable Long taskId, @NotNull @RequestBody ExportProjectItemParams params)
+            throws IOException, TemplateException {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        com.bulletjournal.repository.models.Task task = taskDaoJpa.getProjectItem(taskId, username);
+        String html = freeMarkerClient.convertProjectItemIntoImageHtml(task, params.getContents());
+        return exportRenderingService.submit(username, ExportType.IMAGE, params.isMobile(), html, "task.png");
+    }
+
     @GetMapping(GET_SHARABLES_ROUTE)
     public ProjectItemSharables getSharables(@NotNull @PathVariable Long taskId) {
         String username = MDC.get(UserClient.USER_NAME_KEY);
@@ -599,8 +656,7 @@ public class TaskController {
         String username = MDC.get(UserClient.USER_NAME_KEY);
 
         // validate all projects user can access
-        Set<Long> userProjects = this.projectDaoJpa.getUserProjects(username)
-                .stream().map(p -> p.getId()).collect(Collectors.toSet());
+        Set<Long> userProjects = this.projectDaoJpa.getUserProjectIds(username);
         // UnAuthorizedException
         projectIds.forEach(id -> {
             if (!userProjects.contains(id)) {
@@ -608,31 +664,11 @@ public class TaskController {
             }
         });
 
-        // startDate != null && endDate != null => include only tasks with due date/time
-        // startDate != null && endDate == null => include tasks without due date/time
-        // startDate == null && endDate == null => include tasks without due date/time
-        // startDate == null && endDate != null => include only tasks with due date/time
-        List<com.bulletjournal.repository.models.CompletedTask> completedTasks = taskDaoJpa.getCompletedTaskByProjectIdInTimePeriod(projectIds, startDate, endDate, timezone);
-        List<com.bulletjournal.repository.models.Task> uncompletedTasks = taskDaoJpa.getUncompletedTasksByProjectIdInTimePeriod(projectIds, startDate, endDate, timezone);
-        return calculateTaskStatistics(completedTasks, uncompletedTasks);
-    }
-
-    private TaskStatistics calculateTaskStatistics(
-            List<CompletedTask> completedTasks, List<com.bulletjournal.repository.models.Task> uncompletedTasks) {
-        TaskStatistics taskStatistics = new TaskStatistics();
-        taskStatistics.setCompleted(completedTasks.size());
-        taskStatistics.setUncompleted(uncompletedTasks.size());
-        Map<String, UserTaskStatistic> userToTasks = new HashMap<>();
-        completedTasks.forEach(task ->
-                task.getAssignees().forEach(
-                        assignee -> userToTasks.computeIfAbsent(assignee,
-                                k -> new UserTaskStatistic(this.userClient.getUser(assignee))).incrementCompleted()));
-
-        uncompletedTasks.forEach(
-                task -> task.getAssignees().forEach(
-                        assignee -> userToTasks.computeIfAbsent(assignee,
-                                k -> new UserTaskStatistic(this.userClient.getUser(assignee))).incrementUncompleted()));
-        List<UserTaskStatistic> userTaskStatisticList = userToTasks.values().stream().collect(Collectors.toList());
+        TaskStatistics taskStatistics = this.taskDaoJpa.getTaskStatistics(projectIds, startDate, endDate);
+        List<UserTaskStatistic> userTaskStatisticList = taskStatistics.getUserTaskStatistics();
+        Map<String, User> users = this.userClient.getUsers(
+                userTaskStatisticList.stream().map(s -> s.getUser().getName()).collect(Collectors.toList()));
+        userTaskStatisticList.forEach(s -> s.setUser(users.get(s.getUser().getName())));
         userTaskStatisticList.sort((user1TaskStatistic, user2TaskStatistic) -> {
             int percentage1 = user1TaskStatistic.getCompleted() * 100 / (user1TaskStatistic.getCompleted() + user1TaskStatistic.getUncompleted());
             int percentage2 = user2TaskStatistic.getCompleted() * 100 / (user2TaskStatistic.getCompleted() + user2TaskStatistic.getUncompleted());
@@ -641,7 +677,6 @@ public class TaskController {
             }
             return user1TaskStatistic.getUser().getName().compareTo(user2TaskStatistic.getUser().getName());
         });
-        taskStatistics.setUserTaskStatistics(userTaskStatisticList);
         return taskStatistics;
     }
 
@@ -13,9 +13,9 @@ import com.bulletjournal.ledger.FrequencyType;
 import com.bulletjournal.ledger.LedgerSummary;
 import com.bulletjournal.ledger.LedgerSummaryCalculator;
 import com.bulletjournal.ledger.LedgerSummaryType;
+import com.bulletjournal.messaging.ExportRenderingService;
 import com.bulletjournal.messaging.FreeMarkerClient;
 import com.bulletjournal.messaging.MessagingService;
-import com.bulletjournal.messaging.OpenHtmlConverter;
 import com.bulletjournal.notifications.Auditable;
 import com.bulletjournal.notifications.Event;
 import com.bulletjournal.notifications.NotificationService;
@@ -67,6 +67,7 @@ public class TransactionController {
     protected static final String TRANSACTION_SET_COLOR_ROUTE = "/api/transactions/{transactionId}/setColor";
     protected static final String TRANSACTION_SET_BANK_ACCOUNT_ROUTE = "/api/transactions/{transactionId}/setBankAccount";
     protected static final String MOVE_TRANSACTION_ROUTE = "/api/transactions/{transactionId}/move";
+    protected static final String MOVE_TRANSACTIONS_ROUTE = "/api/projects/{projectId}/transactions/move";
     protected static final String SHARE_TRANSACTION_ROUTE = "/api/transactions/{transactionId}/share";
     protected static final String ADD_CONTENT_ROUTE = "/api/transactions/{transactionId}/addContent";
     protected static final String CONTENT_ROUTE = "/api/transactions/{transactionId}/contents/{contentId}";
@@ -99,6 +100,9 @@ public class TransactionController {
     @Autowired
     private FreeMarkerClient freeMarkerClient;
 
+    @Autowired
+    private ExportRenderingService exportRenderingService;
+
     @Autowired
     private MessagingService messagingService;
 
@@ -251,13 +255,13 @@ public class TransactionController {
     }
 
     @DeleteMapping(TRANSACTIONS_ROUTE)
-    public void deleteTransactions(@NotNull @PathVariable Long projectId,
-                                   @NotNull @RequestParam List<String> transactions) {
+    public ProjectItemsDelta deleteTransactions(@NotNull @PathVariable Long projectId,
+                                                @NotNull @RequestParam List<String> transactions) {
         // curl -X DELETE
         // "http://localhost:8080/api/projects/11/transactions?transactions=12&transactions=11&transactions=13&transactions=14"
         // -H "accept: */*"
         if (transactions.isEmpty()) {
-            return;
+            return new ProjectItemsDelta();
         }
 
         String username = MDC.get(UserClient.USER_NAME_KEY);
@@ -276,7 +280,7 @@ public class TransactionController {
         }
 
         if (transactionIds.isEmpty()) {
-            return;
+            return new ProjectItemsDelta();
         }
         List<com.bulletjournal.repository.models.Transaction> transactionList =
                 this.transactionDaoJpa.findAllById(transactionIds, project).stream()
@@ -284,7 +288,7 @@ public class TransactionController {
                         .map(t -> (com.bulletjournal.repository.models.Transaction) t)
                         .collect(Collectors.toList());
         if (transactionList.isEmpty()) {
-            return;
+            return new ProjectItemsDelta();
         }
 
         this.transactionRepository.deleteInBatch(transactionList);
@@ -292,12 +296,10 @@ public class TransactionController {
         List<String> deleteESDocumentIds = ESUtil.getProjectItemSearchIndexIds(transactionIds, ContentType.TRANSACTION);
         this.notificationService.deleteESDocument(new RemoveElasticsearchDocumentEvent(deleteESDocumentIds));
 
-        for (com.bulletjournal.repository.models.Transaction transaction : transactionList) {
-            this.notificationService.trackActivity(
-                    new Auditable(projectId, "deleted Transaction ##" + transaction.getName() +
-                            "## in BuJo ##" + project.getName() + "##", username,
-                            transaction.getId(), Timestamp.from(Instant.now()), ContentAction.DELETE_TRANSACTION));
-        }
+        this.notificationService.trackActivity(Auditable.ofBatch(projectId, "deleted", "Transaction",
+                transactionList, " in BuJo ##" + project.getName() + "##", username, ContentAction.DELETE_TRANSACTION));
+        return new ProjectItemsDelta(transactionList.stream()
+                .map(com.bulletjournal.repository.models.Transaction::getId).collect(Collectors.toList()), null);
     }
 
     @PutMapping(TRANSACTION_SET_LABELS_ROUTE)
@@ -339,6 +341,22 @@ public class TransactionController {
                 ContentAction.MOVE_TRANSACTION));
     }
 
+    @PostMapping(MOVE_TRANSACTIONS_ROUTE)
+    public ProjectItemsDelta moveTransactions(@NotNull @PathVariable Long projectId,
+                                              @NotNull @RequestParam List<Long> transactions,
+                                              @NotNull @RequestBody MoveProjectItemParams moveProjectItemParams) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        Pair<List<com.bulletjournal.repository.models.Transaction>, ProjectItemsDelta> res = this.transactionDaoJpa
+                .move(username, projectId, transactions, moveProjectItemParams.getTargetProject());
+        List<com.bulletjournal.repository.models.Transaction> movedTransactions = res.getLeft();
+        if (!movedTransactions.isEmpty()) {
+            this.notificationService.trackActivity(Auditable.ofBatch(projectId, "moved", "Transaction",
+                    movedTransactions, " to BuJo ##" + movedTransactions.get(0).getProject().getName() + "##",
+                    username, ContentAction.MOVE_TRANSACTION));
+        }
+        return res.getRight();
+    }
+
     @Deprecated
     @PostMapping(SHARE_TRANSACTION_ROUTE)
     public String shareTransaction(@NotNull @PathVariable Long transactionId,
@@ -476,7 +494,7 @@ public class TransactionController {
         com.bulletjournal.repository.models.Transaction transaction = transactionDaoJpa.getProjectItem(transactionId, username);
         try {
             String html = freeMarkerClient.convertProjectItemIntoPdfHtml(transaction, params.getContents());
-            ByteArrayResource resource = OpenHtmlConverter.projectItemHtmlToPdf(html);
+            ByteArrayResource resource = exportRenderingService.render(ExportType.PDF, false, html);
 
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=transaction.pdf");
@@ -499,12 +517,7 @@ public class TransactionController {
         com.bulletjournal.repository.models.Transaction transaction = transactionDaoJpa.getProjectItem(transactionId, username);
         try {
             String html = freeMarkerClient.convertProjectItemIntoImageHtml(transaction, params.getContents());
-            ByteArrayResource resource;
-            if (params.isMobile()) {
-                resource = OpenHtmlConverter.projectItemHtmlToImageForMobile(html);
-            } else {
-                resource = OpenHtmlConverter.projectItemHtmlToImageForPC(html);
-            }
+            ByteArrayResource resource = exportRenderingService.render(ExportType.IMAGE, params.isMobile(), html);
 
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=transaction.png");
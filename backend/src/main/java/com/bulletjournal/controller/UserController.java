@@ -11,6 +11,7 @@ import com.bulletjournal.redis.models.FirstTimeUser;
 import com.bulletjournal.repository.BankAccountDaoJpa;
 import com.bulletjournal.repository.UserAliasDaoJpa;
 import com.bulletjournal.repository.UserDaoJpa;
+import com.bulletjournal.util.KeysetCursor;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -36,6 +37,7 @@ public class UserController {
     public static final String LOGOUT_MYSELF_ROUTE = "/api/myself/logout";
     public static final String CLEAR_MYSELF_ROUTE = "/api/myself/clear";
     public static final String POINT_ACTIVITY_ROUTE = "/api/pointActivities";
+    public static final String POINT_ACTIVITY_PAGE_ROUTE = "/api/pointActivities/page";
     protected static final String GET_USER_ROUTE = "/api/users/{username}";
     protected static final String CHANGE_ALIAS_ROUTE = "/api/users/{username}/changeAlias";
     private static final Logger LOGGER = LoggerFactory.getLogger(UserController.class);
@@ -99,7 +101,7 @@ public class UserController {
             before = user.getReminderBeforeTask();
             currency = user.getCurrency();
             theme = user.getTheme() == null ? Theme.LIGHT.name() : user.getTheme();
-            points = user.getPoints();
+            points = this.userDaoJpa.getUserPoints(username);
 //            this.userClient.updateEmail(user);
             sendUserInvitation = this.needToSendUserInvitation(user);
             bankAccounts = BankAccount.addOwnerAvatar(this.bankAccountDaoJpa.getBankAccounts(username), this.userClient);
@@ -144,7 +146,17 @@ public class UserController {
     @GetMapping(POINT_ACTIVITY_ROUTE)
     public ResponseEntity<List<UserPointActivity>> getUserPointActivities() {
         String username = MDC.get(UserClient.USER_NAME_KEY);
-        return ResponseEntity.ok().body(this.userDaoJpa.getPointActivitiesByUsername(username));
+        // legacy route, only returns the latest KeysetCursor.MAX_PAGE_SIZE activities
+        return ResponseEntity.ok().body(
+                this.userDaoJpa.getPointActivitiesByUsername(username, null, KeysetCursor.MAX_PAGE_SIZE).getItems());
+    }
+
+    @GetMapping(POINT_ACTIVITY_PAGE_ROUTE)
+    public CursorPage<UserPointActivity> getUserPointActivitiesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int pageSize) {
+        String username = MDC.get(UserClient.USER_NAME_KEY);
+        return this.userDaoJpa.getPointActivitiesByUsername(username, cursor, KeysetCursor.clampPageSize(pageSize));
     }
 
     @PostMapping(APP_INVITATIONS_ROUTE)
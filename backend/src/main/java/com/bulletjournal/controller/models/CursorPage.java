@@ -0,0 +1,39 @@
+package com.bulletjournal.controller.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a keyset paged list, pass nextCursor back for the page after it
+ */
+public class CursorPage<T> {
+
+    private List<T> items = new ArrayList<>();
+
+    // empty if this is the last page
+    private String nextCursor = "";
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
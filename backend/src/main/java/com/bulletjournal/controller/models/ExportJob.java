@@ -0,0 +1,58 @@
+package com.bulletjournal.controller.models;
+
+public class ExportJob {
+
+    public enum Status {
+        PENDING, DONE, FAILED
+    }
+
+    private String id;
+
+    private ExportType type;
+
+    private Status status;
+
+    private String fileName;
+
+    public ExportJob() {
+    }
+
+    public ExportJob(String id, ExportType type, Status status, String fileName) {
+        this.id = id;
+        this.type = type;
+        this.status = status;
+        this.fileName = fileName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public ExportType getType() {
+        return type;
+    }
+
+    public void setType(ExportType type) {
+        this.type = type;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bulletjournal.controller.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk mutation on project items, applied by the client instead of reloading the project
+ */
+public class ProjectItemsDelta {
+
+    // items no longer in the project, sub items of a removed item take its place in the hierarchy
+    private List<Long> removedIds = new ArrayList<>();
+
+    // version of the rewritten hierarchy, null if the project has none
+    private Long hierarchyVersion;
+
+    public ProjectItemsDelta() {
+    }
+
+    public ProjectItemsDelta(List<Long> removedIds, Long hierarchyVersion) {
+        this.removedIds = removedIds;
+        this.hierarchyVersion = hierarchyVersion;
+    }
+
+    public List<Long> getRemovedIds() {
+        return removedIds;
+    }
+
+    public void setRemovedIds(List<Long> removedIds) {
+        this.removedIds = removedIds;
+    }
+
+    public Long getHierarchyVersion() {
+        return hierarchyVersion;
+    }
+
+    public void setHierarchyVersion(Long hierarchyVersion) {
+        this.hierarchyVersion = hierarchyVersion;
+    }
+}
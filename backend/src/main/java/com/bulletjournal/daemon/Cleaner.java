@@ -2,7 +2,6 @@ package com.bulletjournal.daemon;
 
 import com.bulletjournal.config.NotificationConfig;
 import com.bulletjournal.repository.AuditableDaoJpa;
-import com.bulletjournal.repository.GoogleCalendarProjectDaoJpa;
 import com.bulletjournal.repository.NotificationDaoJpa;
 import com.bulletjournal.repository.PublicProjectItemDaoJpa;
 import com.bulletjournal.util.CustomThreadFactory;
@@ -13,7 +12,6 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -27,7 +25,6 @@ public class Cleaner {
     private final ScheduledExecutorService executorService;
     private final NotificationDaoJpa notificationDaoJpa;
     private final PublicProjectItemDaoJpa publicProjectItemDaoJpa;
-    private final GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa;
 
     @Autowired
     private NotificationConfig notificationConfig;
@@ -36,12 +33,10 @@ public class Cleaner {
     private AuditableDaoJpa auditableDaoJpa;
 
     @Autowired
-    public Cleaner(NotificationDaoJpa notificationDaoJpa, PublicProjectItemDaoJpa publicProjectItemDaoJpa,
-                   GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa) {
+    public Cleaner(NotificationDaoJpa notificationDaoJpa, PublicProjectItemDaoJpa publicProjectItemDaoJpa) {
         this.executorService = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("cleaner"));
         this.notificationDaoJpa = notificationDaoJpa;
         this.publicProjectItemDaoJpa = publicProjectItemDaoJpa;
-        this.googleCalendarProjectDaoJpa = googleCalendarProjectDaoJpa;
     }
 
     @PostConstruct
@@ -73,17 +68,6 @@ public class Cleaner {
         } catch (Exception e) {
             LOGGER.error("cleanHistory error", e);
         }
-
-        try {
-            renewGoogleCalendarWatch();
-        } catch (Exception e) {
-            LOGGER.error("renewGoogleCalendarWatch error", e);
-        }
-    }
-
-    private void renewGoogleCalendarWatch() throws IOException {
-        this.googleCalendarProjectDaoJpa.renewExpiringGoogleCalendarWatch();
-        LOGGER.info("Google Calendar Expiring Watch Cleaning Done");
     }
 
     private void cleanNotification() {
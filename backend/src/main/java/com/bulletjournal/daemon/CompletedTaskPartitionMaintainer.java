@@ -0,0 +1,85 @@
+package com.bulletjournal.daemon;
+
+import com.bulletjournal.config.CompletedTaskArchiveConfig;
+import com.bulletjournal.repository.TaskDaoJpa;
+import com.bulletjournal.util.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates upcoming completed_tasks partitions and archives the ones past retention on a schedule.
+ */
+@Service
+public class CompletedTaskPartitionMaintainer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompletedTaskPartitionMaintainer.class);
+
+    private final TaskDaoJpa taskDaoJpa;
+
+    private final CompletedTaskArchiveConfig completedTaskArchiveConfig;
+
+    private ScheduledExecutorService executorService;
+
+    @Autowired
+    public CompletedTaskPartitionMaintainer(TaskDaoJpa taskDaoJpa,
+                                            CompletedTaskArchiveConfig completedTaskArchiveConfig) {
+        this.taskDaoJpa = taskDaoJpa;
+        this.completedTaskArchiveConfig = completedTaskArchiveConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        if (!this.completedTaskArchiveConfig.isEnabled()) {
+            LOGGER.info("Completed task partition maintenance disabled");
+            return;
+        }
+        long interval = this.completedTaskArchiveConfig.getIntervalInHours();
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Invalid intervalInHours: " + interval);
+        }
+        if (this.completedTaskArchiveConfig.getMonthsAhead() < 0) {
+            throw new IllegalArgumentException("Invalid monthsAhead: "
+                    + this.completedTaskArchiveConfig.getMonthsAhead());
+        }
+        if (this.completedTaskArchiveConfig.getRetentionMonths() <= 0) {
+            throw new IllegalArgumentException("Invalid retentionMonths: "
+                    + this.completedTaskArchiveConfig.getRetentionMonths());
+        }
+        this.executorService = Executors.newSingleThreadScheduledExecutor(
+                new CustomThreadFactory("CompletedTaskPartitionMaintainer"));
+        this.executorService.scheduleWithFixedDelay(this::maintain, 0, interval, TimeUnit.HOURS);
+    }
+
+    public void maintain() {
+        try {
+            long start = System.currentTimeMillis();
+            int archived = this.taskDaoJpa.maintainCompletedTaskPartitions(
+                    this.completedTaskArchiveConfig.getMonthsAhead(),
+                    this.completedTaskArchiveConfig.getRetentionMonths());
+            LOGGER.info("Maintained completed task partitions, archived {} completed tasks in {} ms",
+                    archived, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("Failed to maintain completed task partitions", e);
+        }
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+            try {
+                this.executorService.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.bulletjournal.daemon;
+
+import com.bulletjournal.config.DeviceTokenConfig;
+import com.bulletjournal.repository.DeviceTokenDaoJpa;
+import com.bulletjournal.util.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes buffered device token registrations and deletes tokens not seen within the retention on a schedule.
+ */
+@Service
+public class DeviceTokenSweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceTokenSweeper.class);
+
+    private final DeviceTokenDaoJpa deviceTokenDaoJpa;
+
+    private final DeviceTokenConfig deviceTokenConfig;
+
+    private ScheduledExecutorService executorService;
+
+    @Autowired
+    public DeviceTokenSweeper(DeviceTokenDaoJpa deviceTokenDaoJpa, DeviceTokenConfig deviceTokenConfig) {
+        this.deviceTokenDaoJpa = deviceTokenDaoJpa;
+        this.deviceTokenConfig = deviceTokenConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        long flushInterval = this.deviceTokenConfig.getLastSeenFlushIntervalSeconds();
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("Invalid lastSeenFlushIntervalSeconds: " + flushInterval);
+        }
+        this.executorService = Executors.newSingleThreadScheduledExecutor(
+                new CustomThreadFactory("DeviceTokenSweeper"));
+        this.executorService.scheduleWithFixedDelay(this::flushLastSeen, flushInterval, flushInterval,
+                TimeUnit.SECONDS);
+
+        if (!this.deviceTokenConfig.isSweepEnabled()) {
+            LOGGER.info("Device token sweep disabled");
+            return;
+        }
+        long sweepInterval = this.deviceTokenConfig.getSweepIntervalInHours();
+        if (sweepInterval <= 0) {
+            throw new IllegalArgumentException("Invalid sweepIntervalInHours: " + sweepInterval);
+        }
+        if (this.deviceTokenConfig.getSweepBatchSize() <= 0) {
+            throw new IllegalArgumentException("Invalid sweepBatchSize: "
+                    + this.deviceTokenConfig.getSweepBatchSize());
+        }
+        if (this.deviceTokenConfig.getRetentionDays() <= 0) {
+            throw new IllegalArgumentException("Invalid retentionDays: "
+                    + this.deviceTokenConfig.getRetentionDays());
+        }
+        this.executorService.scheduleWithFixedDelay(this::sweep, 0, sweepInterval, TimeUnit.HOURS);
+    }
+
+    public void flushLastSeen() {
+        try {
+            int updated = this.deviceTokenDaoJpa.flushLastSeen();
+            if (updated > 0) {
+                LOGGER.info("Refreshed last seen of {} device tokens", updated);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to refresh last seen of device tokens", e);
+        }
+    }
+
+    public void sweep() {
+        try {
+            long start = System.currentTimeMillis();
+            int batchSize = this.deviceTokenConfig.getSweepBatchSize();
+            int total = 0;
+            int deleted;
+            // each batch is its own transaction so the sweep never holds many row locks
+            do {
+                deleted = this.deviceTokenDaoJpa.deleteStaleTokens(batchSize);
+                total += deleted;
+            } while (deleted == batchSize);
+            LOGGER.info("Swept {} stale device tokens in {} ms", total, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("Failed to sweep stale device tokens", e);
+        }
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+            try {
+                this.executorService.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushLastSeen();
+    }
+}
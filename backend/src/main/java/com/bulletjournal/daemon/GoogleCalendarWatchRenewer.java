@@ -0,0 +1,92 @@
+package com.bulletjournal.daemon;
+
+import com.bulletjournal.clients.UserClient;
+import com.bulletjournal.config.GoogleCalendarSyncConfig;
+import com.bulletjournal.repository.GoogleCalendarProjectDaoJpa;
+import com.bulletjournal.util.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renews Google Calendar watch channels before they expire
+ */
+@Service
+public class GoogleCalendarWatchRenewer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GoogleCalendarWatchRenewer.class);
+
+    private final GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa;
+
+    private final GoogleCalendarSyncConfig syncConfig;
+
+    private ScheduledExecutorService executorService;
+
+    @Autowired
+    public GoogleCalendarWatchRenewer(GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa,
+                                      GoogleCalendarSyncConfig syncConfig) {
+        this.googleCalendarProjectDaoJpa = googleCalendarProjectDaoJpa;
+        this.syncConfig = syncConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        if (!this.syncConfig.isWatchRenewalEnabled()) {
+            LOGGER.info("Google Calendar watch renewal disabled");
+            return;
+        }
+        long interval = this.syncConfig.getWatchRenewalIntervalMinutes();
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Invalid watchRenewalIntervalMinutes: " + interval);
+        }
+        this.executorService = Executors.newSingleThreadScheduledExecutor(
+                new CustomThreadFactory("GoogleCalendarWatchRenewer"));
+        this.executorService.scheduleWithFixedDelay(this::renew, 0, interval, TimeUnit.MINUTES);
+    }
+
+    public void renew() {
+        long expirationTime = System.currentTimeMillis()
+                + TimeUnit.HOURS.toMillis(this.syncConfig.getWatchRenewalAheadHours());
+        List<String> calendarIds;
+        try {
+            calendarIds = this.googleCalendarProjectDaoJpa.getExpiringCalendarIds(new Timestamp(expirationTime));
+        } catch (Exception e) {
+            LOGGER.error("Failed to get expiring Google Calendar watches", e);
+            return;
+        }
+        int renewed = 0;
+        for (String calendarId : calendarIds) {
+            try {
+                this.googleCalendarProjectDaoJpa.renewGoogleCalendarWatch(calendarId);
+                renewed++;
+            } catch (Exception e) {
+                LOGGER.error("Failed to renew watch of calendar {}", calendarId, e);
+            } finally {
+                MDC.remove(UserClient.USER_NAME_KEY);
+            }
+        }
+        LOGGER.info("Renewed {} of {} expiring Google Calendar watches", renewed, calendarIds.size());
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+            try {
+                this.executorService.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
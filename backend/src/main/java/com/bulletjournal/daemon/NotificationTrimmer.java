@@ -0,0 +1,74 @@
+package com.bulletjournal.daemon;
+
+import com.bulletjournal.config.NotificationConfig;
+import com.bulletjournal.repository.NotificationDaoJpa;
+import com.bulletjournal.util.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of notifications kept per user, so that reading the inbox never deletes.
+ * Notifications past maxRetentionTimeInDays are deleted by the daemon's cleaner.
+ */
+@Service
+public class NotificationTrimmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationTrimmer.class);
+
+    private final NotificationDaoJpa notificationDaoJpa;
+
+    private final NotificationConfig notificationConfig;
+
+    private ScheduledExecutorService executorService;
+
+    @Autowired
+    public NotificationTrimmer(NotificationDaoJpa notificationDaoJpa, NotificationConfig notificationConfig) {
+        this.notificationDaoJpa = notificationDaoJpa;
+        this.notificationConfig = notificationConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        NotificationConfig.Cleaner cleaner = this.notificationConfig.getCleaner();
+        if (!cleaner.isTrimEnabled()) {
+            LOGGER.info("Notification trimming disabled");
+            return;
+        }
+        int interval = cleaner.getTrimIntervalInSeconds();
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Invalid trimIntervalInSeconds: " + interval);
+        }
+        this.executorService = Executors.newSingleThreadScheduledExecutor(
+                new CustomThreadFactory("NotificationTrimmer"));
+        this.executorService.scheduleWithFixedDelay(this::trim, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public void trim() {
+        try {
+            int deleted = this.notificationDaoJpa.trimNotifications();
+            LOGGER.info("Trimmed {} notifications", deleted);
+        } catch (Exception e) {
+            LOGGER.error("Failed to trim notifications", e);
+        }
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+            try {
+                this.executorService.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
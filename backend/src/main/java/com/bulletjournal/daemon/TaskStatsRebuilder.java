@@ -0,0 +1,73 @@
+package com.bulletjournal.daemon;
+
+import com.bulletjournal.config.TaskStatsConfig;
+import com.bulletjournal.repository.TaskDaoJpa;
+import com.bulletjournal.util.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derives the task statistics rollup from scratch on a schedule.
+ */
+@Service
+public class TaskStatsRebuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskStatsRebuilder.class);
+
+    private final TaskDaoJpa taskDaoJpa;
+
+    private final TaskStatsConfig taskStatsConfig;
+
+    private ScheduledExecutorService executorService;
+
+    @Autowired
+    public TaskStatsRebuilder(TaskDaoJpa taskDaoJpa, TaskStatsConfig taskStatsConfig) {
+        this.taskDaoJpa = taskDaoJpa;
+        this.taskStatsConfig = taskStatsConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        if (!this.taskStatsConfig.isRebuildEnabled()) {
+            LOGGER.info("Task statistics rebuild disabled");
+            return;
+        }
+        long interval = this.taskStatsConfig.getRebuildIntervalInHours();
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Invalid rebuildIntervalInHours: " + interval);
+        }
+        this.executorService = Executors.newSingleThreadScheduledExecutor(
+                new CustomThreadFactory("TaskStatsRebuilder"));
+        this.executorService.scheduleWithFixedDelay(this::rebuild, interval, interval, TimeUnit.HOURS);
+    }
+
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            int rows = this.taskDaoJpa.rebuildTaskStatistics();
+            LOGGER.info("Rebuilt {} task statistics rows in {} ms", rows, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("Failed to rebuild task statistics", e);
+        }
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+            try {
+                this.executorService.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.bulletjournal.es.repository;
 import com.bulletjournal.config.SpringESConfig;
 import com.bulletjournal.es.repository.models.SearchIndex;
 import com.bulletjournal.notifications.RemoveElasticsearchDocumentEvent;
-import com.bulletjournal.repository.UserDaoJpa;
+import com.bulletjournal.repository.ProjectDaoJpa;
 import com.bulletjournal.repository.models.*;
 import org.elasticsearch.common.unit.Fuzziness;
 import org.elasticsearch.index.query.BoolQueryBuilder;
@@ -22,10 +22,7 @@ import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilde
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Repository
 public class SearchIndexDaoJpa {
@@ -47,7 +44,7 @@ public class SearchIndexDaoJpa {
     private static final long SCROLL_TIME_IN_MILLIS = 3600000;
 
     @Autowired
-    private UserDaoJpa userDaoJpa;
+    private ProjectDaoJpa projectDaoJpa;
 
     @Autowired
     private ElasticsearchRestTemplate elasticsearchRestTemplate;
@@ -125,13 +122,7 @@ public class SearchIndexDaoJpa {
      * @return a list of project Id
      */
     private List<Long> getUserProjects(String username) {
-        final Set<Long> set = new HashSet<>();
-        User user = this.userDaoJpa.getByName(username);
-        user.getGroups().stream().filter(UserGroup::isAccepted).forEach((u) -> set.addAll(
-                u.getGroup().getProjects().stream()
-                        .filter(p -> !p.isShared())
-                        .map(Project::getId).collect(Collectors.toList())));
-        return new ArrayList<>(set);
+        return new ArrayList<>(this.projectDaoJpa.getUserProjectIds(username));
     }
 
     /**
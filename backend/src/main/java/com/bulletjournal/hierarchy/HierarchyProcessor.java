@@ -41,6 +41,66 @@ public class HierarchyProcessor {
         return hierarchyItem;
     }
 
+    /**
+     * Drops the given ids from the hierarchy, sub items of a dropped item take its place.
+     */
+    public static List<HierarchyItem> removeIds(String relations, Set<Long> ids) {
+        return removeIds(relations == null ? new ArrayList<>() : getItemsFromJson(relations), ids);
+    }
+
+    public static List<HierarchyItem> removeIds(List<HierarchyItem> hierarchyItems, Set<Long> ids) {
+        List<HierarchyItem> ret = new ArrayList<>();
+        for (HierarchyItem hierarchyItem : hierarchyItems) {
+            List<HierarchyItem> children = removeIds(hierarchyItem.getS(), ids);
+            if (ids.contains(hierarchyItem.getId())) {
+                ret.addAll(children);
+                continue;
+            }
+            hierarchyItem.setS(children);
+            ret.add(hierarchyItem);
+        }
+        return ret;
+    }
+
+    /**
+     * Cuts the subtrees rooted at the given ids out of the hierarchy.
+     *
+     * @return the remaining hierarchy and the subtrees in hierarchy order
+     */
+    public static Pair<List<HierarchyItem>, List<HierarchyItem>> extractSubtrees(String relations, Set<Long> rootIds) {
+        List<HierarchyItem> subtrees = new ArrayList<>();
+        List<HierarchyItem> remaining = extractSubtrees(
+                relations == null ? new ArrayList<>() : getItemsFromJson(relations), rootIds, subtrees);
+        return Pair.of(remaining, subtrees);
+    }
+
+    private static List<HierarchyItem> extractSubtrees(
+            List<HierarchyItem> hierarchyItems, Set<Long> rootIds, List<HierarchyItem> subtrees) {
+        List<HierarchyItem> ret = new ArrayList<>();
+        for (HierarchyItem hierarchyItem : hierarchyItems) {
+            if (rootIds.contains(hierarchyItem.getId())) {
+                subtrees.add(hierarchyItem);
+                continue;
+            }
+            hierarchyItem.setS(extractSubtrees(hierarchyItem.getS(), rootIds, subtrees));
+            ret.add(hierarchyItem);
+        }
+        return ret;
+    }
+
+    public static Set<Long> getIds(List<HierarchyItem> hierarchyItems) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (HierarchyItem hierarchyItem : hierarchyItems) {
+            ids.add(hierarchyItem.getId());
+            ids.addAll(getIds(hierarchyItem.getS()));
+        }
+        return ids;
+    }
+
+    public static String toJson(List<HierarchyItem> hierarchyItems) {
+        return GSON.toJson(hierarchyItems);
+    }
+
     private static List<HierarchyItem> getItemsFromJson(String jsonString) {
         return Arrays.asList(GSON.fromJson(
                 jsonString, HierarchyItem[].class));
@@ -0,0 +1,220 @@
+package com.bulletjournal.messaging;
+
+import com.bulletjournal.config.ExportConfig;
+import com.bulletjournal.controller.models.ExportJob;
+import com.bulletjournal.controller.models.ExportType;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.exceptions.TooManyRequestsException;
+import com.bulletjournal.exceptions.UnAuthorizedException;
+import com.bulletjournal.util.CustomThreadFactory;
+import com.bulletjournal.util.ExpiringLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Renders exported project items on a bounded worker pool.
+ * <p>
+ * Identical renders (same type, scale and html) are coalesced while in flight and served from a
+ * small LRU cache afterwards. Long renders can be submitted as jobs and downloaded once done.
+ */
+@Service
+public class ExportRenderingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportRenderingService.class);
+
+    private static final long AWAIT_TERMINATION_SECONDS = 5;
+
+    private static final long CLEAN_INTERVAL_SECONDS = 60;
+
+    private final ExportConfig exportConfig;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ByteArrayResource>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private ExpiringLruCache<String, ByteArrayResource> resultCache;
+
+    private ThreadPoolExecutor executorService;
+
+    private ScheduledExecutorService cleaner;
+
+    private static class Job {
+        final String requester;
+        final ExportType type;
+        final String fileName;
+        final CompletableFuture<ByteArrayResource> future;
+        final long createdAt;
+
+        Job(String requester, ExportType type, String fileName, CompletableFuture<ByteArrayResource> future) {
+            this.requester = requester;
+            this.type = type;
+            this.fileName = fileName;
+            this.future = future;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    @Autowired
+    public ExportRenderingService(ExportConfig exportConfig) {
+        this.exportConfig = exportConfig;
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        this.resultCache = new ExpiringLruCache<>(this.exportConfig.getResultCacheSize(),
+                TimeUnit.SECONDS.toMillis(this.exportConfig.getResultCacheSeconds()));
+        this.executorService = new ThreadPoolExecutor(
+                this.exportConfig.getWorkerThreads(),
+                this.exportConfig.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.exportConfig.getQueueCapacity()),
+                new CustomThreadFactory("ExportRenderer"));
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("ExportCleaner"));
+        this.cleaner.scheduleWithFixedDelay(this::clean,
+                CLEAN_INTERVAL_SECONDS, CLEAN_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Blocking render, used by the synchronous export routes.
+     */
+    public ByteArrayResource render(ExportType type, boolean mobile, String html) throws IOException {
+        try {
+            return renderAsync(type, mobile, html)
+                    .get(this.exportConfig.getRenderTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering " + type, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("Failed to render " + type, e);
+        }
+    }
+
+    public ExportJob submit(String requester, ExportType type, boolean mobile, String html, String fileName) {
+        String jobId = UUID.randomUUID().toString();
+        Job job = new Job(requester, type, fileName, renderAsync(type, mobile, html));
+        this.jobs.put(jobId, job);
+        return toExportJob(jobId, job);
+    }
+
+    public ExportJob getJob(String requester, String jobId) {
+        return toExportJob(jobId, getJobOwnedBy(requester, jobId));
+    }
+
+    private Job getJobOwnedBy(String requester, String jobId) {
+        Job job = this.jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export job " + jobId + " not found");
+        }
+        if (!job.requester.equals(requester)) {
+            throw new UnAuthorizedException("Export job " + jobId + " does not belong to " + requester);
+        }
+        return job;
+    }
+
+    /**
+     * @return rendered file, or null if the job is still running
+     */
+    public ByteArrayResource download(String requester, String jobId) throws IOException {
+        Job job = getJobOwnedBy(requester, jobId);
+        if (!job.future.isDone()) {
+            return null;
+        }
+        try {
+            return job.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading export job " + jobId, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Export job " + jobId + " failed", e);
+        }
+    }
+
+    public String getFileName(String requester, String jobId) {
+        return getJobOwnedBy(requester, jobId).fileName;
+    }
+
+    private CompletableFuture<ByteArrayResource> renderAsync(ExportType type, boolean mobile, String html) {
+        double scale = mobile ? OpenHtmlConverter.MOBILE_IMAGE_SCALE : OpenHtmlConverter.PC_IMAGE_SCALE;
+        String key = type + ":" + scale + ":" + DigestUtils.md5DigestAsHex(html.getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayResource cached = this.resultCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<ByteArrayResource> future = new CompletableFuture<>();
+        CompletableFuture<ByteArrayResource> existing = this.inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            this.executorService.execute(() -> {
+                try {
+                    ByteArrayResource resource = convert(type, html, scale);
+                    this.resultCache.put(key, resource);
+                    future.complete(resource);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to render {}", type, e);
+                    future.completeExceptionally(e);
+                } finally {
+                    this.inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.inFlight.remove(key);
+            throw new TooManyRequestsException("Too many exports in progress, please retry later");
+        }
+        return future;
+    }
+
+    ByteArrayResource convert(ExportType type, String html, double scale) throws Exception {
+        return type == ExportType.PDF
+                ? OpenHtmlConverter.projectItemHtmlToPdf(html)
+                : OpenHtmlConverter.projectItemHtmlToImage(html, scale);
+    }
+
+    private ExportJob toExportJob(String jobId, Job job) {
+        ExportJob.Status status = ExportJob.Status.PENDING;
+        if (job.future.isCompletedExceptionally()) {
+            status = ExportJob.Status.FAILED;
+        } else if (job.future.isDone()) {
+            status = ExportJob.Status.DONE;
+        }
+        return new ExportJob(jobId, job.type, status, job.fileName);
+    }
+
+    private void clean() {
+        long now = System.currentTimeMillis();
+        long retention = TimeUnit.SECONDS.toMillis(this.exportConfig.getJobRetentionSeconds());
+        this.jobs.entrySet().removeIf(e -> e.getValue().createdAt + retention < now);
+        this.resultCache.evictExpired();
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        if (this.cleaner != null) {
+            this.cleaner.shutdownNow();
+        }
+        if (this.executorService != null) {
+            this.executorService.shutdown();
+            try {
+                this.executorService.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
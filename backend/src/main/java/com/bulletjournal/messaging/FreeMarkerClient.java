@@ -8,18 +8,26 @@ import com.bulletjournal.repository.models.Note;
 import com.bulletjournal.repository.models.ProjectItemModel;
 import com.bulletjournal.repository.models.Task;
 import com.bulletjournal.repository.models.Transaction;
+import com.bulletjournal.util.ExpiringLruCache;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
+import org.springframework.util.DigestUtils;
 
 @Component
 public class FreeMarkerClient {
@@ -31,6 +39,13 @@ public class FreeMarkerClient {
   private static final String TRANSACTION_EMAIL_TEMPLATE = "TransactionEmail.ftl";
   private static final String PROJECT_ITEM_PDF_TEMPLATE = "ProjectItemPdf.ftl";
   private static final String PROJECT_ITEM_IMAGE_TEMPLATE = "ProjectItemImage.ftl";
+  private static final List<String> TEMPLATES = Arrays.asList(
+      NOTE_EMAIL_TEMPLATE, TASK_EMAIL_TEMPLATE, TRANSACTION_EMAIL_TEMPLATE,
+      PROJECT_ITEM_PDF_TEMPLATE, PROJECT_ITEM_IMAGE_TEMPLATE);
+
+  // Rendered html cache
+  private static final int RENDERED_CACHE_SIZE = 500;
+  private static final long RENDERED_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
 
   // PDF Templates Properties
   private static final String PROJECT_ITEM_TYPE_DATA_PROPERTY = "project_item_type";
@@ -41,6 +56,9 @@ public class FreeMarkerClient {
   private final Configuration freemarkerConfig;
   private final UserClient userClient;
   private final UserAliasDaoJpa userAliasDaoJpa;
+  private final Map<String, Template> compiledTemplates = new ConcurrentHashMap<>();
+  private final ExpiringLruCache<String, String> renderedHtml =
+      new ExpiringLruCache<>(RENDERED_CACHE_SIZE, RENDERED_CACHE_TTL_MILLIS);
 
   public FreeMarkerClient(
       Configuration freemarkerConfig,
@@ -51,12 +69,31 @@ public class FreeMarkerClient {
     this.userClient = userClient;
   }
 
+  /**
+   * parse all templates once at startup instead of on first use
+   */
+  @PostConstruct
+  public void precompileTemplates() {
+    for (String templateName : TEMPLATES) {
+      try {
+        this.compiledTemplates.put(templateName, this.freemarkerConfig.getTemplate(templateName));
+      } catch (IOException e) {
+        LOGGER.error("Failed to precompile template {}", templateName, e);
+      }
+    }
+  }
+
   /**
    * convert given project item to HTML string
    */
   public <T extends ProjectItemModel> String convertProjectItemIntoHtmlString(
       T projectItem, String requester, List<Content> contents)
       throws IOException, TemplateException {
+    String cacheKey = getCacheKey("email", projectItem, contents) + ":" + requester;
+    String cached = this.renderedHtml.get(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
     Map<String, Object> data = new HashMap<>();
     String templateName = "";
     data.put("requester", requester);
@@ -83,7 +120,9 @@ public class FreeMarkerClient {
         LOGGER.error("convertProjectItemIntoHtmlString failed. Unrecognized project item content type");
         throw new ResourceNotFoundException("convertProjectItemIntoHtmlString failed. Unrecognized project item content type");
     }
-    return this.generateHtml(templateName, data);
+    String html = this.generateHtml(templateName, data);
+    this.renderedHtml.put(cacheKey, html);
+    return html;
   }
 
   /**
@@ -91,6 +130,11 @@ public class FreeMarkerClient {
    */
   public <T extends ProjectItemModel> String convertProjectItemIntoPdfHtml(
       T projectItem, List<Content> contents) throws IOException, TemplateException {
+    String cacheKey = getCacheKey("pdf", projectItem, contents);
+    String cached = this.renderedHtml.get(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
     Map<String, Object> data = new HashMap<>();
     data.put("contents", contents);
 
@@ -116,7 +160,9 @@ public class FreeMarkerClient {
         throw new ResourceNotFoundException(
             "ConvertProjectItemIntoPdfHtml failed. Unrecognized project item content type");
     }
-    return this.generateHtml(PROJECT_ITEM_PDF_TEMPLATE, data);
+    String html = this.generateHtml(PROJECT_ITEM_PDF_TEMPLATE, data);
+    this.renderedHtml.put(cacheKey, html);
+    return html;
   }
 
   /**
@@ -124,6 +170,11 @@ public class FreeMarkerClient {
    */
   public <T extends ProjectItemModel> String convertProjectItemIntoImageHtml(
           T projectItem, List<Content> contents) throws IOException, TemplateException {
+    String cacheKey = getCacheKey("image", projectItem, contents);
+    String cached = this.renderedHtml.get(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
     Map<String, Object> data = new HashMap<>();
     data.put("contents", contents);
 
@@ -149,7 +200,9 @@ public class FreeMarkerClient {
         throw new ResourceNotFoundException(
                 "ConvertProjectItemIntoPdfHtml failed. Unrecognized project item content type");
     }
-    return this.generateHtml(PROJECT_ITEM_IMAGE_TEMPLATE, data);
+    String html = this.generateHtml(PROJECT_ITEM_IMAGE_TEMPLATE, data);
+    this.renderedHtml.put(cacheKey, html);
+    return html;
   }
 
   /**
@@ -163,10 +216,33 @@ public class FreeMarkerClient {
    */
   public String generateHtml(String templateName, Map<String, Object> data)
       throws IOException, TemplateException {
-    Template template = freemarkerConfig.getTemplate(templateName);
+    Template template = this.compiledTemplates.get(templateName);
+    if (template == null) {
+      template = freemarkerConfig.getTemplate(templateName);
+    }
     return FreeMarkerTemplateUtils.processTemplateIntoString(template, data);
   }
 
+  /**
+   * Rendered html is keyed by item version (updatedAt) and the exported contents, so any edit
+   * to the item or its contents produces a new key.
+   */
+  private <T extends ProjectItemModel> String getCacheKey(
+      String kind, T projectItem, List<Content> contents) {
+    StringBuilder exported = new StringBuilder();
+    if (contents != null) {
+      // texts are length prefixed so that no two content lists digest the same input
+      contents.forEach(c -> exported.append(c.getId()).append(':').append(c.getUpdatedAt()).append(':')
+          .append(c.getText() == null ? -1 : c.getText().length()).append(':')
+          .append(Objects.toString(c.getText(), "")));
+    }
+    String contentsVersion = DigestUtils.md5DigestAsHex(
+        exported.toString().getBytes(StandardCharsets.UTF_8));
+    return kind + ":" + projectItem.getContentType() + ":" + projectItem.getId() + ":"
+        + (projectItem.getUpdatedAt() == null ? 0 : projectItem.getUpdatedAt().getTime())
+        + ":" + contentsVersion;
+  }
+
   /**
    * Add task information to data model
    */
@@ -10,13 +10,13 @@ import com.bulletjournal.messaging.mailjet.MailjetEmailParams;
 import com.bulletjournal.repository.DeviceTokenDaoJpa;
 import com.bulletjournal.repository.UserAliasDaoJpa;
 import com.bulletjournal.repository.UserDaoJpa;
-import com.bulletjournal.repository.models.DeviceToken;
 import com.bulletjournal.repository.models.Notification;
 import com.bulletjournal.repository.models.Task;
 import com.bulletjournal.repository.models.User;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -136,9 +136,10 @@ public class MessagingService {
 
     public void sendEtagUpdateNotificationToUsers(Collection<String> usernames) {
         LOGGER.info("Sending notification to users: {}", usernames);
-        List<DeviceToken> deviceTokens = deviceTokenDaoJpa.getTokensByUsers(usernames);
-        List<FcmMessageParams> params = deviceTokens.stream()
-            .map(token -> new FcmMessageParams(token.getToken(), "type", "Notification", CLICK_ACTION_KEY, CLICK_ACTION_VALUE))
+        Map<String, List<String>> deviceTokens = deviceTokenDaoJpa.getTokensByUsers(usernames);
+        List<FcmMessageParams> params = deviceTokens.values().stream()
+            .flatMap(List::stream)
+            .map(token -> new FcmMessageParams(token, "type", "Notification", CLICK_ACTION_KEY, CLICK_ACTION_VALUE))
             .collect(Collectors.toList());
         fcmClient.sendAllMessagesAsync(params);
     }
@@ -194,15 +195,8 @@ public class MessagingService {
             Set<String> distinctUsers = taskList.stream()
                 .flatMap(task -> task.getAssignees().stream())
                 .collect(Collectors.toSet());
-            List<DeviceToken> tokens = deviceTokenDaoJpa.getTokensByUsers(distinctUsers);
+            Map<String, List<String>> nameTokensMap = deviceTokenDaoJpa.getTokensByUsers(distinctUsers);
             List<User> users = userDaoJpa.getUsersByNames(distinctUsers);
-            Map<String, List<String>> nameTokensMap = new HashMap<>();
-            for (DeviceToken deviceToken : tokens) {
-                if (!nameTokensMap.containsKey(deviceToken.getUsername())) {
-                    nameTokensMap.put(deviceToken.getUsername(), new ArrayList<>());
-                }
-                nameTokensMap.get(deviceToken.getUsername()).add(deviceToken.getToken());
-            }
             Map<String, String> nameEmailMap = new HashMap<>();
             for (User user : users) {
                 if (user.getEmail() != null && !user.getEmail().endsWith("@anon.1o24bbs.com")) {
@@ -212,11 +206,18 @@ public class MessagingService {
 
             LOGGER.info("Name email map: {}", nameEmailMap);
             LOGGER.info("Name token map: {}", nameTokensMap);
+
+            // resolve avatars and aliases once per burst instead of once per task and recipient
+            Set<String> avatarUsers = new HashSet<>(distinctUsers);
+            taskList.forEach(task -> avatarUsers.add(task.getOwner()));
+            Map<String, String> avatarMap = getAvatarMap(new ArrayList<>(avatarUsers));
+            Map<String, Map<String, String>> aliasMap = getAliasMap(new ArrayList<>(nameEmailMap.keySet()));
+
             List<MailjetEmailParams> emailParamsList = new ArrayList<>();
             List<FcmMessageParams> messageParamsList = new ArrayList<>();
             for (Task task : taskList) {
                 messageParamsList.addAll(createFcmMessageParamsListFromDueTask(task, nameTokensMap));
-                emailParamsList.addAll(createEmailParamsForDueTask(task, nameEmailMap));
+                emailParamsList.addAll(createEmailParamsForDueTask(task, nameEmailMap, avatarMap, aliasMap));
             }
             fcmClient.sendAllMessagesAsync(messageParamsList);
             mailjetClient.sendAllEmailAsync(emailParamsList);
@@ -232,8 +233,8 @@ public class MessagingService {
         List<String> targetTokens = new ArrayList<>();
         for (String username : task.getAssignees()) {
             List<String> tokenList = nameTokenMap.get(username);
-            if (tokenList != null) {
-                targetTokens.addAll(nameTokenMap.get(username));
+            if (tokenList != null && !tokenList.isEmpty()) {
+                targetTokens.addAll(tokenList);
             } else {
                 LOGGER.info("user {} doesn't have device token", username);
             }
@@ -427,47 +428,53 @@ public class MessagingService {
             );
     }
 
+    /**
+     * Task level variables are computed once and shared by the email of every recipient.
+     */
     private List<MailjetEmailParams> createEmailParamsForDueTask(
-        Task task, Map<String, String> nameEmailMap
+        Task task, Map<String, String> nameEmailMap,
+        Map<String, String> avatarMap, Map<String, Map<String, String>> aliasMap
     ) {
         List<MailjetEmailParams> ret = new ArrayList<>();
         List<String> assignees = task.getAssignees();
-        Map<String, Map<String, String>> aliasMap = getAliasMap(assignees);
-        Map<String, String> avatarMap = getAvatarMap(assignees);
-        String taskUrl = BASE_TASK_URL + task.getId();
-        String ownerName = task.getOwner();
-        String ownerAvatar = userClient.getAvatar(ownerName);
-        for (String receiver : assignees) {
-            if (!nameEmailMap.containsKey(receiver)) {
-                continue;
-            }
+        List<String> receivers = assignees.stream()
+            .filter(nameEmailMap::containsKey).collect(Collectors.toList());
+        if (receivers.isEmpty()) {
+            return ret;
+        }
+        String title = getTitle(task);
+        String[] taskKv = new String[] {
+            TASK_NAME_PROPERTY,
+            task.getName(),
+            TIMESTAMP_PROPERTY,
+            getDueTime(task),
+            TASK_URL_PROPERTY,
+            BASE_TASK_URL + task.getId(),
+            TASK_OWNER_PROPERTY,
+            task.getOwner(),
+            TASK_OWNER_AVATAR_PROPERTY,
+            avatarMap.get(task.getOwner())
+        };
+        for (String receiver : receivers) {
             MailjetEmailParams params =
                 new MailjetEmailParams(
                     Arrays.asList(new ImmutablePair<>(receiver, nameEmailMap.get(receiver))),
-                    getTitle(task),
+                    title,
                     null,
                     MailjetEmailClient.Template.TASK_DUE_NOTIFICATION,
-                    TASK_NAME_PROPERTY,
-                    task.getName(),
-                    TIMESTAMP_PROPERTY,
-                    getDueTime(task),
-                    TASK_URL_PROPERTY,
-                    taskUrl,
-                    TASK_OWNER_PROPERTY,
-                    ownerName,
-                    TASK_OWNER_AVATAR_PROPERTY,
-                    ownerAvatar
+                    taskKv
                 );
             JSONArray assigneeInfoList = new JSONArray();
             JSONObject selfInfo = new JSONObject();
             selfInfo.put(ALIAS_PROPERTY, receiver);
             selfInfo.put(AVATAR_PROPERTY, avatarMap.getOrDefault(receiver, NONE_STRING));
             assigneeInfoList.put(selfInfo);
+            Map<String, String> receiverAliases = aliasMap.getOrDefault(receiver, Collections.emptyMap());
             for (String otherName : assignees) {
                 if (otherName.equals(receiver)) {
                     continue;
                 }
-                String alias = aliasMap.get(receiver).getOrDefault(otherName, otherName);
+                String alias = receiverAliases.getOrDefault(otherName, otherName);
                 String avator = avatarMap.getOrDefault(otherName, NONE_STRING);
                 JSONObject obj = new JSONObject();
                 obj.put(ALIAS_PROPERTY, alias);
@@ -1,7 +1,9 @@
 package com.bulletjournal.messaging;
 
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
 import com.openhtmltopdf.java2d.api.BufferedImagePageProcessor;
 import com.openhtmltopdf.java2d.api.Java2DRendererBuilder;
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -13,9 +15,28 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
+/**
+ * Renderer builders are not thread safe, so every thread gets its own pair of builders.
+ * Parsed font metrics are kept in a cache store shared by all builders.
+ */
 public class OpenHtmlConverter {
-  private static final PdfRendererBuilder PDF_BUILDER = new PdfRendererBuilder();
-  private static final Java2DRendererBuilder IMAGE_BUILDER = new Java2DRendererBuilder();
+  public static final double MOBILE_IMAGE_SCALE = 1;
+  public static final double PC_IMAGE_SCALE = 2;
+
+  private static final FSDefaultCacheStore FONT_CACHE = new FSDefaultCacheStore();
+
+  private static final ThreadLocal<PdfRendererBuilder> PDF_BUILDER = ThreadLocal.withInitial(() -> {
+    PdfRendererBuilder builder = new PdfRendererBuilder();
+    builder.useCacheStore(BaseRendererBuilder.CacheStore.PDF_FONT_METRICS, FONT_CACHE);
+    return builder;
+  });
+
+  private static final ThreadLocal<Java2DRendererBuilder> IMAGE_BUILDER = ThreadLocal.withInitial(() -> {
+    Java2DRendererBuilder builder = new Java2DRendererBuilder();
+    builder.useFastMode();
+    builder.useEnvironmentFonts(true);
+    return builder;
+  });
 
   /**
    * convert project item as pdf
@@ -23,9 +44,10 @@ public class OpenHtmlConverter {
   public static ByteArrayResource projectItemHtmlToPdf(String html) throws IOException {
     ByteArrayOutputStream os = new ByteArrayOutputStream();
 
-    PDF_BUILDER.withHtmlContent(htmlToXhtml(html), null);
-    PDF_BUILDER.toStream(os);
-    PDF_BUILDER.run();
+    PdfRendererBuilder builder = PDF_BUILDER.get();
+    builder.withHtmlContent(htmlToXhtml(html), null);
+    builder.toStream(os);
+    builder.run();
     return new ByteArrayResource(os.toByteArray());
   }
 
@@ -44,28 +66,19 @@ public class OpenHtmlConverter {
     String htmlWithoutImage = htmlToXhtml(html)
             .replaceAll("<img .*? ((/>)|(</img>))", "");
 
-    IMAGE_BUILDER.withHtmlContent(htmlWithoutImage, null);
-    IMAGE_BUILDER.useFastMode();
-    IMAGE_BUILDER.useEnvironmentFonts(true);
+    Java2DRendererBuilder builder = IMAGE_BUILDER.get();
+    builder.withHtmlContent(htmlWithoutImage, null);
 
     BufferedImagePageProcessor bufferedImagePageProcessor = new BufferedImagePageProcessor(
             BufferedImage.TYPE_INT_RGB, scale);
 
-    IMAGE_BUILDER.toSinglePage(bufferedImagePageProcessor);
-    IMAGE_BUILDER.runFirstPage();
+    builder.toSinglePage(bufferedImagePageProcessor);
+    builder.runFirstPage();
 
     ImageIO.write(bufferedImagePageProcessor.getPageImages().get(0), "png", os);
     return new ByteArrayResource(os.toByteArray());
   }
 
-  public static ByteArrayResource projectItemHtmlToImageForMobile(String html) throws Exception {
-      return projectItemHtmlToImage(html, 1);
-  }
-
-  public static ByteArrayResource projectItemHtmlToImageForPC(String html) throws Exception {
-    return projectItemHtmlToImage(html, 5);
-  }
-
   /**
    * convert coming html format info as xhtml
    */
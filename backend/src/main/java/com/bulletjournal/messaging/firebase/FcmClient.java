@@ -1,14 +1,17 @@
 package com.bulletjournal.messaging.firebase;
 
+import com.bulletjournal.config.FcmConfig;
 import com.bulletjournal.repository.DeviceTokenDaoJpa;
 import com.bulletjournal.util.CustomThreadFactory;
-import com.google.api.core.ApiFuture;
-import com.google.api.core.ApiFutureCallback;
-import com.google.api.core.ApiFutures;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
-import com.google.firebase.messaging.*;
+import com.google.firebase.messaging.FirebaseMessaging;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,12 +21,18 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.IOException;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Dispatches push messages in batches of batchSize on a bounded worker pool.
+ * <p>
+ * Sends are paced by a token bucket of messagesPerSecond. Messages failing with a quota or
+ * availability error are retried with exponential backoff, up to maxRetries times. Tokens
+ * reported as not registered are collected and deleted together every invalidTokenFlushSeconds.
+ * Sends never run on the caller's thread: a batch rejected by the full queue takes the retry path.
+ */
 @Component
 public class FcmClient {
 
@@ -33,21 +42,50 @@ public class FcmClient {
 
     private static final String TOKEN_REGISTRATION_ERROR = "registration-token-not-registered";
 
+    private static final Set<String> RETRYABLE_ERRORS = ImmutableSet.of(
+        "quota-exceeded", "message-rate-exceeded", "device-message-rate-exceeded", "unavailable", "internal-error");
+
     private static long AWAIT_TERMINATION_SECONDS = 5;
 
-    private static final Notification DEFAULT_NOTIFICATION
-        = Notification.builder().setTitle("Bullet Journal").setBody("You've got a new message.").build();
+    private final DeviceTokenDaoJpa deviceTokenDaoJpa;
 
-    @Autowired
-    private DeviceTokenDaoJpa deviceTokenDaoJpa;
+    private final FcmConfig fcmConfig;
+
+    private final Set<String> invalidTokens = ConcurrentHashMap.newKeySet();
 
-    private ExecutorService executorService;
+    private ThreadPoolExecutor executorService;
 
-    private FirebaseMessaging firebase;
+    private ScheduledExecutorService scheduler;
+
+    private Bucket bucket;
+
+    private FcmTransport transport;
+
+    @Autowired
+    public FcmClient(DeviceTokenDaoJpa deviceTokenDaoJpa, FcmConfig fcmConfig) {
+        this.deviceTokenDaoJpa = deviceTokenDaoJpa;
+        this.fcmConfig = fcmConfig;
+    }
 
     @PostConstruct
     public void initialize() {
-        this.executorService = Executors.newSingleThreadExecutor(new CustomThreadFactory("FcmMessaging"));
+        this.executorService = new ThreadPoolExecutor(
+            this.fcmConfig.getWorkerThreads(), this.fcmConfig.getWorkerThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(this.fcmConfig.getQueueCapacity()),
+            new CustomThreadFactory("FcmMessaging"),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("FcmScheduler"));
+        this.scheduler.scheduleWithFixedDelay(this::flushInvalidTokens,
+            this.fcmConfig.getInvalidTokenFlushSeconds(), this.fcmConfig.getInvalidTokenFlushSeconds(),
+            TimeUnit.SECONDS);
+        // a batch takes batchSize tokens at once, so the bucket must hold at least one batch
+        int capacity = Math.max(this.fcmConfig.getMessagesPerSecond(), this.fcmConfig.getBatchSize());
+        this.bucket = Bucket4j.builder()
+            .addLimit(Bandwidth.simple(capacity,
+                Duration.ofMillis(1000L * capacity / this.fcmConfig.getMessagesPerSecond())))
+            .build();
+
         if (System.getenv(FCM_ACCOUNT_KEY) != null) {
             try {
                 FirebaseOptions options
@@ -57,7 +95,7 @@ public class FcmClient {
                     .build();
                 if (FirebaseApp.getApps().isEmpty()) {
                     FirebaseApp.initializeApp(options);
-                    this.firebase = FirebaseMessaging.getInstance();
+                    this.transport = new FirebaseFcmTransport(FirebaseMessaging.getInstance());
                     LOGGER.info("Firebase application has been initialized");
                 }
             } catch (IOException e) {
@@ -68,79 +106,116 @@ public class FcmClient {
         }
     }
 
+    /**
+     * Replace the provider, e.g. with a local fake for benchmarks
+     */
+    public void setTransport(FcmTransport transport) {
+        this.transport = transport;
+    }
+
     public void sendAllMessagesAsync(List<FcmMessageParams> paramsList) {
-        if (this.firebase == null) {
+        if (this.transport == null) {
             LOGGER.error("FirebaseMessaging not initialized, cannot send message.");
             return;
         }
         if (paramsList == null || paramsList.isEmpty()) {
             return;
         }
-        LOGGER.info("Sending mobile notifications: {}", paramsList);
-        List<Message> messages
-            = paramsList.stream().map(this::getMessageFromParams).collect(Collectors.toList());
-        ApiFuture<BatchResponse> future
-            = firebase.sendAllAsync(messages);
-        ApiFutures.addCallback(future, new ApiFutureCallback<BatchResponse>() {
-            @Override
-            public void onFailure(Throwable t) {
-                LOGGER.warn("Failed to send messages: {}\nError: {}",
-                    paramsList, t.getMessage());
-            }
+        LOGGER.info("Sending {} mobile notifications", paramsList.size());
+        for (List<FcmMessageParams> batch : Lists.partition(paramsList, this.fcmConfig.getBatchSize())) {
+            submit(new ArrayList<>(batch), 0);
+        }
+    }
 
-            @Override
-            public void onSuccess(BatchResponse result) {
-                processResponse(result, paramsList);
+    private void submit(List<FcmMessageParams> batch, int attempt) {
+        try {
+            this.executorService.execute(() -> send(batch, attempt));
+        } catch (RejectedExecutionException e) {
+            if (this.executorService.isShutdown()) {
+                LOGGER.error("FcmClient is shut down, dropped {} messages", batch.size());
+                return;
             }
-        }, executorService);
+            LOGGER.warn("Send queue is full, backing off {} messages", batch.size());
+            retryLater(batch, attempt);
+        }
     }
 
-    private void processResponse(BatchResponse batchResponse, List<FcmMessageParams> messages) {
-        LOGGER.info("Got batchResponse, succeeded: {}, failed: {}",
-            batchResponse.getSuccessCount(), batchResponse.getFailureCount());
-        List<SendResponse> responses = batchResponse.getResponses();
-        for (int i = 0; i < responses.size(); ++i) {
-            SendResponse response = responses.get(i);
-            if (!response.isSuccessful()) {
-                LOGGER.warn("Failed to send Message with Error: '{}', message content: '{}'",
-                    response.getException().getErrorCode(), messages.get(i));
-                if (response.getException().getErrorCode().equals(TOKEN_REGISTRATION_ERROR)) {
-                    String invalidToken = messages.get(i).getToken();
-                    if (deviceTokenDaoJpa.deleteToken(invalidToken)) {
-                        LOGGER.info("Removed expired/invalid token {}.", invalidToken);
-                    } else {
-                        LOGGER.error("Expired/invalid token {} doesn't exist in db.", invalidToken);
-                    }
+    private void send(List<FcmMessageParams> batch, int attempt) {
+        List<FcmMessageParams> retries = new ArrayList<>();
+        try {
+            this.bucket.asBlocking().consume(batch.size());
+            List<String> errorCodes = this.transport.send(batch);
+            int failed = 0;
+            for (int i = 0; i < errorCodes.size(); i++) {
+                String errorCode = errorCodes.get(i);
+                if (errorCode == null) {
+                    continue;
+                }
+                failed++;
+                if (TOKEN_REGISTRATION_ERROR.equals(errorCode)) {
+                    this.invalidTokens.add(batch.get(i).getToken());
+                } else if (RETRYABLE_ERRORS.contains(errorCode)) {
+                    retries.add(batch.get(i));
+                } else {
+                    LOGGER.warn("Failed to send Message with Error: '{}', message content: '{}'",
+                        errorCode, batch.get(i));
                 }
             }
+            LOGGER.info("Got batchResponse, succeeded: {}, failed: {}", errorCodes.size() - failed, failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to send {} messages, Error: {}", batch.size(), e.getMessage());
+            retries = batch;
+        }
+
+        if (!retries.isEmpty()) {
+            retryLater(retries, attempt);
         }
     }
 
-    private Message getMessageFromParams(FcmMessageParams fcmMessageParams) {
-        Message.Builder msg = Message.builder()
-            .setToken(fcmMessageParams.getToken())
-            .putAllData(fcmMessageParams.getData());
-        if (fcmMessageParams.getNotificationTitle() == null) {
-            msg.setNotification(DEFAULT_NOTIFICATION);
-        } else {
-            msg.setNotification(
-                Notification.builder()
-                    .setTitle(fcmMessageParams.getNotificationTitle())
-                    .setBody(fcmMessageParams.getNotificationBody())
-                    .build()
-            );
+    private void retryLater(List<FcmMessageParams> retries, int attempt) {
+        if (attempt >= this.fcmConfig.getMaxRetries()) {
+            LOGGER.error("Giving up {} messages after {} retries", retries.size(), attempt);
+            return;
+        }
+        long backoff = this.fcmConfig.getRetryBackoffMillis() << attempt;
+        LOGGER.info("Retrying {} messages in {} ms", retries.size(), backoff);
+        try {
+            this.scheduler.schedule(() -> submit(retries, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("FcmClient is shut down, dropped {} messages", retries.size());
+        }
+    }
+
+    private void flushInvalidTokens() {
+        if (this.invalidTokens.isEmpty()) {
+            return;
+        }
+        List<String> tokens = new ArrayList<>(this.invalidTokens);
+        this.invalidTokens.removeAll(tokens);
+        try {
+            int deleted = this.deviceTokenDaoJpa.deleteTokens(tokens);
+            LOGGER.info("Removed {} of {} expired/invalid tokens", deleted, tokens.size());
+        } catch (Exception e) {
+            LOGGER.error("Failed to remove expired/invalid tokens", e);
         }
-        return msg.build();
     }
 
     @PreDestroy
     public void preDestroy() {
-        if (executorService != null) {
+        if (this.executorService != null) {
+            this.executorService.shutdown();
             try {
-                executorService.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
+                this.executorService.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
             } catch (InterruptedException ex) {
                 Thread.currentThread().interrupt();
             }
         }
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+        flushInvalidTokens();
     }
 }
@@ -0,0 +1,15 @@
+package com.bulletjournal.messaging.firebase;
+
+import java.util.List;
+
+/**
+ * Sends one batch of push messages to a provider.
+ */
+public interface FcmTransport {
+
+    /**
+     * @return one error code per message in the same order, null if that message was sent
+     * @throws Exception if the whole batch failed
+     */
+    List<String> send(List<FcmMessageParams> messages) throws Exception;
+}
@@ -0,0 +1,47 @@
+package com.bulletjournal.messaging.firebase;
+
+import com.google.firebase.messaging.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FirebaseFcmTransport implements FcmTransport {
+
+    private static final Notification DEFAULT_NOTIFICATION
+        = Notification.builder().setTitle("Bullet Journal").setBody("You've got a new message.").build();
+
+    private final FirebaseMessaging firebase;
+
+    public FirebaseFcmTransport(FirebaseMessaging firebase) {
+        this.firebase = firebase;
+    }
+
+    @Override
+    public List<String> send(List<FcmMessageParams> messages) throws FirebaseMessagingException {
+        BatchResponse batchResponse = this.firebase.sendAll(
+            messages.stream().map(this::getMessageFromParams).collect(Collectors.toList()));
+        List<String> errorCodes = new ArrayList<>(messages.size());
+        for (SendResponse response : batchResponse.getResponses()) {
+            errorCodes.add(response.isSuccessful() ? null : response.getException().getErrorCode());
+        }
+        return errorCodes;
+    }
+
+    private Message getMessageFromParams(FcmMessageParams fcmMessageParams) {
+        Message.Builder msg = Message.builder()
+            .setToken(fcmMessageParams.getToken())
+            .putAllData(fcmMessageParams.getData());
+        if (fcmMessageParams.getNotificationTitle() == null) {
+            msg.setNotification(DEFAULT_NOTIFICATION);
+        } else {
+            msg.setNotification(
+                Notification.builder()
+                    .setTitle(fcmMessageParams.getNotificationTitle())
+                    .setBody(fcmMessageParams.getNotificationBody())
+                    .build()
+            );
+        }
+        return msg.build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.bulletjournal.messaging.mailjet;
+
+import java.util.List;
+
+/**
+ * Delivers one batch of emails.
+ */
+public interface EmailTransport {
+
+    /**
+     * @return one error per email in the same order, null if that email was accepted
+     * @throws Exception if the batch as a whole could not be delivered
+     */
+    List<String> send(List<MailjetEmailParams> emails) throws Exception;
+}
@@ -1,26 +1,33 @@
 package com.bulletjournal.messaging.mailjet;
 
+import com.bulletjournal.config.EmailConfig;
 import com.bulletjournal.util.CustomThreadFactory;
+import com.bulletjournal.util.ExpiringLruCache;
 import com.mailjet.client.ClientOptions;
 import com.mailjet.client.MailjetClient;
-import com.mailjet.client.MailjetRequest;
-import com.mailjet.client.MailjetResponse;
-import com.mailjet.client.errors.MailjetException;
-import com.mailjet.client.errors.MailjetSocketTimeoutException;
-import com.mailjet.client.resource.Emailv31;
 import org.apache.commons.lang3.tuple.Pair;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Queues emails and delivers them in batches of batchSize from workerThreads workers.
+ * <p>
+ * The queue holds queueCapacity emails; callers wait up to enqueueTimeoutMillis for space and the
+ * email is dropped after that. A recipient gets an identical email at most once per dedupWindowSeconds,
+ * counted from when Mailjet accepted it. A send call failing as a whole is retried up to maxRetries times,
+ * emails Mailjet rejects individually are dropped without failing the rest of their batch.
+ * Queue and delivery counters are logged every metricsLogSeconds.
+ */
 @Component
 public class MailjetEmailClient {
 
@@ -38,16 +45,41 @@ public class MailjetEmailClient {
 
     private static final long AWAIT_TERMINATION_SECONDS = 5;
 
-    private static final int SUCCESS_STATUS = 200;
+    private static final long POLL_TIMEOUT_SECONDS = 1;
 
-    private String senderEmail;
+    private final EmailConfig emailConfig;
 
-    private String senderName;
+    private final AtomicLong enqueued = new AtomicLong();
 
-    private MailjetClient client;
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong retried = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private BlockingQueue<MailjetEmailParams> queue;
+
+    private ExpiringLruCache<String, Boolean> recentlySent;
+
+    // dedup keys of queued or in-flight emails, guarded by recentlySent
+    private final Set<String> pending = new HashSet<>();
+
+    private EmailTransport transport;
 
     private ExecutorService executorService;
 
+    private ScheduledExecutorService metricsLogger;
+
+    private volatile boolean stop = false;
+
     public enum Template {
         TASK_DUE_NOTIFICATION(1625167),
         APP_INVITATION(1784938),
@@ -66,23 +98,39 @@ public class MailjetEmailClient {
         }
     }
 
+    @Autowired
+    public MailjetEmailClient(EmailConfig emailConfig) {
+        this.emailConfig = emailConfig;
+    }
+
     @PostConstruct
-    private void initializeMailjetClient() {
-        this.executorService = Executors.newSingleThreadExecutor(new CustomThreadFactory("EmailClient"));
+    public void initializeMailjetClient() {
+        this.queue = new LinkedBlockingQueue<>(this.emailConfig.getQueueCapacity());
+        this.recentlySent = new ExpiringLruCache<>(this.emailConfig.getDedupCacheSize(),
+            TimeUnit.SECONDS.toMillis(this.emailConfig.getDedupWindowSeconds()));
+        this.executorService = Executors.newFixedThreadPool(this.emailConfig.getWorkerThreads(),
+            new CustomThreadFactory("EmailClient"));
+        for (int i = 0; i < this.emailConfig.getWorkerThreads(); i++) {
+            this.executorService.submit(this::deliver);
+        }
+        this.metricsLogger = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("EmailMetrics"));
+        this.metricsLogger.scheduleWithFixedDelay(() -> LOGGER.info("Email metrics: {}", getMetrics()),
+            this.emailConfig.getMetricsLogSeconds(), this.emailConfig.getMetricsLogSeconds(), TimeUnit.SECONDS);
+
         if (System.getenv(API_KEY_PUBLIC) != null
             && System.getenv(SENDER_EMAIL_VAR) != null
             && System.getenv(SENDER_NAME_VAR) != null
         ) {
-            this.senderEmail = System.getenv(SENDER_EMAIL_VAR);
-            this.senderName = System.getenv(SENDER_NAME_VAR);
             try {
                 ClientOptions options = new ClientOptions(API_VERSION);
                 options.setTimeout(10000);
-                this.client = new MailjetClient(
+                MailjetClient client = new MailjetClient(
                     System.getenv(API_KEY_PUBLIC),
                     System.getenv(API_KEY_PRIVATE),
                     options
                 );
+                this.transport = new MailjetHttpTransport(
+                    client, System.getenv(SENDER_EMAIL_VAR), System.getenv(SENDER_NAME_VAR));
                 LOGGER.info("Mailjet client initialized.");
             } catch (Exception e) {
                 LOGGER.error("Failed to initialize mailjet client with error:'{}'", e.toString());
@@ -92,85 +140,174 @@ public class MailjetEmailClient {
         }
     }
 
+    /**
+     * Replace the delivery, e.g. with an in-memory stub for load tests
+     */
+    public void setTransport(EmailTransport transport) {
+        this.transport = transport;
+    }
 
-    public List<Future<MailjetResponse>> sendAllEmailAsync(List<MailjetEmailParams> paramsList) {
-        if (client == null) {
+    public void sendAllEmailAsync(List<MailjetEmailParams> paramsList) {
+        if (this.transport == null) {
             LOGGER.error("Mailjet key not set up, skip sending email.");
-            return null;
+            return;
         }
-        List<Future<MailjetResponse>> ret = new ArrayList<>();
         if (paramsList == null || paramsList.isEmpty()) {
-            return ret;
+            return;
         }
-        LOGGER.info("Sending emails: {}", paramsList);
+        LOGGER.info("Queueing {} emails", paramsList.size());
         for (MailjetEmailParams params : paramsList) {
-            CompletableFuture<MailjetResponse> future = new CompletableFuture<>();
-            executorService.submit(() -> {
-                try {
-                    MailjetResponse response = sendEmail(getReuqestFromParams(params));
-                    if (response.getStatus() != SUCCESS_STATUS) {
-                        LOGGER.error("Failed to send email, code:'{}', response:'{}'",
-                            response.getStatus(), response.getData());
-                    }
-                    future.complete(response);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    future.completeExceptionally(e);
+            if (!removeRecentReceivers(params)) {
+                this.deduplicated.incrementAndGet();
+                continue;
+            }
+            try {
+                if (this.queue.offer(params, this.emailConfig.getEnqueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                    this.enqueued.incrementAndGet();
+                } else {
+                    this.dropped.incrementAndGet();
+                    complete(params, false);
+                    LOGGER.error("Email queue is full, dropped email: {}", params);
                 }
-            });
-            ret.add(future);
+            } catch (InterruptedException e) {
+                complete(params, false);
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
-        return ret;
     }
 
     /**
-     * Blocking call to send a single email
+     * Drop receivers that got the same email within the dedup window or have it queued already,
+     * the others are pending until the email is accepted or given up
+     *
+     * @return false if no receiver is left
      */
-    public MailjetResponse sendEmail(MailjetRequest request) throws MailjetSocketTimeoutException, MailjetException {
-        MailjetResponse response = client.post(request);
-        LOGGER.debug("Mail sent, response status: {}, response data: {}",
-            response.getStatus(), response.getData());
-        return response;
+    private boolean removeRecentReceivers(MailjetEmailParams params) {
+        String digest = getDigest(params);
+        List<Pair<String, String>> receivers = new ArrayList<>();
+        for (Pair<String, String> receiver : params.getReceivers()) {
+            String key = receiver.getRight() + "#" + digest;
+            synchronized (this.recentlySent) {
+                if (this.recentlySent.get(key) != null || !this.pending.add(key)) {
+                    continue;
+                }
+            }
+            receivers.add(receiver);
+        }
+        if (receivers.size() < params.getReceivers().size()) {
+            params.setReceivers(receivers);
+        }
+        return !receivers.isEmpty();
     }
 
-    private MailjetRequest getReuqestFromParams(MailjetEmailParams params) {
-        JSONArray receivers = new JSONArray();
-        for (Pair<String, String> receiver : params.getReceivers()) {
-            receivers.put(
-                new JSONObject()
-                    .put("name", receiver.getLeft())
-                    .put("email", receiver.getRight())
-            );
+    /**
+     * Release the pending receivers of an email, they count as recently sent only if Mailjet accepted it
+     */
+    private void complete(MailjetEmailParams params, boolean accepted) {
+        String digest = getDigest(params);
+        synchronized (this.recentlySent) {
+            for (Pair<String, String> receiver : params.getReceivers()) {
+                String key = receiver.getRight() + "#" + digest;
+                this.pending.remove(key);
+                if (accepted) {
+                    this.recentlySent.put(key, Boolean.TRUE);
+                }
+            }
         }
-        JSONObject properties = new JSONObject()
-                    .put(Emailv31.Message.FROM, new JSONObject()
-                        .put("Email", this.senderEmail)
-                        .put("Name", this.senderName))
-                    .put(Emailv31.Message.TO, receivers)
-                    .put(Emailv31.Message.SUBJECT, params.getSubject());
-        if (params.getText() != null) {
-            properties.put(Emailv31.Message.TEXTPART, params.getText());
+    }
+
+    private static String getDigest(MailjetEmailParams params) {
+        return DigestUtils.md5DigestAsHex((params.getTemplate() + "|" + params.getSubject() + "|"
+            + params.getText() + "|" + params.getKv()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void deliver() {
+        int batchSize = this.emailConfig.getBatchSize();
+        // on shutdown, keep going until the queue is empty
+        while (!this.stop || !this.queue.isEmpty()) {
+            List<MailjetEmailParams> batch = new ArrayList<>(batchSize);
+            try {
+                MailjetEmailParams first = this.queue.poll(POLL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            this.queue.drainTo(batch, batchSize - 1);
+            deliverBatch(batch);
+            this.batches.incrementAndGet();
         }
-        if (params.getTemplate() != null) {
-            properties.put(Emailv31.Message.TEMPLATEID, params.getTemplate().getValue());
-            properties.put(Emailv31.Message.TEMPLATELANGUAGE, true);
-            JSONObject variables = new JSONObject();
-            for (Pair<String, Object> pair : params.getKv()) {
-                variables.put(pair.getKey(), pair.getValue());
+    }
+
+    private void deliverBatch(List<MailjetEmailParams> batch) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<String> errors = this.transport.send(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    String error = errors.get(i);
+                    if (error == null) {
+                        this.sent.incrementAndGet();
+                        complete(batch.get(i), true);
+                    } else {
+                        this.rejected.incrementAndGet();
+                        complete(batch.get(i), false);
+                        LOGGER.error("Mailjet rejected email {}, error: {}", batch.get(i), error);
+                    }
+                }
+                return;
+            } catch (Exception e) {
+                if (attempt >= this.emailConfig.getMaxRetries()) {
+                    giveUp(batch);
+                    LOGGER.error("Failed to send {} emails after {} retries", batch.size(), attempt, e);
+                    return;
+                }
+                long backoff = this.emailConfig.getRetryBackoffMillis() << attempt;
+                this.retried.addAndGet(batch.size());
+                LOGGER.warn("Failed to send {} emails, retrying in {} ms", batch.size(), backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ex) {
+                    giveUp(batch);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
-            properties.put(Emailv31.Message.VARIABLES, variables);
         }
-        LOGGER.info("email properties: {}", properties);
-        MailjetRequest request = new MailjetRequest(Emailv31.resource)
-            .property(Emailv31.MESSAGES, new JSONArray().put(properties));
-        return request;
+    }
+
+    private void giveUp(List<MailjetEmailParams> batch) {
+        this.failed.addAndGet(batch.size());
+        batch.forEach(params -> complete(params, false));
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("queued", (long) this.queue.size());
+        metrics.put("enqueued", this.enqueued.get());
+        metrics.put("deduplicated", this.deduplicated.get());
+        metrics.put("dropped", this.dropped.get());
+        metrics.put("sent", this.sent.get());
+        metrics.put("failed", this.failed.get());
+        metrics.put("rejected", this.rejected.get());
+        metrics.put("retried", this.retried.get());
+        metrics.put("batches", this.batches.get());
+        return metrics;
     }
 
     @PreDestroy
     public void preDestroy() {
-        if (executorService != null) {
+        this.stop = true;
+        if (this.metricsLogger != null) {
+            this.metricsLogger.shutdownNow();
+        }
+        if (this.executorService != null) {
+            this.executorService.shutdown();
             try {
-                executorService.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
+                this.executorService.awaitTermination(AWAIT_TERMINATION_SECONDS, TimeUnit.SECONDS);
             } catch (InterruptedException ex) {
                 Thread.currentThread().interrupt();
             }
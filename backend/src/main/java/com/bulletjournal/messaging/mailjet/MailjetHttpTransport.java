@@ -0,0 +1,119 @@
+package com.bulletjournal.messaging.mailjet;
+
+import com.mailjet.client.MailjetClient;
+import com.mailjet.client.MailjetRequest;
+import com.mailjet.client.MailjetResponse;
+import com.mailjet.client.resource.Emailv31;
+import org.apache.commons.lang3.tuple.Pair;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends a batch as one Mailjet v3.1 send call carrying all its messages.
+ * The client is shared by all workers so its connections are reused.
+ */
+public class MailjetHttpTransport implements EmailTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailjetHttpTransport.class);
+
+    private static final int SUCCESS_STATUS = 200;
+
+    // some messages of the batch were rejected, the others were accepted
+    private static final int BAD_REQUEST_STATUS = 400;
+
+    private final MailjetClient client;
+
+    private final String senderEmail;
+
+    private final String senderName;
+
+    public MailjetHttpTransport(MailjetClient client, String senderEmail, String senderName) {
+        this.client = client;
+        this.senderEmail = senderEmail;
+        this.senderName = senderName;
+    }
+
+    @Override
+    public List<String> send(List<MailjetEmailParams> emails) throws Exception {
+        JSONArray messages = new JSONArray();
+        for (MailjetEmailParams params : emails) {
+            messages.put(getMessageFromParams(params));
+        }
+        MailjetResponse response = this.client.post(
+            new MailjetRequest(Emailv31.resource).property(Emailv31.MESSAGES, messages));
+        LOGGER.debug("Mail sent, response status: {}, response data: {}",
+            response.getStatus(), response.getData());
+        if (response.getStatus() == SUCCESS_STATUS) {
+            return Collections.nCopies(emails.size(), null);
+        }
+        JSONArray results = getMessageResults(response.getData());
+        if (response.getStatus() != BAD_REQUEST_STATUS || results == null || results.length() != emails.size()) {
+            throw new IOException("Failed to send emails, code: " + response.getStatus()
+                + ", response: " + response.getData());
+        }
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            if ("success".equals(result.optString("Status"))) {
+                errors.add(null);
+            } else {
+                JSONArray messageErrors = result.optJSONArray("Errors");
+                errors.add(messageErrors == null ? result.toString() : messageErrors.toString());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @return the per message results of a v3.1 send call, null if the response has none
+     */
+    private static JSONArray getMessageResults(JSONArray data) {
+        if (data == null) {
+            return null;
+        }
+        for (int i = 0; i < data.length(); i++) {
+            JSONObject item = data.optJSONObject(i);
+            if (item != null && item.has("Messages")) {
+                return item.getJSONArray("Messages");
+            }
+        }
+        return null;
+    }
+
+    private JSONObject getMessageFromParams(MailjetEmailParams params) {
+        JSONArray receivers = new JSONArray();
+        for (Pair<String, String> receiver : params.getReceivers()) {
+            receivers.put(
+                new JSONObject()
+                    .put("name", receiver.getLeft())
+                    .put("email", receiver.getRight())
+            );
+        }
+        JSONObject properties = new JSONObject()
+                    .put(Emailv31.Message.FROM, new JSONObject()
+                        .put("Email", this.senderEmail)
+                        .put("Name", this.senderName))
+                    .put(Emailv31.Message.TO, receivers)
+                    .put(Emailv31.Message.SUBJECT, params.getSubject());
+        if (params.getText() != null) {
+            properties.put(Emailv31.Message.TEXTPART, params.getText());
+        }
+        if (params.getTemplate() != null) {
+            properties.put(Emailv31.Message.TEMPLATEID, params.getTemplate().getValue());
+            properties.put(Emailv31.Message.TEMPLATELANGUAGE, true);
+            JSONObject variables = new JSONObject();
+            for (Pair<String, Object> pair : params.getKv()) {
+                variables.put(pair.getKey(), pair.getValue());
+            }
+            properties.put(Emailv31.Message.VARIABLES, variables);
+        }
+        return properties;
+    }
+}
@@ -1,10 +1,16 @@
 package com.bulletjournal.notifications;
 
 import com.bulletjournal.contents.ContentAction;
+import com.bulletjournal.repository.models.ProjectItemModel;
 
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class Auditable {
+    private static final int MAX_BATCH_NAMES = 10;
+
     private Long projectId;
     // projectItem may be deleted already
     private Long projectItemId;
@@ -68,6 +74,32 @@ public class Auditable {
         this.activityTime = activityTime;
     }
 
+    /**
+     * Names the items of a bulk action in a single activity, e.g. "3 Tasks ##a##, ##b##, ##c##"
+     */
+    public static String describeBatch(String itemType, List<String> names) {
+        if (names.size() == 1) {
+            return itemType + " ##" + names.get(0) + "##";
+        }
+        String description = names.size() + " " + itemType + "s " + names.stream().limit(MAX_BATCH_NAMES)
+                .map(name -> "##" + name + "##").collect(Collectors.joining(", "));
+        if (names.size() > MAX_BATCH_NAMES) {
+            description += " and " + (names.size() - MAX_BATCH_NAMES) + " more";
+        }
+        return description;
+    }
+
+    /**
+     * One activity for a bulk action on items of the same type, attached to the first item
+     */
+    public static Auditable ofBatch(Long projectId, String verb, String itemType,
+                                    List<? extends ProjectItemModel> items, String suffix, String originator,
+                                    ContentAction action) {
+        List<String> names = items.stream().map(ProjectItemModel::getName).collect(Collectors.toList());
+        return new Auditable(projectId, verb + " " + describeBatch(itemType, names) + suffix, originator,
+                items.get(0).getId(), Timestamp.from(Instant.now()), action);
+    }
+
     public Long getProjectId() {
         return projectId;
     }
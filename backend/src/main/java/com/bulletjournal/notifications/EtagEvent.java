@@ -3,10 +3,14 @@ package com.bulletjournal.notifications;
 import com.bulletjournal.redis.models.EtagType;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 public class EtagEvent implements Serializable {
 
-    private String contentId;
+    private Set<String> contentIds;
 
     private EtagType etagType;
 
@@ -14,16 +18,23 @@ public class EtagEvent implements Serializable {
     }
 
     public EtagEvent(String contentId, EtagType etagType) {
-        this.contentId = contentId;
+        this(Collections.singleton(contentId), etagType);
+    }
+
+    /**
+     * One event for every content id of the same type, e.g. all members of a deleted group
+     */
+    public EtagEvent(Collection<String> contentIds, EtagType etagType) {
+        this.contentIds = new HashSet<>(contentIds);
         this.etagType = etagType;
     }
 
-    public String getContentId() {
-        return contentId;
+    public Set<String> getContentIds() {
+        return contentIds;
     }
 
-    public void setContentId(String contentId) {
-        this.contentId = contentId;
+    public void setContentIds(Set<String> contentIds) {
+        this.contentIds = contentIds;
     }
 
     public EtagType getEtagType() {
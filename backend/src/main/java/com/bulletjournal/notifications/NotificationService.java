@@ -55,9 +55,6 @@ public class NotificationService {
     @Autowired
     private SampleTaskDaoJpa sampleTaskDaoJpa;
 
-    @Autowired
-    private CompletedTaskRepository completedTaskRepository;
-
     @Autowired
     public NotificationService(NotificationDaoJpa notificationDaoJpa, AuditableDaoJpa auditableDaoJpa,
                                SearchIndexDaoJpa searchIndexDaoJpa, RedisEtagDaoJpa redisEtagDaoJpa) {
@@ -106,14 +103,6 @@ public class NotificationService {
         this.eventQueue.offer(removeElasticsearchDocumentEvent);
     }
 
-    public void saveCompleteTasks(SaveCompleteTasksEvent saveCompleteTasksEvent) {
-        LOGGER.info("Received saveCompleteTask: " + saveCompleteTasksEvent);
-        if (saveCompleteTasksEvent == null) {
-            return;
-        }
-        this.eventQueue.offer(saveCompleteTasksEvent);
-    }
-
     public void cacheEtag(EtagEvent etagEvent) {
         LOGGER.info("Received etag: " + etagEvent);
         if (etagEvent == null) {
@@ -122,14 +111,6 @@ public class NotificationService {
         this.eventQueue.offer(etagEvent);
     }
 
-    public void addContentBatch(ContentBatch contentBatch) {
-        if (contentBatch == null) {
-            return;
-        }
-        LOGGER.info("Received contentBatch: {}", contentBatch.getContents().size());
-        this.eventQueue.offer(contentBatch);
-    }
-
     public void createSampleProjects(SampleProjectsCreation sampleProjectsCreation) {
         LOGGER.info("Received sampleProjectsCreation: " + sampleProjectsCreation);
         if (sampleProjectsCreation == null) {
@@ -173,10 +154,8 @@ public class NotificationService {
             List<Informed> informeds = new ArrayList<>();
             List<Auditable> auditables = new ArrayList<>();
             List<RemoveElasticsearchDocumentEvent> removeElasticsearchDocumentEvents = new ArrayList<>();
-            List<SaveCompleteTasksEvent> saveCompleteTasksEvents = new ArrayList<>();
             List<EtagEvent> etagEvents = new ArrayList<>();
             List<Remindable> remindables = new ArrayList<>();
-            List<ContentBatch> contentBatches = new ArrayList<>();
             List<SampleProjectsCreation> sampleProjectsCreations = new ArrayList<>();
             List<SampleTaskChange> sampleTaskChanges = new ArrayList<>();
             List<ImportSampleTasksEvent> importSampleTasksEvents = new ArrayList<>();
@@ -187,14 +166,10 @@ public class NotificationService {
                     auditables.add((Auditable) e);
                 } else if (e instanceof RemoveElasticsearchDocumentEvent) {
                     removeElasticsearchDocumentEvents.add((RemoveElasticsearchDocumentEvent) e);
-                } else if (e instanceof SaveCompleteTasksEvent) {
-                    saveCompleteTasksEvents.add((SaveCompleteTasksEvent) e);
                 } else if (e instanceof EtagEvent) {
                     etagEvents.add((EtagEvent) e);
                 } else if (e instanceof Remindable) {
                     remindables.add((Remindable) e);
-                } else if (e instanceof ContentBatch) {
-                    contentBatches.add((ContentBatch) e);
                 } else if (e instanceof SampleProjectsCreation) {
                     sampleProjectsCreations.add((SampleProjectsCreation) e);
                 } else if (e instanceof SampleTaskChange) {
@@ -224,15 +199,6 @@ public class NotificationService {
             } catch (Exception ex) {
                 LOGGER.error("Error on deleting records in SearchIndexDaoJpa", ex);
             }
-            try {
-                if (!saveCompleteTasksEvents.isEmpty()) {
-                    saveCompleteTasksEvents.forEach(saveCompleteTasksEvent -> {
-                        this.completedTaskRepository.saveAll(saveCompleteTasksEvent.getCompletedTaskList());
-                    });
-                }
-            } catch (Exception ex) {
-                LOGGER.error("Error on saving completeTasks", ex);
-            }
             try {
                 if (!etagEvents.isEmpty()) {
                     this.redisEtagDaoJpa.create(etagEvents);
@@ -249,15 +215,6 @@ public class NotificationService {
                 LOGGER.error("Error on Reminder", ex);
             }
 
-            try {
-                // batch contents is only for tasks
-                for (ContentBatch batch : contentBatches) {
-                    this.taskDaoJpa.addContent(batch.getProjectItems(), batch.getOwners(), batch.getContents());
-                }
-            } catch (Exception ex) {
-                LOGGER.error("Error on ContentBatch", ex);
-            }
-
             try {
                 for (SampleProjectsCreation sampleProjectsCreation : sampleProjectsCreations) {
                     Pair<Project, Project> result = this.projectDaoJpa.createSampleProjects(sampleProjectsCreation);
@@ -6,7 +6,6 @@ import com.bulletjournal.notifications.Event;
 import com.bulletjournal.repository.UserAliasDaoJpa;
 import com.bulletjournal.repository.models.Notification;
 import com.google.common.collect.ImmutableList;
-import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,7 +14,6 @@ import java.util.stream.Collectors;
 
 public abstract class Informed {
     private static final Logger LOGGER = LoggerFactory.getLogger(Informed.class);
-    private static final Gson GSON = new Gson();
     private List<Event> events;
     private String originator;
 
@@ -55,7 +53,7 @@ public abstract class Informed {
                             this.getLink(event.getContentId()));
                     List<Action> actions = this.getEventActions(event);
                     if (actions != null) {
-                        notification.setActions(GSON.toJson(actions));
+                        notification.setActions(actions);
                     }
                     return notification;
                 })
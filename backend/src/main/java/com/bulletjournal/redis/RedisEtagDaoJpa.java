@@ -42,7 +42,7 @@ public class RedisEtagDaoJpa {
         }
 
         Map<EtagType, Set<String>> aggregateMap = new HashMap<>();
-        etagEvents.forEach(e -> aggregateMap.computeIfAbsent(e.getEtagType(), n -> new HashSet<>()).add(e.getContentId()));
+        etagEvents.forEach(e -> aggregateMap.computeIfAbsent(e.getEtagType(), n -> new HashSet<>()).addAll(e.getContentIds()));
 
         mergeEventToOtherEvent(EtagType.USER_GROUP, EtagType.GROUP, aggregateMap);
 
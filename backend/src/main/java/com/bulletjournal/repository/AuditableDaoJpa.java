@@ -2,8 +2,10 @@ package com.bulletjournal.repository;
 
 import com.bulletjournal.contents.ContentAction;
 import com.bulletjournal.controller.models.Activity;
+import com.bulletjournal.controller.models.CursorPage;
 import com.bulletjournal.controller.utils.ZonedDateTimeHelper;
 import com.bulletjournal.repository.models.Project;
+import com.bulletjournal.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
@@ -11,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.ZonedDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,31 +38,50 @@ public class AuditableDaoJpa {
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public List<Activity> getHistory(Long projectId, String timezone, String startDate, String endDate,
                                      ContentAction action, String username, String requester) {
+        return getHistoryPage(projectId, timezone, startDate, endDate, action, username, requester, null, 0)
+                .getItems();
+    }
+
+    /**
+     * One page of project history, newest first
+     *
+     * @param cursor   nextCursor of the previous page, or null for the first page
+     * @param pageSize max number of activities, 0 for all
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public CursorPage<Activity> getHistoryPage(Long projectId, String timezone, String startDate, String endDate,
+                                               ContentAction action, String username, String requester,
+                                               String cursor, int pageSize) {
         Project project = this.projectDaoJpa.getProject(projectId, requester);
         if (project.isShared()) {
-            return Collections.emptyList();
+            return new CursorPage<>();
         }
 
         ZonedDateTime startTime = ZonedDateTimeHelper.getStartTime(startDate, null, timezone);
         ZonedDateTime endTime = ZonedDateTimeHelper.getEndTime(endDate, null, timezone);
 
-        List<com.bulletjournal.repository.models.Auditable> auditables;
-
-        if (username.equals(EVERYONE) && action.equals(ContentAction.ALL_ACTIONS)) {
-            auditables = this.auditableRepository.findAuditablesBetweenAllActionsAllUsers(projectId,
-                    Timestamp.from(startTime.toInstant()), Timestamp.from(endTime.toInstant()));
-        } else if (username.equals(EVERYONE) && !action.equals(ContentAction.ALL_ACTIONS)) {
-            auditables = this.auditableRepository.findAuditablesBetweenAllUsers(projectId,
-                    Timestamp.from(startTime.toInstant()), Timestamp.from(endTime.toInstant()), action);
-        } else if (!username.equals(EVERYONE) && action.equals(ContentAction.ALL_ACTIONS)) {
-            auditables = this.auditableRepository.findAuditablesBetweenAllActions(projectId,
-                    Timestamp.from(startTime.toInstant()), Timestamp.from(endTime.toInstant()), username);
-        } else {
-            auditables = this.auditableRepository.findAuditablesBetween(projectId,
-                    Timestamp.from(startTime.toInstant()), Timestamp.from(endTime.toInstant()), action, username);
+        Timestamp beforeTime = null;
+        Long beforeId = null;
+        KeysetCursor position = KeysetCursor.parse(cursor, 2);
+        if (position != null) {
+            beforeTime = position.getTime(0);
+            beforeId = position.getKey(1);
         }
 
-        return auditables.stream().map(a -> a.toActivity()).collect(Collectors.toList());
+        List<com.bulletjournal.repository.models.Auditable> auditables = this.auditableRepository.findHistory(
+                projectId, Timestamp.from(startTime.toInstant()), Timestamp.from(endTime.toInstant()),
+                ContentAction.ALL_ACTIONS.equals(action) ? null : action,
+                EVERYONE.equals(username) ? null : username,
+                beforeTime, beforeId, pageSize > 0 ? pageSize + 1 : 0);
+
+        String nextCursor = "";
+        if (pageSize > 0 && auditables.size() > pageSize) {
+            auditables = auditables.subList(0, pageSize);
+            com.bulletjournal.repository.models.Auditable last = auditables.get(pageSize - 1);
+            nextCursor = KeysetCursor.format(last.getActivityTime(), last.getId());
+        }
+        return new CursorPage<>(auditables.stream().map(a -> a.toActivity()).collect(Collectors.toList()),
+                nextCursor);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -0,0 +1,22 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.contents.ContentAction;
+import com.bulletjournal.repository.models.Auditable;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface AuditableRepositoryCustom {
+
+    /**
+     * Auditables of a project between startTime and endTime, newest first
+     *
+     * @param action     null for all actions
+     * @param originator null for all users
+     * @param beforeTime with beforeId, return only auditables after this one; null for the first page
+     * @param limit      max number of auditables, 0 for no limit
+     */
+    List<Auditable> findHistory(Long projectId, Timestamp startTime, Timestamp endTime,
+                                ContentAction action, String originator,
+                                Timestamp beforeTime, Long beforeId, int limit);
+}
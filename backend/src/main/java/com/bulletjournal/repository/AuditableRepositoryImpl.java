@@ -0,0 +1,60 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.contents.ContentAction;
+import com.bulletjournal.repository.models.Auditable;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@Transactional
+public class AuditableRepositoryImpl implements AuditableRepositoryCustom {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public List<Auditable> findHistory(Long projectId, Timestamp startTime, Timestamp endTime,
+                                       ContentAction action, String originator,
+                                       Timestamp beforeTime, Long beforeId, int limit) {
+        // only the filters in use go into the query, so each variant can seek its own index
+        StringBuilder queryString = new StringBuilder("SELECT auditable FROM Auditable auditable "
+                + "WHERE auditable.projectId = :projectId "
+                + "AND auditable.activityTime >= :startTime AND auditable.activityTime <= :endTime");
+        if (action != null) {
+            queryString.append(" AND auditable.action = :action");
+        }
+        if (originator != null) {
+            queryString.append(" AND auditable.originator = :originator");
+        }
+        if (beforeTime != null) {
+            queryString.append(" AND auditable.activityTime <= :beforeTime AND (auditable.activityTime < :beforeTime "
+                    + "OR auditable.id < :beforeId)");
+        }
+        queryString.append(" ORDER BY auditable.activityTime DESC, auditable.id DESC");
+
+        TypedQuery<Auditable> query = entityManager.createQuery(queryString.toString(), Auditable.class);
+        query.setParameter("projectId", projectId);
+        query.setParameter("startTime", startTime);
+        query.setParameter("endTime", endTime);
+        if (action != null) {
+            query.setParameter("action", action);
+        }
+        if (originator != null) {
+            query.setParameter("originator", originator);
+        }
+        if (beforeTime != null) {
+            query.setParameter("beforeTime", beforeTime);
+            query.setParameter("beforeId", beforeId);
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+}
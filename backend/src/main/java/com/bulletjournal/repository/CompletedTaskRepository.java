@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,25 +23,74 @@ public interface CompletedTaskRepository extends JpaRepository<CompletedTask, Lo
 
     @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id = :projectId AND "
             + "completed_tasks.created_at >= :startTime AND completed_tasks.created_at <= :endTime AND "
-            + ":assignee = ANY(completed_tasks.assignees)", nativeQuery = true)
+            + "completed_tasks.assignees @> CAST(ARRAY[:assignee] AS text[])", nativeQuery = true)
     List<CompletedTask> findCompletedTaskByAssigneeBetween(@Param("projectId") Long projectId,
                                                            @Param("assignee") String assignee, @Param("startTime") Timestamp startTime,
                                                            @Param("endTime") Timestamp endTime);
 
-    @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id in :projectIds AND " +
-            "completed_tasks.created_at >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS') AND " +
-            "completed_tasks.created_at <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS')",
-    nativeQuery = true)
-    List<CompletedTask> findCompletedTaskWithProjectIdStartTimeEndTime(List<Long> projectIds, String startTime, String endTime);
+    /**
+     * Keyset page of completed tasks in [startTime, endTime] before (beforeTime, beforeId), newest first
+     */
+    @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id = :projectId AND "
+            + "completed_tasks.created_at >= :startTime AND completed_tasks.created_at <= :endTime AND "
+            + "(completed_tasks.created_at, completed_tasks.id) < (:beforeTime, :beforeId) "
+            + "ORDER BY completed_tasks.created_at DESC, completed_tasks.id DESC LIMIT :limit", nativeQuery = true)
+    List<CompletedTask> findCompletedTaskBetweenBefore(@Param("projectId") Long projectId,
+                                                       @Param("startTime") Timestamp startTime,
+                                                       @Param("endTime") Timestamp endTime,
+                                                       @Param("beforeTime") Timestamp beforeTime,
+                                                       @Param("beforeId") Long beforeId, @Param("limit") int limit);
 
-    @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id in :projectIds AND " +
-            "completed_tasks.created_at >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS')", nativeQuery = true)
-    List<CompletedTask> findCompletedTaskWithProjectIdStartTime(List<Long> projectIds, String startTime);
+    /**
+     * Keyset page of assignee's completed tasks in [startTime, endTime] before (beforeTime, beforeId), newest first
+     */
+    @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id = :projectId AND "
+            + "completed_tasks.created_at >= :startTime AND completed_tasks.created_at <= :endTime AND "
+            + "completed_tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND "
+            + "(completed_tasks.created_at, completed_tasks.id) < (:beforeTime, :beforeId) "
+            + "ORDER BY completed_tasks.created_at DESC, completed_tasks.id DESC LIMIT :limit", nativeQuery = true)
+    List<CompletedTask> findCompletedTaskByAssigneeBetweenBefore(@Param("projectId") Long projectId,
+                                                                 @Param("assignee") String assignee,
+                                                                 @Param("startTime") Timestamp startTime,
+                                                                 @Param("endTime") Timestamp endTime,
+                                                                 @Param("beforeTime") Timestamp beforeTime,
+                                                                 @Param("beforeId") Long beforeId,
+                                                                 @Param("limit") int limit);
 
-    @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id in :projectIds AND " +
-            "completed_tasks.created_at <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS')", nativeQuery = true)
-    List<CompletedTask> findCompletedTaskWithProjectIdEndTime(List<Long> projectIds, String endTime);
+    /**
+     * Insert a completed copy of each task and hand its contents over to the copy, without loading either.
+     * Tasks created from a sample task get the sample task content as their first content.
+     *
+     * @return rows of task id and completed task id
+     */
+    @Query(value = "WITH moved AS (SELECT t.id AS task_id, nextval('completed_task_sequence') AS completed_task_id " +
+            "FROM tasks t WHERE t.id IN :taskIds), " +
+            "inserted AS (INSERT INTO completed_tasks (id, created_at, updated_at, name, owner, assignees, " +
+            "due_date, due_time, duration, start_time, end_time, timezone, reminder_before_task, reminder_date, " +
+            "reminder_time, reminder_date_time, recurrence_rule, google_calendar_event_id, location, " +
+            "contents_order, project_id) " +
+            "SELECT m.completed_task_id, :completedAt, :completedAt, t.name, t.owner, t.assignees, t.due_date, " +
+            "t.due_time, t.duration, t.start_time, t.end_time, t.timezone, t.reminder_before_task, " +
+            "t.reminder_date, t.reminder_time, t.reminder_date_time, t.recurrence_rule, " +
+            "t.google_calendar_event_id, t.location, t.contents_order, t.project_id " +
+            "FROM moved m JOIN tasks t ON t.id = m.task_id), " +
+            "sample_contents AS (INSERT INTO task_contents (id, created_at, updated_at, owner, text, base_text, " +
+            "revisions, completed_task_id) " +
+            "SELECT nextval('task_content_sequence'), :completedAt, :completedAt, t.owner, s.content, s.content, " +
+            "'', m.completed_task_id " +
+            "FROM moved m JOIN tasks t ON t.id = m.task_id JOIN template.sample_tasks s ON s.id = t.sample_task_id), " +
+            "contents AS (UPDATE task_contents c SET task_id = NULL, completed_task_id = m.completed_task_id " +
+            "FROM moved m WHERE c.task_id = m.task_id) " +
+            "SELECT m.task_id, m.completed_task_id FROM moved m", nativeQuery = true)
+    List<Object[]> insertCompletedTasks(@Param("taskIds") Collection<Long> taskIds,
+                                        @Param("completedAt") Timestamp completedAt);
 
-    @Query(value = "SELECT * FROM completed_tasks WHERE completed_tasks.project_id in :projectIds", nativeQuery = true)
-    List<CompletedTask> findCompletedTaskWithProjectId(List<Long> projectIds);
+    /**
+     * Create upcoming monthly partitions and move partitions past retention into completed_tasks_archive
+     *
+     * @return number of archived completed tasks
+     */
+    @Query(value = "SELECT maintain_completed_tasks_partitions(:monthsAhead, :retentionMonths)", nativeQuery = true)
+    Integer maintainPartitions(@Param("monthsAhead") int monthsAhead,
+                               @Param("retentionMonths") int retentionMonths);
 }
@@ -0,0 +1,36 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.repository.models.ContentRevisionModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+@NoRepositoryBean
+public interface ContentRevisionRepository<R extends ContentRevisionModel> extends JpaRepository<R, Long> {
+
+    R findFirstByContentIdOrderByRevisionIdDesc(Long contentId);
+
+    R findByContentIdAndRevisionId(Long contentId, Long revisionId);
+
+    R findFirstByContentIdAndRevisionIdLessThanEqualAndSnapshotIsNotNullOrderByRevisionIdDesc(
+            Long contentId, Long revisionId);
+
+    List<R> findByContentIdAndRevisionIdGreaterThanAndRevisionIdLessThanEqualOrderByRevisionIdAsc(
+            Long contentId, Long fromRevisionId, Long toRevisionId);
+
+    /**
+     * Revision list without diffs and snapshots: content id, revision id, created at, username
+     */
+    @Query("SELECT r.contentId, r.revisionId, r.createdAt, r.username FROM #{#entityName} r " +
+            "WHERE r.contentId IN :contentIds ORDER BY r.revisionId")
+    List<Object[]> findRevisionHeadersByContentIds(@Param("contentIds") Collection<Long> contentIds);
+
+    @Modifying
+    @Query("DELETE FROM #{#entityName} r WHERE r.contentId = :contentId AND r.revisionId < :revisionId")
+    void deleteRevisionsBefore(@Param("contentId") Long contentId, @Param("revisionId") Long revisionId);
+}
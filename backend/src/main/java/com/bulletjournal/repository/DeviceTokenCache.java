@@ -0,0 +1,93 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.DeviceTokenConfig;
+import com.bulletjournal.util.CommittedLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Active device tokens per user, resolved for any number of users in one query.
+ * <p>
+ * Users are spread over shards so concurrent fan-outs do not serialize on a single cache lock.
+ * {@link DeviceTokenDaoJpa} invalidates a user once its token change commits.
+ */
+@Repository
+public class DeviceTokenCache {
+
+    private final DeviceTokenRepository deviceTokenRepository;
+
+    private final DeviceTokenConfig deviceTokenConfig;
+
+    private final List<CommittedLruCache<String, List<String>>> shards = new ArrayList<>();
+
+    @Autowired
+    public DeviceTokenCache(DeviceTokenRepository deviceTokenRepository, DeviceTokenConfig deviceTokenConfig) {
+        if (deviceTokenConfig.getCacheShards() <= 0) {
+            throw new IllegalArgumentException("Invalid cacheShards: " + deviceTokenConfig.getCacheShards());
+        }
+        this.deviceTokenRepository = deviceTokenRepository;
+        this.deviceTokenConfig = deviceTokenConfig;
+        int shardSize = Math.max(1, deviceTokenConfig.getCacheSize() / deviceTokenConfig.getCacheShards());
+        long ttlMillis = TimeUnit.SECONDS.toMillis(deviceTokenConfig.getCacheTtlSeconds());
+        for (int i = 0; i < deviceTokenConfig.getCacheShards(); i++) {
+            this.shards.add(new CommittedLruCache<>(shardSize, ttlMillis));
+        }
+    }
+
+    /**
+     * @return username to tokens, a user without active tokens maps to an empty list
+     */
+    public Map<String, List<String>> getTokens(Collection<String> usernames) {
+        Map<String, List<String>> tokens = new HashMap<>();
+        Map<String, Long> missing = new HashMap<>();
+        for (String username : usernames) {
+            CommittedLruCache<String, List<String>> shard = shard(username);
+            long version = shard.version();
+            List<String> cached = shard.getIfPresent(username);
+            if (cached == null) {
+                missing.put(username, version);
+            } else {
+                tokens.put(username, cached);
+            }
+        }
+        if (missing.isEmpty()) {
+            return tokens;
+        }
+
+        Map<String, List<String>> loaded = new HashMap<>();
+        missing.keySet().forEach(username -> loaded.put(username, new ArrayList<>()));
+        Timestamp seenAfter = new Timestamp(System.currentTimeMillis()
+                - TimeUnit.DAYS.toMillis(this.deviceTokenConfig.getRetentionDays()));
+        for (Object[] row : this.deviceTokenRepository.findActiveTokens(missing.keySet(), seenAfter)) {
+            loaded.get((String) row[0]).add((String) row[1]);
+        }
+        loaded.forEach((username, userTokens) -> {
+            List<String> value = Collections.unmodifiableList(userTokens);
+            shard(username).putIfUnchanged(username, value, missing.get(username));
+            tokens.put(username, value);
+        });
+        return tokens;
+    }
+
+    public void invalidate(Collection<String> usernames) {
+        Map<CommittedLruCache<String, List<String>>, List<String>> byShard = new HashMap<>();
+        for (String username : usernames) {
+            if (username != null) {
+                byShard.computeIfAbsent(shard(username), k -> new ArrayList<>()).add(username);
+            }
+        }
+        byShard.forEach(CommittedLruCache::invalidate);
+    }
+
+    public void invalidateAll() {
+        this.shards.forEach(CommittedLruCache::invalidateAll);
+    }
+
+    private CommittedLruCache<String, List<String>> shard(String username) {
+        return this.shards.get(Math.floorMod(username.hashCode(), this.shards.size()));
+    }
+}
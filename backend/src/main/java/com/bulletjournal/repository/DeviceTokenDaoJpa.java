@@ -1,15 +1,19 @@
 package com.bulletjournal.repository;
 
+import com.bulletjournal.config.DeviceTokenConfig;
 import com.bulletjournal.exceptions.ResourceAlreadyExistException;
 import com.bulletjournal.repository.models.DeviceToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Repository
 public class DeviceTokenDaoJpa {
@@ -17,6 +21,15 @@ public class DeviceTokenDaoJpa {
     @Autowired
     DeviceTokenRepository deviceTokenRepository;
 
+    @Autowired
+    private DeviceTokenCache deviceTokenCache;
+
+    @Autowired
+    private DeviceTokenConfig deviceTokenConfig;
+
+    // tokens registered again since the last flush of last_seen_at
+    private final Set<String> seenTokens = ConcurrentHashMap.newKeySet();
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public DeviceToken create(String token, String userName) {
         DeviceToken existingToken = deviceTokenRepository.findDeviceTokenByToken(token);
@@ -24,23 +37,79 @@ public class DeviceTokenDaoJpa {
             throw new ResourceAlreadyExistException("DeviceToken " + token + " already exists");
         }
         DeviceToken deviceToken = new DeviceToken(userName, token);
+        deviceTokenCache.invalidate(Collections.singleton(userName));
         return deviceTokenRepository.save(deviceToken);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void updateUser(DeviceToken deviceToken, String userName) {
+        deviceTokenCache.invalidate(Arrays.asList(deviceToken.getUsername(), userName));
         deviceToken.setUsername(userName);
+        deviceToken.setLastSeenAt(new Timestamp(System.currentTimeMillis()));
         deviceTokenRepository.save(deviceToken);
     }
 
+    /**
+     * Record that a known token was registered again, written by {@link #flushLastSeen}
+     */
+    public void touch(String token) {
+        seenTokens.add(token);
+    }
+
+    /**
+     * Write buffered registrations with one statement
+     *
+     * @return number of tokens updated
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public int flushLastSeen() {
+        if (seenTokens.isEmpty()) {
+            return 0;
+        }
+        List<String> tokens = new ArrayList<>(seenTokens);
+        int updated = deviceTokenRepository.updateLastSeenAt(tokens, new Timestamp(System.currentTimeMillis()));
+        // tokens stay buffered until the update commits, a failed flush is retried by the next one
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seenTokens.removeAll(tokens);
+            }
+        });
+        return updated;
+    }
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public boolean deleteToken(String token) {
-        DeviceToken existingToken = deviceTokenRepository.findDeviceTokenByToken(token);
-        if (existingToken != null) {
-            deviceTokenRepository.delete(existingToken);
-            return true;
+        return deleteTokens(Collections.singleton(token)) > 0;
+    }
+
+    /**
+     * Delete tokens with one statement
+     *
+     * @return number of tokens deleted
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public int deleteTokens(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return 0;
         }
-        return false;
+        List<String> usernames = deviceTokenRepository.deleteByTokens(new HashSet<>(tokens));
+        deviceTokenCache.invalidate(usernames);
+        return usernames.size();
+    }
+
+    /**
+     * Delete up to limit tokens not seen within the retention
+     *
+     * @return number of tokens deleted
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public int deleteStaleTokens(int limit) {
+        Timestamp seenBefore = new Timestamp(System.currentTimeMillis()
+                - TimeUnit.DAYS.toMillis(deviceTokenConfig.getRetentionDays()));
+        List<String> usernames = deviceTokenRepository.deleteStaleTokens(seenBefore, limit);
+        deviceTokenCache.invalidate(usernames);
+        return usernames.size();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -48,9 +117,11 @@ public class DeviceTokenDaoJpa {
         return deviceTokenRepository.findDeviceTokensByUser(userName);
     }
 
-    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public List<DeviceToken> getTokensByUsers(Collection<String> userNames) {
-        return deviceTokenRepository.findDeviceTokensByUsers(new HashSet<>(userNames));
+    /**
+     * @return username to active tokens, a user without active tokens maps to an empty list
+     */
+    public Map<String, List<String>> getTokensByUsers(Collection<String> userNames) {
+        return deviceTokenCache.getTokens(userNames);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -61,5 +132,6 @@ public class DeviceTokenDaoJpa {
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void deleteAllTokens() {
         deviceTokenRepository.deleteAll();
+        deviceTokenCache.invalidateAll();
     }
 }
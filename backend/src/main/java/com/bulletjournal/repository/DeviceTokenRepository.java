@@ -2,11 +2,14 @@ package com.bulletjournal.repository;
 
 import com.bulletjournal.repository.models.DeviceToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 @Repository
 public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long> {
@@ -16,6 +19,31 @@ public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long>
     @Query("SELECT t FROM DeviceToken t WHERE t.username = ?1")
     List<DeviceToken> findDeviceTokensByUser(String username);
 
-    @Query("SELECT t FROM DeviceToken t WHERE t.username IN ?1")
-    List<DeviceToken> findDeviceTokensByUsers(Set<String> usernames);
+    /**
+     * @return (username, token) of tokens seen after seenAfter
+     */
+    @Query("SELECT t.username, t.token FROM DeviceToken t WHERE t.username IN :usernames AND t.lastSeenAt > :seenAfter")
+    List<Object[]> findActiveTokens(@Param("usernames") Collection<String> usernames,
+                                    @Param("seenAfter") Timestamp seenAfter);
+
+    /**
+     * @return usernames of the deleted tokens
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM device_tokens WHERE token IN (:tokens) RETURNING username) " +
+            "SELECT username FROM deleted", nativeQuery = true)
+    List<String> deleteByTokens(@Param("tokens") Collection<String> tokens);
+
+    /**
+     * Delete up to limit tokens not seen since seenBefore
+     *
+     * @return usernames of the deleted tokens
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM device_tokens WHERE id IN (SELECT id FROM device_tokens " +
+            "WHERE last_seen_at < :seenBefore LIMIT :limit) RETURNING username) SELECT username FROM deleted",
+            nativeQuery = true)
+    List<String> deleteStaleTokens(@Param("seenBefore") Timestamp seenBefore, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE device_tokens SET last_seen_at = :seenAt WHERE token IN (:tokens)", nativeQuery = true)
+    int updateLastSeenAt(@Param("tokens") Collection<String> tokens, @Param("seenAt") Timestamp seenAt);
 }
@@ -23,7 +23,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Repository
@@ -89,29 +88,10 @@ public class GoogleCalendarProjectDaoJpa {
         return this.googleCalendarProjectRepository.save(googleCalendarProject);
     }
 
-    @Deprecated
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public void renewExpiringGoogleCalendarWatch() throws IOException {
-        long expirationTime = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
-        List<String> expiringGoogleCalendarProjectIds =
-                this.googleCalendarProjectRepository.getByExpirationBefore(new Timestamp(expirationTime))
-                        .stream().map(p -> p.getId()).collect(Collectors.toList());
-        Channel createdChannel;
-        for (String googleCalendarProjectId : expiringGoogleCalendarProjectIds) {
-            GoogleCalendarProject googleCalendarProject =
-                    this.googleCalendarProjectRepository.findById(googleCalendarProjectId).get();
-            MDC.put(UserClient.USER_NAME_KEY, googleCalendarProject.getOwner());
-            Calendar service = this.googleCalClient.getCalendarService();
-            Calendar.Events.Watch watch = service.events().watch(googleCalendarProjectId, Util.getChannel());
-            LOGGER.info("Created watch {}", watch);
-            createdChannel = watch.execute();
-
-            googleCalendarProject.setChannelId(createdChannel.getId());
-            googleCalendarProject.setExpiration(new Timestamp(createdChannel.getExpiration()));
-            googleCalendarProject.setChannel(GSON.toString(createdChannel));
-            googleCalendarProjectRepository.save(googleCalendarProject);
-            LOGGER.info("Renew GoogleCalendarProject {}", googleCalendarProject);
-        }
+    public List<String> getExpiringCalendarIds(Timestamp expiryTime) {
+        return this.googleCalendarProjectRepository.getByExpirationBefore(expiryTime)
+                .stream().map(GoogleCalendarProject::getId).collect(Collectors.toList());
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -51,6 +51,9 @@ public class GroupDaoJpa implements Etaggable {
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private UserAccessibleProjectsCache userAccessibleProjectsCache;
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Group create(String name, String owner) {
         User user = this.userDaoJpa.getByName(owner);
@@ -322,6 +325,8 @@ public class GroupDaoJpa implements Etaggable {
         ) {
             project.setGroup(group);
             this.projectRepository.save(project);
+            this.userAccessibleProjectsCache.invalidate(ProjectDaoJpa.getAcceptedUsernames(userGroup.getGroup()));
+            this.userAccessibleProjectsCache.invalidate(ProjectDaoJpa.getAcceptedUsernames(group));
         }
     }
 
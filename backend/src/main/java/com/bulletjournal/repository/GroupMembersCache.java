@@ -0,0 +1,67 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.ProjectAccessConfig;
+import com.bulletjournal.notifications.Event;
+import com.bulletjournal.util.CommittedLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Usernames of accepted group members, resolved for any number of groups in one query.
+ * <p>
+ * {@link com.bulletjournal.repository.auditing.UserGroupEntityListeners} invalidates a group once
+ * its membership change commits.
+ */
+@Repository
+public class GroupMembersCache {
+
+    private final UserGroupRepository userGroupRepository;
+
+    private final CommittedLruCache<Long, List<String>> cache;
+
+    @Autowired
+    public GroupMembersCache(UserGroupRepository userGroupRepository, ProjectAccessConfig projectAccessConfig) {
+        this.userGroupRepository = userGroupRepository;
+        this.cache = new CommittedLruCache<>(projectAccessConfig.getGroupMembersCacheSize(),
+                TimeUnit.SECONDS.toMillis(projectAccessConfig.getCacheTtlSeconds()));
+    }
+
+    public List<String> getAcceptedMembers(Long groupId) {
+        return getAcceptedMembers(Collections.singleton(groupId)).get(groupId);
+    }
+
+    /**
+     * @return group id to usernames, a group without accepted members maps to an empty list
+     */
+    public Map<Long, List<String>> getAcceptedMembers(Collection<Long> groupIds) {
+        return this.cache.getAll(groupIds, missing -> {
+            Map<Long, List<String>> members = new HashMap<>();
+            missing.forEach(id -> members.put(id, new ArrayList<>()));
+            for (Object[] row : this.userGroupRepository.findAcceptedUsernames(missing)) {
+                members.get(((Number) row[0]).longValue()).add((String) row[1]);
+            }
+            members.replaceAll((id, usernames) -> Collections.unmodifiableList(usernames));
+            return members;
+        });
+    }
+
+    /**
+     * One event per accepted member of the group other than the requester
+     */
+    public List<Event> generateEvents(Long groupId, String requester, Long contentId, String contentName) {
+        List<Event> events = new ArrayList<>();
+        for (String username : getAcceptedMembers(groupId)) {
+            if (!Objects.equals(username, requester)) {
+                events.add(new Event(username, contentId, contentName));
+            }
+        }
+        return events;
+    }
+
+    public void invalidate(Long groupId) {
+        this.cache.invalidate(Collections.singleton(groupId));
+    }
+}
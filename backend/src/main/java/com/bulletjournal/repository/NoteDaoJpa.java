@@ -53,6 +53,8 @@ public class NoteDaoJpa extends ProjectItemDaoJpa<NoteContent> {
     @Autowired
     private NoteContentRepository noteContentRepository;
     @Autowired
+    private NoteContentRevisionRepository noteContentRevisionRepository;
+    @Autowired
     private SharedProjectItemDaoJpa sharedProjectItemDaoJpa;
     @Autowired
     private SearchIndexDaoJpa searchIndexDaoJpa;
@@ -221,16 +223,8 @@ public class NoteDaoJpa extends ProjectItemDaoJpa<NoteContent> {
     }
 
     private List<Event> generateEvents(Note note, String requester, Project project) {
-        List<Event> events = new ArrayList<>();
-        for (UserGroup userGroup : project.getGroup().getAcceptedUsers()) {
-            // skip send event to self
-            String username = userGroup.getUser().getName();
-            if (userGroup.getUser().getName().equals(requester)) {
-                continue;
-            }
-            events.add(new Event(username, note.getId(), note.getName()));
-        }
-        return events;
+        return this.groupMembersCache.generateEvents(project.getGroup().getId(), requester,
+                note.getId(), note.getName());
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -266,11 +260,39 @@ public class NoteDaoJpa extends ProjectItemDaoJpa<NoteContent> {
         return new NoteContent(text);
     }
 
+    @Override
+    public ContentRevisionRepository getContentRevisionRepository() {
+        return this.noteContentRevisionRepository;
+    }
+
+    @Override
+    public NoteContentRevision newContentRevision() {
+        return new NoteContentRevision();
+    }
+
     @Override
     List<Long> findItemLabelsByProject(Project project) {
         return noteRepository.findUniqueLabelsByProject(project.getId());
     }
 
+    @Override
+    String getHierarchy(Long projectId) {
+        return this.projectNotesRepository.findById(projectId).map(ProjectNotes::getNotes).orElse(null);
+    }
+
+    @Override
+    Long saveHierarchy(Long projectId, String hierarchy) {
+        ProjectNotes projectNotes = this.projectNotesRepository.findById(projectId)
+                .orElseGet(() -> new ProjectNotes(projectId));
+        projectNotes.setNotes(hierarchy);
+        return this.projectNotesRepository.saveAndFlush(projectNotes).getUpdatedAt().getTime();
+    }
+
+    @Override
+    int updateProject(Collection<Long> projectItemIds, Long projectId) {
+        return this.noteRepository.updateProjectIdByIdIn(projectItemIds, projectId);
+    }
+
     @Override
     List<Task> findRecentProjectItemsBetween(Timestamp startTime, Timestamp endTime, List projects) {
         return this.noteRepository.findNotesBetween(startTime, endTime, projects);
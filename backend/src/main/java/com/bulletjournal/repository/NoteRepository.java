@@ -3,11 +3,13 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.Note;
 import com.bulletjournal.repository.models.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -29,4 +31,8 @@ public interface NoteRepository extends JpaRepository<Note, Long>, NoteRepositor
     List<Note> findNotesBetween(@Param("startTime") Timestamp startTime,
                                 @Param("endTime") Timestamp endTime,
                                 @Param("projects") List<Project> projects);
-}
\ No newline at end of file
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE notes SET project_id = :projectId, updated_at = now() WHERE id IN :noteIds", nativeQuery = true)
+    int updateProjectIdByIdIn(@Param("noteIds") Collection<Long> noteIds, @Param("projectId") Long projectId);
+}
@@ -2,9 +2,10 @@ package com.bulletjournal.repository;
 
 import com.bulletjournal.clients.UserClient;
 import com.bulletjournal.config.NotificationConfig;
+import com.bulletjournal.controller.models.CursorPage;
+import com.bulletjournal.controller.models.User;
 import com.bulletjournal.controller.utils.EtagGenerator;
 import com.bulletjournal.messaging.MessagingService;
-import com.bulletjournal.notifications.Action;
 import com.bulletjournal.notifications.informed.Informed;
 import com.bulletjournal.notifications.informed.JoinGroupEvent;
 import com.bulletjournal.notifications.informed.NewAdminSampleTaskEvent;
@@ -15,12 +16,11 @@ import com.bulletjournal.repository.factory.Etaggable;
 import com.bulletjournal.repository.models.Notification;
 import com.bulletjournal.templates.repository.SampleTaskNotificationsRepository;
 import com.bulletjournal.templates.repository.model.SampleTaskNotification;
+import com.bulletjournal.util.KeysetCursor;
 import com.bulletjournal.util.StringUtil;
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
 import java.sql.Timestamp;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -35,8 +35,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Repository
 public class NotificationDaoJpa implements Etaggable {
 
-    private static final Gson GSON = new Gson();
-    private static final long MAX_NOTIFICATIONS_COUNT_PER_USER = 100;
+    private static final int MAX_NOTIFICATIONS_COUNT_PER_USER = 100;
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDaoJpa.class);
     @Autowired
     private NotificationRepository notificationRepository;
@@ -54,36 +53,43 @@ public class NotificationDaoJpa implements Etaggable {
     private NotificationConfig notificationConfig;
 
     public List<com.bulletjournal.controller.models.Notification> getNotifications(String username) {
-        long count = this.notificationRepository.countNotificationsByTargetUser(username);
-        int maxRetentionTimeInDays = notificationConfig.getCleaner().getMaxRetentionTimeInDays();
-        while (count > MAX_NOTIFICATIONS_COUNT_PER_USER && maxRetentionTimeInDays >= 0) {
-            LOGGER.warn("{} has {} notifications!", username, count);
-            long expirationTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(--maxRetentionTimeInDays);
-            count -= deleteAllExpiredNotifications(new Timestamp(expirationTime));
+        return getInbox(username, null, MAX_NOTIFICATIONS_COUNT_PER_USER).getItems();
+    }
+
+    /**
+     * One page of the inbox, actionable notifications first and then newest first
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public CursorPage<com.bulletjournal.controller.models.Notification> getInbox(
+            String username, String cursor, int pageSize) {
+        pageSize = Math.max(1, Math.min(pageSize, MAX_NOTIFICATIONS_COUNT_PER_USER));
+        List<Notification> notifications;
+        // has actions, updated at, id
+        KeysetCursor position = KeysetCursor.parse(cursor, 3);
+        if (position == null) {
+            notifications = this.notificationRepository.findInbox(username, pageSize + 1);
+        } else {
+            notifications = this.notificationRepository.findInboxAfter(username, position.getKey(0) == 1,
+                    position.getTime(1), position.getKey(2), pageSize + 1);
+        }
+
+        String nextCursor = "";
+        if (notifications.size() > pageSize) {
+            notifications = notifications.subList(0, pageSize);
+            Notification last = notifications.get(pageSize - 1);
+            nextCursor = KeysetCursor.format(last.hasActions() ? 1 : 0,
+                    KeysetCursor.toMicros(last.getUpdatedAt()), last.getId());
         }
-        List<Notification> notifications = this.notificationRepository.findByTargetUser(username);
+
+        Map<String, User> originators = this.userClient.getUsers(
+                notifications.stream().map(Notification::getOriginator).collect(Collectors.toList()));
         List<com.bulletjournal.controller.models.Notification> returnNotifications = notifications.stream().map(n -> {
             com.bulletjournal.controller.models.Notification notification = n.toPresentationModel();
-            notification.setOriginator(this.userClient.getUser(n.getOriginator()));
-            if (n.getActions() != null) {
-                Action[] actions = GSON.fromJson(n.getActions(), Action[].class);
-                notification.setActions(
-                        Arrays.asList(actions).stream().map(a -> a.getDescription()).collect(Collectors.toList()));
-            }
+            notification.setOriginator(originators.get(n.getOriginator()));
             return notification;
-        }).sorted((a, b) -> {
-            if (a.getActions().isEmpty() && !b.getActions().isEmpty()) {
-                return 1;
-            }
-            if (!a.getActions().isEmpty() && b.getActions().isEmpty()) {
-                return -1;
-            }
-            if (a.getTimestamp().compareTo(b.getTimestamp()) == 0) {
-                return b.getId().compareTo(a.getId());
-            }
-            return b.getTimestamp().compareTo(a.getTimestamp());
         }).collect(Collectors.toList());
-        return returnNotifications;
+        return new CursorPage<>(returnNotifications, nextCursor);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -146,6 +152,15 @@ public class NotificationDaoJpa implements Etaggable {
         return 0;
     }
 
+    /**
+     * Keep the first maxCountPerUser notifications of each inbox
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public int trimNotifications() {
+        return this.notificationRepository.deleteBeyondCountPerUser(
+                this.notificationConfig.getCleaner().getMaxCountPerUser());
+    }
+
     @Override
     public Set<String> findAffectedUsernames(Set<String> contentIds, EtagType type) {
         if (EtagType.NOTIFICATION.equals(type)) {
@@ -3,6 +3,8 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +15,19 @@ import java.util.List;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByTargetUser(String targetUser);
 
+    @Query(value = "SELECT * FROM notifications WHERE target_user = :targetUser "
+            + "ORDER BY has_actions DESC, updated_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Notification> findInbox(@Param("targetUser") String targetUser, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM notifications WHERE target_user = :targetUser "
+            + "AND (has_actions, updated_at, id) < (:hasActions, :updatedAt, :id) "
+            + "ORDER BY has_actions DESC, updated_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Notification> findInboxAfter(@Param("targetUser") String targetUser,
+                                      @Param("hasActions") boolean hasActions,
+                                      @Param("updatedAt") Timestamp updatedAt,
+                                      @Param("id") Long id,
+                                      @Param("limit") int limit);
+
     long countNotificationsByTargetUser(String targetUser);
 
     long countNotificationsByUpdatedAtBefore(Timestamp timestamp);
@@ -25,5 +40,17 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Transactional
     void deleteByTargetUser(String targetUser);
 
+    /**
+     * Keep the first maxCount notifications of each user's inbox
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE id IN ("
+            + "SELECT id FROM (SELECT id, row_number() OVER (PARTITION BY target_user "
+            + "ORDER BY has_actions DESC, updated_at DESC, id DESC) AS rn FROM notifications "
+            + "WHERE target_user IN (SELECT target_user FROM notifications "
+            + "GROUP BY target_user HAVING count(*) > :maxCount)) ranked WHERE rn > :maxCount)", nativeQuery = true)
+    int deleteBeyondCountPerUser(@Param("maxCount") long maxCount);
+
 }
 
@@ -43,17 +43,17 @@ public class ProjectDaoJpa {
     @Autowired
     private UserProjectsRepository userProjectsRepository;
     @Autowired
-    private UserDaoJpa userDaoJpa;
-    @Autowired
     private AuthorizationService authorizationService;
     @Autowired
-    private UserGroupRepository userGroupRepository;
-    @Autowired
     private ProjectNotesRepository projectNotesRepository;
     @Autowired
     private ProjectTasksRepository projectTasksRepository;
     @Autowired
     private ProjectSettingRepository projectSettingRepository;
+    @Autowired
+    private UserAccessibleProjectsCache userAccessibleProjectsCache;
+    @Autowired
+    private GroupMembersCache groupMembersCache;
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Projects getProjects(String owner, List<Project> projects) {
@@ -189,7 +189,8 @@ public class ProjectDaoJpa {
                 .orElseThrow(() -> new ResourceNotFoundException("Group " + groupId + " cannot be found"));
         project.setGroup(group);
         project = this.projectRepository.save(project);
-        events.addAll(generateEvents(group, owner, project));
+        events.addAll(this.groupMembersCache.generateEvents(group.getId(), owner, project.getId(), project.getName()));
+        this.userAccessibleProjectsCache.invalidate(getAcceptedUsernames(group));
         return project;
     }
 
@@ -248,19 +249,6 @@ public class ProjectDaoJpa {
         return Pair.of(beginnerProject, noteProject);
     }
 
-    private List<Event> generateEvents(Group group, String requester, Project project) {
-        List<Event> events = new ArrayList<>();
-        for (UserGroup userGroup : group.getAcceptedUsers()) {
-            String targetUser = userGroup.getUser().getName();
-            if (targetUser.equals(requester)) {
-                continue;
-            }
-            Event event = new Event(targetUser, project.getId(), project.getName());
-            events.add(event);
-        }
-        return events;
-    }
-
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Project partialUpdate(String requester, Long projectId, UpdateProjectParams updateProjectParams,
                                  List<Event> joined, List<Event> removed) {
@@ -294,6 +282,8 @@ public class ProjectDaoJpa {
                     .collect(Collectors.toSet());
 
             generateEvents(joined, removed, project, oldUsers, newUsers);
+            this.userAccessibleProjectsCache.invalidate(oldUsers);
+            this.userAccessibleProjectsCache.invalidate(newUsers);
 
         }
 
@@ -349,6 +339,7 @@ public class ProjectDaoJpa {
                 Operation.DELETE, projectId);
 
         this.projectRepository.delete(project);
+        this.userAccessibleProjectsCache.invalidate(getAcceptedUsernames(project.getGroup()));
 
         switch (ProjectType.getType(project.getType())) {
             case TODO:
@@ -370,12 +361,11 @@ public class ProjectDaoJpa {
 
     private List<Event> generateEvents(String owner, List<Project> targetProjects) {
         List<Event> events = new ArrayList<>();
+        Map<Long, List<String>> members = this.groupMembersCache.getAcceptedMembers(
+                targetProjects.stream().map(p -> p.getGroup().getId()).collect(Collectors.toSet()));
         for (Project p : targetProjects) {
-            Long groupId = p.getGroup().getId();
-            List<UserGroup> userGroups = this.userGroupRepository.findAllByGroupIdAndAccepted(groupId, true);
-            for (UserGroup userGroup : userGroups) {
+            for (String username : members.get(p.getGroup().getId())) {
                 // skip send event to self
-                String username = userGroup.getUser().getName();
                 if (username.equals(owner)) {
                     continue;
                 }
@@ -395,17 +385,22 @@ public class ProjectDaoJpa {
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public List<Project> getUserProjects(String username) {
-        List<Project> result = new ArrayList<>();
-        User user = this.userDaoJpa.getByName(username);
-        for (UserGroup userGroup : user.getGroups()) {
-            if (!userGroup.isAccepted()) {
-                continue;
-            }
-            Group group = userGroup.getGroup();
-            result.addAll(group.getProjects().stream().filter(p -> !p.isShared()).collect(Collectors.toList()));
+        Set<Long> projectIds = getUserProjectIds(username);
+        if (projectIds.isEmpty()) {
+            return new ArrayList<>();
         }
+        return this.projectRepository.findAllById(projectIds);
+    }
 
-        return result;
+    /**
+     * Ids of the projects in groups the user has accepted, shared projects excluded
+     */
+    public Set<Long> getUserProjectIds(String username) {
+        return this.userAccessibleProjectsCache.getProjectIds(username);
+    }
+
+    static Set<String> getAcceptedUsernames(Group group) {
+        return group.getAcceptedUsers().stream().map(u -> u.getUser().getName()).collect(Collectors.toSet());
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
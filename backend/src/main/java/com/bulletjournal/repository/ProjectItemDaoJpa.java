@@ -2,9 +2,9 @@ package com.bulletjournal.repository;
 
 import com.bulletjournal.authz.AuthorizationService;
 import com.bulletjournal.authz.Operation;
-import com.bulletjournal.clients.DaemonServiceClient;
 import com.bulletjournal.config.ContentRevisionConfig;
 import com.bulletjournal.contents.ContentAction;
+import com.bulletjournal.contents.ContentHtmlConverter;
 import com.bulletjournal.contents.ContentType;
 import com.bulletjournal.controller.models.*;
 import com.bulletjournal.controller.models.params.RevokeProjectItemSharableParams;
@@ -14,15 +14,17 @@ import com.bulletjournal.controller.utils.EtagGenerator;
 import com.bulletjournal.exceptions.BadRequestException;
 import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.exceptions.UnAuthorizedException;
+import com.bulletjournal.hierarchy.HierarchyItem;
+import com.bulletjournal.hierarchy.HierarchyProcessor;
 import com.bulletjournal.messaging.MessagingService;
 import com.bulletjournal.notifications.Auditable;
-import com.bulletjournal.notifications.ContentBatch;
 import com.bulletjournal.notifications.Event;
 import com.bulletjournal.notifications.NotificationService;
 import com.bulletjournal.notifications.informed.RevokeSharableEvent;
 import com.bulletjournal.notifications.informed.SetLabelEvent;
 import com.bulletjournal.notifications.informed.ShareProjectItemEvent;
 import com.bulletjournal.repository.models.ContentModel;
+import com.bulletjournal.repository.models.ContentRevisionModel;
 import com.bulletjournal.repository.models.Group;
 import com.bulletjournal.repository.models.ProjectItemModel;
 import com.bulletjournal.repository.models.UserGroup;
@@ -37,8 +39,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigInteger;
 import java.sql.Timestamp;
@@ -51,8 +55,6 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProjectItemDaoJpa.class);
     private static final Gson GSON = new Gson();
 
-    private static final int CONTENT_BATCH_SIZE = 18;
-
     @Autowired
     protected LabelDaoJpa labelDaoJpa;
     @Autowired
@@ -72,9 +74,15 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
     @Autowired
     private ProjectRepository projectRepository;
     @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+    @Autowired
     protected NotificationService notificationService;
     @Autowired
-    private DaemonServiceClient daemonServiceClient;
+    protected GroupMembersCache groupMembersCache;
+    @Autowired
+    private ContentHtmlConverter contentHtmlConverter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     private final MapWithExpiration contentUpdateLock = new MapWithExpiration();
 
@@ -82,12 +90,31 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
 
     abstract JpaRepository<K, Long> getContentJpaRepository();
 
+    abstract ContentRevisionRepository getContentRevisionRepository();
+
+    abstract ContentRevisionModel newContentRevision();
+
     abstract <T extends ProjectItemModel> List<K> findContents(T projectItem);
 
     public abstract K newContent(String text);
 
     abstract List<Long> findItemLabelsByProject(com.bulletjournal.repository.models.Project project);
 
+    /**
+     * @return the stored hierarchy of the project's items, null if there is none
+     */
+    abstract String getHierarchy(Long projectId);
+
+    /**
+     * @return version of the saved hierarchy, null if this type of item has no hierarchy
+     */
+    abstract Long saveHierarchy(Long projectId, String hierarchy);
+
+    /**
+     * Moves the items to the project in one statement, clears the persistence context
+     */
+    abstract int updateProject(Collection<Long> projectItemIds, Long projectId);
+
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public <T extends ProjectItemModel> SharableLink generatePublicItemLink(Long projectItemId, String requester,
@@ -173,40 +200,13 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         this.sharedProjectItemDaoJpa.deleteSharedProjectItemWithUser(projectItem, requester);
     }
 
-    public <T extends ProjectItemModel> void addContent(List<T> projectItems, List<String> owners, List<K> contents) {
-        LOGGER.info("Adding {} contents", contents.size());
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            LOGGER.error("addContent Interrupted", e);
-        }
-        List<K> batch = new ArrayList<>();
-        int maxSize = Math.min(contents.size(), CONTENT_BATCH_SIZE);
-        for (int i = 0; i < maxSize; i++) {
-            K content = contents.get(i);
-            if (StringUtils.isBlank(content.getText())) {
-                continue;
-            }
-            String owner = owners.get(i);
-            T projectItem = projectItems.get(i);
-            content.setProjectItem(projectItem);
-            content.setOwner(owner);
-            batch.add(content);
-        }
-        if (!batch.isEmpty()) {
-            this.getContentJpaRepository().saveAll(batch);
-        }
-
-        if (contents.size() <= CONTENT_BATCH_SIZE) {
-            return;
-        }
-
-        ContentBatch<K, T> left = new ContentBatch<>(
-                contents.subList(CONTENT_BATCH_SIZE, contents.size()),
-                projectItems.subList(CONTENT_BATCH_SIZE, projectItems.size()),
-                owners.subList(CONTENT_BATCH_SIZE, owners.size()));
-        LOGGER.info("Next ContentBatch: {} contents", left.getContents().size());
-        this.notificationService.addContentBatch(left);
+    /**
+     * Insert contents that already have their project item, owner and html set.
+     * With hibernate.jdbc.batch_size the inserts are sent as JDBC batches.
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public void saveContents(List<K> contents) {
+        this.getContentJpaRepository().saveAll(contents);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -216,6 +216,9 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         this.getJpaRepository().save(projectItem);
         populateContent(owner, content, projectItem);
         this.getContentJpaRepository().save(content);
+        updateRevision(content, owner, content.getText(), content.getText());
+        convertHtmlAfterCommit(content);
+        loadRevisionHistory(Collections.singletonList(content));
         return Pair.of(content, projectItem);
     }
 
@@ -223,7 +226,6 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         content.setProjectItem(projectItem);
         content.setOwner(owner);
         adjustContentText(content.getText(), content);
-        updateRevision(content, owner, content.getText(), content.getText());
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -231,14 +233,22 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         T projectItem = getProjectItem(projectItemId, owner);
         content.setProjectItem(projectItem);
         content.setOwner(owner);
-        updateRevision(content, owner, content.getText(), content.getText());
         this.getContentJpaRepository().save(content);
+        updateRevision(content, owner, content.getText(), content.getText());
+        loadRevisionHistory(Collections.singletonList(content));
         return Pair.of(content, projectItem);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public K getContent(Long contentId, String requester) {
+        K content = findContent(contentId, requester);
+        loadRevisionHistory(Collections.singletonList(content));
+        return content;
+    }
+
+    private K findContent(Long contentId, String requester) {
         K content = this.getContentJpaRepository().findById(contentId)
+                .filter(c -> c.getProjectItem() != null)
                 .orElseThrow(() -> new ResourceNotFoundException("Content " + contentId + " not found"));
         this.authorizationService.validateRequesterInProjectGroup(requester, content.getProjectItem());
         return content;
@@ -248,7 +258,7 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
     public <T extends ProjectItemModel> Pair<K, T> updateContent(Long contentId, Long projectItemId, String requester,
                                                                  UpdateContentParams updateContentParams, Optional<String> etag) {
         T projectItem = getProjectItem(projectItemId, requester);
-        K content = getContent(contentId, requester);
+        K content = findContent(contentId, requester);
         Preconditions.checkState(Objects.equals(projectItem.getId(), content.getProjectItem().getId()),
                 "ProjectItem ID mismatch");
         this.authorizationService.checkAuthorizedToOperateOnContent(content.getOwner(), requester, ContentType.CONTENT,
@@ -270,6 +280,7 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         if (!etag.isPresent() &&
                 this.contentUpdateLock.putIfAbsent(requester + "#" + contentId.toString(), requester, 2_000) != null) {
             LOGGER.info("{} is still in lock", requester + "#" + contentId.toString());
+            loadRevisionHistory(Collections.singletonList(content));
             return Pair.of(content, projectItem);
         }
         projectItem.setUpdatedAt(Timestamp.from(Instant.now()));
@@ -285,6 +296,8 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
 
         updateRevision(content, requester, content.getText(), oldText);
         this.getContentJpaRepository().save(content);
+        convertHtmlAfterCommit(content);
+        loadRevisionHistory(Collections.singletonList(content));
         return Pair.of(content, projectItem);
     }
 
@@ -294,24 +307,73 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
             return;
         }
         try {
-            DeltaContent newContent = new DeltaContent(newText);
-            // call grpc to get html string from delta
-            String htmlString = this.daemonServiceClient.convertDeltaToHtml(newContent.getDeltaOpsString());
-            LOGGER.info("htmlString: {}", htmlString);
-            newContent.setHtml(htmlString);
-            content.setText(newContent.toJSON());
+            content.setText(new DeltaContent(newText).toJSON());
         } catch (Exception ex) {
             LOGGER.error("Fail to adjustContentText: {}", newText);
             content.setText(newText);
         }
     }
 
+    private static String withoutHtml(String text) {
+        if (text == null || !text.contains(DeltaContent.HTML_TAG)) {
+            return text;
+        }
+        try {
+            // DeltaContent does not read the html back
+            return new DeltaContent(text).toJSON();
+        } catch (Exception ex) {
+            return text;
+        }
+    }
+
+    /**
+     * Queue html conversion of the content's delta, to be written back once the current transaction commits
+     */
+    private void convertHtmlAfterCommit(K content) {
+        String text = content.getText();
+        if (text.contains("$$$html$$$")) {
+            return;
+        }
+        DeltaContent deltaContent;
+        try {
+            deltaContent = new DeltaContent(text);
+        } catch (Exception ex) {
+            LOGGER.error("Fail to parse content {} for html conversion", content.getId());
+            return;
+        }
+        if (!deltaContent.hasDeltaMap()) {
+            return;
+        }
+        Long contentId = content.getId();
+        this.contentHtmlConverter.convertAfterCommit(deltaContent.getDeltaOpsString(),
+                html -> applyHtml(contentId, text, html));
+    }
+
+    /**
+     * Write converted html into the content in its own transaction, which also bumps the content's updatedAt.
+     * Skipped if the content was deleted or changed since the conversion was queued.
+     */
+    private void applyHtml(Long contentId, String convertedText, String html) {
+        new TransactionTemplate(this.transactionManager).execute(status -> {
+            K content = this.getContentJpaRepository().findById(contentId).orElse(null);
+            if (content == null || !Objects.equals(content.getText(), convertedText)) {
+                LOGGER.info("Content {} changed before its html was converted", contentId);
+                return null;
+            }
+            DeltaContent deltaContent = new DeltaContent(convertedText);
+            deltaContent.setHtml(html);
+            content.setText(deltaContent.toJSON());
+            this.getContentJpaRepository().save(content);
+            return null;
+        });
+    }
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public <T extends ProjectItemModel> T deleteContent(Long contentId, Long projectItemId, String requester) {
         T projectItem = getProjectItem(projectItemId, requester);
         projectItem.setUpdatedAt(Timestamp.from(Instant.now()));
         this.getJpaRepository().save(projectItem);
-        K content = getContent(contentId, requester);
+        K content = findContent(contentId, requester);
         Preconditions.checkState(Objects.equals(projectItem.getId(), content.getProjectItem().getId()),
                 "ProjectItem ID mismatch");
         this.authorizationService.checkAuthorizedToOperateOnContent(content.getOwner(), requester, ContentType.CONTENT,
@@ -340,13 +402,8 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
     public SetLabelEvent setLabels(String requester, Long projectItemId, List<Long> labels) {
         ProjectItemModel<ProjectItem> projectItem = getProjectItem(projectItemId, requester);
         projectItem.setLabels(labels);
-        Set<UserGroup> targetUsers = projectItem.getProject().getGroup().getAcceptedUsers();
-        List<Event> events = new ArrayList<>();
-        for (UserGroup user : targetUsers) {
-            if (!Objects.equals(user.getUser().getName(), requester)) {
-                events.add(new Event(user.getUser().getName(), projectItemId, projectItem.getName()));
-            }
-        }
+        List<Event> events = this.groupMembersCache.generateEvents(projectItem.getProject().getGroup().getId(),
+                requester, projectItemId, projectItem.getName());
 
         this.getJpaRepository().save(projectItem);
         return new SetLabelEvent(events, requester, projectItem.getContentType());
@@ -356,17 +413,36 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
     public <T extends ProjectItemModel> Revision getContentRevision(String requester, Long projectItemId,
                                                                     Long contentId, Long revisionId) {
         T projectItem = getProjectItem(projectItemId, requester);
-        K content = getContent(contentId, requester);
+        K content = findContent(contentId, requester);
         Preconditions.checkState(Objects.equals(projectItem.getId(), content.getProjectItem().getId()),
                 "ProjectItem ID mismatch");
-        Revision[] revisions = GSON.fromJson(content.getRevisions(), Revision[].class);
-        Preconditions.checkNotNull(revisions, "Revisions for Content: {} is null", contentId);
-        if (Arrays.stream(revisions).noneMatch(revision -> Objects.equals(revision.getId(), revisionId))) {
+        ContentRevisionModel contentRevision = this.getContentRevisionRepository()
+                .findByContentIdAndRevisionId(contentId, revisionId);
+        if (contentRevision == null) {
+            return getLegacyContentRevision(content, revisionId);
+        }
+
+        Revision revision = contentRevision.toPresentationModel();
+        revision.setContent(contentRevision.getSnapshot() != null
+                ? contentRevision.getSnapshot() : getRevisionText(contentId, revisionId));
+        return revision;
+    }
+
+    /**
+     * Revisions written before the content revisions table existed live in the content's
+     * revisions json and are replayed from base text
+     */
+    private Revision getLegacyContentRevision(K content, Long revisionId) {
+        Long contentId = content.getId();
+        Revision[] revisions = StringUtils.isBlank(content.getRevisions())
+                ? null : GSON.fromJson(content.getRevisions(), Revision[].class);
+        if (revisions == null
+                || Arrays.stream(revisions).noneMatch(revision -> Objects.equals(revision.getId(), revisionId))) {
             throw new BadRequestException("Invalid revisionId: " + revisionId + " for content: " + contentId);
         }
 
         if (revisionId.equals(revisions[revisions.length - 1].getId())) {
-            revisions[revisions.length - 1].setContent(content.getText());
+            revisions[revisions.length - 1].setContent(withoutHtml(content.getText()));
             return revisions[revisions.length - 1];
         }
 
@@ -374,37 +450,128 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         for (Revision revision : revisions) {
             ret = contentDiffTool.applyDiff(ret, revision.getDiff());
             if (revision.getId().equals(revisionId)) {
-                revision.setContent(ret);
+                revision.setContent(withoutHtml(ret));
                 return revision;
             }
         }
         throw new IllegalStateException("Cannot reach here");
     }
 
+    /**
+     * Rebuild the text of a revision from the nearest snapshot at or before it,
+     * which takes at most snapshotInterval - 1 diffs
+     */
+    private String getRevisionText(Long contentId, Long revisionId) {
+        ContentRevisionRepository<ContentRevisionModel> repository = this.getContentRevisionRepository();
+        ContentRevisionModel snapshot = repository
+                .findFirstByContentIdAndRevisionIdLessThanEqualAndSnapshotIsNotNullOrderByRevisionIdDesc(
+                        contentId, revisionId);
+        if (snapshot == null) {
+            throw new IllegalStateException("No snapshot found for content " + contentId + " revision " + revisionId);
+        }
+        String text = snapshot.getSnapshot();
+        List<ContentRevisionModel> diffs = repository
+                .findByContentIdAndRevisionIdGreaterThanAndRevisionIdLessThanEqualOrderByRevisionIdAsc(
+                        contentId, snapshot.getRevisionId(), revisionId);
+        for (ContentRevisionModel diff : diffs) {
+            text = contentDiffTool.applyDiff(text, diff.getDiff());
+        }
+        return text;
+    }
+
+    /**
+     * Html is filled in after commit and is not part of revisions, diffs and snapshots are taken without it
+     */
     private void updateRevision(K content, String requester, String newText, String oldText) {
-        String revisionsJson = content.getRevisions();
-        if (revisionsJson == null) {
-            revisionsJson = "[]";
-        }
-        LinkedList<Revision> revisionList = new LinkedList<>(
-                Arrays.asList(GSON.fromJson(revisionsJson, Revision[].class)));
-        int maxRevisionNumber = revisionConfig.getMaxRevisionNumber();
-        long nextRevisionId;
-        if (revisionList.isEmpty()) {
-            content.setBaseText(oldText);
-            nextRevisionId = 1;
-        } else {
-            nextRevisionId = revisionList.getLast().getId() + 1;
-            if (revisionList.size() == maxRevisionNumber) {
-                String oldBaseText = content.getBaseText();
-                String diffToMerge = revisionList.pollFirst().getDiff();
-                content.setBaseText(contentDiffTool.applyDiff(oldBaseText, diffToMerge));
+        newText = withoutHtml(newText);
+        oldText = withoutHtml(oldText);
+        ContentRevisionRepository<ContentRevisionModel> repository = this.getContentRevisionRepository();
+        ContentRevisionModel last = repository.findFirstByContentIdOrderByRevisionIdDesc(content.getId());
+        if (last == null) {
+            last = migrateLegacyRevisions(content);
+        }
+        long nextRevisionId = last == null ? 1 : last.getRevisionId() + 1;
+        ContentRevisionModel revision = newContentRevision(content.getId(), nextRevisionId,
+                contentDiffTool.computeDiff(oldText, newText), requester, Timestamp.from(Instant.now()));
+        if ((nextRevisionId - 1) % revisionConfig.getSnapshotInterval() == 0) {
+            revision.setSnapshot(newText);
+        }
+        repository.save(revision);
+
+        long oldestRevisionId = nextRevisionId - revisionConfig.getMaxRevisionNumber() + 1;
+        if (oldestRevisionId > 1) {
+            // the oldest kept revision must be a snapshot before anything older is dropped
+            ContentRevisionModel oldest = repository.findByContentIdAndRevisionId(content.getId(), oldestRevisionId);
+            if (oldest != null && oldest.getSnapshot() == null) {
+                oldest.setSnapshot(getRevisionText(content.getId(), oldestRevisionId));
+                repository.save(oldest);
             }
+            repository.deleteRevisionsBefore(content.getId(), oldestRevisionId);
+        }
+    }
+
+    /**
+     * Move revisions from the content's revisions json into the content revisions table.
+     * Legacy diffs may span text with html, so each revision is replayed and diffed again without it.
+     *
+     * @return the latest migrated revision, or null if the content has no legacy revisions
+     */
+    private ContentRevisionModel migrateLegacyRevisions(K content) {
+        if (StringUtils.isBlank(content.getRevisions())) {
+            return null;
+        }
+        Revision[] revisions = GSON.fromJson(content.getRevisions(), Revision[].class);
+        if (revisions == null || revisions.length == 0) {
+            return null;
+        }
+        List<ContentRevisionModel> migrated = new ArrayList<>();
+        String text = content.getBaseText();
+        String previousText = withoutHtml(text);
+        for (int i = 0; i < revisions.length; i++) {
+            Revision revision = revisions[i];
+            text = contentDiffTool.applyDiff(text, revision.getDiff());
+            String revisionText = withoutHtml(text);
+            ContentRevisionModel contentRevision = newContentRevision(content.getId(), revision.getId(),
+                    contentDiffTool.computeDiff(previousText, revisionText), revision.getUser().getName(),
+                    new Timestamp(revision.getCreatedAt()));
+            if (i % revisionConfig.getSnapshotInterval() == 0) {
+                contentRevision.setSnapshot(revisionText);
+            }
+            migrated.add(contentRevision);
+            previousText = revisionText;
+        }
+        this.getContentRevisionRepository().saveAll(migrated);
+        content.setRevisions(null);
+        LOGGER.info("Migrated {} revisions of content {}", migrated.size(), content.getId());
+        return migrated.get(migrated.size() - 1);
+    }
+
+    private ContentRevisionModel newContentRevision(
+            Long contentId, Long revisionId, String diff, String username, Timestamp createdAt) {
+        ContentRevisionModel revision = this.newContentRevision();
+        revision.setContentId(contentId);
+        revision.setRevisionId(revisionId);
+        revision.setDiff(diff);
+        revision.setUsername(username);
+        revision.setCreatedAt(createdAt);
+        return revision;
+    }
+
+    /**
+     * Attach revision ids, authors and times (no diffs) to the given contents with one query
+     */
+    protected void loadRevisionHistory(List<K> contents) {
+        if (contents.isEmpty()) {
+            return;
+        }
+        Map<Long, K> contentMap = contents.stream().collect(Collectors.toMap(ContentModel::getId, c -> c));
+        contents.forEach(content -> content.setRevisionHistory(new ArrayList<>()));
+        List<Object[]> headers = this.getContentRevisionRepository()
+                .findRevisionHeadersByContentIds(contentMap.keySet());
+        for (Object[] header : headers) {
+            contentMap.get((Long) header[0]).getRevisionHistory().add(new Revision((Long) header[1], null,
+                    ((Timestamp) header[2]).getTime(), new User((String) header[3])));
         }
-        String diff = contentDiffTool.computeDiff(oldText, newText);
-        Revision newRevision = new Revision(nextRevisionId, diff, Instant.now().toEpochMilli(), new User(requester));
-        revisionList.offerLast(newRevision);
-        content.setRevisions(GSON.toJson(revisionList));
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -425,7 +592,14 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
     public <T extends ProjectItemModel> List<K> getContents(Long projectItemId, String requester) {
         T projectItem = getProjectItem(projectItemId, requester);
         List<K> contents = this.findContents(projectItem);
-        String contentsOrder = projectItem.getContentsOrder();
+        loadRevisionHistory(contents);
+        return sortContents(contents, projectItem.getContentsOrder());
+    }
+
+    /**
+     * Contents missing from contentsOrder come first, newest first, followed by the ordered ones
+     */
+    protected static <K extends ContentModel> List<K> sortContents(List<K> contents, String contentsOrder) {
         if (contentsOrder == null) {
             return contents.stream().sorted((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()))
                     .collect(Collectors.toList());
@@ -490,4 +664,87 @@ public abstract class ProjectItemDaoJpa<K extends ContentModel> {
         }
         return items;
     }
+
+    /**
+     * Drops removed items from the project's hierarchy in a single rewrite
+     *
+     * @param projectId      the project id
+     * @param projectItemIds ids of items that were deleted or completed
+     * @return ProjectItemsDelta - the removed ids and the version of the rewritten hierarchy
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public ProjectItemsDelta removeFromHierarchy(Long projectId, Collection<Long> projectItemIds) {
+        List<Long> removedIds = new ArrayList<>(projectItemIds);
+        String hierarchy = getHierarchy(projectId);
+        if (hierarchy == null || removedIds.isEmpty()) {
+            return new ProjectItemsDelta(removedIds, null);
+        }
+        return new ProjectItemsDelta(removedIds, saveHierarchy(projectId, HierarchyProcessor.toJson(
+                HierarchyProcessor.removeIds(hierarchy, new HashSet<>(removedIds)))));
+    }
+
+    /**
+     * Move items along with their sub items to another project
+     * <p>
+     * 1. Collect the subtrees of the items from the source hierarchy 2. Check the requester may move every item
+     * 3. Update the project of all items in one statement 4. Rewrite source and target hierarchy once each
+     *
+     * @param requester      the username of action requester
+     * @param projectId      the source project id
+     * @param projectItemIds the items to move, sub items are moved with them
+     * @param targetProject  the target project id
+     * @return the moved items and the delta of the source project
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public <T extends ProjectItemModel> Pair<List<T>, ProjectItemsDelta> move(
+            String requester, Long projectId, Collection<Long> projectItemIds, Long targetProject) {
+        com.bulletjournal.repository.models.Project source = this.projectDaoJpa.getProject(projectId, requester);
+        com.bulletjournal.repository.models.Project target = this.projectDaoJpa.getProject(targetProject, requester);
+        if (!Objects.equals(source.getType(), target.getType())) {
+            throw new BadRequestException("Cannot move to Project Type " + target.getType());
+        }
+        if (Objects.equals(source.getId(), target.getId()) || projectItemIds.isEmpty()) {
+            return Pair.of(Collections.emptyList(), new ProjectItemsDelta());
+        }
+
+        Set<Long> requestedIds = new HashSet<>(projectItemIds);
+        String sourceHierarchy = getHierarchy(source.getId());
+        Pair<List<HierarchyItem>, List<HierarchyItem>> split =
+                HierarchyProcessor.extractSubtrees(sourceHierarchy, requestedIds);
+        Set<Long> ids = HierarchyProcessor.getIds(split.getRight());
+        ids.addAll(requestedIds);
+
+        List<T> items = new ArrayList<>();
+        for (T item : this.<T>getJpaRepository().findAllById(ids)) {
+            if (Objects.equals(source.getId(), item.getProject().getId())) {
+                items.add(item);
+            } else if (requestedIds.contains(item.getId())) {
+                throw new UnAuthorizedException("Not in project");
+            }
+            // otherwise a sub item the hierarchy still holds after it was moved on its own
+        }
+        Set<Long> movedIds = items.stream().map(ProjectItemModel::getId).collect(Collectors.toSet());
+        for (T item : items) {
+            this.authorizationService.checkAuthorizedToOperateOnContent(item.getOwner(), requester,
+                    item.getContentType(), Operation.UPDATE, target.getId(), target.getOwner());
+        }
+        if (items.isEmpty()) {
+            return Pair.of(items, new ProjectItemsDelta());
+        }
+
+        updateProject(movedIds, target.getId());
+
+        Long version = sourceHierarchy == null ? null :
+                saveHierarchy(source.getId(), HierarchyProcessor.toJson(split.getLeft()));
+        Set<Long> staleIds = new HashSet<>(ids);
+        staleIds.removeAll(movedIds);
+        List<HierarchyItem> targetHierarchy = HierarchyProcessor.removeIds(getHierarchy(target.getId()), movedIds);
+        targetHierarchy.addAll(HierarchyProcessor.removeIds(split.getRight(), staleIds));
+        saveHierarchy(target.getId(), HierarchyProcessor.toJson(targetHierarchy));
+
+        items.forEach(item -> item.setProject(target));
+        LOGGER.info("Moved {} {} from project {} to {}", items.size(), items.get(0).getContentType(),
+                source.getId(), target.getId());
+        return Pair.of(items, new ProjectItemsDelta(new ArrayList<>(movedIds), version));
+    }
 }
@@ -2,6 +2,8 @@ package com.bulletjournal.repository;
 
 import com.bulletjournal.repository.models.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +15,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByNameAndOwner(String name, String owner);
 
     List<Project> findByOwnerAndSharedTrue(String owner);
+
+    @Query(value = "SELECT project_id FROM user_accessible_projects WHERE username = :username", nativeQuery = true)
+    List<Long> findAccessibleProjectIds(@Param("username") String username);
 }
\ No newline at end of file
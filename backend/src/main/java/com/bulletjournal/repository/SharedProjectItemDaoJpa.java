@@ -1,18 +1,23 @@
 package com.bulletjournal.repository;
 
 import com.bulletjournal.contents.ContentType;
+import com.bulletjournal.controller.models.CursorPage;
+import com.bulletjournal.controller.models.ProjectItem;
 import com.bulletjournal.controller.models.ProjectType;
 import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.notifications.Event;
 import com.bulletjournal.notifications.informed.ShareProjectItemEvent;
 import com.bulletjournal.repository.models.*;
+import com.bulletjournal.util.KeysetCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -22,11 +27,13 @@ public class SharedProjectItemDaoJpa {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SharedProjectItemDaoJpa.class);
 
-    @Autowired
-    private SharedProjectItemRepository sharedProjectItemRepository;
+    private static final String CURSOR_SEPARATOR = "_";
+
+    // upper bound of the first page
+    private static final Timestamp END_OF_TIME = Timestamp.valueOf("9999-12-31 00:00:00");
 
     @Autowired
-    private UserDaoJpa userDaoJpa;
+    private SharedProjectItemRepository sharedProjectItemRepository;
 
     @Autowired
     private UserRepository userRepository;
@@ -43,10 +50,13 @@ public class SharedProjectItemDaoJpa {
     @Autowired
     private NoteContentRepository noteContentRepository;
 
+    @Autowired
+    private SharedProjectItemsCache sharedProjectItemsCache;
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public List<ProjectItemModel> getSharedProjectItems(
             String requester, final ContentType contentType) {
-        List<SharedProjectItem> items = this.sharedProjectItemRepository.findByUsername(requester);
+        List<SharedProjectItem> items = this.sharedProjectItemRepository.findWithItemsByUsername(requester);
         return getProjectItemModelsFromSharedItems(contentType, items).stream()
                 .sorted((a, b) -> Long.compare(b.getId(), a.getId()))
                 .collect(Collectors.toList());
@@ -82,25 +92,80 @@ public class SharedProjectItemDaoJpa {
         return getSharedProjectItems(user, null);
     }
 
+    /**
+     * Keyset page of the items shared with the requester, newest share first
+     *
+     * @param cursor   nextCursor of the previous page, blank for the first page
+     * @param pageSize number of items
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public CursorPage<ProjectItem> getSharedProjectItems(String requester, String cursor, int pageSize) {
+        Timestamp beforeTime = KeysetCursor.END_OF_TIME;
+        long beforeId = Long.MAX_VALUE;
+        KeysetCursor position = KeysetCursor.parse(cursor, 2);
+        if (position != null) {
+            beforeTime = position.getTime(0);
+            beforeId = position.getKey(1);
+        }
+
+        List<SharedProjectItem> items = this.sharedProjectItemRepository.findWithItemsByUsernameBefore(
+                requester, beforeTime, beforeId, PageRequest.of(0, pageSize + 1));
+        String nextCursor = "";
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            SharedProjectItem last = items.get(pageSize - 1);
+            nextCursor = KeysetCursor.format(last.getCreatedAt(), last.getId());
+        }
+        List<ProjectItem> projectItems = new ArrayList<>();
+        for (ProjectItemModel<?> item : getProjectItemModelsFromSharedItems(null, items)) {
+            projectItems.add(item.toPresentationModel());
+        }
+        return new CursorPage<>(projectItems, nextCursor);
+    }
+
+    /**
+     * @return content type to ids of the items shared with the requester
+     */
+    public Map<ContentType, Set<Long>> getSharedItemIds(String requester) {
+        return this.sharedProjectItemsCache.getSharedItemIds(requester);
+    }
+
+    public boolean isSharedWith(String requester, ContentType contentType, Long id) {
+        return this.sharedProjectItemsCache.isShared(requester, contentType, id);
+    }
+
+    /**
+     * Share the item with every user that does not have it yet, the new rows are inserted as one JDBC batch
+     */
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public <T extends ProjectItemModel> ShareProjectItemEvent save(
             ProjectType projectType, T projectItem, List<String> users, String requester) {
-        List<Event> events = new ArrayList<>();
-        for (String user : new HashSet<>(users)) {
-            if (Objects.equals(user, requester)) {
-                continue;
-            }
-            List<ProjectItemModel> existingItems = this.getSharedProjectItems(user);
-            if (existingItems.stream().anyMatch(existingItem ->
-                    Objects.equals(existingItem.getContentType(), projectItem.getContentType()) &&
-                            Objects.equals(existingItem.getId(), projectItem.getId()))) {
+        Set<String> recipients = new LinkedHashSet<>(users);
+        recipients.remove(requester);
+        if (recipients.isEmpty()) {
+            return new ShareProjectItemEvent(new ArrayList<>(), requester, projectItem.getContentType());
+        }
+
+        for (SharedProjectItem existingItem : this.getProjectItemSharedUsers(projectItem)) {
+            if (recipients.remove(existingItem.getUsername())) {
                 LOGGER.error(projectItem.getClass().getSimpleName() + " " + projectItem.getName() +
                         " (ID " + projectItem.getId() +
-                        ") is already shared with User " + user);
-                continue;
+                        ") is already shared with User " + existingItem.getUsername());
             }
+        }
+
+        Map<String, User> targetUsers = new HashMap<>();
+        if (!recipients.isEmpty()) {
+            this.userRepository.findAllByNameIn(recipients).forEach(u -> targetUsers.put(u.getName(), u));
+        }
 
-            User targetUser = this.userDaoJpa.getByName(user);
+        List<SharedProjectItem> sharedProjectItems = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        for (String user : recipients) {
+            User targetUser = targetUsers.get(user);
+            if (targetUser == null) {
+                throw new ResourceNotFoundException("User " + user + " does not exist");
+            }
             SharedProjectItem sharedProjectItem = new SharedProjectItem(requester, user);
             switch (projectType) {
                 case NOTE:
@@ -130,10 +195,11 @@ public class SharedProjectItemDaoJpa {
                 default:
                     throw new IllegalArgumentException();
             }
-            this.sharedProjectItemRepository.save(sharedProjectItem);
-            Event event = new Event(user, projectItem.getId(), projectItem.getName());
-            events.add(event);
+            sharedProjectItems.add(sharedProjectItem);
+            events.add(new Event(user, projectItem.getId(), projectItem.getName()));
         }
+        this.sharedProjectItemRepository.saveAll(sharedProjectItems);
+        this.sharedProjectItemsCache.invalidate(recipients);
         return new ShareProjectItemEvent(events, requester, projectItem.getContentType());
     }
 
@@ -165,6 +231,9 @@ public class SharedProjectItemDaoJpa {
             case NOTE:
                 sharedProjectItems = this.sharedProjectItemRepository.findByNote((Note) projectItem);
                 break;
+            case TRANSACTION:
+                sharedProjectItems = this.sharedProjectItemRepository.findByTransaction((Transaction) projectItem);
+                break;
             default:
                 throw new IllegalArgumentException();
         }
@@ -179,6 +248,7 @@ public class SharedProjectItemDaoJpa {
                 .filter(item -> Objects.equals(item.getUsername(), user))
                 .findAny().orElseThrow(() -> new ResourceNotFoundException("User " + user + " not found"));
         this.sharedProjectItemRepository.delete(sharedProjectItem);
+        this.sharedProjectItemsCache.invalidate(Collections.singleton(user));
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
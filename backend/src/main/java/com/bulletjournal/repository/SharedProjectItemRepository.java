@@ -3,20 +3,50 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.Note;
 import com.bulletjournal.repository.models.SharedProjectItem;
 import com.bulletjournal.repository.models.Task;
+import com.bulletjournal.repository.models.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 @Repository
 public interface SharedProjectItemRepository extends JpaRepository<SharedProjectItem, Long>,
         SharedProjectItemRepositoryCustom {
-    List<SharedProjectItem> findByUsername(String username);
+    /**
+     * Shared items of the user along with their task, note or transaction
+     */
+    @Query("SELECT s FROM SharedProjectItem s LEFT JOIN FETCH s.task LEFT JOIN FETCH s.note " +
+            "LEFT JOIN FETCH s.transaction WHERE s.username = :username")
+    List<SharedProjectItem> findWithItemsByUsername(@Param("username") String username);
+
+    /**
+     * Keyset page of the user's shared items before (beforeTime, beforeId), newest share first
+     */
+    @Query("SELECT s FROM SharedProjectItem s LEFT JOIN FETCH s.task LEFT JOIN FETCH s.note " +
+            "LEFT JOIN FETCH s.transaction WHERE s.username = :username AND (s.createdAt < :beforeTime OR " +
+            "(s.createdAt = :beforeTime AND s.id < :beforeId)) ORDER BY s.createdAt DESC, s.id DESC")
+    List<SharedProjectItem> findWithItemsByUsernameBefore(@Param("username") String username,
+                                                          @Param("beforeTime") Timestamp beforeTime,
+                                                          @Param("beforeId") Long beforeId,
+                                                          Pageable pageable);
+
+    /**
+     * @return (task_id, note_id, transaction_id) of the user's shared items, only one of them is set
+     */
+    @Query(value = "SELECT task_id, note_id, transaction_id FROM shared_project_items WHERE username = :username",
+            nativeQuery = true)
+    List<Object[]> findItemIdsByUsername(@Param("username") String username);
 
     List<SharedProjectItem> findByTask(Task task);
 
     List<SharedProjectItem> findByNote(Note note);
 
+    List<SharedProjectItem> findByTransaction(Transaction transaction);
+
     SharedProjectItem findSharedProjectItemByTaskAndAndUsername(Task task, String username);
 
     SharedProjectItem findSharedProjectItemByNoteAndAndUsername(Note note, String username);
@@ -0,0 +1,63 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.ProjectAccessConfig;
+import com.bulletjournal.contents.ContentType;
+import com.bulletjournal.util.CommittedLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids of the tasks, notes and transactions shared with a user, read by authorization and search scoping.
+ * <p>
+ * {@link SharedProjectItemDaoJpa} invalidates the recipients of a share or revoke once it commits.
+ * Items deleted with their project item linger until the entry expires, lookups by id find nothing for them.
+ */
+@Repository
+public class SharedProjectItemsCache {
+
+    private final SharedProjectItemRepository sharedProjectItemRepository;
+
+    private final CommittedLruCache<String, Map<ContentType, Set<Long>>> cache;
+
+    @Autowired
+    public SharedProjectItemsCache(SharedProjectItemRepository sharedProjectItemRepository,
+                                   ProjectAccessConfig projectAccessConfig) {
+        this.sharedProjectItemRepository = sharedProjectItemRepository;
+        this.cache = new CommittedLruCache<>(projectAccessConfig.getSharedItemsCacheSize(),
+                TimeUnit.SECONDS.toMillis(projectAccessConfig.getCacheTtlSeconds()));
+    }
+
+    /**
+     * @return content type to ids of the items shared with the user
+     */
+    public Map<ContentType, Set<Long>> getSharedItemIds(String username) {
+        return this.cache.get(username, this::load);
+    }
+
+    public boolean isShared(String username, ContentType contentType, Long id) {
+        return getSharedItemIds(username).getOrDefault(contentType, Collections.emptySet()).contains(id);
+    }
+
+    public void invalidate(Collection<String> usernames) {
+        this.cache.invalidate(usernames);
+    }
+
+    private Map<ContentType, Set<Long>> load(String username) {
+        Map<ContentType, Set<Long>> ids = new EnumMap<>(ContentType.class);
+        for (Object[] row : this.sharedProjectItemRepository.findItemIdsByUsername(username)) {
+            if (row[0] != null) {
+                ids.computeIfAbsent(ContentType.TASK, k -> new HashSet<>()).add(((Number) row[0]).longValue());
+            } else if (row[1] != null) {
+                ids.computeIfAbsent(ContentType.NOTE, k -> new HashSet<>()).add(((Number) row[1]).longValue());
+            } else if (row[2] != null) {
+                ids.computeIfAbsent(ContentType.TRANSACTION, k -> new HashSet<>())
+                        .add(((Number) row[2]).longValue());
+            }
+        }
+        ids.replaceAll((contentType, contentIds) -> Collections.unmodifiableSet(contentIds));
+        return Collections.unmodifiableMap(ids);
+    }
+}
@@ -3,6 +3,7 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.Task;
 import com.bulletjournal.repository.models.TaskContent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,12 +15,36 @@ import java.util.List;
 public interface TaskContentRepository extends JpaRepository<TaskContent, Long> {
     List<TaskContent> findTaskContentByTask(Task task);
 
-    @Query("SELECT taskContent FROM TaskContent taskContent WHERE taskContent.updatedAt >= :startTime AND taskContent.updatedAt <= :endTime")
+    @Query("SELECT taskContent FROM TaskContent taskContent WHERE taskContent.task IS NOT NULL AND " +
+            "taskContent.updatedAt >= :startTime AND taskContent.updatedAt <= :endTime")
     List<TaskContent> findRecentTaskContentsBetween(@Param("startTime") Timestamp startTime,
                                                     @Param("endTime") Timestamp endTime);
 
     @Query(nativeQuery = true, value = "SELECT id FROM task_contents WHERE task_contents.task_id IN (:taskIds)")
     List<Long> findAllByTaskIds(List<Long> taskIds);
 
-    List<TaskContent> findByTaskIn(List<Task> tasks);
+    List<TaskContent> findByCompletedTaskId(Long completedTaskId);
+
+    /**
+     * Copy the contents of a task to one of its completed occurrences
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO task_contents (id, created_at, updated_at, owner, text, " +
+            "base_text, revisions, completed_task_id) " +
+            "SELECT nextval('task_content_sequence'), c.created_at, c.updated_at, c.owner, c.text, c.base_text, " +
+            "c.revisions, :completedTaskId FROM task_contents c WHERE c.task_id = :taskId " +
+            "UNION ALL " +
+            "SELECT nextval('task_content_sequence'), :completedAt, :completedAt, t.owner, s.content, s.content, " +
+            "'', :completedTaskId " +
+            "FROM tasks t JOIN template.sample_tasks s ON s.id = t.sample_task_id WHERE t.id = :taskId")
+    int copyToCompletedTask(@Param("taskId") Long taskId, @Param("completedTaskId") Long completedTaskId,
+                            @Param("completedAt") Timestamp completedAt);
+
+    /**
+     * Hand the contents of a completed task back to the task it is uncompleted into
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE task_contents SET task_id = :taskId, completed_task_id = NULL " +
+            "WHERE completed_task_id = :completedTaskId")
+    int moveToTask(@Param("completedTaskId") Long completedTaskId, @Param("taskId") Long taskId);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.repository.models.TaskContentRevision;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskContentRevisionRepository extends ContentRevisionRepository<TaskContentRevision> {
+}
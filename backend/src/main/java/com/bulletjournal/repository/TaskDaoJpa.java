@@ -2,10 +2,14 @@ package com.bulletjournal.repository;
 
 import com.bulletjournal.authz.AuthorizationService;
 import com.bulletjournal.authz.Operation;
+import com.bulletjournal.contents.ContentImporter;
 import com.bulletjournal.contents.ContentType;
+import com.bulletjournal.controller.models.CursorPage;
 import com.bulletjournal.controller.models.ProjectType;
 import com.bulletjournal.controller.models.ReminderSetting;
+import com.bulletjournal.controller.models.TaskStatistics;
 import com.bulletjournal.controller.models.TaskStatus;
+import com.bulletjournal.controller.models.UserTaskStatistic;
 import com.bulletjournal.controller.models.params.CreateTaskParams;
 import com.bulletjournal.controller.models.params.UpdateTaskParams;
 import com.bulletjournal.controller.utils.ProjectItemsGrouper;
@@ -24,10 +28,10 @@ import com.bulletjournal.notifications.informed.UpdateTaskAssigneeEvent;
 import com.bulletjournal.repository.models.*;
 import com.bulletjournal.repository.utils.DaoHelper;
 import com.bulletjournal.templates.repository.model.SampleTask;
+import com.bulletjournal.util.KeysetCursor;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.dmfs.rfc5545.DateTime;
@@ -49,7 +53,9 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -59,9 +65,6 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskDaoJpa.class);
     private static final Gson GSON = new Gson();
 
-    private static final Gson GSON_ALLOW_EXPOSE_ONLY = new GsonBuilder().excludeFieldsWithoutExposeAnnotation()
-            .create();
-
     @PersistenceContext
     EntityManager entityManager;
 
@@ -82,6 +85,8 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
 
     @Autowired
     private TaskContentRepository taskContentRepository;
+    @Autowired
+    private TaskContentRevisionRepository taskContentRevisionRepository;
 
     @Autowired
     private SharedProjectItemDaoJpa sharedProjectItemDaoJpa;
@@ -93,6 +98,9 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
     @Autowired
     private UserDaoJpa userDaoJpa;
 
+    @Autowired
+    private ContentImporter contentImporter;
+
     public static Task generateTask(String owner, Project project, CreateTaskParams createTaskParams) {
         return generateTask(owner, project, createTaskParams, null);
     }
@@ -228,6 +236,39 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         }).collect(Collectors.toList());
     }
 
+    /**
+     * One page of assignee's tasks in project, ordered by id
+     *
+     * @param cursor   nextCursor of the previous page, or null for the first page
+     * @param pageSize max number of tasks
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public CursorPage<com.bulletjournal.controller.models.Task> getTasksByAssigneePage(
+            Long projectId, String requester, String assignee, String cursor, int pageSize) {
+        Project project = this.projectDaoJpa.getProject(projectId, requester);
+        if (project.isShared()) {
+            return new CursorPage<>();
+        }
+
+        long afterId = 0;
+        KeysetCursor position = KeysetCursor.parse(cursor, 1);
+        if (position != null) {
+            afterId = position.getKey(0);
+        }
+
+        List<Task> tasks = this.taskRepository.findTasksByAssigneeAndProjectAfter(
+                assignee, projectId, afterId, pageSize + 1);
+        String nextCursor = "";
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            nextCursor = KeysetCursor.format(tasks.get(pageSize - 1).getId());
+        }
+        return new CursorPage<>(tasks.stream().map(t -> {
+            List<com.bulletjournal.controller.models.Label> labels = getLabelsToProjectItem(t);
+            return t.toPresentationModel(labels);
+        }).collect(Collectors.toList()), nextCursor);
+    }
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public List<com.bulletjournal.controller.models.Task> getTasksByOrder(Long projectId, String requester,
                                                                           String startDate, String endDate, String timezone) {
@@ -327,7 +368,7 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
             String assignee, ZonedDateTime startTime, ZonedDateTime endTime, List<Project> projects) {
         List<Long> projectIds = projects.stream().map(Project::getId).collect(Collectors.toList());
         List<Task> tasks = this.taskRepository.findTasksOfAssigneeBetween(assignee,
-                ZonedDateTimeHelper.toDBTimestamp(startTime), ZonedDateTimeHelper.toDBTimestamp(endTime), projectIds);
+                Timestamp.from(startTime.toInstant()), Timestamp.from(endTime.toInstant()), projectIds);
         tasks = tasks.stream().filter(t -> {
             if (Objects.isNull(t.getRecurrenceRule())) {
                 return true;
@@ -446,7 +487,7 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
     public List<Task> getAllRemindingTasksBetween(ZonedDateTime startTime, ZonedDateTime endTime) {
         Timestamp start = Timestamp.from(startTime.toInstant());
         Timestamp end = Timestamp.from(endTime.toInstant());
-        return this.taskRepository.findRemindingTasksBetween(start.toString(), end.toString());
+        return this.taskRepository.findRemindingTasksBetween(start, end);
     }
 
     /**
@@ -518,7 +559,7 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         }
 
         if (!sampleTasksForContents.isEmpty()) {
-            this.notificationService.addContentBatch(new ContentBatch(
+            this.contentImporter.importAfterCommit(new ContentBatch<>(
                     sampleTasksForContents.stream()
                             .map(sampleTask -> new TaskContent(sampleTask.getContent())).collect(Collectors.toList()),
                     tasksForContents,
@@ -618,6 +659,27 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         }
     }
 
+    /**
+     * Create or replace the task of a changed Google Calendar event.
+     * Tasks changed on our side since the import are left as is.
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public void upsertGoogleCalendarEventTask(Long projectId, String owner, CreateTaskParams createTaskParams,
+                                              String eventId, String text) {
+        Project project = this.projectDaoJpa.getProject(projectId, owner);
+        Optional<Task> existing = this.taskRepository.findTaskByGoogleCalendarEventIdAndProject(eventId, project);
+        if (existing.isPresent()) {
+            Task task = existing.get();
+            if (isTaskModified(task, owner)) {
+                LOGGER.info("Skip event {} for task {}", eventId, task.getId());
+                return;
+            }
+            this.taskRepository.delete(task);
+            this.taskRepository.flush();
+        }
+        create(projectId, owner, createTaskParams, eventId, text);
+    }
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void deleteTaskByGoogleEvenId(String eventId, Project project) {
         Optional<Task> task = this.taskRepository.findTaskByGoogleCalendarEventIdAndProject(eventId, project);
@@ -751,37 +813,27 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
     /**
      * Set all tasks to complete
      * <p>
-     * 1. Get tasks from task table
-     * 2. Delete tasks and its sub tasks from task table
-     * 3. Add tasks and its sub tasks to complete task table
+     * 1. Insert a completed task for each task
+     * 2. Hand the task contents over to the completed tasks
+     * 3. Delete the tasks
+     * <p>
+     * All in the database, neither tasks nor contents are loaded.
      *
-     * @param taskList the tasks
-     * @return List<CompleteTask> - a list of repository model complete task objects
+     * @param taskIds the task ids
+     * @return Map<Long, Long> - completed task id by task id
      */
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public List<CompletedTask> completeInBatch(List<Task> taskList) {
-        LOGGER.info("Start findByTaskIn {}", taskList.size());
-        List<TaskContent> allTaskContents = this.taskContentRepository.findByTaskIn(taskList);
-        LOGGER.info("Finish findByTaskIn {}", taskList.size());
-
-        final Map<Task, List<TaskContent>> taskToTaskContentsMap = new HashMap<>();
-        taskList.forEach(task -> taskToTaskContentsMap.put(task, new ArrayList<>()));
-        allTaskContents.forEach(taskContent -> taskToTaskContentsMap.get(taskContent.getTask()).add(taskContent));
-
-        final List<CompletedTask> completedTaskList = new LinkedList<>();
-
-        taskToTaskContentsMap.forEach((task, taskContentList) -> {
-            //clone task contents
-            String contents = GSON_ALLOW_EXPOSE_ONLY
-                    .toJson(taskContentList.stream().collect(Collectors.toList()));
-
-            completedTaskList.add(new CompletedTask(task, contents));
-        });
-
-        LOGGER.info("Start deleteInBatch {}", taskList.size());
-        this.taskRepository.deleteInBatch(taskList);
-        LOGGER.info("Finish deleteInBatch {}", taskList.size());
-        return completedTaskList;
+    public Map<Long, Long> completeInBatch(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> completedTaskIds = new HashMap<>();
+        this.completedTaskRepository.insertCompletedTasks(taskIds, Timestamp.from(Instant.now()))
+                .forEach(row -> completedTaskIds.put(
+                        ((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+        this.taskRepository.deleteByIdIn(completedTaskIds.keySet());
+        LOGGER.info("Completed {} tasks", completedTaskIds.size());
+        return completedTaskIds;
     }
 
     /**
@@ -802,18 +854,13 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         this.authorizationService.checkAuthorizedToOperateOnContent(task.getOwner(), requester, ContentType.TASK,
                 Operation.UPDATE, task.getProject().getId(), task.getProject().getOwner());
 
-        // clone its contents
-        String contents = GSON_ALLOW_EXPOSE_ONLY
-                .toJson(this.getContents(taskId, requester).stream().collect(Collectors.toList()));
-
         if (dateTime != null && StringUtils.isNotBlank(task.getRecurrenceRule())) {
-            return completeSingleRecurringTask(task, dateTime, contents);
+            return completeSingleRecurringTask(task, dateTime);
         }
 
-        this.taskRepository.delete(task);
-        CompletedTask completedTask = new CompletedTask(task, contents);
-        this.completedTaskRepository.save(completedTask);
-        return completedTask;
+        Long completedTaskId = completeInBatch(Collections.singletonList(taskId)).get(taskId);
+        return this.completedTaskRepository.findById(completedTaskId)
+                .orElseThrow(() -> new IllegalStateException("Completed task " + completedTaskId + " not found"));
     }
 
     /**
@@ -824,7 +871,7 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
      * @return CompletedTask
      */
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public CompletedTask completeSingleRecurringTask(Task task, String dateTimeStr, String contents) {
+    public CompletedTask completeSingleRecurringTask(Task task, String dateTimeStr) {
         Set<String> completedSlotsSet = ZonedDateTimeHelper.parseDateTimeSet(task.getCompletedSlots());
         String timezone = task.getTimezone();
         DateTime dateTime = ZonedDateTimeHelper.getDateTime(ZonedDateTimeHelper.convertDateTime(dateTimeStr, timezone));
@@ -838,12 +885,16 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
                 : task.getCompletedSlots() + "," + dateTime.toString());
         this.taskRepository.save(task);
 
-        CompletedTask completedTask = new CompletedTask(task, contents);
+        CompletedTask completedTask = new CompletedTask(task, null);
         completedTask.setRecurrenceRule(null);
         completedTask.setDueDate(ZonedDateTimeHelper.getDate(dateTime));
         completedTask.setDueTime(ZonedDateTimeHelper.getTime(dateTime));
+        completedTask.setContentsOrder(task.getContentsOrder());
 
-        this.completedTaskRepository.save(completedTask);
+        completedTask = this.completedTaskRepository.saveAndFlush(completedTask);
+        // the recurring task keeps its contents, the occurrence gets a copy
+        this.taskContentRepository.copyToCompletedTask(task.getId(), completedTask.getId(),
+                completedTask.getCreatedAt());
         return completedTask;
     }
 
@@ -910,16 +961,8 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
      * @retVal List<Event> - a list of notification events
      */
     private List<Event> generateEvents(TaskModel task, String requester, Project project) {
-        List<Event> events = new ArrayList<>();
-        for (UserGroup userGroup : project.getGroup().getAcceptedUsers()) {
-            // skip send event to self
-            String username = userGroup.getUser().getName();
-            if (userGroup.getUser().getName().equals(requester)) {
-                continue;
-            }
-            events.add(new Event(username, task.getId(), task.getName()));
-        }
-        return events;
+        return this.groupMembersCache.generateEvents(project.getGroup().getId(), requester,
+                task.getId(), task.getName());
     }
 
     /**
@@ -933,7 +976,9 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
     public List<CompletedTask> getCompletedTasks(Long projectId, String requester, Integer pageNo, Integer pageSize) {
         Project project = this.projectDaoJpa.getProject(projectId, requester);
 
-        Pageable paging = PageRequest.of(pageNo, pageSize, Sort.by("id").descending());
+        // completed_tasks is partitioned by created_at
+        Pageable paging = PageRequest.of(pageNo, pageSize,
+                Sort.by("createdAt").descending().and(Sort.by("id").descending()));
 
         List<CompletedTask> completedTasks = this.completedTaskRepository.findCompletedTaskByProject(project, paging);
         completedTasks.forEach(t -> t.setLabels(Collections.emptyList()));
@@ -963,6 +1008,49 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of completed tasks in [startDate, endDate], newest first
+     *
+     * @param cursor   nextCursor of the previous page, or null for the first page
+     * @param pageSize max number of completed tasks
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public CursorPage<com.bulletjournal.controller.models.Task> getCompletedTasksBetweenPage(
+            Long projectId, String assignee, String requester, String startDate, String endDate, String timezone,
+            String cursor, int pageSize) {
+        this.projectDaoJpa.getProject(projectId, requester);
+        Timestamp startTime = Timestamp.from(ZonedDateTimeHelper.getStartTime(startDate, null, timezone).toInstant());
+        Timestamp endTime = Timestamp.from(ZonedDateTimeHelper.getEndTime(endDate, null, timezone).toInstant());
+
+        // the first page starts right after endTime
+        Timestamp beforeTime = endTime;
+        long beforeId = Long.MAX_VALUE;
+        KeysetCursor position = KeysetCursor.parse(cursor, 2);
+        if (position != null) {
+            beforeTime = position.getTime(0);
+            beforeId = position.getKey(1);
+        }
+
+        List<CompletedTask> completedTasks;
+        if (StringUtils.isNotBlank(assignee) && !EVERYONE.equals(assignee)) {
+            completedTasks = this.completedTaskRepository.findCompletedTaskByAssigneeBetweenBefore(projectId,
+                    assignee, startTime, endTime, beforeTime, beforeId, pageSize + 1);
+        } else {
+            completedTasks = this.completedTaskRepository.findCompletedTaskBetweenBefore(projectId,
+                    startTime, endTime, beforeTime, beforeId, pageSize + 1);
+        }
+
+        String nextCursor = "";
+        if (completedTasks.size() > pageSize) {
+            completedTasks = completedTasks.subList(0, pageSize);
+            CompletedTask last = completedTasks.get(pageSize - 1);
+            nextCursor = KeysetCursor.format(last.getCreatedAt(), last.getId());
+        }
+        completedTasks.forEach(t -> t.setLabels(Collections.emptyList()));
+        return new CursorPage<>(completedTasks.stream().map(t -> t.toPresentationModel())
+                .collect(Collectors.toList()), nextCursor);
+    }
+
     /**
      * Uncomplete completed task.
      * <p>
@@ -982,6 +1070,16 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         this.authorizationService.validateRequesterInProjectGroup(requester, project);
         this.authorizationService.checkAuthorizedToOperateOnContent(task.getOwner(), requester, ContentType.TASK,
                 Operation.UPDATE, project.getId(), task.getProject().getOwner());
+        if (task.getContents() == null) {
+            Task newTask = create(project.getId(), task.getOwner(), getCreateTaskParams(task));
+            newTask.setContentsOrder(task.getContentsOrder());
+            this.taskRepository.saveAndFlush(newTask);
+            this.taskContentRepository.moveToTask(taskId, newTask.getId());
+            this.completedTaskRepository.delete(task);
+            return Pair.of(newTask.getId(), task);
+        }
+
+        // completed before contents were kept in task_contents
         List<TaskContent> contents = getCompletedTaskContents(taskId, requester);
         this.completedTaskRepository.delete(task);
         Long newId = create(project.getId(), task.getOwner(), getCreateTaskParams(task)).getId();
@@ -1051,6 +1149,16 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         return new TaskContent(text);
     }
 
+    @Override
+    public ContentRevisionRepository getContentRevisionRepository() {
+        return this.taskContentRevisionRepository;
+    }
+
+    @Override
+    public TaskContentRevision newContentRevision() {
+        return new TaskContentRevision();
+    }
+
 
     @Override
     public <T extends ProjectItemModel> List<TaskContent> getContents(Long projectItemId, String requester) {
@@ -1076,10 +1184,33 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         return taskRepository.findUniqueLabelsByProject(project.getId());
     }
 
+    @Override
+    String getHierarchy(Long projectId) {
+        return this.projectTasksRepository.findById(projectId).map(ProjectTasks::getTasks).orElse(null);
+    }
+
+    @Override
+    Long saveHierarchy(Long projectId, String hierarchy) {
+        ProjectTasks projectTasks = this.projectTasksRepository.findById(projectId)
+                .orElseGet(() -> new ProjectTasks(projectId));
+        projectTasks.setTasks(hierarchy);
+        return this.projectTasksRepository.saveAndFlush(projectTasks).getUpdatedAt().getTime();
+    }
+
+    @Override
+    int updateProject(Collection<Long> projectItemIds, Long projectId) {
+        return this.taskRepository.updateProjectIdByIdIn(projectItemIds, projectId);
+    }
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public List<TaskContent> getCompletedTaskContents(Long taskId, String requester) {
         CompletedTask task = getCompletedTask(taskId, requester);
-        return Arrays.asList(GSON.fromJson(task.getContents(), TaskContent[].class));
+        if (task.getContents() != null) {
+            return Arrays.asList(GSON.fromJson(task.getContents(), TaskContent[].class));
+        }
+        List<TaskContent> contents = this.taskContentRepository.findByCompletedTaskId(taskId);
+        loadRevisionHistory(contents);
+        return sortContents(contents, task.getContentsOrder());
     }
 
     public boolean isTaskModified(Task task, String requester) {
@@ -1143,40 +1274,66 @@ public class TaskDaoJpa extends ProjectItemDaoJpa<TaskContent> {
         return deleteESDocumentIds;
     }
 
+    /**
+     * Task counts of the projects from the task_stats_daily rollup. Uncompleted tasks count by due date,
+     * completed tasks by the day they were completed.
+     * <p>
+     * startDate != null && endDate != null => include only tasks with due date
+     * startDate != null && endDate == null => include tasks without due date
+     * startDate == null && endDate == null => include tasks without due date
+     * startDate == null && endDate != null => include only tasks with due date
+     *
+     * @return counts with assignees holding only their names
+     */
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public List<CompletedTask> getCompletedTaskByProjectIdInTimePeriod(List<Long> projectIds, String startDate, String endDate, String timezone) {
-        if (!StringUtils.isBlank(startDate) && !StringUtils.isBlank(endDate)) {
-            String startTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getStartTime(startDate, null, timezone));
-            String endTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getEndTime(endDate, null, timezone));
-            return completedTaskRepository.findCompletedTaskWithProjectIdStartTimeEndTime(projectIds, startTime, endTime);
-        } else if (!StringUtils.isBlank(startDate)) {
-            String startTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getStartTime(startDate, null, timezone));
-            return completedTaskRepository.findCompletedTaskWithProjectIdStartTime(projectIds, startTime);
-        } else if (!StringUtils.isBlank(endDate)) {
-            String endTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getEndTime(endDate, null, timezone));
-            return completedTaskRepository.findCompletedTaskWithProjectIdEndTime(projectIds, endTime);
-        } else {
-            return completedTaskRepository.findCompletedTaskWithProjectId(projectIds);
+    public TaskStatistics getTaskStatistics(List<Long> projectIds, String startDate, String endDate) {
+        // tasks without due date are counted on the 'infinity' day
+        String startDay = StringUtils.isBlank(startDate) ? "-infinity" : toStatDay(startDate);
+        String endDay = StringUtils.isBlank(endDate) ? "infinity" : toStatDay(endDate);
+        TaskStatistics taskStatistics = new TaskStatistics();
+        for (Object[] row : this.taskRepository.getTaskStatistics(projectIds, startDay, endDay)) {
+            String assignee = (String) row[0];
+            int completed = ((Number) row[1]).intValue();
+            int uncompleted = ((Number) row[2]).intValue();
+            if (assignee.isEmpty()) {
+                taskStatistics.setCompleted(completed);
+                taskStatistics.setUncompleted(uncompleted);
+            } else if (completed + uncompleted > 0) {
+                taskStatistics.getUserTaskStatistics().add(new UserTaskStatistic(
+                        new com.bulletjournal.controller.models.User(assignee), completed, uncompleted));
+            }
         }
+        return taskStatistics;
     }
 
-    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public List<Task> getUncompletedTasksByProjectIdInTimePeriod(List<Long> projectIds, String startDate, String endDate, String timezone) {
-        if (!StringUtils.isBlank(startDate) && !StringUtils.isBlank(endDate)) {
-            String startTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getStartTime(startDate, null, timezone));
-            String endTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getEndTime(endDate, null, timezone));
-            return taskRepository.findTaskWithProjectIdStartTimeEndTime(projectIds, startTime, endTime);
-        } else if (!StringUtils.isBlank(startDate)) {
-            String startTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getStartTime(startDate, null, timezone));
-            return taskRepository.findTaskWithProjectIdStartTime(projectIds, startTime);
-        } else if (!StringUtils.isBlank(endDate)) {
-            String endTime = ZonedDateTimeHelper.toDBTimestamp(ZonedDateTimeHelper.getEndTime(endDate, null, timezone));
-            return taskRepository.findTaskWithProjectIdEndTime(projectIds, endTime);
-        } else {
-            return taskRepository.findTaskWithProjectId(projectIds);
+    private static String toStatDay(String date) {
+        try {
+            return LocalDate.parse(date).toString();
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date " + date);
         }
     }
 
+    /**
+     * Derive task_stats_daily from tasks and completed tasks
+     *
+     * @return number of rollup rows
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public int rebuildTaskStatistics() {
+        return this.taskRepository.rebuildTaskStatistics();
+    }
+
+    /**
+     * Create upcoming completed_tasks partitions and archive the ones past retention
+     *
+     * @return number of archived completed tasks
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public int maintainCompletedTaskPartitions(int monthsAhead, int retentionMonths) {
+        return this.completedTaskRepository.maintainPartitions(monthsAhead, retentionMonths);
+    }
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void saveAll(List<Task> tasks) {
         this.taskRepository.saveAll(tasks);
@@ -3,11 +3,13 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.Project;
 import com.bulletjournal.repository.models.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +20,23 @@ public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositor
 
     List<Task> findTaskByProject(Project project);
 
-    @Query(value = "SELECT * FROM tasks WHERE :assignee = ANY(tasks.assignees) AND tasks.project_id = :project_id", nativeQuery = true)
+    @Query(value = "SELECT * FROM tasks WHERE tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND tasks.project_id = :project_id", nativeQuery = true)
     List<Task> findTasksByAssigneeAndProject(@Param("assignee") String assignee,
                                              @Param("project_id") Long projectId);
 
-    @Query(value = "SELECT * FROM tasks WHERE :assignee = ANY(tasks.assignees) AND tasks.recurrence_rule IS NOT NULL", nativeQuery = true)
+    /**
+     * Keyset page of assignee's tasks in project ordered by id
+     */
+    @Query(value = "SELECT * FROM tasks WHERE tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND tasks.project_id = :project_id"
+            + " AND tasks.id > :afterId ORDER BY tasks.id LIMIT :limit", nativeQuery = true)
+    List<Task> findTasksByAssigneeAndProjectAfter(@Param("assignee") String assignee,
+                                                  @Param("project_id") Long projectId,
+                                                  @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM tasks WHERE tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND tasks.recurrence_rule IS NOT NULL", nativeQuery = true)
     List<Task> findTasksByAssigneeAndRecurrenceRuleNotNull(@Param("assignee") String assignee);
 
-    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id IN :projectIds AND :assignee = ANY(tasks.assignees) AND tasks.recurrence_rule IS NOT NULL", nativeQuery = true)
+    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id IN :projectIds AND tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND tasks.recurrence_rule IS NOT NULL", nativeQuery = true)
     List<Task> findTasksInProjectsByAssigneeAndRecurrenceRuleNotNull(@Param("assignee") String assignee, @Param("projectIds") List<Long> projectIds);
 
     List<Task> findTasksByRecurrenceRuleNotNull();
@@ -33,22 +44,22 @@ public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositor
     List<Task> findTaskByProjectAndRecurrenceRuleNotNull(Project project);
 
     @Query(value = "SELECT * FROM tasks WHERE tasks.start_time IS NOT NULL AND tasks.reminder_date_time IS NOT NULL"
-            + " AND tasks.start_time >= to_timestamp(:start, 'YYYY-MM-DD HH24:MI:SS') AND tasks.reminder_date_time <= to_timestamp(:end, 'YYYY-MM-DD HH24:MI:SS')", nativeQuery = true)
-    List<Task> findRemindingTasksBetween(@Param("start") String start, @Param("end") String end);
+            + " AND tasks.start_time >= :start AND tasks.reminder_date_time <= :end", nativeQuery = true)
+    List<Task> findRemindingTasksBetween(@Param("start") Timestamp start, @Param("end") Timestamp end);
 
     Optional<Task> findTaskByGoogleCalendarEventIdAndProject(String googleCalendarEventId, Project project);
 
-    @Query(value = "SELECT * FROM tasks WHERE :assignee = ANY(tasks.assignees) AND tasks.start_time IS NOT NULL AND tasks.reminder_date_time IS NOT NULL"
-            + " AND tasks.start_time >= to_timestamp(:start, 'YYYY-MM-DD HH24:MI:SS') AND tasks.reminder_date_time <= to_timestamp(:now, 'YYYY-MM-DD HH24:MI:SS')", nativeQuery = true)
-    List<Task> findRemindingTasks(@Param("assignee") String assignee, @Param("now") String now,
-                                  @Param("start") String start);
+    @Query(value = "SELECT * FROM tasks WHERE tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND tasks.start_time IS NOT NULL AND tasks.reminder_date_time IS NOT NULL"
+            + " AND tasks.start_time >= :start AND tasks.reminder_date_time <= :now", nativeQuery = true)
+    List<Task> findRemindingTasks(@Param("assignee") String assignee, @Param("now") Timestamp now,
+                                  @Param("start") Timestamp start);
 
-    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id IN :projectIds AND :assignee = ANY(tasks.assignees) AND tasks.start_time IS NOT NULL AND "
+    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id IN :projectIds AND tasks.assignees @> CAST(ARRAY[:assignee] AS text[]) AND tasks.start_time IS NOT NULL AND "
             + "tasks.end_time IS NOT NULL AND "
-            + "((tasks.start_time >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS') AND tasks.start_time <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS')) OR "
-            + "(tasks.end_time >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS') AND tasks.end_time <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS')))", nativeQuery = true)
-    List<Task> findTasksOfAssigneeBetween(@Param("assignee") String assignee, @Param("startTime") String startTime,
-                                          @Param("endTime") String endTime, @Param("projectIds") List<Long> projectIds);
+            + "((tasks.start_time >= :startTime AND tasks.start_time <= :endTime) OR "
+            + "(tasks.end_time >= :startTime AND tasks.end_time <= :endTime))", nativeQuery = true)
+    List<Task> findTasksOfAssigneeBetween(@Param("assignee") String assignee, @Param("startTime") Timestamp startTime,
+                                          @Param("endTime") Timestamp endTime, @Param("projectIds") List<Long> projectIds);
 
     @Query(value = "SELECT task FROM Task task WHERE task.project = :project AND "
             + "task.startTime IS NOT NULL AND task.endTime IS NOT NULL AND "
@@ -64,20 +75,24 @@ public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositor
                                 @Param("endTime") Timestamp endTime,
                                 @Param("projects") List<Project> projects);
 
-    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id in :projectIds AND tasks.start_time IS NOT NULL AND " +
-            "tasks.end_time IS NOT NULL AND " +
-            "((tasks.start_time >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS') AND tasks.start_time <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS')) OR " +
-            "(tasks.end_time >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS') AND tasks.end_time <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS')))", nativeQuery = true)
-    List<Task> findTaskWithProjectIdStartTimeEndTime(List<Long> projectIds, String startTime, String endTime);
-
-    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id in :projectIds AND (tasks.end_time is NULL " +
-            "OR tasks.end_time >= to_timestamp(:startTime, 'YYYY-MM-DD HH24:MI:SS'))", nativeQuery = true)
-    List<Task> findTaskWithProjectIdStartTime(List<Long> projectIds, String startTime);
-
-    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id in :projectIds AND (tasks.start_time is NOT NULL " +
-            "AND tasks.start_time <= to_timestamp(:endTime, 'YYYY-MM-DD HH24:MI:SS'))", nativeQuery = true)
-    List<Task> findTaskWithProjectIdEndTime(List<Long> projectIds, String endTime);
-
-    @Query(value = "SELECT * FROM tasks WHERE tasks.project_id in :projectIds", nativeQuery = true)
-    List<Task> findTaskWithProjectId(List<Long> projectIds);
+    /**
+     * Completed and uncompleted task counts per assignee from the task_stats_daily rollup,
+     * the '' assignee holds the number of tasks
+     */
+    @Query(value = "SELECT assignee, SUM(completed), SUM(uncompleted) FROM task_stats_daily " +
+            "WHERE project_id in :projectIds AND " +
+            "stat_day BETWEEN CAST(:startDay AS date) AND CAST(:endDay AS date) " +
+            "GROUP BY assignee", nativeQuery = true)
+    List<Object[]> getTaskStatistics(List<Long> projectIds, String startDay, String endDay);
+
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE id IN :taskIds", nativeQuery = true)
+    int deleteByIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query(value = "SELECT rebuild_task_stats_daily()", nativeQuery = true)
+    Integer rebuildTaskStatistics();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE tasks SET project_id = :projectId, updated_at = now() WHERE id IN :taskIds", nativeQuery = true)
+    int updateProjectIdByIdIn(@Param("taskIds") Collection<Long> taskIds, @Param("projectId") Long projectId);
 }
@@ -0,0 +1,8 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.repository.models.TransactionContentRevision;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionContentRevisionRepository extends ContentRevisionRepository<TransactionContentRevision> {
+}
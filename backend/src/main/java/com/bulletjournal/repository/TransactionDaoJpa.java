@@ -54,6 +54,8 @@ public class TransactionDaoJpa extends ProjectItemDaoJpa<TransactionContent> {
     @Autowired
     private TransactionContentRepository transactionContentRepository;
     @Autowired
+    private TransactionContentRevisionRepository transactionContentRevisionRepository;
+    @Autowired
     private SearchIndexDaoJpa searchIndexDaoJpa;
     @Autowired
     private BankAccountDaoJpa bankAccountDaoJpa;
@@ -385,15 +387,8 @@ public class TransactionDaoJpa extends ProjectItemDaoJpa<TransactionContent> {
     }
 
     private List<Event> generateEvents(Transaction transaction, String requester, Project project) {
-        List<Event> events = new ArrayList<>();
-        for (UserGroup userGroup : project.getGroup().getAcceptedUsers()) {
-            String username = userGroup.getUser().getName();
-            if (userGroup.getUser().getName().equals(requester))
-                continue;
-
-            events.add(new Event(username, transaction.getId(), transaction.getName()));
-        }
-        return events;
+        return this.groupMembersCache.generateEvents(project.getGroup().getId(), requester,
+                transaction.getId(), transaction.getName());
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -426,11 +421,39 @@ public class TransactionDaoJpa extends ProjectItemDaoJpa<TransactionContent> {
         return new TransactionContent(text);
     }
 
+    @Override
+    public ContentRevisionRepository getContentRevisionRepository() {
+        return this.transactionContentRevisionRepository;
+    }
+
+    @Override
+    public TransactionContentRevision newContentRevision() {
+        return new TransactionContentRevision();
+    }
+
     @Override
     List<Long> findItemLabelsByProject(Project project) {
         return transactionRepository.findUniqueLabelsByProject(project.getId());
     }
 
+    /**
+     * Transactions are listed by time, they have no hierarchy
+     */
+    @Override
+    String getHierarchy(Long projectId) {
+        return null;
+    }
+
+    @Override
+    Long saveHierarchy(Long projectId, String hierarchy) {
+        return null;
+    }
+
+    @Override
+    int updateProject(Collection<Long> projectItemIds, Long projectId) {
+        return this.transactionRepository.updateProjectIdByIdIn(projectItemIds, projectId);
+    }
+
     @Override
     List<Transaction> findRecentProjectItemsBetween(Timestamp startTime, Timestamp endTime, List projects) {
         return this.transactionRepository.findTransactionsBetween(startTime, endTime, projects);
@@ -4,11 +4,13 @@ import com.bulletjournal.repository.models.BankAccount;
 import com.bulletjournal.repository.models.Project;
 import com.bulletjournal.repository.models.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -81,4 +83,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
     List<Transaction> findByBankAccountAndRecurrenceRuleNotNull(@Param("bankAccount") BankAccount bankAccount);
 
     List<Transaction> findByBankAccount(BankAccount bankAccount);
-}
\ No newline at end of file
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE transactions SET project_id = :projectId, updated_at = now() WHERE id IN :transactionIds", nativeQuery = true)
+    int updateProjectIdByIdIn(@Param("transactionIds") Collection<Long> transactionIds, @Param("projectId") Long projectId);
+}
@@ -0,0 +1,45 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.ProjectAccessConfig;
+import com.bulletjournal.util.CommittedLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids of the projects a user can access through accepted groups, read from user_accessible_projects.
+ * <p>
+ * Membership and project changes invalidate the affected users once the transaction commits.
+ */
+@Repository
+public class UserAccessibleProjectsCache {
+
+    private final ProjectRepository projectRepository;
+
+    private final CommittedLruCache<String, Set<Long>> cache;
+
+    @Autowired
+    public UserAccessibleProjectsCache(ProjectRepository projectRepository, ProjectAccessConfig projectAccessConfig) {
+        this.projectRepository = projectRepository;
+        this.cache = new CommittedLruCache<>(projectAccessConfig.getCacheSize(),
+                TimeUnit.SECONDS.toMillis(projectAccessConfig.getCacheTtlSeconds()));
+    }
+
+    public Set<Long> getProjectIds(String username) {
+        return this.cache.get(username, u -> Collections.unmodifiableSet(
+                new HashSet<>(this.projectRepository.findAccessibleProjectIds(u))));
+    }
+
+    public void invalidate(Collection<String> usernames) {
+        this.cache.invalidate(usernames);
+    }
+
+    public void invalidate(String username) {
+        invalidate(Collections.singleton(username));
+    }
+}
@@ -1,9 +1,9 @@
 package com.bulletjournal.repository;
 
 import com.bulletjournal.authz.Role;
+import com.bulletjournal.controller.models.CursorPage;
 import com.bulletjournal.controller.models.Theme;
 import com.bulletjournal.controller.models.params.UpdateMyselfParams;
-import com.bulletjournal.controller.models.UserPointActivity;
 import com.bulletjournal.exceptions.ResourceAlreadyExistException;
 import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.notifications.NotificationService;
@@ -72,8 +72,8 @@ public class UserDaoJpa {
         user.setTimeFormat(0);
         user.setCurrency("US");
         user.setTheme(Theme.LIGHT.name());
-        user.setPoints(6);
         user = this.userRepository.save(user);
+        this.userPointActivityDaoJpa.createBalance(name, 6);
 
         Group group = new Group();
         group.setName(Group.DEFAULT_NAME);
@@ -151,24 +151,25 @@ public class UserDaoJpa {
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Integer changeUserPoints(String username, Integer points, String description) {
-        userPointActivityDaoJpa.create(username, points, description);
-        User user = this.getByName(username);
-        Integer pts = user.getPoints() + points;
-        user.setPoints(pts);
-        this.userRepository.save(user);
-        return pts;
+        this.getByName(username);
+        return userPointActivityDaoJpa.create(username, points, description);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public List<UserPointActivity> getPointActivitiesByUsername(String username) {
-        return userPointActivityDaoJpa.findPointActivityByUsername(username);
+    public Integer getUserPoints(String username) {
+        return userPointActivityDaoJpa.getBalance(username);
+    }
+
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public CursorPage<com.bulletjournal.controller.models.UserPointActivity> getPointActivitiesByUsername(
+            String username, String cursor, int pageSize) {
+        return userPointActivityDaoJpa.findPointActivityByUsername(username, cursor, pageSize);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void setUserPoints(String username, Integer points) {
-        User user = this.getByName(username);
-        user.setPoints(points);
-        this.userRepository.save(user);
+        this.getByName(username);
+        userPointActivityDaoJpa.setBalance(username, points, "Set by admin");
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -3,8 +3,11 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.UserGroup;
 import com.bulletjournal.repository.models.UserGroupKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,11 @@ public interface UserGroupRepository extends JpaRepository<UserGroup, UserGroupK
     List<UserGroup> findAllByGroupIdAndAccepted(Long groupId, Boolean accepted);
 
     List<UserGroup> findAllByUserId(Long userId);
+
+    /**
+     * @return rows of group id and username of accepted members
+     */
+    @Query(value = "SELECT ug.group_id, u.name FROM user_groups ug JOIN users u ON u.id = ug.user_id " +
+            "WHERE ug.group_id IN :groupIds AND ug.accepted", nativeQuery = true)
+    List<Object[]> findAcceptedUsernames(@Param("groupIds") Collection<Long> groupIds);
 }
@@ -1,30 +1,97 @@
 package com.bulletjournal.repository;
 
+import com.bulletjournal.controller.models.CursorPage;
 import com.bulletjournal.repository.models.UserPointActivity;
+import com.bulletjournal.repository.models.UserPointsBalance;
+import com.bulletjournal.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Point ledger: user_point_activities is append-only and user_points_balance holds the running balance,
+ * both change in the same transaction
+ */
 @Repository
 public class UserPointActivityDaoJpa {
 
     @Autowired
     private UserPointActivityRepository userPointActivityRepository;
 
+    @Autowired
+    private UserPointsBalanceRepository userPointsBalanceRepository;
+
+    /**
+     * Appends the activity and adds its points to the balance
+     *
+     * @return the new balance
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public Integer create(String username, Integer point, String description) {
+        userPointActivityRepository.save(new UserPointActivity(username, point, description));
+        return userPointsBalanceRepository.addPoints(username, point);
+    }
+
+    /**
+     * Opens the balance of a new user, no activity is recorded
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public void createBalance(String username, Integer points) {
+        userPointsBalanceRepository.save(new UserPointsBalance(username, points));
+    }
+
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public Integer getBalance(String username) {
+        return userPointsBalanceRepository.findById(username).map(UserPointsBalance::getPoints).orElse(0);
+    }
+
+    /**
+     * Sets the balance, the difference to the current balance is appended as an activity
+     */
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public UserPointActivity create(String username, Integer point, String description) {
-        UserPointActivity userPointActivity = new UserPointActivity(username, point, description);
-        userPointActivityRepository.save(userPointActivity);
-        return userPointActivity;
+    public void setBalance(String username, Integer points, String description) {
+        UserPointsBalance balance = userPointsBalanceRepository.findByUsernameForUpdate(username)
+                .orElseGet(() -> new UserPointsBalance(username, 0));
+        int change = points - balance.getPoints();
+        if (change == 0) {
+            return;
+        }
+        userPointActivityRepository.save(new UserPointActivity(username, change, description));
+        balance.setPoints(points);
+        userPointsBalanceRepository.save(balance);
     }
 
+    /**
+     * Keyset page of the user's activities, newest first
+     *
+     * @param cursor   nextCursor of the previous page, blank for the first page
+     * @param pageSize number of activities
+     */
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
-    public List<com.bulletjournal.controller.models.UserPointActivity> findPointActivityByUsername(String username) {
-        return userPointActivityRepository.findUserPointActivitiesByUsername(username)
-                .stream().map(e -> e.toPresentationModel()).collect(Collectors.toList());
+    public CursorPage<com.bulletjournal.controller.models.UserPointActivity> findPointActivityByUsername(
+            String username, String cursor, int pageSize) {
+        Timestamp beforeTime = KeysetCursor.END_OF_TIME;
+        long beforeId = Long.MAX_VALUE;
+        KeysetCursor position = KeysetCursor.parse(cursor, 2);
+        if (position != null) {
+            beforeTime = position.getTime(0);
+            beforeId = position.getKey(1);
+        }
+
+        List<UserPointActivity> activities = userPointActivityRepository.findUserPointActivitiesByUsernameBefore(
+                username, beforeTime, beforeId, pageSize + 1);
+        String nextCursor = "";
+        if (activities.size() > pageSize) {
+            activities = activities.subList(0, pageSize);
+            UserPointActivity last = activities.get(pageSize - 1);
+            nextCursor = KeysetCursor.format(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(activities.stream().map(UserPointActivity::toPresentationModel)
+                .collect(Collectors.toList()), nextCursor);
     }
 }
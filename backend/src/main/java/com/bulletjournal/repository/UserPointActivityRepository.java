@@ -3,12 +3,22 @@ package com.bulletjournal.repository;
 import com.bulletjournal.repository.models.UserPointActivity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 @Repository
 public interface UserPointActivityRepository extends JpaRepository<UserPointActivity, Long> {
-    @Query("SELECT t FROM UserPointActivity t WHERE t.username = ?1 order by t.createdAt desc ")
-    List<UserPointActivity> findUserPointActivitiesByUsername(String username);
+    /**
+     * Keyset page of the user's activities before (beforeTime, beforeId), newest first
+     */
+    @Query(value = "SELECT * FROM user_point_activities WHERE username = :username AND " +
+            "(created_at, id) < (:beforeTime, :beforeId) ORDER BY created_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<UserPointActivity> findUserPointActivitiesByUsernameBefore(@Param("username") String username,
+                                                                    @Param("beforeTime") Timestamp beforeTime,
+                                                                    @Param("beforeId") Long beforeId,
+                                                                    @Param("limit") int limit);
 }
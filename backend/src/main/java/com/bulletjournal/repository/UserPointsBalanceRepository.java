@@ -0,0 +1,31 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.repository.models.UserPointsBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface UserPointsBalanceRepository extends JpaRepository<UserPointsBalance, String> {
+
+    /**
+     * Adds points to the balance in one statement, concurrent changes queue on the row instead of overwriting
+     * each other
+     *
+     * @return the new balance
+     */
+    @Query(value = "WITH balance AS (INSERT INTO user_points_balance (username, points, created_at, updated_at) " +
+            "VALUES (:username, :points, now(), now()) ON CONFLICT (username) DO UPDATE " +
+            "SET points = user_points_balance.points + EXCLUDED.points, updated_at = now() RETURNING points) " +
+            "SELECT points FROM balance", nativeQuery = true)
+    Integer addPoints(@Param("username") String username, @Param("points") Integer points);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM UserPointsBalance b WHERE b.username = :username")
+    Optional<UserPointsBalance> findByUsernameForUpdate(@Param("username") String username);
+}
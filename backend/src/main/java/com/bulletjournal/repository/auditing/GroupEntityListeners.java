@@ -6,6 +6,8 @@ import com.bulletjournal.redis.models.EtagType;
 import com.bulletjournal.repository.models.Group;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.stream.Collectors;
+
 import javax.persistence.PostPersist;
 import javax.persistence.PostRemove;
 
@@ -24,11 +26,10 @@ public class GroupEntityListeners {
     @PostRemove
     public void postDelete(Object entity) {
         Group group = (Group) entity;
-        group.getUsers().forEach(u -> {
-            EtagEvent etagEvent = new EtagEvent(u.getUser().getName(),
-                    EtagType.GROUP_DELETE);
-            this.notificationService.cacheEtag(etagEvent);
-        });
+        EtagEvent etagEvent = new EtagEvent(
+                group.getUsers().stream().map(u -> u.getUser().getName()).collect(Collectors.toList()),
+                EtagType.GROUP_DELETE);
+        this.notificationService.cacheEtag(etagEvent);
     }
 
 }
@@ -3,24 +3,45 @@ package com.bulletjournal.repository.auditing;
 import com.bulletjournal.notifications.EtagEvent;
 import com.bulletjournal.notifications.NotificationService;
 import com.bulletjournal.redis.models.EtagType;
+import com.bulletjournal.repository.GroupMembersCache;
+import com.bulletjournal.repository.UserAccessibleProjectsCache;
 import com.bulletjournal.repository.models.UserGroup;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.persistence.PostPersist;
 import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
 
 public class UserGroupEntityListeners {
     @Autowired
     NotificationService notificationService;
 
+    @Autowired
+    UserAccessibleProjectsCache userAccessibleProjectsCache;
+
+    @Autowired
+    GroupMembersCache groupMembersCache;
+
     @PostPersist
     public void postPersist(Object entity) {
         cacheEtag((UserGroup) entity);
+        invalidateCaches((UserGroup) entity);
+    }
+
+    @PostUpdate
+    public void postUpdate(Object entity) {
+        invalidateCaches((UserGroup) entity);
     }
 
     @PostRemove
     public void postDelete(Object entity) {
         cacheEtag((UserGroup) entity);
+        invalidateCaches((UserGroup) entity);
+    }
+
+    private void invalidateCaches(UserGroup userGroup) {
+        userAccessibleProjectsCache.invalidate(userGroup.getUser().getName());
+        groupMembersCache.invalidate(userGroup.getId().getGroupId());
     }
 
     private void cacheEtag(UserGroup userGroup) {
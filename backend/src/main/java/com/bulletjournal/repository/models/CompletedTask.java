@@ -18,9 +18,13 @@ public class CompletedTask extends TaskModel {
     )
     private Long id;
 
+    // json copy of the contents, only set on tasks completed before contents moved along with the task
     @Column(columnDefinition = "TEXT")
     private String contents;
 
+    @Column(length = 10485760, name = "contents_order")
+    private String contentsOrder;
+
     public CompletedTask() {
     }
 
@@ -71,12 +75,12 @@ public class CompletedTask extends TaskModel {
 
     @Override
     public void setContentsOrder(String contentsOrder) {
-        throw new IllegalStateException("setContentsOrder not implemented");
+        this.contentsOrder = contentsOrder;
     }
 
     @Override
     public String getContentsOrder() {
-        throw new IllegalStateException("getContentsOrder not implemented");
+        return contentsOrder;
     }
 
     @Override
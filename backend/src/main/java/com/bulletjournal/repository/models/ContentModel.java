@@ -1,13 +1,16 @@
 package com.bulletjournal.repository.models;
 
 import com.bulletjournal.controller.models.Content;
+import com.bulletjournal.controller.models.Revision;
 import com.bulletjournal.controller.models.User;
 import com.google.gson.annotations.Expose;
 
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.List;
 
 @MappedSuperclass
 public abstract class ContentModel<T extends ProjectItemModel> extends AuditModel {
@@ -28,6 +31,10 @@ public abstract class ContentModel<T extends ProjectItemModel> extends AuditMode
     @Column(columnDefinition = "TEXT")
     private String revisions;
 
+    // revisions loaded from the content revisions table, without diffs
+    @Transient
+    private List<Revision> revisionHistory;
+
     public abstract Long getId();
 
     public abstract T getProjectItem();
@@ -66,11 +73,23 @@ public abstract class ContentModel<T extends ProjectItemModel> extends AuditMode
         this.revisions = revisions;
     }
 
+    public List<Revision> getRevisionHistory() {
+        return revisionHistory;
+    }
+
+    public void setRevisionHistory(List<Revision> revisionHistory) {
+        this.revisionHistory = revisionHistory;
+    }
+
     public Content toPresentationModel() {
-        return new Content(
+        Content content = new Content(
                 this.getId(), new User(this.getOwner()), this.getText(),
                 this.getBaseText(), this.getCreatedAt() == null ? null : this.getCreatedAt().getTime(),
                 this.getUpdatedAt() == null ? null : this.getUpdatedAt().getTime(),
                 this.getRevisions());
+        if (this.revisionHistory != null && !this.revisionHistory.isEmpty()) {
+            content.setRevisions(this.revisionHistory.toArray(new Revision[0]));
+        }
+        return content;
     }
 }
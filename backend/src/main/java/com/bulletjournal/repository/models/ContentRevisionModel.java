@@ -0,0 +1,103 @@
+package com.bulletjournal.repository.models;
+
+import com.bulletjournal.controller.models.Revision;
+import com.bulletjournal.controller.models.User;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+
+/**
+ * A single content revision. Every revision keeps the diff from its predecessor and every
+ * few revisions also keep the full text, so any revision is rebuilt from the nearest snapshot.
+ */
+@MappedSuperclass
+public abstract class ContentRevisionModel {
+
+    @Id
+    @GeneratedValue(generator = "content_revision_generator")
+    @SequenceGenerator(
+            name = "content_revision_generator",
+            sequenceName = "content_revision_sequence",
+            initialValue = 100,
+            allocationSize = 50
+    )
+    private Long id;
+
+    @Column(name = "content_id", nullable = false, updatable = false)
+    private Long contentId;
+
+    @Column(name = "revision_id", nullable = false, updatable = false)
+    private Long revisionId;
+
+    @Column(columnDefinition = "TEXT", updatable = false)
+    private String diff;
+
+    @Column(columnDefinition = "TEXT")
+    private String snapshot;
+
+    @Column(length = 100, nullable = false, updatable = false)
+    private String username;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Timestamp createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(Long contentId) {
+        this.contentId = contentId;
+    }
+
+    public Long getRevisionId() {
+        return revisionId;
+    }
+
+    public void setRevisionId(Long revisionId) {
+        this.revisionId = revisionId;
+    }
+
+    public String getDiff() {
+        return diff;
+    }
+
+    public void setDiff(String diff) {
+        this.diff = diff;
+    }
+
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(String snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Revision toPresentationModel() {
+        return new Revision(this.revisionId, this.diff, this.createdAt.getTime(), new User(this.username));
+    }
+}
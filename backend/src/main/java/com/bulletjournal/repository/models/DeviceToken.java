@@ -1,6 +1,7 @@
 package com.bulletjournal.repository.models;
 
 import javax.persistence.*;
+import java.sql.Timestamp;
 import java.util.Objects;
 
 @Entity
@@ -17,12 +18,16 @@ public class DeviceToken extends AuditModel {
     @Column(name = "username", nullable = false)
     private String username;
 
+    @Column(name = "last_seen_at", nullable = false)
+    private Timestamp lastSeenAt;
+
     public DeviceToken() {
     }
 
     public DeviceToken(String username, String token) {
         this.username = username;
         this.token = token;
+        this.lastSeenAt = new Timestamp(System.currentTimeMillis());
     }
 
     public String getUsername() {
@@ -49,6 +54,14 @@ public class DeviceToken extends AuditModel {
         this.token = token;
     }
 
+    public Timestamp getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(Timestamp lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(username, token);
@@ -0,0 +1,12 @@
+package com.bulletjournal.repository.models;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "note_content_revisions")
+public class NoteContentRevision extends ContentRevisionModel {
+
+    public NoteContentRevision() {
+    }
+}
@@ -1,17 +1,25 @@
 package com.bulletjournal.repository.models;
 
 
+import com.bulletjournal.notifications.Action;
 import com.bulletjournal.repository.auditing.NotificationEntityListeners;
+import com.google.gson.Gson;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "notifications")
 @EntityListeners(value = {NotificationEntityListeners.class})
 public class Notification extends AuditModel {
 
+    private static final Gson GSON = new Gson();
+
     @Id
     @GeneratedValue(generator = "notification_generator")
     @SequenceGenerator(
@@ -49,6 +57,12 @@ public class Notification extends AuditModel {
     @Column
     private String actions;
 
+    @Column(name = "has_actions", nullable = false)
+    private boolean hasActions;
+
+    @Column(name = "action_descriptions", length = 100)
+    private String actionDescriptions;
+
     @Column
     private String link;
 
@@ -127,8 +141,22 @@ public class Notification extends AuditModel {
         return actions;
     }
 
-    public void setActions(String actions) {
-        this.actions = actions;
+    public void setActions(List<Action> actions) {
+        this.actions = GSON.toJson(actions);
+        this.hasActions = !actions.isEmpty();
+        this.actionDescriptions = actions.isEmpty() ? null :
+                actions.stream().map(Action::getDescription).collect(Collectors.joining(","));
+    }
+
+    public boolean hasActions() {
+        return hasActions;
+    }
+
+    public List<String> getActionDescriptions() {
+        if (actionDescriptions == null || actionDescriptions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(actionDescriptions.split(","));
     }
 
     public String getLink() {
@@ -140,8 +168,11 @@ public class Notification extends AuditModel {
     }
 
     public com.bulletjournal.controller.models.Notification toPresentationModel() {
-        return new com.bulletjournal.controller.models.Notification(
-                this.getId(), this.getTitle(), this.getContent(),
-                this.getUpdatedAt().getTime(), this.getType(), this.getLink());
+        com.bulletjournal.controller.models.Notification notification =
+                new com.bulletjournal.controller.models.Notification(
+                        this.getId(), this.getTitle(), this.getContent(),
+                        this.getUpdatedAt().getTime(), this.getType(), this.getLink());
+        notification.setActions(getActionDescriptions());
+        return notification;
     }
 }
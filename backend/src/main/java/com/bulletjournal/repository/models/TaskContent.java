@@ -17,11 +17,15 @@ public class TaskContent extends ContentModel<Task> {
     )
     private Long id;
 
-    @ManyToOne(fetch = FetchType.LAZY, optional = false)
-    @JoinColumn(name = "task_id", nullable = false)
+    // null once the task is completed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "task_id")
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Task task;
 
+    @Column(name = "completed_task_id")
+    private Long completedTaskId;
+
     public TaskContent() {
     }
 
@@ -55,4 +59,12 @@ public class TaskContent extends ContentModel<Task> {
     public void setTask(Task task) {
         this.task = task;
     }
+
+    public Long getCompletedTaskId() {
+        return completedTaskId;
+    }
+
+    public void setCompletedTaskId(Long completedTaskId) {
+        this.completedTaskId = completedTaskId;
+    }
 }
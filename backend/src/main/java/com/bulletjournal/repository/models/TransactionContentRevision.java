@@ -0,0 +1,12 @@
+package com.bulletjournal.repository.models;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "transaction_content_revisions")
+public class TransactionContentRevision extends ContentRevisionModel {
+
+    public TransactionContentRevision() {
+    }
+}
@@ -18,9 +18,6 @@ public class User extends NamedModel {
     @Column(nullable = false)
     private Integer role = 0;
 
-    @Column(nullable = false)
-    private Integer points = 0;
-
     @Column(nullable = false, name = "user_timestamps")
     private String userTimestamps = "{}";
 
@@ -215,12 +212,4 @@ public class User extends NamedModel {
         this.role = role;
     }
 
-    public Integer getPoints() {
-        return points;
-    }
-
-    public void setPoints(Integer points) {
-        this.points = points;
-    }
-
 }
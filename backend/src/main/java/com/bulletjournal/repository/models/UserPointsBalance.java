@@ -0,0 +1,39 @@
+package com.bulletjournal.repository.models;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "user_points_balance")
+public class UserPointsBalance extends AuditModel {
+
+    @Id
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Integer points = 0;
+
+    public UserPointsBalance() {
+    }
+
+    public UserPointsBalance(String username, Integer points) {
+        this.username = username;
+        this.points = points;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Integer getPoints() {
+        return points;
+    }
+
+    public void setPoints(Integer points) {
+        this.points = points;
+    }
+}
@@ -1,34 +1,98 @@
 package com.bulletjournal.templates.clients;
 
 import com.bulletjournal.templates.config.StockApiConfig;
+import com.bulletjournal.util.ExpiringLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Polygon company lookups.
+ * <p>
+ * Concurrent lookups of the same symbol share one request, and symbols that failed are
+ * not looked up again for failureTtlSeconds.
+ */
 @Component
 public class StockApiClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockApiClient.class);
+
+    private static final String COMPANY_PATH = "/v1/meta/symbols/{symbol}/company";
+
     private final RestTemplate restClient;
 
-    private static final String POLYGON_COMPANY_ROOT_URL = "https://api.polygon.io/v1/meta/symbols/{symbol}/company";
+    private final StockApiConfig stockApiConfig;
 
-    @Autowired
-    private StockApiConfig stockApiConfig;
+    private final ConcurrentHashMap<String, CompletableFuture<LinkedHashMap>> inFlight = new ConcurrentHashMap<>();
+
+    private final ExpiringLruCache<String, Boolean> recentFailures;
 
-    public StockApiClient() {
-        this.restClient = new RestTemplate();
+    @Autowired
+    public StockApiClient(StockApiConfig stockApiConfig) {
+        this.stockApiConfig = stockApiConfig;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(stockApiConfig.getConnectTimeoutMillis());
+        requestFactory.setReadTimeout(stockApiConfig.getReadTimeoutMillis());
+        this.restClient = new RestTemplate(requestFactory);
+        this.recentFailures = new ExpiringLruCache<>(stockApiConfig.getFailureCacheSize(),
+                TimeUnit.SECONDS.toMillis(stockApiConfig.getFailureTtlSeconds()));
     }
 
     public LinkedHashMap getCompany(String symbol) {
+        if (this.recentFailures.get(symbol) != null) {
+            throw new IllegalStateException("Lookup of " + symbol + " failed recently");
+        }
+        CompletableFuture<LinkedHashMap> future = new CompletableFuture<>();
+        CompletableFuture<LinkedHashMap> existing = this.inFlight.putIfAbsent(symbol, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            LinkedHashMap resp = fetchCompany(symbol);
+            future.complete(resp);
+            return resp;
+        } catch (RuntimeException e) {
+            cacheFailure(symbol);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(symbol, future);
+        }
+    }
+
+    /**
+     * Skip lookups of the symbol for a while, e.g. when its response is not usable
+     */
+    public void cacheFailure(String symbol) {
+        LOGGER.info("Caching failed lookup of {}", symbol);
+        this.recentFailures.put(symbol, Boolean.TRUE);
+    }
+
+    private LinkedHashMap fetchCompany(String symbol) {
         String url = UriComponentsBuilder.fromHttpUrl(
-                POLYGON_COMPANY_ROOT_URL)
+                this.stockApiConfig.getBaseUrl() + COMPANY_PATH)
                 .queryParam("apiKey", this.stockApiConfig.getApiKey())
                 .buildAndExpand(symbol).toUriString();
         LinkedHashMap resp = this.restClient
                 .exchange(url, HttpMethod.GET, null, LinkedHashMap.class).getBody();
+        if (resp == null) {
+            throw new IllegalStateException("Empty company response for " + symbol);
+        }
         return resp;
     }
 }
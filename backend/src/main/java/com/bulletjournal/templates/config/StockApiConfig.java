@@ -1,11 +1,95 @@
 package com.bulletjournal.templates.config;
 
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@ConfigurationProperties(prefix = "stock.api")
 public class StockApiConfig {
 
+    private String baseUrl = "https://api.polygon.io";
+
+    private int connectTimeoutMillis = 2000;
+
+    private int readTimeoutMillis = 5000;
+
+    // symbols that failed or have no known sector are not looked up again for this long
+    private long failureTtlSeconds = 600;
+
+    private int failureCacheSize = 10000;
+
+    private boolean refreshEnabled = false;
+
+    private long refreshIntervalMinutes = 60;
+
+    // rows expiring within this window are refreshed in the background
+    private long refreshAheadDays = 7;
+
     public String getApiKey() {
         return System.getenv("POLYGON_API_KEY");
     }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public long getFailureTtlSeconds() {
+        return failureTtlSeconds;
+    }
+
+    public void setFailureTtlSeconds(long failureTtlSeconds) {
+        this.failureTtlSeconds = failureTtlSeconds;
+    }
+
+    public int getFailureCacheSize() {
+        return failureCacheSize;
+    }
+
+    public void setFailureCacheSize(int failureCacheSize) {
+        this.failureCacheSize = failureCacheSize;
+    }
+
+    public boolean isRefreshEnabled() {
+        return refreshEnabled;
+    }
+
+    public void setRefreshEnabled(boolean refreshEnabled) {
+        this.refreshEnabled = refreshEnabled;
+    }
+
+    public long getRefreshIntervalMinutes() {
+        return refreshIntervalMinutes;
+    }
+
+    public void setRefreshIntervalMinutes(long refreshIntervalMinutes) {
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+    }
+
+    public long getRefreshAheadDays() {
+        return refreshAheadDays;
+    }
+
+    public void setRefreshAheadDays(long refreshAheadDays) {
+        this.refreshAheadDays = refreshAheadDays;
+    }
 }
@@ -4,23 +4,24 @@ import com.bulletjournal.clients.UserClient;
 import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.exceptions.UnAuthorizedException;
 import com.bulletjournal.hierarchy.CategoryRelationsProcessor;
-import com.bulletjournal.hierarchy.HierarchyItem;
-import com.bulletjournal.hierarchy.HierarchyProcessor;
 import com.bulletjournal.repository.UserDaoJpa;
 import com.bulletjournal.templates.controller.model.*;
 import com.bulletjournal.templates.repository.CategoriesHierarchyDaoJpa;
 import com.bulletjournal.templates.repository.CategoryDaoJpa;
+import com.bulletjournal.templates.repository.CategoryTreeCache;
 import com.bulletjournal.templates.repository.UserCategoryDaoJpa;
-import com.bulletjournal.templates.repository.model.CategoriesHierarchy;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.util.*;
-import java.util.stream.Collectors;
+
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 
 @RestController
 public class CategoryController {
@@ -45,6 +46,8 @@ public class CategoryController {
 
     private UserDaoJpa userDaoJpa;
 
+    private CategoryTreeCache categoryTreeCache;
+
     @Autowired
     private UserCategoryDaoJpa userCategoryDaoJpa;
 
@@ -55,36 +58,27 @@ public class CategoryController {
     public CategoryController(
         CategoryDaoJpa categoryDaoJpa,
         CategoriesHierarchyDaoJpa hierarchyDaoJpa,
-        UserDaoJpa userDaoJpa
+        UserDaoJpa userDaoJpa,
+        CategoryTreeCache categoryTreeCache
     ) {
         this.categoryDaoJpa = categoryDaoJpa;
         this.hierarchyDaoJpa = hierarchyDaoJpa;
         this.userDaoJpa = userDaoJpa;
+        this.categoryTreeCache = categoryTreeCache;
     }
 
     @GetMapping(PUBLIC_CATEGORIES_ROUTE)
-    public List<Category> getCategories() {
-        List<com.bulletjournal.templates.repository.model.Category> allCategories
-            = categoryDaoJpa.getAllCategories();
-        CategoriesHierarchy categoriesHierarchy = hierarchyDaoJpa.getHierarchies();
-        Set<Long> existingIds = allCategories.stream()
-            .map(com.bulletjournal.templates.repository.model.Category::getId)
-            .collect(Collectors.toSet());
-        Pair<List<HierarchyItem>, Set<Long>> hierarchy =
-            HierarchyProcessor.findAllIds(categoriesHierarchy.getHierarchy(), existingIds);
-        List<HierarchyItem> keptHierarchy = hierarchy.getLeft();
-        Set<Long> processedIds = hierarchy.getRight();
-
-        Map<Long, com.bulletjournal.templates.repository.model.Category> categoryIdMap
-            = allCategories.stream().collect(
-                Collectors.toMap(com.bulletjournal.templates.repository.model.Category::getId, category -> category));
-
-        List<Category> ret = new ArrayList<>(CategoryRelationsProcessor.processRelations(categoryIdMap, keptHierarchy));
-        ret.addAll(allCategories.stream()
-            .filter(category -> !processedIds.contains(category.getId()))
-            .map(com.bulletjournal.templates.repository.model.Category::toPresentationModel)
-            .sorted(Comparator.comparingLong(Category::getId)).collect(Collectors.toList()));
-        return ret;
+    public ResponseEntity<String> getCategories(@RequestHeader(IF_NONE_MATCH) Optional<String> categoriesEtag) {
+        CategoryTreeCache.Snapshot categoryTree = this.categoryTreeCache.get();
+        if (categoriesEtag.isPresent() && categoriesEtag.get().equals(categoryTree.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(categoryTree.getEtag()).build();
+        }
+        return ResponseEntity.ok().eTag(categoryTree.getEtag())
+                .contentType(MediaType.APPLICATION_JSON).body(categoryTree.getJson());
+    }
+
+    private List<Category> getCategories() {
+        return this.categoryTreeCache.get().getCategories();
     }
 
     @PostMapping(CATEGORIES_ROUTE)
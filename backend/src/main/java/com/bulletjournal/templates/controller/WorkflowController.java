@@ -9,7 +9,7 @@ import com.bulletjournal.repository.UserDaoJpa;
 import com.bulletjournal.templates.controller.model.SampleTask;
 import com.bulletjournal.templates.controller.model.SampleTaskRule;
 import com.bulletjournal.templates.controller.model.*;
-import com.bulletjournal.templates.redis.RedisSampleTasksRepository;
+import com.bulletjournal.templates.redis.SampleTaskScrollStore;
 import com.bulletjournal.templates.repository.*;
 import com.bulletjournal.templates.repository.model.Category;
 import com.bulletjournal.templates.repository.model.Choice;
@@ -70,7 +70,7 @@ public class WorkflowController {
     private StepDaoJpa stepDaoJpa;
 
     @Autowired
-    private RedisSampleTasksRepository sampleTasksRedisCache;
+    private SampleTaskScrollStore sampleTaskScrollStore;
 
     @Autowired
     private RuleEngine ruleEngine;
@@ -86,6 +86,8 @@ public class WorkflowController {
 
     private static final Gson GSON = new Gson();
 
+    private static final int FIRST_PAGE_SIZE = 10;
+
     @GetMapping(SUBSCRIBED_CATEGORIES_ROUTE)
     public List<SubscribedCategory> getUserSubscribedCategories() {
         String requester = MDC.get(UserClient.USER_NAME_KEY);
@@ -119,22 +121,13 @@ public class WorkflowController {
 
         if (nextStep.getStep() != null && nextStep.getStep().getChoices().isEmpty()) {
             // assume final step, try to get sample tasks using prevSelections
-            List<SampleTask> sampleTasks = sampleTaskDaoJpa.findAllById(
-                    this.ruleEngine.getSampleTasksForFinalStep(
-                            nextStep.getStep().getId(), selections, prevSelections))
-                    .stream().map(e -> e.toSimplePresentationModel()).collect(Collectors.toList());
-            sampleTasks = RuleEngine.sortSampleTasks(sampleTasks);
-            // store in redis and generate scrollId
-            // setSampleTasks with the first 10 tasks
-            if (sampleTasks.size() <= 10) {
-                nextStep.setScrollId("");
-                nextStep.setSampleTasks(sampleTasks);
-                return nextStep;
-            }
-            String scrollId = UUID.randomUUID().toString();
-            nextStep.setScrollId(scrollId);
-            nextStep.setSampleTasks(sampleTasks.subList(0, 10));
-            sampleTasksRedisCache.save(new SampleTasks(scrollId, sampleTasks.subList(10, sampleTasks.size())));
+            List<Long> sampleTaskIds = this.ruleEngine.getSampleTasksForFinalStep(
+                    nextStep.getStep().getId(), selections, prevSelections)
+                    .stream().sorted().collect(Collectors.toList());
+            // store ids after the first 10 in redis and hydrate only the first 10
+            nextStep.setScrollId(this.sampleTaskScrollStore.create(sampleTaskIds, FIRST_PAGE_SIZE));
+            nextStep.setSampleTasks(getSimpleSampleTasks(
+                    sampleTaskIds.subList(0, Math.min(FIRST_PAGE_SIZE, sampleTaskIds.size()))));
         }
 
         return nextStep;
@@ -142,28 +135,26 @@ public class WorkflowController {
 
     @GetMapping(PUBLIC_SAMPLE_TASKS_ROUTE)
     public SampleTasks getSampleTasks(@RequestParam String scrollId, @NotNull @RequestParam Integer pageSize) {
-        List<SampleTask> tasks = null;
-        Optional<SampleTasks> cachedSampleTasks = sampleTasksRedisCache.findById(scrollId);
-        if (cachedSampleTasks.isPresent()) {
-            tasks = cachedSampleTasks.get().getSampleTasks();
-        }
+        SampleTaskScrollStore.Page page = this.sampleTaskScrollStore.getPage(scrollId, pageSize);
         SampleTasks sampleTasks = new SampleTasks();
-        sampleTasks.setScrollId("");
-        if (tasks == null) {
-            return sampleTasks;
+        sampleTasks.setScrollId(page.getNextScrollId());
+        if (!page.getSampleTaskIds().isEmpty()) {
+            sampleTasks.setSampleTasks(getSimpleSampleTasks(page.getSampleTaskIds()));
         }
-        if (tasks.size() <= pageSize) {
-            sampleTasks.setSampleTasks(tasks);
-            sampleTasksRedisCache.deleteById(scrollId);
-            return sampleTasks;
-        }
-        String newScrollId = UUID.randomUUID().toString();
-        sampleTasks.setScrollId(newScrollId);
-        sampleTasks.setSampleTasks(tasks.subList(0, pageSize));
-        sampleTasksRedisCache.save(new SampleTasks(newScrollId, tasks.subList(pageSize, tasks.size())));
         return sampleTasks;
     }
 
+    /**
+     * Hydrate sample tasks with one query, keeping the order of ids
+     */
+    private List<SampleTask> getSimpleSampleTasks(List<Long> sampleTaskIds) {
+        Map<Long, SampleTask> sampleTasks = this.sampleTaskDaoJpa.findAllById(sampleTaskIds).stream()
+                .collect(Collectors.toMap(
+                        com.bulletjournal.templates.repository.model.SampleTask::getId,
+                        com.bulletjournal.templates.repository.model.SampleTask::toSimplePresentationModel));
+        return sampleTaskIds.stream().map(sampleTasks::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     private NextStep checkIfSelectionsMatchCategoryRules(Long stepId, List<Long> selections) {
         Category category = categoryDaoJpa.getById(stepId);
         List<CategoryRule> categoryRules = category.getCategoryRules();
@@ -265,12 +256,7 @@ public class WorkflowController {
         String username = MDC.get(UserClient.USER_NAME_KEY);
         String scrollId = importTasksParams.getScrollId();
         if (StringUtils.isNotBlank(scrollId)) {
-            Optional<SampleTasks> cachedSampleTasks = sampleTasksRedisCache.findById(scrollId);
-            cachedSampleTasks.ifPresent(sampleTasks -> {
-                importTasksParams.getSampleTasks().addAll(
-                        sampleTasks.getSampleTasks().stream().map(SampleTask::getId).collect(Collectors.toList()));
-                sampleTasksRedisCache.deleteById(scrollId);
-            });
+            importTasksParams.getSampleTasks().addAll(this.sampleTaskScrollStore.remove(scrollId));
         }
         int frequency = this.ruleEngine.getTimesOneDay(importTasksParams.getSelections());
         List<SampleTask> sampleTasks = this.ruleEngine.importTasks(username, importTasksParams, frequency);
@@ -0,0 +1,136 @@
+package com.bulletjournal.templates.redis;
+
+import com.bulletjournal.config.SampleTaskScrollConfig;
+import com.bulletjournal.exceptions.BadRequestException;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Ordered sample task ids of a workflow result, kept in a Redis list.
+ * <p>
+ * A scroll id is the list key plus the offset of the next page, so paging only reads
+ * the page's ids and never writes the remainder again. A scroll id whose list expired or was
+ * already read to the end is not found.
+ */
+@Repository
+public class SampleTaskScrollStore {
+
+    static final String KEY_PREFIX = "SampleTaskScroll:";
+
+    private static final String OFFSET_SEPARATOR = "_";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final SampleTaskScrollConfig sampleTaskScrollConfig;
+
+    @Autowired
+    public SampleTaskScrollStore(StringRedisTemplate redisTemplate, SampleTaskScrollConfig sampleTaskScrollConfig) {
+        this.redisTemplate = redisTemplate;
+        this.sampleTaskScrollConfig = sampleTaskScrollConfig;
+    }
+
+    /**
+     * Store ids after the first page
+     *
+     * @return scroll id of the page starting at offset, empty if there is nothing after the first page
+     */
+    public String create(List<Long> sampleTaskIds, int offset) {
+        if (sampleTaskIds.size() <= offset) {
+            return "";
+        }
+        String listId = UUID.randomUUID().toString();
+        String key = KEY_PREFIX + listId;
+        this.redisTemplate.opsForList().rightPushAll(key,
+                sampleTaskIds.stream().map(String::valueOf).collect(Collectors.toList()));
+        this.redisTemplate.expire(key, this.sampleTaskScrollConfig.getTtlSeconds(), TimeUnit.SECONDS);
+        return toScrollId(listId, offset);
+    }
+
+    /**
+     * Ids of the page at the scroll id, followed by the scroll id of the next page
+     */
+    public Page getPage(String scrollId, int pageSize) {
+        if (StringUtils.isBlank(scrollId) || pageSize <= 0) {
+            return Page.EMPTY;
+        }
+        String[] parts = parse(scrollId);
+        String key = KEY_PREFIX + parts[0];
+        int offset = Integer.parseInt(parts[1]);
+        // read one more to know whether there is a next page
+        List<Long> ids = toIds(this.redisTemplate.opsForList().range(key, offset, offset + pageSize));
+        if (ids.isEmpty()) {
+            throw new ResourceNotFoundException("Scroll " + scrollId + " expired");
+        }
+        if (ids.size() <= pageSize) {
+            this.redisTemplate.delete(key);
+            return new Page(ids, "");
+        }
+        this.redisTemplate.expire(key, this.sampleTaskScrollConfig.getTtlSeconds(), TimeUnit.SECONDS);
+        return new Page(ids.subList(0, pageSize), toScrollId(parts[0], offset + pageSize));
+    }
+
+    /**
+     * Ids from the scroll id to the end, dropping the list
+     */
+    public List<Long> remove(String scrollId) {
+        String[] parts = parse(scrollId);
+        String key = KEY_PREFIX + parts[0];
+        List<Long> ids = toIds(this.redisTemplate.opsForList().range(key, Integer.parseInt(parts[1]), -1));
+        if (ids.isEmpty()) {
+            throw new ResourceNotFoundException("Scroll " + scrollId + " expired");
+        }
+        this.redisTemplate.delete(key);
+        return ids;
+    }
+
+    private static String toScrollId(String listId, int offset) {
+        return listId + OFFSET_SEPARATOR + offset;
+    }
+
+    private static String[] parse(String scrollId) {
+        String[] parts = StringUtils.defaultString(scrollId).split(OFFSET_SEPARATOR);
+        // isNumeric alone lets offsets past Integer.MAX_VALUE through
+        if (parts.length != 2 || !StringUtils.isNumeric(parts[1]) || parts[1].length() > 9) {
+            throw new BadRequestException("Invalid scrollId " + scrollId);
+        }
+        return parts;
+    }
+
+    private static List<Long> toIds(List<String> values) {
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        return values.stream().map(Long::valueOf).collect(Collectors.toList());
+    }
+
+    public static class Page {
+
+        private static final Page EMPTY = new Page(Collections.emptyList(), "");
+
+        private final List<Long> sampleTaskIds;
+
+        private final String nextScrollId;
+
+        public Page(List<Long> sampleTaskIds, String nextScrollId) {
+            this.sampleTaskIds = sampleTaskIds;
+            this.nextScrollId = nextScrollId;
+        }
+
+        public List<Long> getSampleTaskIds() {
+            return sampleTaskIds;
+        }
+
+        public String getNextScrollId() {
+            return nextScrollId;
+        }
+    }
+}
@@ -16,9 +16,12 @@ public class CategoriesHierarchyDaoJpa {
 
     private CategoriesHierarchyRepository hierarchyRepository;
 
+    private CategoryTreeCache categoryTreeCache;
+
     @Autowired
-    public CategoriesHierarchyDaoJpa(CategoriesHierarchyRepository repository) {
+    public CategoriesHierarchyDaoJpa(CategoriesHierarchyRepository repository, CategoryTreeCache categoryTreeCache) {
         this.hierarchyRepository = repository;
+        this.categoryTreeCache = categoryTreeCache;
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -29,6 +32,7 @@ public class CategoriesHierarchyDaoJpa {
         }
         hierarchy.setHierarchy(newHierarchy);
         hierarchyRepository.save(hierarchy);
+        this.categoryTreeCache.invalidate();
         return hierarchy;
     }
 
@@ -40,6 +40,8 @@ public class CategoryDaoJpa {
     @Lazy
     @Autowired
     private RuleDaoJpa ruleDaoJpa;
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Category create(String name, String description, String icon, String color, Long forumId, String image, Long nextStepId, Boolean needStartDate) {
@@ -51,6 +53,7 @@ public class CategoryDaoJpa {
             step = stepDaoJpa.getById(nextStepId);
         }
         Category category = new Category(name, description, icon, color, forumId, image, step, needStartDate);
+        this.categoryTreeCache.invalidate();
         return categoryRepository.save(category);
     }
 
@@ -73,12 +76,17 @@ public class CategoryDaoJpa {
         return category;
     }
 
-    private void sortChoicesForCategory(Category category) {
+    static void sortChoicesForCategory(Category category) {
         if (category.getChoiceOrder() == null || category.getChoices() == null) {
             return;
         }
         List<Long> choiceIdOrder = category.getChoiceOrderById();
-        category.getChoices().sort(Comparator.comparingInt(a -> choiceIdOrder.indexOf(a.getId())));
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < choiceIdOrder.size(); i++) {
+            positions.putIfAbsent(choiceIdOrder.get(i), i);
+        }
+        // choices missing from the order go first, as with indexOf
+        category.getChoices().sort(Comparator.comparingInt(a -> positions.getOrDefault(a.getId(), -1)));
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -94,11 +102,13 @@ public class CategoryDaoJpa {
             throw new ResourceNotFoundException("Category with id: " + id + " doesn't exist, cannot delete.");
         }
         categoryRepository.deleteById(id);
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void save(Category category) {
         categoryRepository.save(category);
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -0,0 +1,174 @@
+package com.bulletjournal.templates.repository;
+
+import com.bulletjournal.controller.utils.EtagGenerator;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.hierarchy.CategoryRelationsProcessor;
+import com.bulletjournal.hierarchy.HierarchyItem;
+import com.bulletjournal.hierarchy.HierarchyProcessor;
+import com.bulletjournal.templates.repository.model.CategoriesHierarchy;
+import com.bulletjournal.templates.repository.model.Category;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Category tree served by public category reads, assembled once per version and kept serialized.
+ * <p>
+ * Admin changes to categories, their hierarchy, choices, selections, rules or steps bump the version
+ * after commit, and the next read assembles the tree again.
+ */
+@Repository
+public class CategoryTreeCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private final CategoriesHierarchyRepository hierarchyRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CategoryTreeCache(CategoryRepository categoryRepository,
+                             CategoriesHierarchyRepository hierarchyRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.hierarchyRepository = hierarchyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Bump the version once the current transaction commits
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                CategoryTreeCache.this.version.incrementAndGet();
+            }
+        });
+    }
+
+    public Snapshot get() {
+        Snapshot current = this.snapshot;
+        if (current != null && current.getVersion() == this.version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            // changes committed while assembling bump the version again
+            long latest = this.version.get();
+            if (this.snapshot == null || this.snapshot.getVersion() != latest) {
+                this.snapshot = this.transactionTemplate.execute(status -> assemble(latest));
+            }
+            return this.snapshot;
+        }
+    }
+
+    private Snapshot assemble(long version) {
+        long start = System.currentTimeMillis();
+        List<Category> allCategories = this.categoryRepository.findAll();
+        allCategories.forEach(CategoryDaoJpa::sortChoicesForCategory);
+        CategoriesHierarchy categoriesHierarchy = this.hierarchyRepository.getCategoriesHierarchy();
+        if (categoriesHierarchy == null) {
+            throw new ResourceNotFoundException("Category Hierarchy not found in DB");
+        }
+        Set<Long> existingIds = allCategories.stream().map(Category::getId).collect(Collectors.toSet());
+        Pair<List<HierarchyItem>, Set<Long>> hierarchy =
+                HierarchyProcessor.findAllIds(categoriesHierarchy.getHierarchy(), existingIds);
+        List<HierarchyItem> keptHierarchy = hierarchy.getLeft();
+        Set<Long> processedIds = hierarchy.getRight();
+
+        Map<Long, Category> categoryIdMap = allCategories.stream()
+                .collect(Collectors.toMap(Category::getId, category -> category));
+
+        List<com.bulletjournal.templates.controller.model.Category> categories =
+                new ArrayList<>(CategoryRelationsProcessor.processRelations(categoryIdMap, keptHierarchy));
+        categories.addAll(allCategories.stream()
+                .filter(category -> !processedIds.contains(category.getId()))
+                .map(Category::toPresentationModel)
+                .sorted(Comparator.comparingLong(com.bulletjournal.templates.controller.model.Category::getId))
+                .collect(Collectors.toList()));
+
+        String json;
+        try {
+            json = this.objectMapper.writeValueAsString(categories);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        String etag = EtagGenerator.generateEtag(EtagGenerator.HashAlgorithm.MD5,
+                EtagGenerator.HashType.TO_STRING, json);
+        LOGGER.info("Assembled category tree version {} with {} categories in {} ms",
+                version, allCategories.size(), System.currentTimeMillis() - start);
+        return new Snapshot(version, json, etag, this.objectMapper);
+    }
+
+    /**
+     * Immutable serialized category tree
+     */
+    public static final class Snapshot {
+
+        private final long version;
+
+        private final String json;
+
+        private final String etag;
+
+        private final ObjectMapper objectMapper;
+
+        private Snapshot(long version, String json, String etag, ObjectMapper objectMapper) {
+            this.version = version;
+            this.json = json;
+            this.etag = etag;
+            this.objectMapper = objectMapper;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * A fresh copy of the tree that callers can modify
+         */
+        public List<com.bulletjournal.templates.controller.model.Category> getCategories() {
+            try {
+                return new ArrayList<>(Arrays.asList(this.objectMapper.readValue(
+                        this.json, com.bulletjournal.templates.controller.model.Category[].class)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bulletjournal.templates.repository;
 
 import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.templates.repository.model.Choice;
+import com.bulletjournal.templates.workflow.engine.SampleTaskRuleIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
@@ -15,6 +16,10 @@ import java.util.stream.Collectors;
 public class ChoiceDaoJpa {
     @Autowired
     private ChoiceRepository choiceRepository;
+    @Autowired
+    private SampleTaskRuleIndex sampleTaskRuleIndex;
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Choice getById(Long id) {
@@ -51,11 +56,14 @@ public class ChoiceDaoJpa {
             throw new ResourceNotFoundException("Choice with id: " + id + " doesn't exist, cannot delete.");
         }
         choiceRepository.deleteById(id);
+        this.sampleTaskRuleIndex.invalidate();
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void save(Choice choice) {
         choiceRepository.save(choice);
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -28,6 +28,9 @@ public class RuleDaoJpa {
     @Autowired
     private StepDaoJpa stepDaoJpa;
 
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public CategoryRule createCategoryRule(Long categoryId, String name, Integer priority, String ruleExpression, Long connectedStepId) {
@@ -39,6 +42,7 @@ public class RuleDaoJpa {
         categoryRule.setRuleExpression(ruleExpression);
         categoryRule.setCategory(category);
         categoryRule.setConnectedStep(connectedStep);
+        this.categoryTreeCache.invalidate();
         return categoryRuleRepository.save(categoryRule);
     }
 
@@ -79,6 +83,7 @@ public class RuleDaoJpa {
             throw new ResourceNotFoundException("categoryRule id " + ruleId + " not exit");
         }
         categoryRuleRepository.deleteById(ruleId);
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -99,6 +104,7 @@ public class RuleDaoJpa {
         categoryRule.setPriority(priority);
         categoryRule.setRuleExpression(ruleExpression);
         categoryRule.setConnectedStep(connectedStep);
+        this.categoryTreeCache.invalidate();
         return categoryRuleRepository.save(categoryRule);
     }
 
@@ -18,6 +18,7 @@ import com.bulletjournal.templates.controller.model.CreateSampleTaskParams;
 import com.bulletjournal.templates.controller.model.UpdateSampleTaskParams;
 import com.bulletjournal.templates.repository.model.*;
 import com.bulletjournal.templates.repository.utils.InvestmentUtil;
+import com.bulletjournal.templates.workflow.engine.SampleTaskRuleIndex;
 import com.bulletjournal.util.StringUtil;
 import com.google.common.collect.ImmutableList;
 import org.apache.http.util.TextUtils;
@@ -79,6 +80,12 @@ public class SampleTaskDaoJpa {
     @Autowired
     private SelectionRepository selectionRepository;
 
+    @Autowired
+    private SampleTaskRuleIndex sampleTaskRuleIndex;
+
+    @Autowired
+    private SampleTaskMetadataKeywordDaoJpa sampleTaskMetadataKeywordDaoJpa;
+
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public SampleTask createSampleTask(CreateSampleTaskParams createSampleTaskParams) {
         SampleTask sampleTask = new SampleTask();
@@ -132,7 +139,7 @@ public class SampleTaskDaoJpa {
         if (TextUtils.isBlank(metadataFilter)) {
             return sampleTaskRepository.findAll();
         }
-        return sampleTaskRepository.getByMetadataFilter(metadataFilter);
+        return findAllById(this.sampleTaskMetadataKeywordDaoJpa.getSampleTaskIds(metadataFilter));
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -161,10 +168,13 @@ public class SampleTaskDaoJpa {
             throw new ResourceNotFoundException("sampleTask id " + sampleTaskId + " not exit");
         }
         sampleTaskRepository.deleteById(sampleTaskId);
+        this.sampleTaskRuleIndex.invalidate();
+        this.sampleTaskMetadataKeywordDaoJpa.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public SampleTask save(SampleTask sampleTask) {
+        this.sampleTaskMetadataKeywordDaoJpa.invalidate();
         return this.sampleTaskRepository.save(sampleTask);
     }
 
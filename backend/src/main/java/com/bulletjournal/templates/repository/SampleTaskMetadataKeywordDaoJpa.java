@@ -0,0 +1,96 @@
+package com.bulletjournal.templates.repository;
+
+import com.bulletjournal.templates.repository.model.SampleTaskMetadataKeyword;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword -> sample task ids, cached in memory.
+ * <p>
+ * The cache is dropped after admin edits commit, and reloaded at least every few minutes
+ * to pick up sample tasks written by the daemon.
+ */
+@Repository
+public class SampleTaskMetadataKeywordDaoJpa {
+
+    private static final long MAX_CACHE_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final SampleTaskMetadataKeywordRepository sampleTaskMetadataKeywordRepository;
+
+    private volatile Map<String, Set<Long>> keywords;
+
+    private volatile long loadedAt;
+
+    @Autowired
+    public SampleTaskMetadataKeywordDaoJpa(SampleTaskMetadataKeywordRepository sampleTaskMetadataKeywordRepository) {
+        this.sampleTaskMetadataKeywordRepository = sampleTaskMetadataKeywordRepository;
+    }
+
+    /**
+     * Ids of sample tasks having a metadata keyword that contains the filter.
+     * A filter of comma separated parts matches sample tasks with keywords containing every part.
+     */
+    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
+    public Set<Long> getSampleTaskIds(String metadataFilter) {
+        Map<String, Set<Long>> keywords = getKeywords();
+        Set<Long> result = null;
+        for (String part : metadataFilter.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+            Set<Long> matched = new HashSet<>();
+            for (Map.Entry<String, Set<Long>> entry : keywords.entrySet()) {
+                if (entry.getKey().contains(part)) {
+                    matched.addAll(entry.getValue());
+                }
+            }
+            if (result == null) {
+                result = matched;
+            } else {
+                result.retainAll(matched);
+            }
+        }
+        return result == null ? Collections.emptySet() : result;
+    }
+
+    /**
+     * Drop the cache once the current transaction commits
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.keywords = null;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                SampleTaskMetadataKeywordDaoJpa.this.keywords = null;
+            }
+        });
+    }
+
+    private Map<String, Set<Long>> getKeywords() {
+        Map<String, Set<Long>> current = this.keywords;
+        if (current != null && System.currentTimeMillis() - this.loadedAt < MAX_CACHE_AGE_MILLIS) {
+            return current;
+        }
+        Map<String, Set<Long>> loaded = new HashMap<>();
+        for (SampleTaskMetadataKeyword keyword : this.sampleTaskMetadataKeywordRepository.findAll()) {
+            if (StringUtils.isNotBlank(keyword.getKeyword())) {
+                loaded.computeIfAbsent(keyword.getKeyword(), k -> new HashSet<>()).add(keyword.getSampleTaskId());
+            }
+        }
+        this.loadedAt = System.currentTimeMillis();
+        this.keywords = Collections.unmodifiableMap(loaded);
+        return loaded;
+    }
+}
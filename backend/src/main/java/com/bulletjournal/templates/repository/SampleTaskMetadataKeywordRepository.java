@@ -0,0 +1,11 @@
+package com.bulletjournal.templates.repository;
+
+import com.bulletjournal.templates.repository.model.SampleTaskMetadataKeyword;
+import com.bulletjournal.templates.repository.model.SampleTaskMetadataKeywordId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SampleTaskMetadataKeywordRepository
+        extends JpaRepository<SampleTaskMetadataKeyword, SampleTaskMetadataKeywordId> {
+}
@@ -2,6 +2,7 @@ package com.bulletjournal.templates.repository;
 
 import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.templates.repository.model.*;
+import com.bulletjournal.templates.workflow.engine.SampleTaskRuleIndex;
 import com.bulletjournal.util.StringUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -22,25 +23,30 @@ public class SampleTaskRuleDaoJpa {
     private SampleTaskRuleRepository sampleTaskRuleRepository;
     private StepRepository stepRepository;
     private StepMetadataKeywordRepository stepMetadataKeywordRepository;
+    private SampleTaskRuleIndex sampleTaskRuleIndex;
 
     @Autowired
     SampleTaskRuleDaoJpa(SampleTaskRuleRepository sampleTaskRuleRepository,
                          StepRepository stepRepository,
-                         StepMetadataKeywordRepository stepMetadataKeywordRepository) {
+                         StepMetadataKeywordRepository stepMetadataKeywordRepository,
+                         SampleTaskRuleIndex sampleTaskRuleIndex) {
         this.sampleTaskRuleRepository = sampleTaskRuleRepository;
         this.stepRepository = stepRepository;
         this.stepMetadataKeywordRepository = stepMetadataKeywordRepository;
+        this.sampleTaskRuleIndex = sampleTaskRuleIndex;
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void saveAll(Iterable<SampleTaskRule> sampleTaskRules) {
         this.sampleTaskRuleRepository.saveAll(sampleTaskRules);
+        this.sampleTaskRuleIndex.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public SampleTaskRule upsert(Long stepId, String selectionCombo, String taskIds) {
         selectionCombo = StringUtils.join(StringUtil.convertNumArray(selectionCombo), ",");
         taskIds = StringUtils.join(StringUtil.convertNumArray(taskIds), ",");
+        this.sampleTaskRuleIndex.invalidate();
         return this.sampleTaskRuleRepository.upsert(stepId, selectionCombo, taskIds);
     }
 
@@ -52,6 +58,7 @@ public class SampleTaskRuleDaoJpa {
                     "with selectionCombo " + selectionCombo + " doesn't exist, cannot delete.");
         }
         sampleTaskRuleRepository.deleteById(stepId, selectionCombo);
+        this.sampleTaskRuleIndex.invalidate();
     }
 
     private Step fetchStepWithId(Long stepId) {
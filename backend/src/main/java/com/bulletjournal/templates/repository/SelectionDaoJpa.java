@@ -5,6 +5,7 @@ import com.bulletjournal.exceptions.ResourceNotFoundException;
 import com.bulletjournal.templates.repository.model.Choice;
 import com.bulletjournal.templates.repository.model.Selection;
 import com.bulletjournal.templates.repository.model.SelectionIntroduction;
+import com.bulletjournal.templates.workflow.engine.SampleTaskRuleIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
@@ -23,6 +24,10 @@ public class SelectionDaoJpa {
     private SelectionIntroductionRepository selectionIntroductionRepository;
     @Autowired
     private ChoiceDaoJpa choiceDaoJpa;
+    @Autowired
+    private SampleTaskRuleIndex sampleTaskRuleIndex;
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Selection save(Long choiceId, String icon, String text) {
@@ -37,11 +42,15 @@ public class SelectionDaoJpa {
         }
 
         Selection selection = new Selection(choice, icon, text);
+        this.sampleTaskRuleIndex.invalidate();
+        this.categoryTreeCache.invalidate();
         return this.selectionRepository.save(selection);
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public Selection save(Selection selection) {
+        this.sampleTaskRuleIndex.invalidate();
+        this.categoryTreeCache.invalidate();
         return this.selectionRepository.save(selection);
     }
 
@@ -68,6 +77,8 @@ public class SelectionDaoJpa {
             throw new ResourceNotFoundException("Selection with id: " + id + " doesn't exist, cannot delete.");
         }
         selectionRepository.deleteById(id);
+        this.sampleTaskRuleIndex.invalidate();
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -3,6 +3,7 @@ package com.bulletjournal.templates.repository;
 import com.bulletjournal.templates.repository.model.Choice;
 import com.bulletjournal.templates.repository.model.Selection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,10 @@ public interface SelectionRepository extends JpaRepository<Selection, Long> {
     boolean existsSelectionByChoiceAndText(Choice choice, String text);
 
     List<Selection> getAllByChoiceId(Long choiceId);
+
+    /**
+     * Selection id and its choice id of every selection
+     */
+    @Query("SELECT selection.id, selection.choice.id FROM Selection selection")
+    List<Object[]> findAllChoiceIds();
 }
@@ -5,6 +5,7 @@ import com.bulletjournal.templates.controller.model.UpdateStepParams;
 import com.bulletjournal.templates.repository.model.Choice;
 import com.bulletjournal.templates.repository.model.SampleTaskRule;
 import com.bulletjournal.templates.repository.model.Step;
+import com.bulletjournal.templates.workflow.engine.SampleTaskRuleIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Repository;
@@ -28,16 +29,23 @@ public class StepDaoJpa {
 
     private final SampleTaskRuleDaoJpa sampleTaskRuleDaoJpa;
 
+    private final SampleTaskRuleIndex sampleTaskRuleIndex;
+
+    private final CategoryTreeCache categoryTreeCache;
+
     @Autowired
     public StepDaoJpa(
             StepRepository stepRepository, ChoiceDaoJpa choiceDaoJpa, SelectionDaoJpa selectionDaoJpa, @Lazy RuleDaoJpa ruleDaoJpa,
-            @Lazy SampleTaskRuleDaoJpa sampleTaskRuleDaoJpa
+            @Lazy SampleTaskRuleDaoJpa sampleTaskRuleDaoJpa, SampleTaskRuleIndex sampleTaskRuleIndex,
+            CategoryTreeCache categoryTreeCache
     ) {
         this.stepRepository = stepRepository;
         this.choiceDaoJpa = choiceDaoJpa;
         this.selectionDaoJpa = selectionDaoJpa;
         this.ruleDaoJpa = ruleDaoJpa;
         this.sampleTaskRuleDaoJpa = sampleTaskRuleDaoJpa;
+        this.sampleTaskRuleIndex = sampleTaskRuleIndex;
+        this.categoryTreeCache = categoryTreeCache;
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -48,11 +56,14 @@ public class StepDaoJpa {
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void save(Step step) {
         stepRepository.save(step);
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
     public void deleteById(Long stepId) {
         stepRepository.deleteById(stepId);
+        this.sampleTaskRuleIndex.invalidate();
+        this.categoryTreeCache.invalidate();
     }
 
     @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRED)
@@ -1,8 +1,10 @@
 package com.bulletjournal.templates.repository;
 
 import com.bulletjournal.templates.clients.StockApiClient;
+import com.bulletjournal.templates.config.StockApiConfig;
 import com.bulletjournal.templates.controller.model.StockTickerDetails;
 import com.bulletjournal.templates.repository.model.Selection;
+import com.bulletjournal.util.CustomThreadFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import org.slf4j.Logger;
@@ -10,8 +12,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Repository
 public class StockTickerDetailsDaoJpa {
@@ -42,6 +49,22 @@ public class StockTickerDetailsDaoJpa {
     @Autowired
     private SelectionDaoJpa selectionDaoJpa;
 
+    @Autowired
+    private StockApiConfig stockApiConfig;
+
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    public void postConstruct() {
+        if (!this.stockApiConfig.isRefreshEnabled()) {
+            return;
+        }
+        this.refresher = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("StockTickerRefresher"));
+        this.refresher.scheduleWithFixedDelay(this::refreshExpiring,
+                this.stockApiConfig.getRefreshIntervalMinutes(), this.stockApiConfig.getRefreshIntervalMinutes(),
+                TimeUnit.MINUTES);
+    }
+
     public StockTickerDetails get(String symbol) {
         Optional<com.bulletjournal.templates.repository.model.StockTickerDetails> stockTickerDetailsOptional =
                 this.stockTickerDetailsRepository.findById(symbol);
@@ -49,69 +72,98 @@ public class StockTickerDetailsDaoJpa {
                 getExpirationTime().after(new Timestamp(System.currentTimeMillis()))) {
             return stockTickerDetailsOptional.get().toPresentationModelWithChoice();
         }
+        com.bulletjournal.templates.repository.model.StockTickerDetails stockTickerDetails =
+                fetch(symbol, stockTickerDetailsOptional.orElse(null));
+        return stockTickerDetails == null ? null : stockTickerDetails.toPresentationModelWithChoice();
+    }
 
+    /**
+     * Refresh rows before they expire so that readers do not wait for the stock api
+     */
+    public void refreshExpiring() {
+        Timestamp before = new Timestamp(System.currentTimeMillis()
+                + TimeUnit.DAYS.toMillis(this.stockApiConfig.getRefreshAheadDays()));
+        try {
+            List<com.bulletjournal.templates.repository.model.StockTickerDetails> expiring =
+                    this.stockTickerDetailsRepository.findByExpirationTimeBefore(before);
+            int refreshed = 0;
+            for (com.bulletjournal.templates.repository.model.StockTickerDetails details : expiring) {
+                if (fetch(details.getTicker(), details) != null) {
+                    refreshed++;
+                }
+            }
+            LOGGER.info("Refreshed {} of {} expiring StockTickerDetails", refreshed, expiring.size());
+        } catch (Exception e) {
+            LOGGER.error("Failed to refresh StockTickerDetails", e);
+        }
+    }
+
+    private com.bulletjournal.templates.repository.model.StockTickerDetails fetch(
+            String symbol, com.bulletjournal.templates.repository.model.StockTickerDetails existing) {
         LinkedHashMap resp;
         try {
             resp = this.stockApiClient.getCompany(symbol);
         } catch (Exception ex) {
             LOGGER.info("Unable to find StockTickerDetails for {}", symbol);
-            // LOGGER.error("stockApiClient#getCompany failed", ex);
             return null;
         }
 
         LOGGER.info(resp.toString());
         String sector = (String) resp.get("sector");
-        Long selectionId;
+        Long selectionId = getSelectionId(sector);
+        if (selectionId == null) {
+            LOGGER.error("Sector {} not found. Unable to find StockTickerDetails for {}", sector, symbol);
+            this.stockApiClient.cacheFailure(symbol);
+            return null;
+        }
+        Selection selection = this.selectionDaoJpa.getById(selectionId);
+
+        com.bulletjournal.templates.repository.model.StockTickerDetails stockTickerDetails =
+                existing != null ? existing : new com.bulletjournal.templates.repository.model.StockTickerDetails();
+        stockTickerDetails.setSelection(selection);
+        stockTickerDetails.setExpirationTime(new Timestamp(System.currentTimeMillis() + MILLS_IN_YEAR));
+        stockTickerDetails.setDetails(GSON.toJson(resp));
+        stockTickerDetails.setTicker(symbol);
+        return stockTickerDetailsRepository.save(stockTickerDetails);
+    }
+
+    private static Long getSelectionId(String sector) {
+        if (sector == null) {
+            return null;
+        }
         switch (sector.toLowerCase()) {
             case "technology": //GOOG
-                selectionId = 257L;
-                break;
+                return 257L;
             case "communication service": // CMCSA
             case "communication services":
-                selectionId = 250L;
-                break;
+                return 250L;
             case "healthcare": // CBLI
-                selectionId = 255L;
-                break;
+                return 255L;
             case "consumer defensive": //WMT
-                selectionId = 252L;
-                break;
+                return 252L;
             case "consumer cyclical": //MCD
-                selectionId = 251L;
-                break;
+                return 251L;
             case "real estate"://RDFN
-                selectionId = 259L;
-                break;
+                return 259L;
             case "energy": //CVX
-                selectionId = 253L;
-                break;
+                return 253L;
             case "basic materials"://STLD
-                selectionId = 258L;
-                break;
+                return 258L;
             case "industrials": //HON
-                selectionId = 256L;
-                break;
+                return 256L;
             case "financial services": //JPM
-                selectionId = 254L;
-                break;
+                return 254L;
             case "utilities":
-                selectionId = 260L;
-                break;
+                return 260L;
             default:
-                LOGGER.error("Sector {} not found. Unable to find StockTickerDetails for {}", sector, symbol);
                 return null;
         }
-        Selection selection = this.selectionDaoJpa.getById(selectionId);
-
-        com.bulletjournal.templates.repository.model.StockTickerDetails stockTickerDetails =
-                stockTickerDetailsOptional.isPresent() ? stockTickerDetailsOptional.get() :
-                        new com.bulletjournal.templates.repository.model.StockTickerDetails();
-        stockTickerDetails.setSelection(selection);
-        stockTickerDetails.setExpirationTime(new Timestamp(System.currentTimeMillis() + MILLS_IN_YEAR));
-        stockTickerDetails.setDetails(GSON.toJson(resp));
-        stockTickerDetails.setTicker(symbol);
-        stockTickerDetails = stockTickerDetailsRepository.save(stockTickerDetails);
-        return stockTickerDetails.toPresentationModelWithChoice();
     }
 
+    @PreDestroy
+    public void preDestroy() {
+        if (this.refresher != null) {
+            this.refresher.shutdownNow();
+        }
+    }
 }
@@ -4,6 +4,11 @@ import com.bulletjournal.templates.repository.model.StockTickerDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.List;
+
 @Repository
 public interface StockTickerDetailsRepository extends JpaRepository<StockTickerDetails, String> {
+
+    List<StockTickerDetails> findByExpirationTimeBefore(Timestamp expirationTime);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.bulletjournal.templates.repository.model;
+
+import javax.persistence.*;
+
+/**
+ * A keyword of {@link SampleTask#getMetadata()}, maintained by a database trigger on sample_tasks
+ */
+@Entity
+@Table(name = "sample_task_metadata_keyword", schema = "template")
+@IdClass(SampleTaskMetadataKeywordId.class)
+public class SampleTaskMetadataKeyword {
+    @Id
+    @Column(name = "keyword", nullable = false)
+    private String keyword;
+
+    @Id
+    @Column(name = "sample_task_id", nullable = false)
+    private Long sampleTaskId;
+
+    public SampleTaskMetadataKeyword() {
+    }
+
+    public SampleTaskMetadataKeyword(String keyword, Long sampleTaskId) {
+        this.keyword = keyword;
+        this.sampleTaskId = sampleTaskId;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public Long getSampleTaskId() {
+        return sampleTaskId;
+    }
+
+    public void setSampleTaskId(Long sampleTaskId) {
+        this.sampleTaskId = sampleTaskId;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bulletjournal.templates.repository.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class SampleTaskMetadataKeywordId implements Serializable {
+    private String keyword;
+    private Long sampleTaskId;
+
+    public SampleTaskMetadataKeywordId() {
+    }
+
+    public SampleTaskMetadataKeywordId(String keyword, Long sampleTaskId) {
+        this.keyword = keyword;
+        this.sampleTaskId = sampleTaskId;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public Long getSampleTaskId() {
+        return sampleTaskId;
+    }
+
+    public void setSampleTaskId(Long sampleTaskId) {
+        this.sampleTaskId = sampleTaskId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SampleTaskMetadataKeywordId)) return false;
+        SampleTaskMetadataKeywordId that = (SampleTaskMetadataKeywordId) o;
+        return Objects.equals(keyword, that.keyword) && Objects.equals(sampleTaskId, that.sampleTaskId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyword, sampleTaskId);
+    }
+}
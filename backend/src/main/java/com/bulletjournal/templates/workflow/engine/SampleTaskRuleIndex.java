@@ -0,0 +1,242 @@
+package com.bulletjournal.templates.workflow.engine;
+
+import com.bulletjournal.templates.repository.SampleTaskRepository;
+import com.bulletjournal.templates.repository.SampleTaskRuleRepository;
+import com.bulletjournal.templates.repository.SelectionRepository;
+import com.bulletjournal.templates.repository.model.SampleTaskRule;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Sample task rules of all steps compiled into bitsets of sample task ids.
+ * <p>
+ * Compiled on startup and again on first use after an admin change to rules, selections or sample tasks,
+ * so that the final step only does bitset unions and intersections.
+ */
+@Component
+public class SampleTaskRuleIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleTaskRuleIndex.class);
+
+    private final SampleTaskRuleRepository sampleTaskRuleRepository;
+
+    private final SelectionRepository selectionRepository;
+
+    private final SampleTaskRepository sampleTaskRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Index index;
+
+    private volatile boolean stale = true;
+
+    @Autowired
+    public SampleTaskRuleIndex(SampleTaskRuleRepository sampleTaskRuleRepository,
+                               SelectionRepository selectionRepository,
+                               SampleTaskRepository sampleTaskRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.sampleTaskRuleRepository = sampleTaskRuleRepository;
+        this.selectionRepository = selectionRepository;
+        this.sampleTaskRepository = sampleTaskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void compileOnStartup() {
+        try {
+            get();
+        } catch (Exception e) {
+            LOGGER.error("Failed to compile sample task rules", e);
+        }
+    }
+
+    /**
+     * Recompile on next use, once the current transaction commits
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.stale = true;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                SampleTaskRuleIndex.this.stale = true;
+            }
+        });
+    }
+
+    public Index get() {
+        Index current = this.index;
+        if (current != null && !this.stale) {
+            return current;
+        }
+        synchronized (this) {
+            if (this.index == null || this.stale) {
+                // changes committed while compiling mark it stale again
+                this.stale = false;
+                try {
+                    this.index = this.transactionTemplate.execute(status -> compile());
+                } catch (RuntimeException e) {
+                    this.stale = true;
+                    throw e;
+                }
+            }
+            return this.index;
+        }
+    }
+
+    private Index compile() {
+        long start = System.currentTimeMillis();
+        Set<Long> sampleTaskIds = new HashSet<>(this.sampleTaskRepository.findAllIds());
+        Map<Long, Long> choiceBySelection = new HashMap<>();
+        for (Object[] row : this.selectionRepository.findAllChoiceIds()) {
+            choiceBySelection.put((Long) row[0], (Long) row[1]);
+        }
+        List<SampleTaskRule> rules = this.sampleTaskRuleRepository.findAll();
+
+        // drop deleted sample tasks from rules
+        for (SampleTaskRule rule : rules) {
+            String valid = StringUtils.join(rule.getSampleTaskIds().stream()
+                    .filter(sampleTaskIds::contains).distinct().collect(Collectors.toList()), ",");
+            if (!Objects.equals(valid, rule.getTaskIds())) {
+                this.sampleTaskRuleRepository.upsert(rule.getStep().getId(), rule.getSelectionCombo(), valid);
+            }
+        }
+
+        Index compiled = Index.compile(rules, choiceBySelection, sampleTaskIds);
+        LOGGER.info("Compiled {} sample task rules in {} ms", rules.size(), System.currentTimeMillis() - start);
+        return compiled;
+    }
+
+    /**
+     * Immutable compiled rules
+     */
+    public static final class Index {
+
+        private final Map<Long, Long> choiceBySelection;
+
+        private final Map<Long, StepRules> rulesByStep;
+
+        private Index(Map<Long, Long> choiceBySelection, Map<Long, StepRules> rulesByStep) {
+            this.choiceBySelection = choiceBySelection;
+            this.rulesByStep = rulesByStep;
+        }
+
+        static Index compile(List<SampleTaskRule> rules, Map<Long, Long> choiceBySelection, Set<Long> sampleTaskIds) {
+            Map<Long, StepRules> rulesByStep = new HashMap<>();
+            for (SampleTaskRule rule : rules) {
+                BitSet tasks = new BitSet();
+                rule.getSampleTaskIds().stream().filter(sampleTaskIds::contains)
+                        .forEach(id -> tasks.set(Math.toIntExact(id)));
+                List<Long> selectionIds = rule.getSelectionIds();
+                StepRules stepRules = rulesByStep.computeIfAbsent(rule.getStep().getId(), k -> new StepRules());
+                if (selectionIds.size() == 1) {
+                    stepRules.singles.put(selectionIds.get(0), tasks);
+                } else if (selectionIds.size() > 1) {
+                    Set<Long> choiceIds = selectionIds.stream().map(choiceBySelection::get)
+                            .filter(Objects::nonNull).collect(Collectors.toSet());
+                    stepRules.combos.add(new ComboRule(selectionIds, choiceIds, tasks));
+                }
+            }
+            return new Index(new HashMap<>(choiceBySelection), rulesByStep);
+        }
+
+        /**
+         * Sample tasks of the final step.
+         * Selections in one choice get the union of their rules, and choices get intersected.
+         * A rule combining selections of several choices is added to the result as a whole.
+         */
+        public Set<Long> getSampleTasks(long stepId, Collection<Long> selections, Collection<Long> prevSelections) {
+            StepRules stepRules = this.rulesByStep.get(stepId);
+            if (stepRules == null) {
+                return new HashSet<>();
+            }
+            Set<Long> allSelectionIds = new HashSet<>(selections);
+            allSelectionIds.addAll(prevSelections);
+
+            // some choices are not applicable such as Intensity or 'Computer Science Category'
+            Set<Long> applicableChoices = new HashSet<>();
+            for (Long selectionId : allSelectionIds) {
+                Long choiceId = this.choiceBySelection.get(selectionId);
+                if (choiceId != null && stepRules.singles.containsKey(selectionId)) {
+                    applicableChoices.add(choiceId);
+                }
+            }
+            List<ComboRule> combos = stepRules.combos.stream()
+                    .filter(c -> allSelectionIds.containsAll(c.selectionIds)).collect(Collectors.toList());
+            combos.forEach(c -> applicableChoices.addAll(c.choiceIds));
+
+            // choice id -> its selections
+            Map<Long, List<Long>> allChoices = new HashMap<>();
+            for (Long selectionId : allSelectionIds) {
+                Long choiceId = this.choiceBySelection.get(selectionId);
+                if (choiceId != null && applicableChoices.contains(choiceId)) {
+                    allChoices.computeIfAbsent(choiceId, k -> new ArrayList<>()).add(selectionId);
+                }
+            }
+
+            BitSet result = new BitSet();
+            boolean firstTime = true;
+            for (ComboRule combo : combos) {
+                if (combo.choiceIds.size() < 2) {
+                    continue;
+                }
+                result.or(combo.sampleTaskIds);
+                firstTime = false;
+                combo.choiceIds.forEach(allChoices::remove);
+            }
+
+            for (List<Long> selected : allChoices.values()) {
+                BitSet choiceResult = new BitSet();
+                for (Long selectionId : selected) {
+                    BitSet tasks = stepRules.singles.get(selectionId);
+                    if (tasks != null) {
+                        choiceResult.or(tasks);
+                    }
+                }
+                if (firstTime) {
+                    result.or(choiceResult);
+                    firstTime = false;
+                } else {
+                    result.and(choiceResult);
+                }
+            }
+
+            return result.stream().mapToObj(id -> (long) id).collect(Collectors.toSet());
+        }
+    }
+
+    private static final class StepRules {
+        // selection id -> sample tasks of its rule
+        private final Map<Long, BitSet> singles = new HashMap<>();
+
+        private final List<ComboRule> combos = new ArrayList<>();
+    }
+
+    private static final class ComboRule {
+        private final List<Long> selectionIds;
+
+        private final Set<Long> choiceIds;
+
+        private final BitSet sampleTaskIds;
+
+        private ComboRule(List<Long> selectionIds, Set<Long> choiceIds, BitSet sampleTaskIds) {
+            this.selectionIds = selectionIds;
+            this.choiceIds = choiceIds;
+            this.sampleTaskIds = sampleTaskIds;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bulletjournal.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * {@link ExpiringLruCache} of database reads whose invalidation waits for the current transaction to commit.
+ * <p>
+ * A load that started before an invalidation is returned but not cached.
+ */
+public class CommittedLruCache<K, V> {
+
+    private final ExpiringLruCache<K, V> cache;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public CommittedLruCache(int maxSize, long ttlMillis) {
+        this.cache = new ExpiringLruCache<>(maxSize, ttlMillis);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V value = this.cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        long current = this.version.get();
+        value = loader.apply(key);
+        if (current == this.version.get()) {
+            this.cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @param loader loads all missing keys at once
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        Set<K> missing = new HashSet<>();
+        for (K key : keys) {
+            V value = this.cache.get(key);
+            if (value == null) {
+                missing.add(key);
+            } else {
+                values.put(key, value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+        long current = this.version.get();
+        Map<K, V> loaded = loader.apply(missing);
+        boolean cacheable = current == this.version.get();
+        loaded.forEach((key, value) -> {
+            values.put(key, value);
+            if (cacheable) {
+                this.cache.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Version to pass to {@link #putIfUnchanged}, read before loading
+     */
+    public long version() {
+        return this.version.get();
+    }
+
+    public V getIfPresent(K key) {
+        return this.cache.get(key);
+    }
+
+    /**
+     * Cache a value loaded after reading {@link #version}, unless an invalidation happened since
+     */
+    public void putIfUnchanged(K key, V value, long version) {
+        if (version == this.version.get()) {
+            this.cache.put(key, value);
+        }
+    }
+
+    /**
+     * Drop the keys once the current transaction commits, or right away outside of a transaction
+     */
+    public void invalidate(Collection<K> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Set<K> evicted = new HashSet<>(keys);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(evicted);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(evicted);
+            }
+        });
+    }
+
+    /**
+     * Drop every key right away
+     */
+    public void invalidateAll() {
+        this.version.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    private void evict(Set<K> keys) {
+        this.version.incrementAndGet();
+        keys.forEach(this.cache::invalidate);
+    }
+}
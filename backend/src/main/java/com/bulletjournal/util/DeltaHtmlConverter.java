@@ -0,0 +1,158 @@
+package com.bulletjournal.util;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local quill delta to html converter, used when the daemon is disabled or fails to convert.
+ * <p>
+ * It covers the formats our editors produce: headers, lists, blockquotes, code blocks,
+ * inline styles, links, images and videos. Unknown embeds are dropped.
+ */
+public class DeltaHtmlConverter {
+
+    private static final Gson GSON = new Gson();
+
+    private DeltaHtmlConverter() {
+    }
+
+    /**
+     * @param deltaOps json array of delta ops, as returned by {@link DeltaContent#getDeltaOpsString()}
+     */
+    public static String toHtml(String deltaOps) {
+        List<Map<String, Object>> ops = GSON.fromJson(deltaOps, new TypeToken<List<Map<String, Object>>>() {
+        }.getType());
+        StringBuilder html = new StringBuilder();
+        StringBuilder line = new StringBuilder();
+        String openList = null;
+        for (Map<String, Object> op : ops) {
+            Object insert = op.get("insert");
+            Map<String, Object> attributes = (Map<String, Object>) op.get("attributes");
+            if (insert instanceof Map) {
+                line.append(renderEmbed((Map<String, Object>) insert));
+                continue;
+            }
+            if (!(insert instanceof String)) {
+                continue;
+            }
+            String text = (String) insert;
+            int start = 0;
+            int newLine;
+            while ((newLine = text.indexOf('\n', start)) >= 0) {
+                line.append(renderInline(text.substring(start, newLine), attributes));
+                openList = appendLine(html, line.toString(), attributes, openList);
+                line.setLength(0);
+                start = newLine + 1;
+            }
+            line.append(renderInline(text.substring(start), attributes));
+        }
+        if (line.length() > 0) {
+            openList = appendLine(html, line.toString(), null, openList);
+        }
+        if (openList != null) {
+            html.append("</").append(openList).append('>');
+        }
+        return html.toString();
+    }
+
+    private static String appendLine(StringBuilder html, String content, Map<String, Object> attributes,
+                                     String openList) {
+        if (content.isEmpty()) {
+            content = "<br>";
+        }
+        String list = attributes == null ? null : listTag(attributes.get("list"));
+        if (openList != null && !openList.equals(list)) {
+            html.append("</").append(openList).append('>');
+            openList = null;
+        }
+        if (list != null) {
+            if (openList == null) {
+                html.append('<').append(list).append('>');
+            }
+            html.append("<li>").append(content).append("</li>");
+            return list;
+        }
+
+        String tag = "p";
+        if (attributes != null) {
+            if (attributes.get("header") != null) {
+                tag = "h" + ((Number) attributes.get("header")).intValue();
+            } else if (attributes.get("blockquote") != null) {
+                tag = "blockquote";
+            } else if (attributes.get("code-block") != null) {
+                tag = "pre";
+            }
+        }
+        html.append('<').append(tag);
+        if (attributes != null && attributes.get("align") != null) {
+            html.append(" class=\"ql-align-").append(escape(attributes.get("align").toString())).append('"');
+        }
+        html.append('>').append(content).append("</").append(tag).append('>');
+        return null;
+    }
+
+    private static String listTag(Object list) {
+        if (list == null) {
+            return null;
+        }
+        return "ordered".equals(list) ? "ol" : "ul";
+    }
+
+    private static String renderInline(String text, Map<String, Object> attributes) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        String html = escape(text);
+        if (attributes == null) {
+            return html;
+        }
+        if (attributes.get("code") != null) {
+            html = "<code>" + html + "</code>";
+        }
+        if (attributes.get("strike") != null) {
+            html = "<s>" + html + "</s>";
+        }
+        if (attributes.get("underline") != null) {
+            html = "<u>" + html + "</u>";
+        }
+        if (attributes.get("italic") != null) {
+            html = "<em>" + html + "</em>";
+        }
+        if (attributes.get("bold") != null) {
+            html = "<strong>" + html + "</strong>";
+        }
+        StringBuilder style = new StringBuilder();
+        if (attributes.get("color") != null) {
+            style.append("color:").append(escape(attributes.get("color").toString())).append(';');
+        }
+        if (attributes.get("background") != null) {
+            style.append("background-color:").append(escape(attributes.get("background").toString())).append(';');
+        }
+        if (style.length() > 0) {
+            html = "<span style=\"" + style + "\">" + html + "</span>";
+        }
+        if (attributes.get("link") != null) {
+            html = "<a href=\"" + escape(attributes.get("link").toString()) + "\" target=\"_blank\">" + html + "</a>";
+        }
+        return html;
+    }
+
+    private static String renderEmbed(Map<String, Object> embed) {
+        if (embed.get("image") != null) {
+            return "<img src=\"" + escape(embed.get("image").toString()) + "\">";
+        }
+        if (embed.get("video") != null) {
+            return "<iframe class=\"ql-video\" frameborder=\"0\" allowfullscreen=\"true\" src=\""
+                    + escape(embed.get("video").toString()) + "\"></iframe>";
+        }
+        return "";
+    }
+
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bulletjournal.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache whose entries also expire after a fixed time to live.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private static class Value<V> {
+        final V val;
+        final long expirationTime;
+
+        Value(V val, long expirationTime) {
+            this.val = val;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    private final long ttlMillis;
+
+    private final LinkedHashMap<K, Value<V>> map;
+
+    public ExpiringLruCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.map = new LinkedHashMap<K, Value<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Value<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * O(1)
+     */
+    public synchronized V get(K k) {
+        Value<V> val = this.map.get(k);
+        if (val == null) {
+            return null;
+        }
+        if (val.expirationTime <= this.getCurrentTime()) {
+            this.map.remove(k);
+            return null;
+        }
+        return val.val;
+    }
+
+    public synchronized void put(K k, V v) {
+        this.map.put(k, new Value<>(v, this.getCurrentTime() + this.ttlMillis));
+    }
+
+    public synchronized void invalidate(K k) {
+        this.map.remove(k);
+    }
+
+    public synchronized void invalidateAll() {
+        this.map.clear();
+    }
+
+    public synchronized void evictExpired() {
+        long now = this.getCurrentTime();
+        this.map.entrySet().removeIf(e -> e.getValue().expirationTime <= now);
+    }
+
+    public synchronized int size() {
+        return this.map.size();
+    }
+
+    private Long currentTime; // for testing purpose
+
+    public void setCurrentTime(Long currentTime) {
+        this.currentTime = currentTime;
+    }
+
+    protected long getCurrentTime() {
+        if (this.currentTime != null) {
+            return this.currentTime;
+        }
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,87 @@
+package com.bulletjournal.util;
+
+import com.bulletjournal.exceptions.BadRequestException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Position of the last row of a keyset page, its sort keys joined by "_".
+ * Timestamps are kept in microseconds like the database, a millisecond cursor would skip rows within the same
+ * millisecond.
+ */
+public class KeysetCursor {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // upper bound of the first page of a newest first list
+    public static final Timestamp END_OF_TIME = Timestamp.valueOf("9999-12-31 00:00:00");
+
+    private static final String SEPARATOR = "_";
+
+    private final long[] keys;
+
+    private KeysetCursor(long[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @param cursor nextCursor of the previous page
+     * @param length number of sort keys
+     * @return null for the first page
+     */
+    public static KeysetCursor parse(String cursor, int length) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        String[] parts = cursor.split(SEPARATOR);
+        if (parts.length != length) {
+            throw new BadRequestException("Invalid cursor " + cursor);
+        }
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            if (!StringUtils.isNumeric(parts[i])) {
+                throw new BadRequestException("Invalid cursor " + cursor);
+            }
+            try {
+                keys[i] = Long.parseLong(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor " + cursor);
+            }
+        }
+        return new KeysetCursor(keys);
+    }
+
+    public static String format(Timestamp time, long id) {
+        return format(toMicros(time), id);
+    }
+
+    public static String format(long... keys) {
+        return Arrays.stream(keys).mapToObj(Long::toString).collect(Collectors.joining(SEPARATOR));
+    }
+
+    public static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    public static long toMicros(Timestamp timestamp) {
+        return TimeUnit.SECONDS.toMicros(Math.floorDiv(timestamp.getTime(), 1000L)) + timestamp.getNanos() / 1000;
+    }
+
+    public static Timestamp fromMicros(long micros) {
+        Timestamp timestamp = new Timestamp(TimeUnit.SECONDS.toMillis(Math.floorDiv(micros, 1_000_000L)));
+        timestamp.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+        return timestamp;
+    }
+
+    public long getKey(int i) {
+        return this.keys[i];
+    }
+
+    public Timestamp getTime(int i) {
+        return fromMicros(this.keys[i]);
+    }
+}
@@ -0,0 +1,63 @@
+CREATE SEQUENCE public.content_revision_sequence
+    START WITH 100
+    INCREMENT BY 50
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER TABLE public.content_revision_sequence OWNER TO postgres;
+
+-- one row per revision: diff from the previous revision, plus a full snapshot every few revisions
+CREATE TABLE public.task_content_revisions (
+    id bigint PRIMARY KEY,
+    content_id bigint NOT NULL
+        constraint task_content_revisions__task_contents_fk
+            references task_contents
+            on delete cascade,
+    revision_id bigint NOT NULL,
+    diff text,
+    snapshot text,
+    username varchar(100) NOT NULL,
+    created_at timestamp without time zone NOT NULL
+);
+
+ALTER TABLE public.task_content_revisions OWNER TO postgres;
+
+CREATE UNIQUE INDEX task_content_revisions_content_id_revision_id_index
+    ON public.task_content_revisions USING btree (content_id, revision_id);
+
+CREATE TABLE public.note_content_revisions (
+    id bigint PRIMARY KEY,
+    content_id bigint NOT NULL
+        constraint note_content_revisions__note_contents_fk
+            references note_contents
+            on delete cascade,
+    revision_id bigint NOT NULL,
+    diff text,
+    snapshot text,
+    username varchar(100) NOT NULL,
+    created_at timestamp without time zone NOT NULL
+);
+
+ALTER TABLE public.note_content_revisions OWNER TO postgres;
+
+CREATE UNIQUE INDEX note_content_revisions_content_id_revision_id_index
+    ON public.note_content_revisions USING btree (content_id, revision_id);
+
+CREATE TABLE public.transaction_content_revisions (
+    id bigint PRIMARY KEY,
+    content_id bigint NOT NULL
+        constraint transaction_content_revisions__transaction_contents_fk
+            references transaction_contents
+            on delete cascade,
+    revision_id bigint NOT NULL,
+    diff text,
+    snapshot text,
+    username varchar(100) NOT NULL,
+    created_at timestamp without time zone NOT NULL
+);
+
+ALTER TABLE public.transaction_content_revisions OWNER TO postgres;
+
+CREATE UNIQUE INDEX transaction_content_revisions_content_id_revision_id_index
+    ON public.transaction_content_revisions USING btree (content_id, revision_id);
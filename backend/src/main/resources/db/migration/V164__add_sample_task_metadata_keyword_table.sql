@@ -0,0 +1,46 @@
+-- one row per keyword in sample_tasks.metadata, so metadata lookups seek by keyword instead of LIKE scans
+CREATE TABLE template.sample_task_metadata_keyword (
+    keyword text NOT NULL,
+    sample_task_id bigint NOT NULL
+        constraint sample_task_metadata_keyword__sample_tasks_fk
+            references template.sample_tasks
+            on delete cascade,
+    PRIMARY KEY (keyword, sample_task_id)
+);
+
+ALTER TABLE template.sample_task_metadata_keyword OWNER TO postgres;
+
+CREATE INDEX sample_task_metadata_keyword_sample_task_id_index
+    ON template.sample_task_metadata_keyword USING btree (sample_task_id);
+
+-- kept in sync on every insert or metadata update, by the backend as well as the daemon
+create or replace function template.sync_sample_task_metadata_keyword()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    if TG_OP = 'UPDATE' and NEW.metadata is not distinct from OLD.metadata then
+        return null;
+    end if;
+    delete from template.sample_task_metadata_keyword where sample_task_id = NEW.id;
+    insert into template.sample_task_metadata_keyword (keyword, sample_task_id)
+    select distinct trim(k), NEW.id
+    from regexp_split_to_table(coalesce(NEW.metadata, ''), ',') k
+    where trim(k) <> '';
+    return null;
+end
+$$;
+
+CREATE TRIGGER sync_sample_task_metadata_keyword
+    AFTER INSERT OR UPDATE OF metadata
+    ON template.sample_tasks
+    FOR EACH ROW
+EXECUTE PROCEDURE template.sync_sample_task_metadata_keyword();
+
+-- backfill
+INSERT INTO template.sample_task_metadata_keyword (keyword, sample_task_id)
+SELECT DISTINCT trim(k), s.id
+FROM template.sample_tasks s,
+     regexp_split_to_table(coalesce(s.metadata, ''), ',') k
+WHERE trim(k) <> '';
@@ -0,0 +1,18 @@
+-- actions are kept parsed next to the raw json, so the inbox reads them without deserializing
+ALTER TABLE public.notifications
+    ADD COLUMN has_actions boolean NOT NULL DEFAULT false,
+    ADD COLUMN action_descriptions varchar(100);
+
+-- backfill, actions holds a json array of Action names such as ["ACCEPT","DECLINE"]
+UPDATE public.notifications n
+SET has_actions         = true,
+    action_descriptions = (SELECT string_agg(initcap(a), ',')
+                           FROM json_array_elements_text(n.actions::json) a)
+WHERE n.actions IS NOT NULL
+  AND n.actions <> '[]';
+
+-- keyset pagination of the inbox: actionable first, then newest first
+CREATE INDEX notification_inbox_index
+    ON public.notifications USING btree (target_user, has_actions DESC, updated_at DESC, id DESC);
+
+DROP INDEX IF EXISTS public.notification_time_index;
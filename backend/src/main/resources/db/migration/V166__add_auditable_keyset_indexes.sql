@@ -0,0 +1,12 @@
+-- keyset pagination of project history, newest first, optionally filtered by originator or action
+create index auditables_project_id_activity_time_id_index
+    on auditables (project_id, activity_time desc, id desc);
+
+create index auditables_project_id_originator_activity_time_id_index
+    on auditables (project_id, originator, activity_time desc, id desc);
+
+create index auditables_project_id_action_activity_time_id_index
+    on auditables (project_id, action, activity_time desc, id desc);
+
+-- covered by auditables_project_id_activity_time_id_index
+drop index if exists auditables_project_id_activity_time_index;
@@ -0,0 +1,154 @@
+-- task counts per project, assignee and local day, so statistics aggregate day buckets instead of loading tasks
+-- uncompleted tasks are bucketed by due date, completed tasks by the day they were completed in the task's timezone
+-- tasks without due date go to the 'infinity' day, and the '' assignee counts every task once
+-- no foreign key to projects: deleting a project deletes its tasks, whose triggers write here in the same statement,
+-- rows of deleted projects are never read and go away on rebuild
+CREATE TABLE public.task_stats_daily (
+    project_id  bigint  NOT NULL,
+    assignee    text    NOT NULL,
+    stat_day    date    NOT NULL,
+    completed   integer NOT NULL DEFAULT 0,
+    uncompleted integer NOT NULL DEFAULT 0,
+    PRIMARY KEY (project_id, stat_day, assignee)
+);
+
+ALTER TABLE public.task_stats_daily OWNER TO postgres;
+
+create or replace function public.task_stats_due_day(due_date varchar)
+    returns date
+    language plpgsql
+    immutable
+as
+$$
+begin
+    if due_date is null or due_date = '' then
+        return 'infinity'::date;
+    end if;
+    return due_date::date;
+exception
+    when others then
+        return 'infinity'::date;
+end
+$$;
+
+-- created_at is stored in UTC
+create or replace function public.task_stats_local_day(ts timestamp, timezone varchar)
+    returns date
+    language plpgsql
+    stable
+as
+$$
+begin
+    return ((ts at time zone 'UTC') at time zone timezone)::date;
+exception
+    when others then
+        return ts::date;
+end
+$$;
+
+create or replace function public.task_stats_daily_add(p_project_id bigint, p_assignees text[], p_stat_day date,
+                                                       p_completed integer, p_uncompleted integer)
+    returns void
+    language sql
+as
+$$
+insert into public.task_stats_daily (project_id, assignee, stat_day, completed, uncompleted)
+select distinct $1, a, $3, $4, $5
+from unnest(array_prepend(''::text, coalesce($2, '{}'::text[]))) a
+on conflict (project_id, stat_day, assignee) do update
+    set completed   = task_stats_daily.completed + excluded.completed,
+        uncompleted = task_stats_daily.uncompleted + excluded.uncompleted;
+$$;
+
+-- create, delete, move and reassignment of uncompleted tasks; completing or uncompleting moves the row
+-- between tasks and completed_tasks and is counted by both triggers
+create or replace function public.sync_task_stats_daily()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    if TG_OP = 'UPDATE'
+        and NEW.project_id is not distinct from OLD.project_id
+        and NEW.assignees is not distinct from OLD.assignees
+        and NEW.due_date is not distinct from OLD.due_date then
+        return null;
+    end if;
+    if TG_OP in ('UPDATE', 'DELETE') then
+        perform public.task_stats_daily_add(OLD.project_id, OLD.assignees,
+                                            public.task_stats_due_day(OLD.due_date), 0, -1);
+    end if;
+    if TG_OP in ('UPDATE', 'INSERT') then
+        perform public.task_stats_daily_add(NEW.project_id, NEW.assignees,
+                                            public.task_stats_due_day(NEW.due_date), 0, 1);
+    end if;
+    return null;
+end
+$$;
+
+CREATE TRIGGER sync_task_stats_daily
+    AFTER INSERT OR DELETE OR UPDATE OF project_id, assignees, due_date
+    ON public.tasks
+    FOR EACH ROW
+EXECUTE PROCEDURE public.sync_task_stats_daily();
+
+create or replace function public.sync_completed_task_stats_daily()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    if TG_OP = 'UPDATE'
+        and NEW.project_id is not distinct from OLD.project_id
+        and NEW.assignees is not distinct from OLD.assignees
+        and NEW.created_at is not distinct from OLD.created_at
+        and NEW.timezone is not distinct from OLD.timezone then
+        return null;
+    end if;
+    if TG_OP in ('UPDATE', 'DELETE') then
+        perform public.task_stats_daily_add(OLD.project_id, OLD.assignees,
+                                            public.task_stats_local_day(OLD.created_at, OLD.timezone), -1, 0);
+    end if;
+    if TG_OP in ('UPDATE', 'INSERT') then
+        perform public.task_stats_daily_add(NEW.project_id, NEW.assignees,
+                                            public.task_stats_local_day(NEW.created_at, NEW.timezone), 1, 0);
+    end if;
+    return null;
+end
+$$;
+
+CREATE TRIGGER sync_completed_task_stats_daily
+    AFTER INSERT OR DELETE OR UPDATE OF project_id, assignees, created_at, timezone
+    ON public.completed_tasks
+    FOR EACH ROW
+EXECUTE PROCEDURE public.sync_completed_task_stats_daily();
+
+-- derives the rollup from scratch, writers wait until it commits
+create or replace function public.rebuild_task_stats_daily()
+    returns integer
+    language plpgsql
+as
+$$
+declare
+    inserted integer;
+begin
+    lock table public.task_stats_daily in exclusive mode;
+    delete from public.task_stats_daily;
+    insert into public.task_stats_daily (project_id, assignee, stat_day, completed, uncompleted)
+    select project_id, assignee, stat_day, sum(completed), sum(uncompleted)
+    from (select t.project_id, a as assignee, public.task_stats_due_day(t.due_date) as stat_day,
+                 0 as completed, 1 as uncompleted
+          from public.tasks t,
+               lateral (select distinct unnest(array_prepend(''::text, coalesce(t.assignees, '{}'::text[])))) a(a)
+          union all
+          select c.project_id, a, public.task_stats_local_day(c.created_at, c.timezone), 1, 0
+          from public.completed_tasks c,
+               lateral (select distinct unnest(array_prepend(''::text, coalesce(c.assignees, '{}'::text[])))) a(a)) s
+    group by project_id, assignee, stat_day;
+    get diagnostics inserted = row_count;
+    return inserted;
+end
+$$;
+
+-- backfill
+SELECT public.rebuild_task_stats_daily();
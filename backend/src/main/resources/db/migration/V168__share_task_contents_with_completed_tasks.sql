@@ -0,0 +1,29 @@
+-- contents of a completed task stay in task_contents and point at the completed task instead of the task,
+-- completed_tasks.contents only holds the json copy of tasks completed before this change
+ALTER TABLE public.task_contents
+    ALTER COLUMN task_id DROP NOT NULL,
+    ADD COLUMN completed_task_id bigint
+        constraint task_contents__completed_tasks_fk
+            references public.completed_tasks
+            on delete cascade,
+    ADD constraint task_contents_task_or_completed_task
+        check ((task_id IS NULL) <> (completed_task_id IS NULL));
+
+CREATE INDEX task_contents_completed_task_id_index
+    ON public.task_contents USING btree (completed_task_id)
+    WHERE completed_task_id IS NOT NULL;
+
+-- order of contents at the time of completion
+ALTER TABLE public.completed_tasks
+    ADD COLUMN contents_order varchar(10485760);
+
+-- contents of completed tasks do not belong to any task
+DROP MATERIALIZED VIEW IF EXISTS tasks_join_task_contents;
+
+CREATE MATERIALIZED VIEW tasks_join_task_contents AS
+SELECT a.id, max(b.updated_at) AS most_recent_time, a.project_id
+FROM tasks a
+         JOIN task_contents b ON a.id = b.task_id
+GROUP BY a.id;
+
+CREATE UNIQUE INDEX tasks_join_task_contents_id_idx ON tasks_join_task_contents (id);
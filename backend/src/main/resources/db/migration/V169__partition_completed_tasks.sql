@@ -0,0 +1,198 @@
+-- completed_tasks becomes range partitioned by created_at, one partition per month named completed_tasks_yYYYYmMM,
+-- partitions past retention are moved into completed_tasks_archive by maintain_completed_tasks_partitions()
+
+-- a partitioned table cannot be referenced by id alone, completed task contents are removed by trigger instead
+ALTER TABLE public.task_contents
+    DROP CONSTRAINT task_contents__completed_tasks_fk;
+
+ALTER TABLE public.completed_tasks
+    RENAME TO completed_tasks_unpartitioned;
+
+CREATE TABLE public.completed_tasks
+(
+    LIKE public.completed_tasks_unpartitioned INCLUDING DEFAULTS
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE public.completed_tasks OWNER TO postgres;
+
+ALTER TABLE public.completed_tasks
+    ADD CONSTRAINT completed_tasks_partitioned_pkey PRIMARY KEY (id, created_at);
+
+ALTER TABLE public.completed_tasks
+    ADD CONSTRAINT completed_tasks__projects_fk FOREIGN KEY (project_id)
+        REFERENCES public.projects (id) ON DELETE CASCADE;
+
+-- created on every partition
+CREATE INDEX completed_tasks_partitioned_project_id_created_at_index
+    ON public.completed_tasks USING btree (project_id, created_at);
+
+CREATE INDEX completed_tasks_partitioned_assignees_project_id_created_at_index
+    ON public.completed_tasks USING gin (assignees, project_id, created_at);
+
+CREATE TABLE public.completed_tasks_default PARTITION OF public.completed_tasks DEFAULT;
+
+create or replace function public.delete_completed_task_contents()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    -- rows moved out of the default partition by create_completed_tasks_partition() keep their contents
+    if current_setting('completed_tasks.moving_partition', true) = 'on' then
+        return null;
+    end if;
+    delete from public.task_contents where completed_task_id = OLD.id;
+    return null;
+end
+$$;
+
+-- a partition cannot be created while the default partition holds rows of its month, those rows are taken out
+-- of the default partition first and routed into the new partition afterwards, all in the caller's transaction
+create or replace function public.create_completed_tasks_partition(month date)
+    returns boolean
+    language plpgsql
+as
+$$
+declare
+    partition_name text      := 'completed_tasks_' || to_char(month, '"y"YYYY"m"MM');
+    range_start    timestamp := date_trunc('month', month::timestamp);
+    range_end      timestamp := date_trunc('month', month::timestamp) + interval '1 month';
+    moved          integer;
+begin
+    if to_regclass('public.' || partition_name) is not null then
+        return false;
+    end if;
+
+    -- dynamic statements, the temp table is created again for every month
+    execute 'CREATE TEMP TABLE completed_tasks_moving (LIKE public.completed_tasks) ON COMMIT DROP';
+    perform set_config('completed_tasks.moving_partition', 'on', true);
+    execute 'WITH deleted AS (DELETE FROM public.completed_tasks_default '
+                'WHERE created_at >= $1 AND created_at < $2 RETURNING *) '
+                'INSERT INTO completed_tasks_moving SELECT * FROM deleted'
+        using range_start, range_end;
+    get diagnostics moved = row_count;
+    perform set_config('completed_tasks.moving_partition', 'off', true);
+
+    execute format('CREATE TABLE public.%I PARTITION OF public.completed_tasks FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+    if moved > 0 then
+        execute 'INSERT INTO public.completed_tasks SELECT * FROM completed_tasks_moving';
+    end if;
+    execute 'DROP TABLE completed_tasks_moving';
+    return true;
+end
+$$;
+
+SELECT public.create_completed_tasks_partition(m::date)
+FROM generate_series(
+             date_trunc('month', coalesce((SELECT min(created_at) FROM public.completed_tasks_unpartitioned), now())),
+             date_trunc('month', now()) + interval '3 months',
+             interval '1 month') m;
+
+INSERT INTO public.completed_tasks
+SELECT *
+FROM public.completed_tasks_unpartitioned;
+
+DROP TABLE public.completed_tasks_unpartitioned;
+
+-- V167, dropped along with the old table
+CREATE TRIGGER sync_completed_task_stats_daily
+    AFTER INSERT OR DELETE OR UPDATE OF project_id, assignees, created_at, timezone
+    ON public.completed_tasks
+    FOR EACH ROW
+EXECUTE PROCEDURE public.sync_completed_task_stats_daily();
+
+CREATE TRIGGER delete_completed_task_contents
+    AFTER DELETE
+    ON public.completed_tasks
+    FOR EACH ROW
+EXECUTE PROCEDURE public.delete_completed_task_contents();
+
+-- completed tasks past retention, kept for statistics and history but no longer served
+CREATE TABLE public.completed_tasks_archive
+(
+    LIKE public.completed_tasks INCLUDING DEFAULTS,
+    archived_at timestamp without time zone NOT NULL DEFAULT now(),
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE public.completed_tasks_archive OWNER TO postgres;
+
+ALTER TABLE public.completed_tasks_archive
+    ADD CONSTRAINT completed_tasks_archive__projects_fk FOREIGN KEY (project_id)
+        REFERENCES public.projects (id) ON DELETE CASCADE;
+
+CREATE INDEX completed_tasks_archive_project_id_index
+    ON public.completed_tasks_archive USING btree (project_id);
+
+CREATE TRIGGER delete_completed_task_contents
+    AFTER DELETE
+    ON public.completed_tasks_archive
+    FOR EACH ROW
+EXECUTE PROCEDURE public.delete_completed_task_contents();
+
+-- creates partitions up to months_ahead and archives the ones ending retention_months before the current month,
+-- returns the number of archived rows
+create or replace function public.maintain_completed_tasks_partitions(months_ahead integer, retention_months integer)
+    returns integer
+    language plpgsql
+as
+$$
+declare
+    partition record;
+    archived  integer := 0;
+    moved     integer;
+begin
+    perform public.create_completed_tasks_partition(m::date)
+    from generate_series(date_trunc('month', now()),
+                         date_trunc('month', now()) + make_interval(months => months_ahead),
+                         interval '1 month') m;
+
+    for partition in
+        select c.relname
+        from pg_inherits i
+                 join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'public.completed_tasks'::regclass
+          and c.relname ~ '^completed_tasks_y[0-9]{4}m[0-9]{2}$'
+          and to_date(substring(c.relname from 'y([0-9]{4}m[0-9]{2})$'), 'YYYY"m"MM')
+            < date_trunc('month', now()) - make_interval(months => retention_months)
+        order by c.relname
+        loop
+            execute format('ALTER TABLE public.completed_tasks DETACH PARTITION public.%I', partition.relname);
+            execute format('INSERT INTO public.completed_tasks_archive SELECT * FROM public.%I', partition.relname);
+            get diagnostics moved = row_count;
+            execute format('DROP TABLE public.%I', partition.relname);
+            archived := archived + moved;
+        end loop;
+    return archived;
+end
+$$;
+
+-- archived tasks still count as completed
+create or replace function public.rebuild_task_stats_daily()
+    returns integer
+    language plpgsql
+as
+$$
+declare
+    inserted integer;
+begin
+    lock table public.task_stats_daily in exclusive mode;
+    delete from public.task_stats_daily;
+    insert into public.task_stats_daily (project_id, assignee, stat_day, completed, uncompleted)
+    select project_id, assignee, stat_day, sum(completed), sum(uncompleted)
+    from (select t.project_id, a as assignee, public.task_stats_due_day(t.due_date) as stat_day,
+                 0 as completed, 1 as uncompleted
+          from public.tasks t,
+               lateral (select distinct unnest(array_prepend(''::text, coalesce(t.assignees, '{}'::text[])))) a(a)
+          union all
+          select c.project_id, a, public.task_stats_local_day(c.created_at, c.timezone), 1, 0
+          from (select project_id, assignees, created_at, timezone from public.completed_tasks
+                union all
+                select project_id, assignees, created_at, timezone from public.completed_tasks_archive) c,
+               lateral (select distinct unnest(array_prepend(''::text, coalesce(c.assignees, '{}'::text[])))) a(a)) s
+    group by project_id, assignee, stat_day;
+    get diagnostics inserted = row_count;
+    return inserted;
+end
+$$;
@@ -0,0 +1,5 @@
+-- reminder loading scans tasks of every assignee by start time and reminder time,
+-- the btree index for it was replaced by the per assignee gin index in V18
+CREATE INDEX tasks_start_time_reminder_date_time_index
+    ON public.tasks USING btree (start_time, reminder_date_time)
+    WHERE start_time IS NOT NULL AND reminder_date_time IS NOT NULL;
@@ -0,0 +1,102 @@
+-- projects a user can access through the groups the user has accepted, shared projects excluded,
+-- kept in sync with user_groups and projects by triggers
+CREATE TABLE public.user_accessible_projects (
+    username   varchar(100) NOT NULL,
+    project_id bigint       NOT NULL,
+    -- rows are refreshed by user id, which still identifies them after the user is deleted
+    user_id    bigint       NOT NULL,
+    PRIMARY KEY (username, project_id)
+);
+
+ALTER TABLE public.user_accessible_projects OWNER TO postgres;
+
+CREATE INDEX user_accessible_projects_project_id_index
+    ON public.user_accessible_projects USING btree (project_id);
+
+CREATE INDEX user_accessible_projects_user_id_index
+    ON public.user_accessible_projects USING btree (user_id);
+
+create or replace function public.refresh_user_accessible_projects(p_user_id bigint)
+    returns void
+    language sql
+as
+$$
+delete
+from public.user_accessible_projects
+where user_id = $1;
+insert into public.user_accessible_projects (username, project_id, user_id)
+select distinct u.name, p.id, u.id
+from public.users u
+         join public.user_groups ug on ug.user_id = u.id and ug.accepted
+         join public.projects p on p.group_id = ug.group_id and not p.shared
+where u.id = $1
+on conflict do nothing;
+$$;
+
+create or replace function public.sync_user_accessible_projects_of_user_group()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    if TG_OP = 'UPDATE'
+        and NEW.user_id is not distinct from OLD.user_id
+        and NEW.group_id is not distinct from OLD.group_id
+        and NEW.accepted is not distinct from OLD.accepted then
+        return null;
+    end if;
+    if TG_OP in ('UPDATE', 'DELETE') then
+        perform public.refresh_user_accessible_projects(OLD.user_id);
+    end if;
+    if TG_OP = 'INSERT' or (TG_OP = 'UPDATE' and NEW.user_id <> OLD.user_id) then
+        perform public.refresh_user_accessible_projects(NEW.user_id);
+    end if;
+    return null;
+end
+$$;
+
+CREATE TRIGGER sync_user_accessible_projects
+    AFTER INSERT OR DELETE OR UPDATE OF user_id, group_id, accepted
+    ON public.user_groups
+    FOR EACH ROW
+EXECUTE PROCEDURE public.sync_user_accessible_projects_of_user_group();
+
+create or replace function public.sync_user_accessible_projects_of_project()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    if TG_OP = 'UPDATE'
+        and NEW.group_id is not distinct from OLD.group_id
+        and NEW.shared is not distinct from OLD.shared then
+        return null;
+    end if;
+    if TG_OP in ('UPDATE', 'DELETE') then
+        delete from public.user_accessible_projects where project_id = OLD.id;
+    end if;
+    if TG_OP in ('UPDATE', 'INSERT') and not NEW.shared then
+        insert into public.user_accessible_projects (username, project_id, user_id)
+        select distinct u.name, NEW.id, u.id
+        from public.user_groups ug
+                 join public.users u on u.id = ug.user_id
+        where ug.group_id = NEW.group_id
+          and ug.accepted
+        on conflict do nothing;
+    end if;
+    return null;
+end
+$$;
+
+CREATE TRIGGER sync_user_accessible_projects
+    AFTER INSERT OR DELETE OR UPDATE OF group_id, shared
+    ON public.projects
+    FOR EACH ROW
+EXECUTE PROCEDURE public.sync_user_accessible_projects_of_project();
+
+-- backfill
+INSERT INTO public.user_accessible_projects (username, project_id, user_id)
+SELECT DISTINCT u.name, p.id, u.id
+FROM public.users u
+         JOIN public.user_groups ug ON ug.user_id = u.id AND ug.accepted
+         JOIN public.projects p ON p.group_id = ug.group_id AND NOT p.shared;
@@ -0,0 +1,43 @@
+-- the balance of a user moves out of users.points into its own row, changed in the same transaction as the
+-- activity that is appended to user_point_activities
+CREATE TABLE public.user_points_balance
+(
+    username   character varying(255) PRIMARY KEY
+        CONSTRAINT user_points_balance__users_fk REFERENCES public.users (name) ON DELETE CASCADE,
+    points     integer                     NOT NULL DEFAULT 0,
+    created_at timestamp without time zone NOT NULL,
+    updated_at timestamp without time zone NOT NULL
+);
+
+ALTER TABLE public.user_points_balance OWNER TO postgres;
+
+-- users.points is the balance, activities were not recorded for sign up points and points set by admins
+INSERT INTO public.user_points_balance (username, points, created_at, updated_at)
+SELECT name, points, now(), now()
+FROM public.users;
+
+ALTER TABLE public.users
+    DROP COLUMN points;
+
+-- activities are only appended, and removed along with their user
+create or replace function public.reject_user_point_activities_update()
+    returns trigger
+    language plpgsql
+as
+$$
+begin
+    raise exception 'user_point_activities is append-only';
+end
+$$;
+
+CREATE TRIGGER reject_user_point_activities_update
+    BEFORE UPDATE
+    ON public.user_point_activities
+    FOR EACH ROW
+EXECUTE PROCEDURE public.reject_user_point_activities_update();
+
+-- keyset pages of a user's history, newest first
+DROP INDEX public.user_point_activities_username_index;
+
+CREATE INDEX user_point_activities_username_created_at_id_index
+    ON public.user_point_activities USING btree (username, created_at DESC, id DESC);
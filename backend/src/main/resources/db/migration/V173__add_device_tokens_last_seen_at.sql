@@ -0,0 +1,28 @@
+-- tokens are looked up one at a time on registration and deleted in bulk, keep one row per token
+DELETE FROM public.device_tokens
+WHERE token IS NULL
+   OR id NOT IN (SELECT max(id) FROM public.device_tokens GROUP BY token);
+
+ALTER TABLE public.device_tokens
+    ALTER COLUMN token SET NOT NULL;
+
+CREATE UNIQUE INDEX device_tokens_token_index ON public.device_tokens USING btree (token);
+
+-- last time the device registered its token, tokens not seen within the retention are swept
+ALTER TABLE public.device_tokens
+    ADD COLUMN last_seen_at timestamp without time zone;
+
+UPDATE public.device_tokens
+SET last_seen_at = updated_at;
+
+ALTER TABLE public.device_tokens
+    ALTER COLUMN last_seen_at SET NOT NULL,
+    ALTER COLUMN last_seen_at SET DEFAULT now();
+
+CREATE INDEX device_tokens_last_seen_at_index ON public.device_tokens USING btree (last_seen_at);
+
+-- fan-out filters on username and last_seen_at and reads the token, so it is answered from the index
+DROP INDEX public.device_tokens_username_index;
+
+CREATE INDEX device_tokens_username_last_seen_at_index
+    ON public.device_tokens USING btree (username, last_seen_at) INCLUDE (token);
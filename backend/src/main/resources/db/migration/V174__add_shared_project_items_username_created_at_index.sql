@@ -0,0 +1,8 @@
+-- keyset pages of the items shared with a user, newest share first
+DROP INDEX public.shared_project_items_username_index;
+
+CREATE INDEX shared_project_items_username_created_at_id_index
+    ON public.shared_project_items USING btree (username, created_at DESC, id DESC);
+
+-- recipients of a transaction are looked up like those of tasks and notes
+CREATE INDEX shared_project_items_transaction_index ON public.shared_project_items USING btree (transaction_id);
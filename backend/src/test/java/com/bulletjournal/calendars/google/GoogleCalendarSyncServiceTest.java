@@ -0,0 +1,130 @@
+package com.bulletjournal.calendars.google;
+
+import com.bulletjournal.clients.GoogleCalClient;
+import com.bulletjournal.config.GoogleCalendarSyncConfig;
+import com.bulletjournal.repository.GoogleCalendarProjectDaoJpa;
+import com.bulletjournal.repository.TaskDaoJpa;
+import com.bulletjournal.repository.models.GoogleCalendarProject;
+import com.bulletjournal.repository.models.Project;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.calendar.Calendar;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link GoogleCalendarSyncService}
+ */
+public class GoogleCalendarSyncServiceTest {
+
+    private static final String CALENDAR_ID = "calendar1";
+
+    private static final String EVENT = "{\"id\":\"%s\",\"status\":\"confirmed\",\"summary\":\"%s\","
+            + "\"description\":\"desc\",\"updated\":\"2020-08-01T10:00:00.000Z\","
+            + "\"start\":{\"dateTime\":\"2020-08-02T10:00:00Z\"},\"end\":{\"dateTime\":\"2020-08-02T11:00:00Z\"}}";
+
+    private static final String CANCELLED_EVENT = "{\"id\":\"%s\",\"status\":\"cancelled\"}";
+
+    private final List<String> requests = new ArrayList<>();
+
+    private GoogleCalendarProjectDaoJpa googleCalendarProjectDaoJpa;
+
+    private TaskDaoJpa taskDaoJpa;
+
+    private GoogleCalendarSyncService syncService;
+
+    private GoogleCalendarProject googleCalendarProject;
+
+    /**
+     * Local fake of the calendar api: an expired token gets 410, a valid one gets two pages of changes
+     */
+    private MockHttpTransport fakeCalendarServer() {
+        return new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                requests.add(url);
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                                .setContentType(Json.MEDIA_TYPE);
+                        if (!url.contains("/events")) {
+                            return response.setContent("{\"id\":\"" + CALENDAR_ID + "\",\"timeZone\":\"UTC\"}");
+                        }
+                        if (url.contains("syncToken=expired")) {
+                            return response.setStatusCode(410)
+                                    .setContent("{\"error\":{\"code\":410,\"message\":\"Sync token is no longer valid\"}}");
+                        }
+                        if (!url.contains("syncToken=")) {
+                            return response.setContent("{\"items\":[],\"nextSyncToken\":\"fresh\"}");
+                        }
+                        if (!url.contains("pageToken=")) {
+                            return response.setContent("{\"items\":[" + String.format(EVENT, "e1", "first")
+                                    + "," + String.format(CANCELLED_EVENT, "e2") + "],\"nextPageToken\":\"p2\"}");
+                        }
+                        return response.setContent("{\"items\":[" + String.format(EVENT, "e3", "third")
+                                + "],\"nextSyncToken\":\"next\"}");
+                    }
+                };
+            }
+        };
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Calendar calendar = new Calendar.Builder(fakeCalendarServer(), new GsonFactory(), null)
+                .setApplicationName("test").build();
+        GoogleCalClient googleCalClient = mock(GoogleCalClient.class);
+        when(googleCalClient.getCalendarService()).thenReturn(calendar);
+
+        Project project = new Project();
+        project.setId(1L);
+        this.googleCalendarProject = new GoogleCalendarProject();
+        this.googleCalendarProject.setId(CALENDAR_ID);
+        this.googleCalendarProject.setProject(project);
+        this.googleCalendarProject.setOwner("owner");
+        this.googleCalendarProjectDaoJpa = mock(GoogleCalendarProjectDaoJpa.class);
+        when(this.googleCalendarProjectDaoJpa.get(CALENDAR_ID)).thenReturn(this.googleCalendarProject);
+
+        this.taskDaoJpa = mock(TaskDaoJpa.class);
+        this.syncService = new GoogleCalendarSyncService(googleCalClient, this.googleCalendarProjectDaoJpa,
+                this.taskDaoJpa, new GoogleCalendarSyncConfig());
+    }
+
+    @Test
+    public void testIncrementalSync() throws Exception {
+        this.googleCalendarProject.setToken("current");
+        this.syncService.sync(CALENDAR_ID);
+
+        verify(this.taskDaoJpa).upsertGoogleCalendarEventTask(eq(1L), eq("owner"), anyObject(), eq("e1"),
+                anyString());
+        verify(this.taskDaoJpa).upsertGoogleCalendarEventTask(eq(1L), eq("owner"), anyObject(), eq("e3"),
+                anyString());
+        verify(this.taskDaoJpa).deleteTaskByGoogleEvenId("e2", this.googleCalendarProject.getProject());
+        verify(this.googleCalendarProjectDaoJpa).setTokenByCalendarId(CALENDAR_ID, "next");
+        // two pages and one timezone lookup
+        Assert.assertEquals(3, this.requests.size());
+    }
+
+    @Test
+    public void testExpiredSyncToken() throws Exception {
+        this.googleCalendarProject.setToken("expired");
+        this.syncService.sync(CALENDAR_ID);
+
+        verify(this.taskDaoJpa, never()).upsertGoogleCalendarEventTask(anyLong(), anyString(), anyObject(),
+                anyString(), anyString());
+        verify(this.googleCalendarProjectDaoJpa).setTokenByCalendarId(CALENDAR_ID, "fresh");
+    }
+}
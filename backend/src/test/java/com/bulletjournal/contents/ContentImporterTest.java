@@ -0,0 +1,135 @@
+package com.bulletjournal.contents;
+
+import com.bulletjournal.config.ContentImportConfig;
+import com.bulletjournal.notifications.ContentBatch;
+import com.bulletjournal.repository.TaskDaoJpa;
+import com.bulletjournal.repository.models.Task;
+import com.bulletjournal.repository.models.TaskContent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link ContentImporter}
+ */
+public class ContentImporterTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private TaskDaoJpa taskDaoJpa;
+
+    private ContentImporter contentImporter;
+
+    @Before
+    public void setUp() {
+        this.taskDaoJpa = mock(TaskDaoJpa.class);
+        ContentImportConfig config = new ContentImportConfig();
+        config.setChunkSize(2);
+        config.setChunkDelayMillis(1);
+        this.contentImporter = new ContentImporter(config, this.taskDaoJpa);
+        this.contentImporter.postConstruct();
+    }
+
+    @After
+    public void tearDown() {
+        this.contentImporter.preDestroy();
+    }
+
+    @Test
+    public void testChunksSkippingBlankText() throws Exception {
+        ContentBatch<TaskContent, Task> batch = createBatch(Arrays.asList("a", "", "b", "c", " ", "d", "e"));
+        ContentImporter.Import contentImport = this.contentImporter.start(batch);
+        contentImport.finished.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Assert.assertEquals(5, contentImport.total);
+        Assert.assertEquals(5, contentImport.imported);
+        Assert.assertEquals(0, contentImport.failed);
+        Assert.assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"),
+                Collections.singletonList("e")), getSavedChunks(3));
+        // every content is attached to the task and owner at its position in the batch
+        for (TaskContent content : batch.getContents()) {
+            if (!content.getText().trim().isEmpty()) {
+                Assert.assertEquals(content.getText(), content.getProjectItem().getName());
+                Assert.assertEquals("owner-" + content.getText(), content.getOwner());
+            }
+        }
+    }
+
+    @Test
+    public void testNothingToImport() {
+        Assert.assertNull(this.contentImporter.start(createBatch(Arrays.asList("", " "))));
+        verify(this.taskDaoJpa, never()).saveContents(Mockito.<TaskContent>anyList());
+    }
+
+    @Test
+    public void testStartsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            this.contentImporter.importAfterCommit(createBatch(Arrays.asList("a", "b", "c")));
+            verify(this.taskDaoJpa, never()).saveContents(Mockito.<TaskContent>anyList());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(this.taskDaoJpa, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)).times(2))
+                .saveContents(Mockito.<TaskContent>anyList());
+    }
+
+    @Test
+    public void testStartsRightAwayWithoutTransaction() {
+        this.contentImporter.importAfterCommit(createBatch(Collections.singletonList("a")));
+        verify(this.taskDaoJpa, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)))
+                .saveContents(Mockito.<TaskContent>anyList());
+    }
+
+    @Test
+    public void testFailedChunkIsRecordedAndLaterChunksWritten() throws Exception {
+        doNothing().doThrow(new IllegalStateException("chunk failed")).doNothing()
+                .when(this.taskDaoJpa).saveContents(Mockito.<TaskContent>anyList());
+        ContentImporter.Import contentImport = this.contentImporter.start(
+                createBatch(Arrays.asList("a", "b", "c", "d", "e")));
+        contentImport.finished.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Assert.assertEquals(3, getSavedChunks(3).size());
+        Assert.assertEquals(3, contentImport.imported);
+        Assert.assertEquals(2, contentImport.failed);
+        Assert.assertEquals(Collections.singletonList(1), contentImport.failedChunks);
+    }
+
+    private static ContentBatch<TaskContent, Task> createBatch(List<String> texts) {
+        List<TaskContent> contents = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        List<String> owners = new ArrayList<>();
+        for (String text : texts) {
+            contents.add(new TaskContent(text));
+            Task task = new Task();
+            task.setName(text);
+            tasks.add(task);
+            owners.add("owner-" + text);
+        }
+        return new ContentBatch<>(contents, tasks, owners);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> getSavedChunks(int chunks) {
+        ArgumentCaptor<List<TaskContent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.taskDaoJpa, times(chunks)).saveContents(captor.capture());
+        return captor.getAllValues().stream()
+                .map(chunk -> chunk.stream().map(TaskContent::getText).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
@@ -104,6 +104,66 @@ public class HierarchyProcessorProcessorTest {
         assertTrue(CollectionUtils.isEqualCollection(ImmutableSet.of(1L, 4L, 5L), ret.getRight()));
     }
 
+    /**
+     * Tests {@link HierarchyProcessor#removeIds(String, Set)}
+     */
+    @Test
+    public void testRemoveIds() {
+        String relations = createSampleRelations();
+
+        // sub items of a removed item take its place
+        List<HierarchyItem> hierarchy = HierarchyProcessor.removeIds(relations, ImmutableSet.of(2L, 5L));
+        assertEquals(2, hierarchy.size());
+        assertEquals(1L, hierarchy.get(0).getId().longValue());
+        assertEquals(2, hierarchy.get(0).getS().size());
+        assertEquals(3L, hierarchy.get(0).getS().get(0).getId().longValue());
+        assertEquals(4L, hierarchy.get(0).getS().get(1).getId().longValue());
+        assertEquals(6L, hierarchy.get(1).getId().longValue());
+
+        hierarchy = HierarchyProcessor.removeIds(relations, ImmutableSet.of(1L, 2L, 3L, 4L, 5L, 6L));
+        assertTrue(hierarchy.isEmpty());
+        assertEquals("[]", HierarchyProcessor.toJson(HierarchyProcessor.removeIds((String) null, ImmutableSet.of(1L))));
+    }
+
+    /**
+     * Tests {@link HierarchyProcessor#extractSubtrees(String, Set)}
+     */
+    @Test
+    public void testExtractSubtrees() {
+        String relations = createSampleRelations();
+
+        Pair<List<HierarchyItem>, List<HierarchyItem>> split =
+                HierarchyProcessor.extractSubtrees(relations, ImmutableSet.of(2L, 3L, 6L));
+        List<HierarchyItem> remaining = split.getLeft();
+        List<HierarchyItem> subtrees = split.getRight();
+
+        assertEquals(2, remaining.size());
+        assertEquals(1L, remaining.get(0).getId().longValue());
+        assertEquals(1, remaining.get(0).getS().size());
+        assertEquals(4L, remaining.get(0).getS().get(0).getId().longValue());
+        assertTrue(remaining.get(1).getS().isEmpty());
+
+        // p3 is moved within the subtree of p2
+        assertEquals(2, subtrees.size());
+        assertEquals(2L, subtrees.get(0).getId().longValue());
+        assertEquals(3L, subtrees.get(0).getS().get(0).getId().longValue());
+        assertEquals(6L, subtrees.get(1).getId().longValue());
+        assertEquals(ImmutableSet.of(2L, 3L, 6L), HierarchyProcessor.getIds(subtrees));
+
+        split = HierarchyProcessor.extractSubtrees(null, ImmutableSet.of(2L));
+        assertTrue(split.getLeft().isEmpty());
+        assertTrue(split.getRight().isEmpty());
+    }
+
+    private String createSampleRelations() {
+        List<Project> projects = new ArrayList<>();
+        for (long i = 1; i <= 6; i++) {
+            projects.add(createProject(i));
+        }
+        return ProjectRelationsProcessor.processRelations(createSampleProjectRelations(
+                projects.get(0), projects.get(1), projects.get(2), projects.get(3), projects.get(4), projects.get(5)));
+    }
+
     /**
      * Tests {@link ProjectRelationsProcessor#processRelations(Map, String, Set)}
      */
@@ -0,0 +1,120 @@
+package com.bulletjournal.messaging;
+
+import com.bulletjournal.config.ExportConfig;
+import com.bulletjournal.controller.models.ExportJob;
+import com.bulletjournal.controller.models.ExportType;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.exceptions.TooManyRequestsException;
+import com.bulletjournal.exceptions.UnAuthorizedException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link ExportRenderingService}
+ */
+public class ExportRenderingServiceTest {
+
+    private static final String OWNER = "owner";
+
+    // holds every render until released
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    private ExportRenderingService exportRenderingService;
+
+    @Before
+    public void setUp() {
+        ExportConfig exportConfig = new ExportConfig();
+        exportConfig.setWorkerThreads(1);
+        exportConfig.setQueueCapacity(1);
+        this.exportRenderingService = new ExportRenderingService(exportConfig) {
+            @Override
+            ByteArrayResource convert(ExportType type, String html, double scale) throws Exception {
+                renders.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+                return new ByteArrayResource(html.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        this.exportRenderingService.postConstruct();
+    }
+
+    @After
+    public void tearDown() {
+        this.release.countDown();
+        this.exportRenderingService.preDestroy();
+    }
+
+    @Test
+    public void testIdenticalRendersAreCoalesced() throws Exception {
+        ExportJob first = this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>a</p>", "a.pdf");
+        ExportJob second = this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>a</p>", "a.pdf");
+        Assert.assertNotEquals(first.getId(), second.getId());
+        Assert.assertEquals(ExportJob.Status.PENDING, first.getStatus());
+        Assert.assertNull(this.exportRenderingService.download(OWNER, first.getId()));
+
+        this.release.countDown();
+        ByteArrayResource rendered = this.exportRenderingService.render(ExportType.PDF, false, "<p>a</p>");
+        Assert.assertEquals("<p>a</p>", new String(rendered.getByteArray(), StandardCharsets.UTF_8));
+        Assert.assertSame(rendered, this.exportRenderingService.download(OWNER, second.getId()));
+        Assert.assertEquals(ExportJob.Status.DONE,
+                this.exportRenderingService.getJob(OWNER, first.getId()).getStatus());
+        // served from the result cache afterwards
+        this.exportRenderingService.render(ExportType.PDF, false, "<p>a</p>");
+        Assert.assertEquals(1, this.renders.get());
+
+        // a different type or scale is another render
+        this.exportRenderingService.render(ExportType.IMAGE, true, "<p>a</p>");
+        this.exportRenderingService.render(ExportType.IMAGE, false, "<p>a</p>");
+        Assert.assertEquals(3, this.renders.get());
+    }
+
+    @Test
+    public void testRejectedWhenPoolIsFull() {
+        // one render running and one queued
+        this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>1</p>", "1.pdf");
+        this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>2</p>", "2.pdf");
+        try {
+            this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>3</p>", "3.pdf");
+            Assert.fail();
+        } catch (TooManyRequestsException e) {
+        }
+        // identical to a render in flight, nothing new to queue
+        this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>2</p>", "2.pdf");
+    }
+
+    @Test
+    public void testOnlyOwnerReadsJob() throws Exception {
+        ExportJob job = this.exportRenderingService.submit(OWNER, ExportType.PDF, false, "<p>a</p>", "a.pdf");
+        this.release.countDown();
+        Assert.assertEquals("a.pdf", this.exportRenderingService.getFileName(OWNER, job.getId()));
+        try {
+            this.exportRenderingService.getJob("other", job.getId());
+            Assert.fail();
+        } catch (UnAuthorizedException e) {
+        }
+        try {
+            this.exportRenderingService.download("other", job.getId());
+            Assert.fail();
+        } catch (UnAuthorizedException e) {
+        }
+        try {
+            this.exportRenderingService.getFileName("other", job.getId());
+            Assert.fail();
+        } catch (UnAuthorizedException e) {
+        }
+        try {
+            this.exportRenderingService.download(OWNER, "missing");
+            Assert.fail();
+        } catch (ResourceNotFoundException e) {
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bulletjournal.messaging;
+
+import com.bulletjournal.clients.UserClient;
+import com.bulletjournal.messaging.firebase.FcmClient;
+import com.bulletjournal.messaging.mailjet.MailjetEmailClient;
+import com.bulletjournal.messaging.mailjet.MailjetEmailParams;
+import com.bulletjournal.repository.DeviceTokenDaoJpa;
+import com.bulletjournal.repository.UserAliasDaoJpa;
+import com.bulletjournal.repository.UserDaoJpa;
+import com.bulletjournal.repository.models.Task;
+import com.bulletjournal.repository.models.User;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link MessagingService}
+ */
+public class MessagingServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessagingServiceTest.class);
+
+    private static final int TASK_COUNT = 10000;
+
+    private static final int USER_COUNT = 200;
+
+    private static final int ASSIGNEES_PER_TASK = 3;
+
+    /**
+     * Reminder burst benchmark: avatars and aliases are resolved once per distinct user,
+     * not once per task and recipient.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTaskDueReminderBurst() {
+        FcmClient fcmClient = mock(FcmClient.class);
+        MailjetEmailClient mailjetEmailClient = mock(MailjetEmailClient.class);
+        DeviceTokenDaoJpa deviceTokenDaoJpa = mock(DeviceTokenDaoJpa.class);
+        UserDaoJpa userDaoJpa = mock(UserDaoJpa.class);
+        UserAliasDaoJpa userAliasDaoJpa = mock(UserAliasDaoJpa.class);
+        UserClient userClient = mock(UserClient.class);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = new User();
+            user.setName("user" + i);
+            user.setEmail("user" + i + "@bulletjournal.us");
+            users.add(user);
+        }
+        when(userDaoJpa.getUsersByNames(any(Set.class))).thenReturn(users);
+        when(deviceTokenDaoJpa.getTokensByUsers(any(Collection.class))).thenReturn(Collections.emptyMap());
+        when(userAliasDaoJpa.getAliases(anyString())).thenReturn(Collections.emptyMap());
+        when(userClient.getAvatar(anyString())).thenReturn("avatar");
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setName("task" + i);
+            task.setOwner("user" + (i % USER_COUNT));
+            task.setDueDate("2020-10-10");
+            task.setDueTime("10:00");
+            task.setTimezone("America/Los_Angeles");
+            List<String> assignees = new ArrayList<>();
+            for (int j = 0; j < ASSIGNEES_PER_TASK; j++) {
+                assignees.add("user" + ((i + j) % USER_COUNT));
+            }
+            task.setAssignees(assignees);
+            tasks.add(task);
+        }
+
+        MessagingService messagingService = new MessagingService(fcmClient, mailjetEmailClient,
+                deviceTokenDaoJpa, userDaoJpa, userAliasDaoJpa, userClient);
+        long start = System.currentTimeMillis();
+        messagingService.sendTaskDueNotificationAndEmailToUsers(tasks);
+        LOGGER.info("Built reminder emails for {} tasks in {} ms", TASK_COUNT, System.currentTimeMillis() - start);
+
+        ArgumentCaptor<List> emails = ArgumentCaptor.forClass(List.class);
+        verify(mailjetEmailClient).sendAllEmailAsync(emails.capture());
+        Assert.assertEquals(TASK_COUNT * ASSIGNEES_PER_TASK, emails.getValue().size());
+        MailjetEmailParams first = (MailjetEmailParams) emails.getValue().get(0);
+        Assert.assertEquals("task0 due at 2020-10-10 10:00 (America/Los_Angeles)", first.getSubject());
+
+        verify(userClient, times(USER_COUNT)).getAvatar(anyString());
+        verify(userAliasDaoJpa, times(USER_COUNT)).getAliases(anyString());
+    }
+}
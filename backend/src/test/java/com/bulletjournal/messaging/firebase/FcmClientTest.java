@@ -0,0 +1,124 @@
+package com.bulletjournal.messaging.firebase;
+
+import com.bulletjournal.config.FcmConfig;
+import com.bulletjournal.repository.DeviceTokenDaoJpa;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link FcmClient}
+ */
+public class FcmClientTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FcmClientTest.class);
+
+    private static final int MESSAGE_COUNT = 10000;
+
+    /**
+     * Local fake of the FCM batch endpoint: every 10th token is not registered and
+     * the first attempt of every 7th token hits the quota
+     */
+    private static class FakeFcmTransport implements FcmTransport {
+        final Set<String> throttled = ConcurrentHashMap.newKeySet();
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(MESSAGE_COUNT);
+
+        @Override
+        public List<String> send(List<FcmMessageParams> messages) throws Exception {
+            maxBatchSize.accumulateAndGet(messages.size(), Math::max);
+            // provider round trip
+            Thread.sleep(5);
+            List<String> errorCodes = new ArrayList<>();
+            for (FcmMessageParams message : messages) {
+                int i = Integer.parseInt(message.getToken());
+                String errorCode = null;
+                if (i % 10 == 0) {
+                    errorCode = "registration-token-not-registered";
+                } else if (i % 7 == 0 && throttled.add(message.getToken())) {
+                    errorCode = "quota-exceeded";
+                }
+                errorCodes.add(errorCode);
+                if (!"quota-exceeded".equals(errorCode)) {
+                    done.countDown();
+                }
+            }
+            return errorCodes;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDispatchBurst() throws Exception {
+        FcmConfig fcmConfig = new FcmConfig();
+        fcmConfig.setMessagesPerSecond(100000);
+        fcmConfig.setRetryBackoffMillis(10);
+        fcmConfig.setInvalidTokenFlushSeconds(3600);
+        DeviceTokenDaoJpa deviceTokenDaoJpa = mock(DeviceTokenDaoJpa.class);
+        FakeFcmTransport transport = new FakeFcmTransport();
+
+        FcmClient fcmClient = new FcmClient(deviceTokenDaoJpa, fcmConfig);
+        fcmClient.initialize();
+        fcmClient.setTransport(transport);
+
+        List<FcmMessageParams> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            messages.add(new FcmMessageParams(String.valueOf(i), "type", "reminder"));
+        }
+        long start = System.currentTimeMillis();
+        fcmClient.sendAllMessagesAsync(messages);
+        Assert.assertTrue(transport.done.await(30, TimeUnit.SECONDS));
+        LOGGER.info("Dispatched {} messages in {} ms", MESSAGE_COUNT, System.currentTimeMillis() - start);
+
+        Assert.assertEquals(500, transport.maxBatchSize.get());
+        Assert.assertFalse(transport.throttled.isEmpty());
+
+        // waits for the last batch, then flushes the collected invalid tokens
+        fcmClient.preDestroy();
+        ArgumentCaptor<Collection> tokens = ArgumentCaptor.forClass(Collection.class);
+        verify(deviceTokenDaoJpa, times(1)).deleteTokens(tokens.capture());
+        Assert.assertEquals(MESSAGE_COUNT / 10, tokens.getValue().size());
+    }
+
+    @Test
+    public void testFullQueueNeverRunsOnCaller() throws Exception {
+        FcmConfig fcmConfig = new FcmConfig();
+        fcmConfig.setBatchSize(1);
+        fcmConfig.setWorkerThreads(1);
+        fcmConfig.setQueueCapacity(1);
+        fcmConfig.setMessagesPerSecond(100000);
+        fcmConfig.setRetryBackoffMillis(50);
+        fcmConfig.setMaxRetries(5);
+        fcmConfig.setInvalidTokenFlushSeconds(3600);
+        Set<Thread> senders = ConcurrentHashMap.newKeySet();
+        CountDownLatch sent = new CountDownLatch(3);
+
+        FcmClient fcmClient = new FcmClient(mock(DeviceTokenDaoJpa.class), fcmConfig);
+        fcmClient.initialize();
+        fcmClient.setTransport(messages -> {
+            senders.add(Thread.currentThread());
+            Thread.sleep(20);
+            sent.countDown();
+            return Collections.nCopies(messages.size(), null);
+        });
+
+        // one batch runs, one waits in the queue, the third is rejected and retried later
+        fcmClient.sendAllMessagesAsync(Arrays.asList(
+                new FcmMessageParams("1", "type", "reminder"),
+                new FcmMessageParams("2", "type", "reminder"),
+                new FcmMessageParams("3", "type", "reminder")));
+        Assert.assertTrue(sent.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(senders.contains(Thread.currentThread()));
+        fcmClient.preDestroy();
+    }
+}
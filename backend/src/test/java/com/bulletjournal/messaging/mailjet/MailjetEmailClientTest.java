@@ -0,0 +1,158 @@
+package com.bulletjournal.messaging.mailjet;
+
+import com.bulletjournal.config.EmailConfig;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link MailjetEmailClient}
+ */
+public class MailjetEmailClientTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailjetEmailClientTest.class);
+
+    private static final int RECIPIENT_COUNT = 5000;
+
+    /**
+     * In-memory stand-in for the Mailjet send api
+     */
+    private static class InMemoryEmailTransport implements EmailTransport {
+        final Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+
+        // send calls failing as a whole before the next one succeeds
+        final AtomicInteger failures = new AtomicInteger();
+
+        // recipients whose emails are rejected
+        final Set<String> invalid = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public List<String> send(List<MailjetEmailParams> emails) throws Exception {
+            maxBatchSize.accumulateAndGet(emails.size(), Math::max);
+            // api round trip
+            Thread.sleep(2);
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new IOException("Failed to send emails, code: 500");
+            }
+            List<String> errors = new ArrayList<>();
+            for (MailjetEmailParams email : emails) {
+                if (email.getReceivers().stream().anyMatch(r -> invalid.contains(r.getRight()))) {
+                    errors.add("invalid recipient");
+                    continue;
+                }
+                email.getReceivers().forEach(r -> received.computeIfAbsent(r.getRight(), k -> new AtomicInteger())
+                        .incrementAndGet());
+                errors.add(null);
+            }
+            return errors;
+        }
+    }
+
+    private static MailjetEmailParams createEmail(int i) {
+        return new MailjetEmailParams(
+                Collections.singletonList(new ImmutablePair<>("user" + i, "user" + i + "@bulletjournal.us")),
+                "Task due", null, MailjetEmailClient.Template.TASK_DUE_NOTIFICATION,
+                "task_name", "task" + i);
+    }
+
+    @Test
+    public void testBatchingAndDeduplication() {
+        EmailConfig emailConfig = new EmailConfig();
+        MailjetEmailClient client = new MailjetEmailClient(emailConfig);
+        client.initializeMailjetClient();
+        InMemoryEmailTransport transport = new InMemoryEmailTransport();
+        client.setTransport(transport);
+
+        long start = System.currentTimeMillis();
+        // every recipient is reminded of the same task twice
+        for (int round = 0; round < 2; round++) {
+            List<MailjetEmailParams> emails = new ArrayList<>();
+            for (int i = 0; i < RECIPIENT_COUNT; i++) {
+                emails.add(createEmail(i));
+            }
+            client.sendAllEmailAsync(emails);
+        }
+        // drains the queue
+        client.preDestroy();
+        LOGGER.info("Delivered {} emails in {} ms, metrics: {}", RECIPIENT_COUNT,
+                System.currentTimeMillis() - start, client.getMetrics());
+
+        Assert.assertEquals(RECIPIENT_COUNT, transport.received.size());
+        transport.received.values().forEach(count -> Assert.assertEquals(1, count.get()));
+        Assert.assertEquals(emailConfig.getBatchSize(), transport.maxBatchSize.get());
+        Assert.assertEquals(Long.valueOf(RECIPIENT_COUNT), client.getMetrics().get("deduplicated"));
+        Assert.assertEquals(Long.valueOf(RECIPIENT_COUNT), client.getMetrics().get("sent"));
+    }
+
+    @Test
+    public void testPartialRejection() {
+        EmailConfig emailConfig = new EmailConfig();
+        MailjetEmailClient client = new MailjetEmailClient(emailConfig);
+        client.initializeMailjetClient();
+        InMemoryEmailTransport transport = new InMemoryEmailTransport();
+        transport.invalid.add("user1@bulletjournal.us");
+        client.setTransport(transport);
+
+        client.sendAllEmailAsync(Arrays.asList(createEmail(0), createEmail(1), createEmail(2)));
+        client.preDestroy();
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("user0@bulletjournal.us", "user2@bulletjournal.us")),
+                transport.received.keySet());
+        Assert.assertEquals(Long.valueOf(2), client.getMetrics().get("sent"));
+        Assert.assertEquals(Long.valueOf(1), client.getMetrics().get("rejected"));
+    }
+
+    @Test
+    public void testUndeliveredRecipientsAreNotSuppressed() throws Exception {
+        EmailConfig emailConfig = new EmailConfig();
+        emailConfig.setMaxRetries(1);
+        emailConfig.setRetryBackoffMillis(1);
+        InMemoryEmailTransport transport = new InMemoryEmailTransport();
+        // the first send and its retry fail
+        transport.failures.set(2);
+
+        MailjetEmailClient client = new MailjetEmailClient(emailConfig);
+        client.initializeMailjetClient();
+        client.setTransport(transport);
+        client.sendAllEmailAsync(Collections.singletonList(createEmail(0)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getMetrics().get("failed") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Long.valueOf(1), client.getMetrics().get("failed"));
+        Assert.assertEquals(Long.valueOf(1), client.getMetrics().get("retried"));
+        Assert.assertTrue(transport.received.isEmpty());
+
+        // the same email goes out once the api recovers, it was never suppressed
+        client.sendAllEmailAsync(Collections.singletonList(createEmail(0)));
+        client.preDestroy();
+        Assert.assertEquals(1, transport.received.get("user0@bulletjournal.us").get());
+        Assert.assertEquals(Long.valueOf(0), client.getMetrics().get("deduplicated"));
+    }
+
+    @Test
+    public void testFailedSendIsRetried() {
+        EmailConfig emailConfig = new EmailConfig();
+        emailConfig.setRetryBackoffMillis(1);
+        InMemoryEmailTransport transport = new InMemoryEmailTransport();
+        transport.failures.set(1);
+
+        MailjetEmailClient client = new MailjetEmailClient(emailConfig);
+        client.initializeMailjetClient();
+        client.setTransport(transport);
+        client.sendAllEmailAsync(Arrays.asList(createEmail(0), createEmail(1)));
+        client.preDestroy();
+
+        Assert.assertEquals(2, transport.received.size());
+        Assert.assertEquals(Long.valueOf(2), client.getMetrics().get("sent"));
+        Assert.assertEquals(Long.valueOf(0), client.getMetrics().get("failed"));
+    }
+}
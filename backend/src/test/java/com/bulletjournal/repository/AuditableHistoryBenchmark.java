@@ -0,0 +1,136 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.contents.ContentAction;
+import com.bulletjournal.controller.models.Activity;
+import com.bulletjournal.controller.models.CursorPage;
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Group;
+import com.bulletjournal.repository.models.Project;
+import com.bulletjournal.util.KeysetCursor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Benchmarks {@link AuditableDaoJpa#getHistoryPage} on a project with a million activities.
+ * <p>
+ * Opt-in: run with -Dbenchmark=true
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class AuditableHistoryBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditableHistoryBenchmark.class);
+
+    private static final String USER = "AuditableHistoryBenchmark";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    private static final int ROWS = 1_000_000;
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final int RUNS = 5;
+
+    @Autowired
+    private AuditableDaoJpa auditableDaoJpa;
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long projectId;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        Group group;
+        try {
+            group = this.groupDaoJpa.getDefaultGroup(USER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(USER, TIMEZONE);
+            group = this.groupDaoJpa.getDefaultGroup(USER);
+        }
+        Project project = this.projectDaoJpa.create(new CreateProjectParams(
+                "History " + System.currentTimeMillis(), ProjectType.TODO, null, group.getId()),
+                USER, new ArrayList<>());
+        this.projectId = project.getId();
+
+        long start = System.currentTimeMillis();
+        // one activity a minute going back from now, spread over a few originators and actions
+        this.jdbcTemplate.update("INSERT INTO auditables "
+                        + "(id, created_at, updated_at, activity, originator, project_id, action, "
+                        + "project_item_id, activity_time) "
+                        + "SELECT nextval('auditable_sequence'), now(), now(), 'activity ' || i, "
+                        + "CASE WHEN i % 10 = 0 THEN 'BulletJournal' ELSE ? END, ?, 1 + i % 26, i, "
+                        + "now() - i * interval '1 minute' "
+                        + "FROM generate_series(1, ?) AS i",
+                USER, this.projectId, ROWS);
+        this.jdbcTemplate.execute("ANALYZE auditables");
+        LOGGER.info("Seeded {} activities in {} ms", ROWS, System.currentTimeMillis() - start);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.projectId != null) {
+            this.jdbcTemplate.update("DELETE FROM auditables WHERE project_id = ?", this.projectId);
+            this.projectDaoJpa.deleteProject(USER, this.projectId);
+        }
+    }
+
+    @Test
+    public void benchmarkFirstAndLastPage() {
+        String startDate = "2000-01-01";
+        String endDate = "2100-01-01";
+
+        // the cursor of the page before the last one is the activity right after the oldest page
+        Map<String, Object> row = this.jdbcTemplate.queryForMap("SELECT id, activity_time FROM auditables "
+                + "WHERE project_id = ? ORDER BY activity_time, id OFFSET ? LIMIT 1", this.projectId, PAGE_SIZE);
+        String lastCursor = KeysetCursor.format(
+                (java.sql.Timestamp) row.get("activity_time"), ((Number) row.get("id")).longValue());
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            CursorPage<Activity> page = this.auditableDaoJpa.getHistoryPage(this.projectId, TIMEZONE, startDate,
+                    endDate, ContentAction.ALL_ACTIONS, "Everyone", USER, null, PAGE_SIZE);
+            first = Math.min(first, System.nanoTime() - start);
+            Assert.assertEquals(PAGE_SIZE, page.getItems().size());
+            Assert.assertNotEquals("", page.getNextCursor());
+
+            start = System.nanoTime();
+            page = this.auditableDaoJpa.getHistoryPage(this.projectId, TIMEZONE, startDate, endDate,
+                    ContentAction.ALL_ACTIONS, "Everyone", USER, lastCursor, PAGE_SIZE);
+            last = Math.min(last, System.nanoTime() - start);
+            Assert.assertEquals(PAGE_SIZE, page.getItems().size());
+            Assert.assertEquals("", page.getNextCursor());
+        }
+        LOGGER.info("History of {} activities: first page {} ms, last page {} ms",
+                ROWS, first / 1_000_000.0, last / 1_000_000.0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Project;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+
+/**
+ * Tests that the partition maintenance of V169 creates partitions for months that already have rows in
+ * completed_tasks_default
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class CompletedTaskPartitionsTest {
+
+    private static final String OWNER = "CompletedTaskPartitionsOwner";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    // further ahead than the partitions maintenance keeps by default
+    private static final int MONTHS_AHEAD = 10;
+
+    @Autowired
+    private TaskDaoJpa taskDaoJpa;
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Project project;
+
+    @Before
+    public void setUp() {
+        try {
+            this.groupDaoJpa.getDefaultGroup(OWNER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(OWNER, TIMEZONE);
+        }
+        this.project = this.projectDaoJpa.create(new CreateProjectParams("Partitions " + System.currentTimeMillis(),
+                        ProjectType.TODO, null, this.groupDaoJpa.getDefaultGroup(OWNER).getId()),
+                OWNER, new ArrayList<>());
+    }
+
+    @Test
+    public void testMaintainWithRowsInDefaultPartition() {
+        Long completedTaskId = this.jdbcTemplate.queryForObject("INSERT INTO completed_tasks (id, created_at, "
+                        + "updated_at, name, owner, assignees, timezone, project_id) "
+                        + "SELECT nextval('completed_task_sequence'), m, m, 'in default partition', ?, ARRAY[?], ?, ? "
+                        + "FROM (SELECT date_trunc('month', now()) + make_interval(months => ?) AS m) t RETURNING id",
+                Long.class, OWNER, OWNER, TIMEZONE, this.project.getId(), MONTHS_AHEAD);
+        Long contentId = this.jdbcTemplate.queryForObject("INSERT INTO task_contents (id, created_at, updated_at, "
+                        + "owner, text, base_text, revisions, completed_task_id) "
+                        + "VALUES (nextval('task_content_sequence'), now(), now(), ?, 'content', 'content', '', ?) "
+                        + "RETURNING id",
+                Long.class, OWNER, completedTaskId);
+        Assert.assertEquals("completed_tasks_default", getPartition(completedTaskId));
+        Integer completed = getCompletedCount();
+        Assert.assertEquals(Integer.valueOf(1), completed);
+
+        this.taskDaoJpa.maintainCompletedTaskPartitions(MONTHS_AHEAD, 24);
+
+        String partition = this.jdbcTemplate.queryForObject("SELECT 'completed_tasks_' || "
+                        + "to_char(date_trunc('month', now()) + make_interval(months => ?), '\"y\"YYYY\"m\"MM')",
+                String.class, MONTHS_AHEAD);
+        Assert.assertEquals(partition, getPartition(completedTaskId));
+        // moving the row keeps its contents and statistics
+        Assert.assertEquals(completedTaskId, this.jdbcTemplate.queryForObject(
+                "SELECT completed_task_id FROM task_contents WHERE id = ?", Long.class, contentId));
+        Assert.assertEquals(completed, getCompletedCount());
+        // and moved contents are deleted with the task again
+        this.jdbcTemplate.update("DELETE FROM completed_tasks WHERE id = ?", completedTaskId);
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_contents WHERE id = ?", Integer.class, contentId));
+    }
+
+    private String getPartition(Long completedTaskId) {
+        return this.jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM completed_tasks WHERE id = ?",
+                String.class, completedTaskId);
+    }
+
+    private Integer getCompletedCount() {
+        return this.jdbcTemplate.queryForObject("SELECT coalesce(sum(completed), 0)::integer FROM task_stats_daily "
+                + "WHERE project_id = ? AND assignee = ''", Integer.class, this.project.getId());
+    }
+}
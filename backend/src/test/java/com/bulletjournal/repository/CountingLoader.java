@@ -0,0 +1,49 @@
+package com.bulletjournal.repository;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers a mocked repository lookup that caches load from, keyed by the first argument of the call
+ * (one key or a collection of keys), and records every call so tests can tell hits from loads
+ */
+class CountingLoader<K, R> implements Answer<List<R>> {
+
+    private final Class<K> keyType;
+
+    private final Function<K, List<R>> rows;
+
+    private final List<Set<K>> queried = new ArrayList<>();
+
+    CountingLoader(Class<K> keyType, Function<K, List<R>> rows) {
+        this.keyType = keyType;
+        this.rows = rows;
+    }
+
+    @Override
+    public synchronized List<R> answer(InvocationOnMock invocation) {
+        Object argument = invocation.getArguments()[0];
+        Collection<?> arguments = argument instanceof Collection
+                ? (Collection<?>) argument : Collections.singleton(argument);
+        Set<K> keys = arguments.stream().map(this.keyType::cast)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        this.queried.add(keys);
+        return keys.stream().flatMap(key -> this.rows.apply(key).stream()).collect(Collectors.toList());
+    }
+
+    synchronized int getLoads() {
+        return this.queried.size();
+    }
+
+    synchronized int getLoads(K key) {
+        return (int) this.queried.stream().filter(keys -> keys.contains(key)).count();
+    }
+
+    synchronized Set<K> getQueried(int call) {
+        return this.queried.get(call);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.DeviceTokenConfig;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link DeviceTokenCache}
+ */
+public class DeviceTokenCacheTest {
+
+    private static final int USERS = 100;
+
+    // odd users have no device
+    private final CountingLoader<String, Object[]> loader = new CountingLoader<>(String.class,
+            username -> Integer.parseInt(username.substring(4)) % 2 != 0 ? Collections.emptyList() : Arrays.asList(
+                    new Object[]{username, username + "-phone"}, new Object[]{username, username + "-tablet"}));
+
+    private DeviceTokenRepository deviceTokenRepository;
+
+    private DeviceTokenCache cache;
+
+    @Before
+    public void setUp() {
+        this.deviceTokenRepository = mock(DeviceTokenRepository.class);
+        when(this.deviceTokenRepository.findActiveTokens(Mockito.<String>anyCollection(), any(Timestamp.class)))
+                .thenAnswer(this.loader);
+        this.cache = new DeviceTokenCache(this.deviceTokenRepository, new DeviceTokenConfig());
+    }
+
+    @Test
+    public void testOneQueryAcrossShards() {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            usernames.add("user" + i);
+        }
+        Map<String, List<String>> tokens = this.cache.getTokens(usernames);
+        Assert.assertEquals(USERS, tokens.size());
+        Assert.assertEquals(Arrays.asList("user0-phone", "user0-tablet"), tokens.get("user0"));
+        Assert.assertEquals(Collections.emptyList(), tokens.get("user1"));
+        Assert.assertEquals(1, this.loader.getLoads());
+
+        this.cache.getTokens(usernames);
+        Assert.assertEquals(1, this.loader.getLoads());
+    }
+
+    @Test
+    public void testInvalidateRoutesToShard() {
+        this.cache.getTokens(Arrays.asList("user0", "user1", "user2"));
+        // tokens without a user are skipped
+        this.cache.invalidate(Arrays.asList("user2", null));
+        this.cache.getTokens(Arrays.asList("user0", "user1", "user2"));
+        Assert.assertEquals(Collections.singleton("user2"), this.loader.getQueried(1));
+    }
+
+    @Test
+    public void testInvalidateAllShards() {
+        List<String> usernames = Arrays.asList("user0", "user1", "user2", "user3");
+        this.cache.getTokens(usernames);
+        this.cache.invalidateAll();
+        this.cache.getTokens(usernames);
+        Assert.assertEquals(new HashSet<>(usernames), this.loader.getQueried(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidShards() {
+        DeviceTokenConfig deviceTokenConfig = new DeviceTokenConfig();
+        deviceTokenConfig.setCacheShards(0);
+        new DeviceTokenCache(this.deviceTokenRepository, deviceTokenConfig);
+    }
+}
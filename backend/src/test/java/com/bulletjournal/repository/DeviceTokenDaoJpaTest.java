@@ -0,0 +1,176 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.DeviceTokenConfig;
+import com.bulletjournal.daemon.DeviceTokenSweeper;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Tests {@link DeviceTokenDaoJpa}, {@link DeviceTokenSweeper} and the dedup of V173
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class DeviceTokenDaoJpaTest {
+
+    private static final String USER = "DeviceTokenDaoJpaTest";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    private static final String V173 = "db/migration/V173__add_device_tokens_last_seen_at.sql";
+
+    @Autowired
+    private DeviceTokenDaoJpa deviceTokenDaoJpa;
+
+    @Autowired
+    private DeviceTokenConfig deviceTokenConfig;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setUp() {
+        try {
+            this.groupDaoJpa.getDefaultGroup(USER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(USER, TIMEZONE);
+        }
+        deleteTokens();
+    }
+
+    @After
+    public void tearDown() {
+        deleteTokens();
+    }
+
+    @Test
+    public void testFlushLastSeen() {
+        this.deviceTokenDaoJpa.create("flush", USER);
+        setLastSeen("flush", daysAgo(10));
+
+        this.deviceTokenDaoJpa.touch("flush");
+        // a rolled back flush keeps the token buffered
+        new TransactionTemplate(this.transactionManager).execute(status -> {
+            Assert.assertEquals(1, this.deviceTokenDaoJpa.flushLastSeen());
+            status.setRollbackOnly();
+            return null;
+        });
+        Assert.assertTrue(getLastSeen("flush").before(daysAgo(9)));
+
+        Assert.assertEquals(1, this.deviceTokenDaoJpa.flushLastSeen());
+        Assert.assertTrue(getLastSeen("flush").after(daysAgo(1)));
+        Assert.assertEquals(0, this.deviceTokenDaoJpa.flushLastSeen());
+    }
+
+    @Test
+    public void testDeleteStaleTokens() {
+        int retentionDays = this.deviceTokenConfig.getRetentionDays();
+        for (String token : Arrays.asList("stale1", "stale2", "fresh")) {
+            this.deviceTokenDaoJpa.create(token, USER);
+        }
+        setLastSeen("stale1", daysAgo(retentionDays + 1));
+        setLastSeen("stale2", daysAgo(retentionDays + 2));
+        Assert.assertEquals(3, this.deviceTokenDaoJpa.getTokensByUsers(Collections.singleton(USER)).get(USER).size());
+
+        Assert.assertEquals(1, this.deviceTokenDaoJpa.deleteStaleTokens(1));
+        Assert.assertEquals(1, this.deviceTokenDaoJpa.deleteStaleTokens(1));
+        Assert.assertEquals(0, this.deviceTokenDaoJpa.deleteStaleTokens(1));
+        Assert.assertEquals(Collections.singletonList("fresh"), getTokens());
+        Assert.assertEquals(Collections.singletonList("fresh"),
+                this.deviceTokenDaoJpa.getTokensByUsers(Collections.singleton(USER)).get(USER));
+    }
+
+    @Test
+    public void testSweepDeletesInBatches() {
+        int retentionDays = this.deviceTokenConfig.getRetentionDays();
+        for (int i = 0; i < 5; i++) {
+            this.deviceTokenDaoJpa.create("stale" + i, USER);
+            setLastSeen("stale" + i, daysAgo(retentionDays + 1));
+        }
+        this.deviceTokenDaoJpa.create("fresh", USER);
+
+        DeviceTokenConfig config = new DeviceTokenConfig();
+        config.setSweepBatchSize(2);
+        new DeviceTokenSweeper(this.deviceTokenDaoJpa, config).sweep();
+        Assert.assertEquals(Collections.singletonList("fresh"), getTokens());
+    }
+
+    @Test
+    public void testMigrationKeepsNewestRowPerToken() throws Exception {
+        String sql = StreamUtils.copyToString(new ClassPathResource(V173).getInputStream(), StandardCharsets.UTF_8)
+                .replace("public.device_tokens", "device_tokens_v172")
+                .replace("device_tokens_token_index", "device_tokens_v172_token_index");
+        List<String> statements = Arrays.stream(sql.split(";"))
+                .map(statement -> Arrays.stream(statement.split("\n"))
+                        .filter(line -> !line.trim().startsWith("--"))
+                        .collect(Collectors.joining("\n")).trim())
+                .collect(Collectors.toList());
+        String dedup = statements.stream().filter(s -> s.startsWith("DELETE")).findFirst().get();
+        String uniqueIndex = statements.stream().filter(s -> s.startsWith("CREATE UNIQUE INDEX")).findFirst().get();
+
+        // temp tables live on one connection, so everything runs in one transaction
+        List<Long> remaining = new TransactionTemplate(this.transactionManager).execute(status -> {
+            this.jdbcTemplate.execute("CREATE TEMP TABLE device_tokens_v172 (id bigint PRIMARY KEY, " +
+                    "token character varying(255), username character varying(255)) ON COMMIT DROP");
+            this.jdbcTemplate.execute("INSERT INTO device_tokens_v172 (id, token, username) VALUES " +
+                    "(100, 'a', 'u1'), (102, 'a', 'u2'), (104, 'b', 'u1'), (106, 'a', 'u3'), (108, NULL, 'u1')");
+            this.jdbcTemplate.execute(dedup);
+            this.jdbcTemplate.execute(uniqueIndex);
+            List<Long> ids = this.jdbcTemplate.queryForList(
+                    "SELECT id FROM device_tokens_v172 ORDER BY id", Long.class);
+            status.setRollbackOnly();
+            return ids;
+        });
+        Assert.assertEquals(Arrays.asList(104L, 106L), remaining);
+    }
+
+    private void deleteTokens() {
+        this.jdbcTemplate.update("DELETE FROM device_tokens WHERE username = ?", USER);
+    }
+
+    private List<String> getTokens() {
+        return this.jdbcTemplate.queryForList(
+                "SELECT token FROM device_tokens WHERE username = ? ORDER BY token", String.class, USER);
+    }
+
+    private void setLastSeen(String token, Timestamp lastSeenAt) {
+        this.jdbcTemplate.update("UPDATE device_tokens SET last_seen_at = ? WHERE token = ?", lastSeenAt, token);
+    }
+
+    private Timestamp getLastSeen(String token) {
+        return this.jdbcTemplate.queryForObject(
+                "SELECT last_seen_at FROM device_tokens WHERE token = ?", Timestamp.class, token);
+    }
+
+    private static Timestamp daysAgo(int days) {
+        return new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+    }
+}
@@ -0,0 +1,68 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.ProjectAccessConfig;
+import com.bulletjournal.notifications.Event;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link GroupMembersCache}
+ */
+public class GroupMembersCacheTest {
+
+    private final CountingLoader<Long, Object[]> loader = new CountingLoader<>(Long.class, groupId -> {
+        if (groupId == 1L) {
+            return Arrays.asList(new Object[]{1L, "a"}, new Object[]{1L, "b"});
+        }
+        if (groupId == 2L) {
+            return Collections.singletonList(new Object[]{2L, "c"});
+        }
+        return Collections.emptyList();
+    });
+
+    private GroupMembersCache cache;
+
+    @Before
+    public void setUp() {
+        UserGroupRepository userGroupRepository = mock(UserGroupRepository.class);
+        when(userGroupRepository.findAcceptedUsernames(Mockito.<Long>anyCollection())).thenAnswer(this.loader);
+        this.cache = new GroupMembersCache(userGroupRepository, new ProjectAccessConfig());
+    }
+
+    @Test
+    public void testOneQueryForMissingGroups() {
+        Map<Long, List<String>> members = this.cache.getAcceptedMembers(Arrays.asList(1L, 2L));
+        Assert.assertEquals(Arrays.asList("a", "b"), members.get(1L));
+        Assert.assertEquals(Collections.singletonList("c"), members.get(2L));
+
+        // a group without accepted members is cached as an empty list
+        members = this.cache.getAcceptedMembers(Arrays.asList(1L, 2L, 3L));
+        Assert.assertEquals(Collections.emptyList(), members.get(3L));
+        this.cache.getAcceptedMembers(3L);
+        Assert.assertEquals(2, this.loader.getLoads());
+        Assert.assertEquals(Collections.singleton(3L), this.loader.getQueried(1));
+    }
+
+    @Test
+    public void testInvalidateGroup() {
+        this.cache.getAcceptedMembers(Arrays.asList(1L, 2L));
+        this.cache.invalidate(1L);
+        this.cache.getAcceptedMembers(Arrays.asList(1L, 2L));
+        Assert.assertEquals(Collections.singleton(1L), this.loader.getQueried(1));
+    }
+
+    @Test
+    public void testGenerateEventsSkipsRequester() {
+        List<Event> events = this.cache.generateEvents(1L, "a", 10L, "task");
+        Assert.assertEquals(Collections.singletonList("b"),
+                events.stream().map(Event::getTargetUser).collect(Collectors.toList()));
+        Assert.assertEquals(Long.valueOf(10L), events.get(0).getContentId());
+    }
+}
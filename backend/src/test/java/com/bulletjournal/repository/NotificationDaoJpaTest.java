@@ -0,0 +1,131 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.NotificationConfig;
+import com.bulletjournal.controller.models.CursorPage;
+import com.bulletjournal.daemon.NotificationTrimmer;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.notifications.Action;
+import com.bulletjournal.repository.models.Notification;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests keyset paging of the inbox of {@link NotificationDaoJpa} and {@link NotificationTrimmer}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class NotificationDaoJpaTest {
+
+    private static final String USER = "NotificationDaoJpaTest";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    @Autowired
+    private NotificationDaoJpa notificationDaoJpa;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationTrimmer notificationTrimmer;
+
+    @Autowired
+    private NotificationConfig notificationConfig;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // inbox order: actionable first, then newest first, then by id
+    private List<Long> expectedInbox;
+
+    @Before
+    public void setUp() {
+        try {
+            this.groupDaoJpa.getDefaultGroup(USER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(USER, TIMEZONE);
+        }
+        this.notificationRepository.deleteByTargetUser(USER);
+
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Notification notification = new Notification(USER, "notification " + i, null, USER,
+                    "NotificationDaoJpaTest", null, null);
+            notification.setActions(i == 1 || i == 4
+                    ? Arrays.asList(Action.ACCEPT, Action.DECLINE) : Collections.emptyList());
+            notifications.add(this.notificationRepository.save(notification));
+        }
+        this.entityManager.flush();
+        // all in the same microsecond but the last one, ties fall back to the id
+        this.jdbcTemplate.update("UPDATE notifications "
+                + "SET updated_at = date_trunc('second', LOCALTIMESTAMP) + interval '123456 microseconds' "
+                + "WHERE target_user = ?", USER);
+        this.jdbcTemplate.update("UPDATE notifications SET updated_at = updated_at - interval '1 hour' "
+                + "WHERE id = ?", notifications.get(5).getId());
+        this.entityManager.clear();
+
+        this.expectedInbox = Arrays.asList(4, 1, 3, 2, 0, 5).stream()
+                .map(i -> notifications.get(i).getId()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testInboxPages() {
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<com.bulletjournal.controller.models.Notification> page =
+                    this.notificationDaoJpa.getInbox(USER, cursor, 2);
+            Assert.assertEquals(2, page.getItems().size());
+            pagedIds.addAll(page.getItems().stream()
+                    .map(com.bulletjournal.controller.models.Notification::getId).collect(Collectors.toList()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (!cursor.isEmpty());
+
+        Assert.assertEquals(3, pages);
+        Assert.assertEquals(this.expectedInbox, pagedIds);
+        Assert.assertEquals(this.expectedInbox, this.notificationDaoJpa.getNotifications(USER).stream()
+                .map(com.bulletjournal.controller.models.Notification::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testTrimKeepsTheFirstPageOfTheInbox() {
+        NotificationConfig.Cleaner cleaner = this.notificationConfig.getCleaner();
+        int maxCountPerUser = cleaner.getMaxCountPerUser();
+        cleaner.setMaxCountPerUser(3);
+        try {
+            this.notificationTrimmer.trim();
+        } finally {
+            cleaner.setMaxCountPerUser(maxCountPerUser);
+        }
+        this.entityManager.clear();
+
+        Assert.assertEquals(this.expectedInbox.subList(0, 3), this.notificationRepository.findInbox(USER, 10)
+                .stream().map(Notification::getId).collect(Collectors.toList()));
+    }
+}
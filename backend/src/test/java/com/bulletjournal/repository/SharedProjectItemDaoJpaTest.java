@@ -0,0 +1,144 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.CursorPage;
+import com.bulletjournal.controller.models.ProjectItem;
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.ReminderSetting;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.controller.models.params.CreateTaskParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Project;
+import com.bulletjournal.repository.models.Task;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests sharing, unsharing and paging shared items of {@link SharedProjectItemDaoJpa}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class SharedProjectItemDaoJpaTest {
+
+    private static final String OWNER = "SharedProjectItemOwner";
+
+    private static final String RECIPIENT1 = "SharedProjectItemRecipient1";
+
+    private static final String RECIPIENT2 = "SharedProjectItemRecipient2";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    @Autowired
+    private SharedProjectItemDaoJpa sharedProjectItemDaoJpa;
+
+    @Autowired
+    private SharedProjectItemRepository sharedProjectItemRepository;
+
+    @Autowired
+    private TaskDaoJpa taskDaoJpa;
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private List<Task> tasks = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (String username : Arrays.asList(OWNER, RECIPIENT1, RECIPIENT2)) {
+            try {
+                this.groupDaoJpa.getDefaultGroup(username);
+            } catch (ResourceNotFoundException e) {
+                this.userDaoJpa.create(username, TIMEZONE);
+            }
+        }
+        Project project = this.projectDaoJpa.create(new CreateProjectParams("Shared " + System.currentTimeMillis(),
+                        ProjectType.TODO, null, this.groupDaoJpa.getDefaultGroup(OWNER).getId()),
+                OWNER, new ArrayList<>());
+        for (int i = 0; i < 3; i++) {
+            this.tasks.add(this.taskDaoJpa.create(project.getId(), OWNER, new CreateTaskParams("shared task " + i,
+                    null, null, null, new ReminderSetting(), Collections.singletonList(OWNER), TIMEZONE, null)));
+        }
+    }
+
+    @Test
+    public void testShareAndUnshare() {
+        Task task = this.tasks.get(0);
+        // the owner is skipped and both recipients are inserted in one batch
+        Assert.assertEquals(2, this.sharedProjectItemDaoJpa.save(ProjectType.TODO, task,
+                Arrays.asList(RECIPIENT1, RECIPIENT2, OWNER), OWNER).getEvents().size());
+        // sharing again only adds missing recipients
+        Assert.assertEquals(0, this.sharedProjectItemDaoJpa.save(ProjectType.TODO, task,
+                Collections.singletonList(RECIPIENT1), OWNER).getEvents().size());
+        this.entityManager.flush();
+        Assert.assertEquals(new HashSet<>(Arrays.asList(RECIPIENT1, RECIPIENT2)),
+                this.sharedProjectItemDaoJpa.getProjectItemSharedUsers(task).stream()
+                        .map(item -> item.getUsername()).collect(Collectors.toSet()));
+        Assert.assertEquals(Collections.singletonList(task.getId()), getSharedTaskIds(RECIPIENT1));
+        Assert.assertEquals(Collections.singletonList(task.getId()), getSharedTaskIds(RECIPIENT2));
+
+        this.sharedProjectItemDaoJpa.deleteSharedProjectItemWithUser(task, RECIPIENT2);
+        this.entityManager.flush();
+        Assert.assertEquals(Collections.singletonList(task.getId()), getSharedTaskIds(RECIPIENT1));
+        Assert.assertEquals(Collections.emptyList(), getSharedTaskIds(RECIPIENT2));
+    }
+
+    @Test
+    public void testPagesAcrossSameCreatedAt() {
+        for (Task task : this.tasks) {
+            this.sharedProjectItemDaoJpa.save(ProjectType.TODO, task, Collections.singletonList(RECIPIENT1), OWNER);
+        }
+        this.entityManager.flush();
+        // all shares in the same microsecond, the cursor has to keep the microseconds and fall back to the id
+        this.jdbcTemplate.update("UPDATE shared_project_items "
+                + "SET created_at = date_trunc('second', LOCALTIMESTAMP) + interval '123456 microseconds' "
+                + "WHERE username = ?", RECIPIENT1);
+        this.entityManager.clear();
+
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ProjectItem> page = this.sharedProjectItemDaoJpa.getSharedProjectItems(RECIPIENT1, cursor, 1);
+            Assert.assertEquals(1, page.getItems().size());
+            pagedIds.addAll(page.getItems().stream().map(ProjectItem::getId).collect(Collectors.toList()));
+            cursor = page.getNextCursor();
+        } while (!cursor.isEmpty());
+
+        List<Long> newestFirst = this.tasks.stream().map(Task::getId).collect(Collectors.toList());
+        Collections.reverse(newestFirst);
+        Assert.assertEquals(newestFirst, pagedIds);
+    }
+
+    private List<Long> getSharedTaskIds(String username) {
+        return this.sharedProjectItemRepository.findItemIdsByUsername(username).stream()
+                .filter(row -> row[0] != null)
+                .map(row -> ((Number) row[0]).longValue())
+                .filter(id -> this.tasks.stream().anyMatch(task -> task.getId().equals(id)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.ProjectAccessConfig;
+import com.bulletjournal.contents.ContentType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link SharedProjectItemsCache}
+ */
+public class SharedProjectItemsCacheTest {
+
+    private final CountingLoader<String, Object[]> loader = new CountingLoader<>(String.class,
+            username -> !"a".equals(username) ? Collections.emptyList() : Arrays.asList(
+                    new Object[]{1L, null, null},
+                    new Object[]{2L, null, null},
+                    new Object[]{null, 3L, null},
+                    new Object[]{null, null, 4L}));
+
+    private SharedProjectItemsCache cache;
+
+    @Before
+    public void setUp() {
+        SharedProjectItemRepository sharedProjectItemRepository = mock(SharedProjectItemRepository.class);
+        when(sharedProjectItemRepository.findItemIdsByUsername(anyString())).thenAnswer(this.loader);
+        this.cache = new SharedProjectItemsCache(sharedProjectItemRepository, new ProjectAccessConfig());
+    }
+
+    @Test
+    public void testIdsByContentType() {
+        // one row per share, the id is in the column of its content type
+        Map<ContentType, Set<Long>> ids = this.cache.getSharedItemIds("a");
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), ids.get(ContentType.TASK));
+        Assert.assertEquals(Collections.singleton(3L), ids.get(ContentType.NOTE));
+        Assert.assertEquals(Collections.singleton(4L), ids.get(ContentType.TRANSACTION));
+        Assert.assertTrue(this.cache.getSharedItemIds("b").isEmpty());
+    }
+
+    @Test
+    public void testIsShared() {
+        Assert.assertTrue(this.cache.isShared("a", ContentType.TASK, 2L));
+        Assert.assertFalse(this.cache.isShared("a", ContentType.NOTE, 2L));
+        Assert.assertFalse(this.cache.isShared("a", ContentType.PROJECT, 2L));
+        Assert.assertFalse(this.cache.isShared("b", ContentType.TASK, 1L));
+        Assert.assertEquals(1, this.loader.getLoads("a"));
+    }
+
+    @Test
+    public void testInvalidateOnlyAffectedUsers() {
+        this.cache.getSharedItemIds("a");
+        this.cache.getSharedItemIds("b");
+        this.cache.invalidate(Collections.singleton("b"));
+        this.cache.getSharedItemIds("a");
+        this.cache.getSharedItemIds("b");
+        Assert.assertEquals(1, this.loader.getLoads("a"));
+        Assert.assertEquals(2, this.loader.getLoads("b"));
+    }
+}
@@ -0,0 +1,194 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Group;
+import com.bulletjournal.repository.models.Project;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests that the assignee queries of {@link TaskRepository} and {@link CompletedTaskRepository} use their indexes.
+ * <p>
+ * Each query is taken from its {@link Query} annotation, sequential scans are disabled so the plan shows
+ * whether the predicate can use an index at all.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class TaskAssigneeQueryPlanTest {
+
+    private static final String USER = "TaskAssigneeQueryPlanTest";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    private static final int TASKS = 5_000;
+
+    private static final int ASSIGNEES = 50;
+
+    private static final Pattern PARAMETER = Pattern.compile("(?<![:\\w]):(\\w+)");
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, String> params = new HashMap<>();
+
+    private String partition;
+
+    @Before
+    public void setUp() {
+        Group group;
+        try {
+            group = this.groupDaoJpa.getDefaultGroup(USER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(USER, TIMEZONE);
+            group = this.groupDaoJpa.getDefaultGroup(USER);
+        }
+        Project project = this.projectDaoJpa.create(new CreateProjectParams(
+                "Plan " + System.currentTimeMillis(), ProjectType.TODO, null, group.getId()),
+                USER, new ArrayList<>());
+        Long projectId = project.getId();
+        // the rows below are inserted over jdbc in the same transaction
+        this.entityManager.flush();
+
+        // completed tasks of the current month, so a single partition covers the range
+        Timestamp month = this.jdbcTemplate.queryForObject(
+                "SELECT date_trunc('month', LOCALTIMESTAMP)", Timestamp.class);
+        this.partition = this.jdbcTemplate.queryForObject(
+                "SELECT 'completed_tasks_' || to_char(date_trunc('month', LOCALTIMESTAMP), '\"y\"YYYY\"m\"MM')",
+                String.class);
+
+        this.jdbcTemplate.update("INSERT INTO tasks (id, created_at, updated_at, name, owner, assignees, "
+                        + "due_date, timezone, start_time, end_time, reminder_date_time, recurrence_rule, project_id) "
+                        + "SELECT nextval('task_sequence'), now(), now(), 'task ' || i, ?, "
+                        + "ARRAY['assignee' || i % ?], "
+                        + "to_char(CAST(? AS timestamp) + i * interval '1 hour', 'YYYY-MM-DD'), ?, "
+                        + "CAST(? AS timestamp) + i * interval '1 hour', "
+                        + "CAST(? AS timestamp) + (i + 1) * interval '1 hour', "
+                        + "CAST(? AS timestamp) + (i - 1) * interval '1 hour', "
+                        + "CASE WHEN i % 10 = 0 THEN 'DTSTART:20200101T000000Z RRULE:FREQ=DAILY' END, ? "
+                        + "FROM generate_series(1, ?) AS i",
+                USER, ASSIGNEES, month, TIMEZONE, month, month, month, projectId, TASKS);
+        this.jdbcTemplate.update("INSERT INTO completed_tasks (id, created_at, updated_at, name, owner, assignees, "
+                        + "timezone, project_id) "
+                        + "SELECT nextval('completed_task_sequence'), CAST(? AS timestamp) + i * interval '1 second', "
+                        + "CAST(? AS timestamp) + i * interval '1 second', 'task ' || i, ?, "
+                        + "ARRAY['assignee' || i % ?], ?, ? "
+                        + "FROM generate_series(1, ?) AS i",
+                month, month, USER, ASSIGNEES, TIMEZONE, projectId, TASKS);
+        this.jdbcTemplate.execute("ANALYZE tasks");
+        this.jdbcTemplate.execute("ANALYZE " + this.partition);
+        this.jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        Timestamp start = new Timestamp(month.getTime() + 1000L);
+        Timestamp end = new Timestamp(month.getTime() + 7 * 24 * 3600 * 1000L);
+        this.params.put("assignee", "'assignee1'");
+        this.params.put("project_id", String.valueOf(projectId));
+        this.params.put("projectId", String.valueOf(projectId));
+        this.params.put("projectIds", "(" + projectId + ")");
+        this.params.put("afterId", "0");
+        this.params.put("limit", "51");
+        this.params.put("start", timestamp(start));
+        this.params.put("startTime", timestamp(start));
+        this.params.put("end", timestamp(end));
+        this.params.put("endTime", timestamp(end));
+        this.params.put("now", timestamp(end));
+        this.params.put("beforeTime", timestamp(end));
+        this.params.put("beforeId", String.valueOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testTaskQueries() {
+        assertIndexScan(explain(TaskRepository.class, "findTasksByAssigneeAndProject"),
+                "tasks_assignees_project_id_index");
+        assertIndexScan(explain(TaskRepository.class, "findTasksByAssigneeAndProjectAfter"),
+                "tasks_assignees_project_id_index");
+        assertIndexScan(explain(TaskRepository.class, "findTasksByAssigneeAndRecurrenceRuleNotNull"),
+                "tasks_assignees_recurrence_rule_index");
+        assertIndexScan(explain(TaskRepository.class, "findTasksInProjectsByAssigneeAndRecurrenceRuleNotNull"),
+                "tasks_assignees_");
+        assertIndexScan(explain(TaskRepository.class, "findRemindingTasks"),
+                "tasks_assignees_");
+        assertIndexScan(explain(TaskRepository.class, "findTasksOfAssigneeBetween"),
+                "tasks_assignees_");
+        assertIndexScan(explain(TaskRepository.class, "findRemindingTasksBetween"),
+                "tasks_start_time_reminder_date_time_index");
+    }
+
+    @Test
+    public void testCompletedTaskQueries() {
+        String plan = explain(CompletedTaskRepository.class, "findCompletedTaskByAssigneeBetween");
+        assertIndexScan(plan, this.partition + "_assignees_project_id_created_at");
+        assertPruned(plan);
+
+        plan = explain(CompletedTaskRepository.class, "findCompletedTaskByAssigneeBetweenBefore");
+        assertIndexScan(plan, this.partition);
+        assertPruned(plan);
+
+        plan = explain(CompletedTaskRepository.class, "findCompletedTaskBetweenBefore");
+        assertIndexScan(plan, this.partition + "_project_id_created_at");
+        assertPruned(plan);
+    }
+
+    private String explain(Class<?> repository, String methodName) {
+        Method method = Arrays.stream(repository.getMethods())
+                .filter(m -> m.getName().equals(methodName)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(methodName));
+        Matcher matcher = PARAMETER.matcher(method.getAnnotation(Query.class).value());
+        StringBuffer sql = new StringBuffer();
+        while (matcher.find()) {
+            String value = this.params.get(matcher.group(1));
+            Assert.assertNotNull("No value for " + matcher.group(0) + " in " + methodName, value);
+            matcher.appendReplacement(sql, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(sql);
+        return String.join("\n", this.jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static String timestamp(Timestamp timestamp) {
+        return "CAST('" + timestamp + "' AS timestamp)";
+    }
+
+    private static void assertIndexScan(String plan, String index) {
+        Assert.assertFalse(plan, plan.contains("Seq Scan"));
+        Assert.assertTrue(plan, plan.contains(index));
+    }
+
+    private static void assertPruned(String plan) {
+        Assert.assertFalse(plan, plan.contains("completed_tasks_default"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Group;
+import com.bulletjournal.repository.models.Project;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks {@link TaskDaoJpa#completeInBatch} on 10k tasks with 5 contents each.
+ * <p>
+ * Opt-in: run with -Dbenchmark=true
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class TaskCompletionBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskCompletionBenchmark.class);
+
+    private static final String USER = "TaskCompletionBenchmark";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    private static final int TASKS = 10_000;
+
+    private static final int CONTENTS_PER_TASK = 5;
+
+    @Autowired
+    private TaskDaoJpa taskDaoJpa;
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long projectId;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        Group group;
+        try {
+            group = this.groupDaoJpa.getDefaultGroup(USER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(USER, TIMEZONE);
+            group = this.groupDaoJpa.getDefaultGroup(USER);
+        }
+        Project project = this.projectDaoJpa.create(new CreateProjectParams(
+                "Completion " + System.currentTimeMillis(), ProjectType.TODO, null, group.getId()),
+                USER, new ArrayList<>());
+        this.projectId = project.getId();
+
+        long start = System.currentTimeMillis();
+        this.jdbcTemplate.update("INSERT INTO tasks (id, created_at, updated_at, name, owner, assignees, "
+                        + "due_date, timezone, project_id) "
+                        + "SELECT nextval('task_sequence'), now(), now(), 'task ' || i, ?, ARRAY[?], "
+                        + "to_char(now() + i * interval '1 hour', 'YYYY-MM-DD'), ?, ? "
+                        + "FROM generate_series(1, ?) AS i",
+                USER, USER, TIMEZONE, this.projectId, TASKS);
+        // a few kilobytes of text and revisions per content
+        this.jdbcTemplate.update("INSERT INTO task_contents (id, created_at, updated_at, owner, text, "
+                        + "base_text, revisions, task_id) "
+                        + "SELECT nextval('task_content_sequence'), now(), now(), ?, repeat('text ', 400), "
+                        + "repeat('base ', 400), repeat('revision ', 400), t.id "
+                        + "FROM tasks t, generate_series(1, ?) AS c WHERE t.project_id = ?",
+                USER, CONTENTS_PER_TASK, this.projectId);
+        LOGGER.info("Seeded {} tasks with {} contents each in {} ms",
+                TASKS, CONTENTS_PER_TASK, System.currentTimeMillis() - start);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.projectId != null) {
+            this.projectDaoJpa.deleteProject(USER, this.projectId);
+        }
+    }
+
+    @Test
+    public void benchmarkCompleteInBatch() {
+        List<Long> taskIds = this.jdbcTemplate.queryForList(
+                "SELECT id FROM tasks WHERE project_id = ?", Long.class, this.projectId);
+        Assert.assertEquals(TASKS, taskIds.size());
+
+        long start = System.nanoTime();
+        Map<Long, Long> completedTaskIds = this.taskDaoJpa.completeInBatch(taskIds);
+        long elapsed = System.nanoTime() - start;
+
+        Assert.assertEquals(TASKS, completedTaskIds.size());
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks WHERE project_id = ?", Integer.class, this.projectId));
+        Assert.assertEquals(Integer.valueOf(TASKS * CONTENTS_PER_TASK), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_contents c JOIN completed_tasks t ON t.id = c.completed_task_id "
+                        + "WHERE t.project_id = ?", Integer.class, this.projectId));
+        LOGGER.info("Completed {} tasks with {} contents each in {} ms",
+                TASKS, CONTENTS_PER_TASK, elapsed / 1_000_000.0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.ReminderSetting;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.controller.models.params.CreateTaskParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.CompletedTask;
+import com.bulletjournal.repository.models.Project;
+import com.bulletjournal.repository.models.Task;
+import com.bulletjournal.repository.models.TaskContent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests that {@link TaskDaoJpa#completeInBatch} moves tasks and their contents to completed tasks and that
+ * {@link TaskDaoJpa#uncomplete} moves them back
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class TaskCompletionTest {
+
+    private static final String OWNER = "TaskCompletionOwner";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    @Autowired
+    private TaskDaoJpa taskDaoJpa;
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Project project;
+
+    @Before
+    public void setUp() {
+        try {
+            this.groupDaoJpa.getDefaultGroup(OWNER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(OWNER, TIMEZONE);
+        }
+        this.project = this.projectDaoJpa.create(new CreateProjectParams("Completion " + System.currentTimeMillis(),
+                        ProjectType.TODO, null, this.groupDaoJpa.getDefaultGroup(OWNER).getId()),
+                OWNER, new ArrayList<>());
+    }
+
+    @Test
+    public void testCompleteAndUncomplete() {
+        Task task1 = createTask("completed task 1");
+        Task task2 = createTask("completed task 2");
+        List<Long> contentIds = new ArrayList<>();
+        for (String text : Arrays.asList("first content", "second content")) {
+            contentIds.add(this.taskDaoJpa.addContent(task1.getId(), OWNER, new TaskContent(text))
+                    .getLeft().getId());
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        Map<Long, Long> completedTaskIds = this.taskDaoJpa.completeInBatch(Arrays.asList(task1.getId(), task2.getId()));
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Assert.assertEquals(new HashSet<>(Arrays.asList(task1.getId(), task2.getId())), completedTaskIds.keySet());
+        Long completedTaskId = completedTaskIds.get(task1.getId());
+
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks WHERE id IN (?, ?)", Integer.class, task1.getId(), task2.getId()));
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_contents WHERE task_id = ?", Integer.class, task1.getId()));
+        CompletedTask completedTask = this.taskDaoJpa.getCompletedTask(completedTaskId, OWNER);
+        Assert.assertEquals(task1.getName(), completedTask.getName());
+        Assert.assertEquals(this.project.getId(), completedTask.getProject().getId());
+        Assert.assertEquals("completed task 2",
+                this.taskDaoJpa.getCompletedTask(completedTaskIds.get(task2.getId()), OWNER).getName());
+
+        List<TaskContent> contents = this.taskDaoJpa.getCompletedTaskContents(completedTaskId, OWNER);
+        Assert.assertEquals(new HashSet<>(contentIds),
+                contents.stream().map(TaskContent::getId).collect(Collectors.toSet()));
+        // the contents keep their ids and with them their revisions
+        contents.forEach(content -> Assert.assertEquals(1, content.getRevisionHistory().size()));
+
+        Long taskId = this.taskDaoJpa.uncomplete(OWNER, completedTaskId).getLeft();
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM completed_tasks WHERE id = ?", Integer.class, completedTaskId));
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_contents WHERE completed_task_id = ?", Integer.class, completedTaskId));
+        Assert.assertEquals(task1.getName(), this.taskDaoJpa.getTask(OWNER, taskId).getName());
+        Assert.assertEquals(new HashSet<>(contentIds), this.taskDaoJpa.getContents(taskId, OWNER).stream()
+                .map(TaskContent::getId).collect(Collectors.toSet()));
+    }
+
+    private Task createTask(String name) {
+        return this.taskDaoJpa.create(this.project.getId(), OWNER, new CreateTaskParams(name,
+                null, null, null, new ReminderSetting(), Collections.singletonList(OWNER), TIMEZONE, null));
+    }
+}
@@ -0,0 +1,166 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Project;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Tests that the triggers of V167 keep task_stats_daily in sync with tasks and completed_tasks
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class TaskStatsDailyTest {
+
+    private static final String OWNER = "TaskStatsDailyOwner";
+
+    private static final String ASSIGNEE = "TaskStatsDailyAssignee";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    private static final String DAY = "2020-08-01";
+
+    private static final String OTHER_DAY = "2020-08-02";
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Project project1;
+
+    private Project project2;
+
+    @Before
+    public void setUp() {
+        try {
+            this.groupDaoJpa.getDefaultGroup(OWNER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(OWNER, TIMEZONE);
+        }
+        Long groupId = this.groupDaoJpa.getDefaultGroup(OWNER).getId();
+        this.project1 = this.projectDaoJpa.create(new CreateProjectParams("Stats1 " + System.currentTimeMillis(),
+                ProjectType.TODO, null, groupId), OWNER, new ArrayList<>());
+        this.project2 = this.projectDaoJpa.create(new CreateProjectParams("Stats2 " + System.currentTimeMillis(),
+                ProjectType.TODO, null, groupId), OWNER, new ArrayList<>());
+    }
+
+    @Test
+    public void testUncompletedTasks() {
+        Long taskId = insertTask(this.project1, DAY, OWNER, ASSIGNEE);
+        insertTask(this.project1, null);
+        // '' counts each task once, every assignee once per task
+        Assert.assertEquals(1, getUncompleted(this.project1, DAY, ""));
+        Assert.assertEquals(1, getUncompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(1, getUncompleted(this.project1, DAY, ASSIGNEE));
+        Assert.assertEquals(1, getUncompleted(this.project1, "infinity", ""));
+
+        this.jdbcTemplate.update("UPDATE tasks SET due_date = ?, assignees = ARRAY[?] WHERE id = ?",
+                OTHER_DAY, OWNER, taskId);
+        Assert.assertEquals(0, getUncompleted(this.project1, DAY, ""));
+        Assert.assertEquals(0, getUncompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(1, getUncompleted(this.project1, OTHER_DAY, ""));
+        Assert.assertEquals(1, getUncompleted(this.project1, OTHER_DAY, OWNER));
+        Assert.assertEquals(0, getUncompleted(this.project1, OTHER_DAY, ASSIGNEE));
+
+        // an update of other columns leaves the counts alone
+        this.jdbcTemplate.update("UPDATE tasks SET name = 'renamed' WHERE id = ?", taskId);
+        Assert.assertEquals(1, getUncompleted(this.project1, OTHER_DAY, ""));
+
+        this.jdbcTemplate.update("DELETE FROM tasks WHERE id = ?", taskId);
+        Assert.assertEquals(0, getUncompleted(this.project1, OTHER_DAY, ""));
+        Assert.assertEquals(0, getUncompleted(this.project1, OTHER_DAY, OWNER));
+        Assert.assertEquals(1, getUncompleted(this.project1, "infinity", ""));
+    }
+
+    @Test
+    public void testMoveBetweenProjects() {
+        Long taskId = insertTask(this.project1, DAY, OWNER);
+        Long completedTaskId = insertCompletedTask(this.project1, DAY + " 20:00:00", OWNER);
+        Assert.assertEquals(1, getUncompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(1, getCompleted(this.project1, DAY, OWNER));
+
+        this.jdbcTemplate.update("UPDATE tasks SET project_id = ? WHERE id = ?", this.project2.getId(), taskId);
+        this.jdbcTemplate.update("UPDATE completed_tasks SET project_id = ? WHERE id = ?",
+                this.project2.getId(), completedTaskId);
+        Assert.assertEquals(0, getUncompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(0, getCompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(1, getUncompleted(this.project2, DAY, OWNER));
+        Assert.assertEquals(1, getCompleted(this.project2, DAY, OWNER));
+        Assert.assertEquals(1, getUncompleted(this.project2, DAY, ""));
+        Assert.assertEquals(1, getCompleted(this.project2, DAY, ""));
+    }
+
+    @Test
+    public void testCompletedTasks() {
+        // completed on the evening of August 1st in Los Angeles, August 2nd in UTC
+        Long completedTaskId = insertCompletedTask(this.project1, OTHER_DAY + " 03:00:00", OWNER);
+        Assert.assertEquals(1, getCompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(0, getCompleted(this.project1, OTHER_DAY, OWNER));
+
+        this.jdbcTemplate.update("UPDATE completed_tasks SET timezone = 'UTC' WHERE id = ?", completedTaskId);
+        Assert.assertEquals(0, getCompleted(this.project1, DAY, OWNER));
+        Assert.assertEquals(1, getCompleted(this.project1, OTHER_DAY, OWNER));
+
+        this.jdbcTemplate.update("DELETE FROM completed_tasks WHERE id = ?", completedTaskId);
+        Assert.assertEquals(0, getCompleted(this.project1, OTHER_DAY, OWNER));
+        Assert.assertEquals(0, getCompleted(this.project1, OTHER_DAY, ""));
+    }
+
+    private Long insertTask(Project project, String dueDate, String... assignees) {
+        return this.jdbcTemplate.queryForObject("INSERT INTO tasks (id, created_at, updated_at, name, owner, "
+                        + "assignees, due_date, timezone, project_id) "
+                        + "VALUES (nextval('task_sequence'), now(), now(), 'stats task', ?, ?::text[], ?, ?, ?) "
+                        + "RETURNING id",
+                Long.class, OWNER, toArray(assignees), dueDate, TIMEZONE, project.getId());
+    }
+
+    private Long insertCompletedTask(Project project, String completedAt, String... assignees) {
+        return this.jdbcTemplate.queryForObject("INSERT INTO completed_tasks (id, created_at, updated_at, name, "
+                        + "owner, assignees, timezone, project_id) "
+                        + "VALUES (nextval('completed_task_sequence'), ?::timestamp, ?::timestamp, 'stats task', "
+                        + "?, ?::text[], ?, ?) RETURNING id",
+                Long.class, completedAt, completedAt, OWNER, toArray(assignees), TIMEZONE, project.getId());
+    }
+
+    private static String toArray(String... values) {
+        return "{" + String.join(",", values) + "}";
+    }
+
+    private int getUncompleted(Project project, String day, String assignee) {
+        return getCount("uncompleted", project, day, assignee);
+    }
+
+    private int getCompleted(Project project, String day, String assignee) {
+        return getCount("completed", project, day, assignee);
+    }
+
+    // a missing row and a row that went back to 0 are the same
+    private int getCount(String column, Project project, String day, String assignee) {
+        List<Integer> counts = this.jdbcTemplate.queryForList("SELECT " + column + " FROM task_stats_daily "
+                        + "WHERE project_id = ? AND stat_day = ?::date AND assignee = ?",
+                Integer.class, project.getId(), day, assignee);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+}
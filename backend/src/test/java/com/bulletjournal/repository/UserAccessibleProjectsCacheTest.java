@@ -0,0 +1,56 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.config.ProjectAccessConfig;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link UserAccessibleProjectsCache}
+ */
+public class UserAccessibleProjectsCacheTest {
+
+    private final CountingLoader<String, Long> loader = new CountingLoader<>(String.class,
+            username -> "owner".equals(username) ? Arrays.asList(1L, 2L) : Collections.emptyList());
+
+    private UserAccessibleProjectsCache cache;
+
+    @Before
+    public void setUp() {
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findAccessibleProjectIds(anyString())).thenAnswer(this.loader);
+        this.cache = new UserAccessibleProjectsCache(projectRepository, new ProjectAccessConfig());
+    }
+
+    @Test
+    public void testProjectIdsPerUser() {
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), this.cache.getProjectIds("owner"));
+        Assert.assertEquals(Collections.emptySet(), this.cache.getProjectIds("stranger"));
+        this.cache.getProjectIds("owner");
+        this.cache.getProjectIds("stranger");
+        Assert.assertEquals(2, this.loader.getLoads());
+    }
+
+    @Test
+    public void testInvalidateUsers() {
+        Arrays.asList("owner", "member", "stranger").forEach(this.cache::getProjectIds);
+
+        // a group change invalidates all of its members, a membership change only the member
+        this.cache.invalidate(Arrays.asList("owner", "member"));
+        Arrays.asList("owner", "member", "stranger").forEach(this.cache::getProjectIds);
+        Assert.assertEquals(2, this.loader.getLoads("owner"));
+        Assert.assertEquals(2, this.loader.getLoads("member"));
+        Assert.assertEquals(1, this.loader.getLoads("stranger"));
+
+        this.cache.invalidate("member");
+        Arrays.asList("owner", "member", "stranger").forEach(this.cache::getProjectIds);
+        Assert.assertEquals(2, this.loader.getLoads("owner"));
+        Assert.assertEquals(3, this.loader.getLoads("member"));
+    }
+}
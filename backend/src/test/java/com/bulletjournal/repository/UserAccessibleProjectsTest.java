@@ -0,0 +1,127 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.ProjectType;
+import com.bulletjournal.controller.models.params.AddUserGroupParams;
+import com.bulletjournal.controller.models.params.CreateProjectParams;
+import com.bulletjournal.controller.models.params.RemoveUserGroupParams;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import com.bulletjournal.repository.models.Group;
+import com.bulletjournal.repository.models.Project;
+import com.bulletjournal.repository.models.UserGroup;
+import com.bulletjournal.repository.models.UserGroupKey;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+
+/**
+ * Tests that the triggers of V171 keep user_accessible_projects in sync with user_groups and projects
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class UserAccessibleProjectsTest {
+
+    private static final String OWNER = "UserAccessibleProjectsOwner";
+
+    private static final String MEMBER = "UserAccessibleProjectsMember";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private ProjectDaoJpa projectDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void setUp() {
+        for (String username : Arrays.asList(OWNER, MEMBER)) {
+            try {
+                this.groupDaoJpa.getDefaultGroup(username);
+            } catch (ResourceNotFoundException e) {
+                this.userDaoJpa.create(username, TIMEZONE);
+            }
+        }
+    }
+
+    @Test
+    public void testJoinLeaveCreateAndDelete() {
+        Group group = this.groupDaoJpa.create("UserAccessibleProjectsTest", OWNER);
+        Project project1 = createProject("UserAccessibleProjectsTest1", group);
+        Assert.assertTrue(getProjectIds(OWNER).contains(project1.getId()));
+        Assert.assertFalse(getProjectIds(MEMBER).contains(project1.getId()));
+
+        // invited members do not see the group's projects until they accept
+        this.groupDaoJpa.addUserGroup(OWNER, new AddUserGroupParams(group.getId(), MEMBER));
+        Assert.assertFalse(getProjectIds(MEMBER).contains(project1.getId()));
+        UserGroup userGroup = this.userGroupRepository.findById(
+                new UserGroupKey(this.userDaoJpa.getByName(MEMBER).getId(), group.getId())).get();
+        userGroup.setAccepted(true);
+        this.userGroupRepository.save(userGroup);
+        Assert.assertTrue(getProjectIds(MEMBER).contains(project1.getId()));
+
+        Project project2 = createProject("UserAccessibleProjectsTest2", group);
+        Assert.assertTrue(getProjectIds(OWNER).containsAll(Arrays.asList(project1.getId(), project2.getId())));
+        Assert.assertTrue(getProjectIds(MEMBER).containsAll(Arrays.asList(project1.getId(), project2.getId())));
+
+        this.projectDaoJpa.deleteProject(OWNER, project1.getId());
+        Assert.assertFalse(getProjectIds(OWNER).contains(project1.getId()));
+        Assert.assertFalse(getProjectIds(MEMBER).contains(project1.getId()));
+
+        this.groupDaoJpa.removeUserGroups(MEMBER,
+                Collections.singletonList(new RemoveUserGroupParams(group.getId(), MEMBER)));
+        Assert.assertFalse(getProjectIds(MEMBER).contains(project2.getId()));
+        Assert.assertTrue(getProjectIds(OWNER).contains(project2.getId()));
+    }
+
+    @Test
+    public void testRefreshOfDeletedUser() {
+        Group group = this.groupDaoJpa.create("UserAccessibleProjectsTest", OWNER);
+        Project project = createProject("UserAccessibleProjectsTest1", group);
+        long deletedUserId = -1L;
+        this.jdbcTemplate.update(
+                "INSERT INTO user_accessible_projects (username, project_id, user_id) VALUES (?, ?, ?)",
+                "UserAccessibleProjectsDeleted", project.getId(), deletedUserId);
+
+        this.jdbcTemplate.queryForList("SELECT refresh_user_accessible_projects(?)", deletedUserId);
+        Assert.assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM user_accessible_projects WHERE user_id = ?", Integer.class, deletedUserId));
+        Assert.assertTrue(getProjectIds(OWNER).contains(project.getId()));
+    }
+
+    private Project createProject(String name, Group group) {
+        return this.projectDaoJpa.create(new CreateProjectParams(name, ProjectType.TODO, null, group.getId()),
+                OWNER, new ArrayList<>());
+    }
+
+    private Set<Long> getProjectIds(String username) {
+        // triggers run when hibernate writes the pending changes
+        this.entityManager.flush();
+        return new HashSet<>(this.jdbcTemplate.queryForList(
+                "SELECT project_id FROM user_accessible_projects WHERE username = ?", Long.class, username));
+    }
+}
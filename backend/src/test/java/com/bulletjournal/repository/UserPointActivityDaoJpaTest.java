@@ -0,0 +1,131 @@
+package com.bulletjournal.repository;
+
+import com.bulletjournal.controller.models.CursorPage;
+import com.bulletjournal.controller.models.UserPointActivity;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests {@link UserPointActivityDaoJpa}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserPointActivityDaoJpaTest {
+
+    private static final String USER = "UserPointActivityDaoJpaTest";
+
+    private static final String TIMEZONE = "America/Los_Angeles";
+
+    private static final int AWARDS = 50;
+
+    @Autowired
+    private UserPointActivityDaoJpa userPointActivityDaoJpa;
+
+    @Autowired
+    private GroupDaoJpa groupDaoJpa;
+
+    @Autowired
+    private UserDaoJpa userDaoJpa;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        try {
+            this.groupDaoJpa.getDefaultGroup(USER);
+        } catch (ResourceNotFoundException e) {
+            this.userDaoJpa.create(USER, TIMEZONE);
+        }
+    }
+
+    @Test
+    public void testConcurrentAwards() throws Exception {
+        int balance = this.userPointActivityDaoJpa.getBalance(USER);
+        int activities = countActivities();
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < AWARDS; i++) {
+                futures.add(executor.submit(() -> this.userPointActivityDaoJpa.create(USER, 1, "Award")));
+            }
+            Set<Integer> balances = new HashSet<>();
+            for (Future<Integer> future : futures) {
+                balances.add(future.get());
+            }
+            // every award sees its own balance
+            Assert.assertEquals(AWARDS, balances.size());
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(balance + AWARDS, (int) this.userPointActivityDaoJpa.getBalance(USER));
+        Assert.assertEquals(activities + AWARDS, countActivities());
+    }
+
+    @Test
+    public void testSetBalance() {
+        int balance = this.userPointActivityDaoJpa.getBalance(USER);
+        long lastId = getLastActivityId();
+        this.userPointActivityDaoJpa.setBalance(USER, balance + 7, "Set by admin");
+        // setting the same balance again records nothing
+        this.userPointActivityDaoJpa.setBalance(USER, balance + 7, "Set by admin");
+        Assert.assertEquals(balance + 7, (int) this.userPointActivityDaoJpa.getBalance(USER));
+        Assert.assertEquals(Collections.singletonList(7), this.jdbcTemplate.queryForList(
+                "SELECT point_change FROM user_point_activities WHERE username = ? AND id > ?",
+                Integer.class, USER, lastId));
+    }
+
+    @Test
+    public void testPages() {
+        for (int i = 0; i < 5; i++) {
+            this.userPointActivityDaoJpa.create(USER, 1, "Page " + i);
+        }
+        int total = countActivities();
+
+        Set<Long> ids = new HashSet<>();
+        String cursor = null;
+        long previous = Long.MAX_VALUE;
+        do {
+            CursorPage<UserPointActivity> page =
+                    this.userPointActivityDaoJpa.findPointActivityByUsername(USER, cursor, 2);
+            Assert.assertTrue(page.getItems().size() <= 2);
+            for (UserPointActivity activity : page.getItems()) {
+                Assert.assertTrue(ids.add(activity.getId()));
+                Assert.assertTrue(activity.getCreatedAt() <= previous);
+                previous = activity.getCreatedAt();
+            }
+            cursor = page.getNextCursor();
+        } while (!cursor.isEmpty());
+        Assert.assertEquals(total, ids.size());
+    }
+
+    private long getLastActivityId() {
+        return this.jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM user_point_activities WHERE username = ?", Long.class, USER);
+    }
+
+    private int countActivities() {
+        return this.jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_point_activities WHERE username = ?", Integer.class, USER);
+    }
+}
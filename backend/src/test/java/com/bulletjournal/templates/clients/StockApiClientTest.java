@@ -0,0 +1,119 @@
+package com.bulletjournal.templates.clients;
+
+import com.bulletjournal.templates.config.StockApiConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link StockApiClient}
+ */
+public class StockApiClientTest {
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+
+    private StockApiClient stockApiClient;
+
+    /**
+     * Local stub of the Polygon company endpoint: GOOG answers slowly, SLOW answers after the read timeout
+     * and anything else is not found
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/v1/meta/symbols/", exchange -> {
+            String symbol = exchange.getRequestURI().getPath().split("/")[4];
+            this.requests.computeIfAbsent(symbol, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                Thread.sleep("SLOW".equals(symbol) ? 2000 : 500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"symbol\":\"" + symbol + "\",\"sector\":\"Technology\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if ("GOOG".equals(symbol) || "SLOW".equals(symbol)) {
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        this.server.start();
+
+        StockApiConfig config = new StockApiConfig();
+        config.setBaseUrl("http://localhost:" + this.server.getAddress().getPort());
+        config.setReadTimeoutMillis(1000);
+        this.stockApiClient = new StockApiClient(config);
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneRequest() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        List<Future<LinkedHashMap>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executorService.submit(() -> this.stockApiClient.getCompany("GOOG")));
+        }
+        for (Future<LinkedHashMap> future : futures) {
+            Assert.assertEquals("Technology", future.get(5, TimeUnit.SECONDS).get("sector"));
+        }
+        executorService.shutdown();
+        Assert.assertEquals(1, this.requests.get("GOOG").get());
+    }
+
+    @Test
+    public void testFailuresAreCached() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                this.stockApiClient.getCompany("UNKNOWN");
+                Assert.fail();
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, this.requests.get("UNKNOWN").get());
+
+        this.stockApiClient.cacheFailure("GOOG");
+        try {
+            this.stockApiClient.getCompany("GOOG");
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertNull(this.requests.get("GOOG"));
+    }
+
+    @Test
+    public void testReadTimeout() {
+        long start = System.currentTimeMillis();
+        try {
+            this.stockApiClient.getCompany("SLOW");
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 1900);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bulletjournal.templates.redis;
+
+import com.bulletjournal.config.SampleTaskScrollConfig;
+import com.bulletjournal.exceptions.BadRequestException;
+import com.bulletjournal.exceptions.ResourceNotFoundException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link SampleTaskScrollStore}
+ */
+public class SampleTaskScrollStoreTest {
+
+    private final Map<String, List<String>> lists = new HashMap<>();
+
+    private StringRedisTemplate redisTemplate;
+
+    private final SampleTaskScrollConfig config = new SampleTaskScrollConfig();
+
+    private SampleTaskScrollStore store;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ListOperations<String, String> listOperations = mock(ListOperations.class);
+        when(listOperations.rightPushAll(anyString(), anyCollection())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            List<String> list = this.lists.computeIfAbsent((String) args[0], k -> new ArrayList<>());
+            list.addAll((Collection<String>) args[1]);
+            return (long) list.size();
+        });
+        when(listOperations.range(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            List<String> list = this.lists.getOrDefault((String) args[0], Collections.emptyList());
+            int start = (int) Math.min((long) args[1], list.size());
+            long end = (long) args[2];
+            int stop = end < 0 ? list.size() : (int) Math.min(end + 1, list.size());
+            return new ArrayList<>(list.subList(start, stop));
+        });
+        this.redisTemplate = mock(StringRedisTemplate.class);
+        when(this.redisTemplate.opsForList()).thenReturn(listOperations);
+        when(this.redisTemplate.delete(anyString())).thenAnswer(
+                invocation -> this.lists.remove((String) invocation.getArguments()[0]) != null);
+        this.store = new SampleTaskScrollStore(this.redisTemplate, this.config);
+    }
+
+    @Test
+    public void testPaging() {
+        List<Long> ids = LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toList());
+        String scrollId = this.store.create(ids, 10);
+        Assert.assertEquals(1, this.lists.size());
+
+        SampleTaskScrollStore.Page page = this.store.getPage(scrollId, 10);
+        Assert.assertEquals(ids.subList(10, 20), page.getSampleTaskIds());
+        Assert.assertNotEquals("", page.getNextScrollId());
+
+        page = this.store.getPage(page.getNextScrollId(), 10);
+        Assert.assertEquals(ids.subList(20, 25), page.getSampleTaskIds());
+        Assert.assertEquals("", page.getNextScrollId());
+        // the list is written once and dropped after the last page
+        Assert.assertTrue(this.lists.isEmpty());
+        verify(this.redisTemplate, times(2)).expire(anyString(), eq(60000L),
+                eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNothingAfterFirstPage() {
+        Assert.assertEquals("", this.store.create(Arrays.asList(1L, 2L), 10));
+        Assert.assertTrue(this.lists.isEmpty());
+        Assert.assertTrue(this.store.getPage("", 10).getSampleTaskIds().isEmpty());
+    }
+
+    @Test
+    public void testInvalidScrollId() {
+        for (String scrollId : Arrays.asList("not-a-scroll-id", "list_-1", "list_99999999999")) {
+            try {
+                this.store.getPage(scrollId, 10);
+                Assert.fail(scrollId);
+            } catch (BadRequestException e) {
+            }
+            try {
+                this.store.remove(scrollId);
+                Assert.fail(scrollId);
+            } catch (BadRequestException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testExpiredScroll() {
+        List<Long> ids = LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toList());
+        String scrollId = this.store.create(ids, 10);
+        // what redis leaves after the ttl
+        this.lists.clear();
+        try {
+            this.store.getPage(scrollId, 10);
+            Assert.fail();
+        } catch (ResourceNotFoundException e) {
+        }
+        try {
+            this.store.remove(scrollId);
+            Assert.fail();
+        } catch (ResourceNotFoundException e) {
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        List<Long> ids = LongStream.rangeClosed(1, 30).boxed().collect(Collectors.toList());
+        SampleTaskScrollStore.Page page = this.store.getPage(this.store.create(ids, 10), 10);
+        Assert.assertEquals(ids.subList(20, 30), this.store.remove(page.getNextScrollId()));
+        Assert.assertTrue(this.lists.isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package com.bulletjournal.templates.repository;
+
+import com.bulletjournal.controller.utils.EtagGenerator;
+import com.bulletjournal.templates.repository.model.CategoriesHierarchy;
+import com.bulletjournal.templates.repository.model.Category;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link CategoryTreeCache}
+ */
+public class CategoryTreeCacheTest {
+
+    private static final int READERS = 8;
+
+    private static final int EDITS = 200;
+
+    private final AtomicInteger committedEdits = new AtomicInteger();
+
+    private final AtomicInteger assembled = new AtomicInteger();
+
+    private volatile List<Category> categories = Collections.singletonList(category(0));
+
+    private CategoryTreeCache categoryTreeCache;
+
+    @Before
+    public void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenAnswer(invocation -> {
+            this.assembled.incrementAndGet();
+            return new ArrayList<>(this.categories);
+        });
+        CategoriesHierarchyRepository hierarchyRepository = mock(CategoriesHierarchyRepository.class);
+        when(hierarchyRepository.getCategoriesHierarchy()).thenReturn(new CategoriesHierarchy("[]"));
+        this.categoryTreeCache = new CategoryTreeCache(categoryRepository, hierarchyRepository,
+                new ObjectMapper(), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    public void testCachedUntilInvalidated() {
+        CategoryTreeCache.Snapshot snapshot = this.categoryTreeCache.get();
+        Assert.assertSame(snapshot, this.categoryTreeCache.get());
+        Assert.assertEquals("category0", snapshot.getCategories().get(0).getName());
+        // callers get their own copy
+        snapshot.getCategories().get(0).setName("changed");
+        Assert.assertEquals("category0", snapshot.getCategories().get(0).getName());
+
+        this.categories = Collections.singletonList(category(1));
+        this.categoryTreeCache.invalidate();
+        CategoryTreeCache.Snapshot next = this.categoryTreeCache.get();
+        Assert.assertTrue(next.getVersion() > snapshot.getVersion());
+        Assert.assertNotEquals(snapshot.getEtag(), next.getEtag());
+        Assert.assertEquals("category1", next.getCategories().get(0).getName());
+        Assert.assertEquals(2, this.assembled.get());
+    }
+
+    /**
+     * Readers racing admin edits never see a tree older than the last committed edit
+     */
+    @Test
+    public void testConcurrentReadsAndEdits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        AtomicBoolean editing = new AtomicBoolean(true);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                int reads = 0;
+                long lastVersion = -1;
+                while (editing.get()) {
+                    int committed = this.committedEdits.get();
+                    CategoryTreeCache.Snapshot snapshot = this.categoryTreeCache.get();
+                    int seen = Integer.parseInt(
+                            snapshot.getCategories().get(0).getName().substring("category".length()));
+                    Assert.assertTrue(seen + " < " + committed, seen >= committed);
+                    Assert.assertTrue(snapshot.getVersion() >= lastVersion);
+                    Assert.assertEquals(EtagGenerator.generateEtag(EtagGenerator.HashAlgorithm.MD5,
+                            EtagGenerator.HashType.TO_STRING, snapshot.getJson()), snapshot.getEtag());
+                    lastVersion = snapshot.getVersion();
+                    reads++;
+                }
+                return reads;
+            }));
+        }
+        Future<?> editor = executor.submit(() -> {
+            for (int i = 1; i <= EDITS; i++) {
+                this.categories = Collections.singletonList(category(i));
+                // what the after commit hook of an admin edit does
+                this.categoryTreeCache.invalidate();
+                this.committedEdits.set(i);
+                Thread.yield();
+            }
+        });
+        editor.get(30, TimeUnit.SECONDS);
+        editing.set(false);
+        int reads = 0;
+        for (Future<Integer> reader : readers) {
+            reads += reader.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assert.assertEquals("category" + EDITS,
+                this.categoryTreeCache.get().getCategories().get(0).getName());
+        // at most one assembly per version
+        Assert.assertTrue(this.assembled.get() <= EDITS + 1);
+        Assert.assertTrue(reads > 0);
+    }
+
+    private static Category category(int edit) {
+        Category category = new Category("category" + edit, "description", "icon", "color",
+                null, null, null, false);
+        category.setId(1L);
+        return category;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bulletjournal.templates.repository;
+
+import com.bulletjournal.templates.repository.model.SampleTaskMetadataKeyword;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link SampleTaskMetadataKeywordDaoJpa}
+ */
+public class SampleTaskMetadataKeywordDaoJpaTest {
+
+    @Test
+    public void testGetSampleTaskIds() {
+        SampleTaskMetadataKeywordRepository repository = mock(SampleTaskMetadataKeywordRepository.class);
+        when(repository.findAll()).thenReturn(Arrays.asList(
+                new SampleTaskMetadataKeyword("LEETCODE_ALGORITHM", 1L),
+                new SampleTaskMetadataKeyword("Medium", 1L),
+                new SampleTaskMetadataKeyword("Uberfrequencytimeperiod#", 1L),
+                new SampleTaskMetadataKeyword("LEETCODE_ALGORITHM", 2L),
+                new SampleTaskMetadataKeyword("Hard", 2L),
+                new SampleTaskMetadataKeyword("INVESTMENT_IPO_RECORD", 3L)));
+        SampleTaskMetadataKeywordDaoJpa dao = new SampleTaskMetadataKeywordDaoJpa(repository);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), dao.getSampleTaskIds("LEETCODE"));
+        Assert.assertEquals(Collections.singleton(1L), dao.getSampleTaskIds("Uber"));
+        Assert.assertEquals(Collections.singleton(2L), dao.getSampleTaskIds("LEETCODE_ALGORITHM, Hard"));
+        Assert.assertTrue(dao.getSampleTaskIds("Easy").isEmpty());
+        // served from the cache until invalidated
+        verify(repository, times(1)).findAll();
+
+        dao.invalidate();
+        Assert.assertEquals(Collections.singleton(3L), dao.getSampleTaskIds("IPO"));
+        verify(repository, times(2)).findAll();
+    }
+}
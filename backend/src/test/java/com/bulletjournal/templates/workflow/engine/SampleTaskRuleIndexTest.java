@@ -0,0 +1,186 @@
+package com.bulletjournal.templates.workflow.engine;
+
+import com.bulletjournal.templates.repository.model.SampleTaskRule;
+import com.bulletjournal.templates.repository.model.Step;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests {@link SampleTaskRuleIndex}
+ */
+public class SampleTaskRuleIndexTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleTaskRuleIndexTest.class);
+
+    private static final long STEP_ID = 1L;
+
+    private static final int CHOICES = 12;
+
+    private static final int SELECTIONS_PER_CHOICE = 15;
+
+    private static final int SAMPLE_TASKS = 5000;
+
+    private static final int TASKS_PER_RULE = 300;
+
+    private static final int COMBO_RULES = 60;
+
+    private static final int REQUESTS = 2000;
+
+    @Test
+    public void testGetSampleTasks() {
+        Step step = new Step("final");
+        step.setId(STEP_ID);
+        List<SampleTaskRule> rules = Arrays.asList(
+                new SampleTaskRule(step, "1", "10,11,12"),
+                new SampleTaskRule(step, "2", "12,13"),
+                new SampleTaskRule(step, "3", "11,12,14,99"),
+                new SampleTaskRule(step, "1,4", "20,21"));
+        // selection -> choice
+        Map<Long, Long> choices = new HashMap<>();
+        choices.put(1L, 100L);
+        choices.put(2L, 100L);
+        choices.put(3L, 200L);
+        choices.put(4L, 300L);
+        Set<Long> sampleTaskIds = new HashSet<>(Arrays.asList(10L, 11L, 12L, 13L, 14L, 20L, 21L));
+        SampleTaskRuleIndex.Index index = SampleTaskRuleIndex.Index.compile(rules, choices, sampleTaskIds);
+
+        // union within choice 100, intersected with choice 200
+        Assert.assertEquals(new HashSet<>(Arrays.asList(11L, 12L)),
+                index.getSampleTasks(STEP_ID, Arrays.asList(1L, 2L), Collections.singletonList(3L)));
+        // 99 is not a sample task anymore
+        Assert.assertEquals(new HashSet<>(Arrays.asList(11L, 12L, 14L)),
+                index.getSampleTasks(STEP_ID, Collections.singletonList(3L), Collections.emptyList()));
+        // combo of choices 100 and 300 replaces both
+        Assert.assertEquals(new HashSet<>(Arrays.asList(20L, 21L)),
+                index.getSampleTasks(STEP_ID, Arrays.asList(1L, 4L), Collections.emptyList()));
+        Assert.assertTrue(index.getSampleTasks(2L, Arrays.asList(1L, 2L), Collections.emptyList()).isEmpty());
+    }
+
+    /**
+     * Compares the index with the previous set based computation on rules of realistic size
+     */
+    @Test
+    public void testMatchesSetBasedComputation() {
+        Random random = new Random(42);
+        Step step = new Step("final");
+        step.setId(STEP_ID);
+        Map<Long, Long> choices = new HashMap<>();
+        List<SampleTaskRule> rules = new ArrayList<>();
+        for (long c = 0; c < CHOICES; c++) {
+            for (long s = 0; s < SELECTIONS_PER_CHOICE; s++) {
+                long selectionId = c * SELECTIONS_PER_CHOICE + s;
+                choices.put(selectionId, c);
+                rules.add(new SampleTaskRule(step, Long.toString(selectionId), randomTasks(random)));
+            }
+        }
+        Set<String> combos = new HashSet<>();
+        for (int i = 0; i < COMBO_RULES; i++) {
+            long a = random.nextInt(choices.size());
+            long b = random.nextInt(choices.size());
+            String combo = Math.min(a, b) + "," + Math.max(a, b);
+            if (a != b && combos.add(combo)) {
+                rules.add(new SampleTaskRule(step, combo, randomTasks(random)));
+            }
+        }
+        Set<Long> sampleTaskIds = new HashSet<>();
+        for (long i = 0; i < SAMPLE_TASKS; i++) {
+            sampleTaskIds.add(i);
+        }
+        SampleTaskRuleIndex.Index index = SampleTaskRuleIndex.Index.compile(rules, choices, sampleTaskIds);
+
+        List<List<Long>> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            List<Long> selections = new ArrayList<>();
+            for (long c = 0; c < CHOICES; c++) {
+                if (random.nextBoolean()) {
+                    selections.add(c * SELECTIONS_PER_CHOICE + random.nextInt(SELECTIONS_PER_CHOICE));
+                }
+            }
+            requests.add(selections);
+        }
+
+        long start = System.nanoTime();
+        List<Set<Long>> expected = requests.stream()
+                .map(r -> getSampleTasksWithSets(rules, choices, r)).collect(Collectors.toList());
+        long setNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<Set<Long>> actual = requests.stream()
+                .map(r -> index.getSampleTasks(STEP_ID, r, Collections.emptyList())).collect(Collectors.toList());
+        long indexNanos = System.nanoTime() - start;
+        LOGGER.info("{} requests: sets {} us/request, index {} us/request", REQUESTS,
+                setNanos / 1000 / REQUESTS, indexNanos / 1000 / REQUESTS);
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static String randomTasks(Random random) {
+        List<Long> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS_PER_RULE; i++) {
+            tasks.add((long) random.nextInt(SAMPLE_TASKS));
+        }
+        return StringUtils.join(tasks.stream().distinct().sorted().collect(Collectors.toList()), ",");
+    }
+
+    /**
+     * The set based computation the index replaced
+     */
+    private static Set<Long> getSampleTasksWithSets(List<SampleTaskRule> allRules, Map<Long, Long> choiceBySelection,
+                                                    List<Long> selections) {
+        Set<Long> allSelectionIds = new HashSet<>(selections);
+        List<SampleTaskRule> rules = allRules.stream().filter(rule -> rule
+                .getSelectionIds().stream().allMatch(allSelectionIds::contains))
+                .collect(Collectors.toList());
+
+        Set<Long> applicableChoices = new HashSet<>();
+        rules.forEach(rule -> rule.getSelectionIds().forEach(s -> applicableChoices.add(choiceBySelection.get(s))));
+
+        Map<Long, List<Long>> allChoices = new HashMap<>();
+        allSelectionIds.forEach(s -> {
+            Long choiceId = choiceBySelection.get(s);
+            if (applicableChoices.contains(choiceId)) {
+                allChoices.computeIfAbsent(choiceId, k -> new ArrayList<>()).add(s);
+            }
+        });
+        Map<String, SampleTaskRule> ruleMap = rules.stream()
+                .collect(Collectors.toMap(SampleTaskRule::getSelectionCombo, r -> r));
+
+        Set<Long> result = new HashSet<>();
+        boolean firstTime = true;
+        for (SampleTaskRule rule : rules) {
+            if (rule.getSelectionIds().size() < 2) {
+                continue;
+            }
+            Set<Long> choiceIds = new HashSet<>();
+            rule.getSelectionIds().forEach(s -> choiceIds.add(choiceBySelection.get(s)));
+            if (choiceIds.size() < 2) {
+                continue;
+            }
+            result.addAll(rule.getSampleTaskIds());
+            firstTime = false;
+            choiceIds.forEach(allChoices::remove);
+        }
+
+        for (List<Long> selected : allChoices.values()) {
+            Set<Long> tmpResult = new HashSet<>();
+            for (Long selection : selected) {
+                SampleTaskRule r = ruleMap.remove(Long.toString(selection));
+                if (r != null) {
+                    tmpResult.addAll(r.getSampleTaskIds());
+                }
+            }
+            if (firstTime) {
+                result.addAll(tmpResult);
+                firstTime = false;
+            } else {
+                result.retainAll(tmpResult);
+            }
+        }
+        return result;
+    }
+}
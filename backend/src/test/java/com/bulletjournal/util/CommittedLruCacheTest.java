@@ -0,0 +1,123 @@
+package com.bulletjournal.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tests {@link CommittedLruCache}
+ */
+public class CommittedLruCacheTest {
+
+    private final CommittedLruCache<String, String> cache = new CommittedLruCache<>(10, 60_000);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, String> loader = key -> key + this.loads.incrementAndGet();
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testInvalidatedRightAwayOutsideOfTransaction() {
+        Assert.assertEquals("k1", this.cache.get("k", this.loader));
+        Assert.assertEquals("k1", this.cache.get("k", this.loader));
+
+        long version = this.cache.version();
+        this.cache.invalidate(Collections.singleton("k"));
+        Assert.assertTrue(this.cache.version() > version);
+        Assert.assertEquals("k2", this.cache.get("k", this.loader));
+    }
+
+    @Test
+    public void testInvalidatedAfterCommit() {
+        this.cache.get("k", this.loader);
+        long version = this.cache.version();
+        TransactionSynchronizationManager.initSynchronization();
+        this.cache.invalidate(Collections.singleton("k"));
+        // other readers keep the committed value until the writer commits
+        Assert.assertEquals("k1", this.cache.get("k", this.loader));
+        Assert.assertEquals(version, this.cache.version());
+
+        commit();
+        Assert.assertTrue(this.cache.version() > version);
+        Assert.assertNull(this.cache.getIfPresent("k"));
+        Assert.assertEquals("k2", this.cache.get("k", this.loader));
+    }
+
+    @Test
+    public void testKeptOnRollback() {
+        this.cache.get("k", this.loader);
+        TransactionSynchronizationManager.initSynchronization();
+        this.cache.invalidate(Collections.singleton("k"));
+        TransactionSynchronizationManager.clearSynchronization();
+        Assert.assertEquals("k1", this.cache.getIfPresent("k"));
+    }
+
+    @Test
+    public void testLoadRacingInvalidationIsNotCached() {
+        // the invalidation commits while the load still reads the old rows
+        String stale = this.cache.get("k", key -> {
+            this.cache.invalidate(Collections.singleton(key));
+            return this.loader.apply(key);
+        });
+        Assert.assertEquals("k1", stale);
+        Assert.assertNull(this.cache.getIfPresent("k"));
+        Assert.assertEquals("k2", this.cache.get("k", this.loader));
+        Assert.assertEquals("k2", this.cache.get("k", this.loader));
+    }
+
+    @Test
+    public void testBatchLoadRacingInvalidationIsNotCached() {
+        this.cache.get("a", this.loader);
+        Map<String, String> values = this.cache.getAll(Arrays.asList("a", "b", "c"), missing -> {
+            Assert.assertEquals(new HashSet<>(Arrays.asList("b", "c")), missing);
+            this.cache.invalidate(Collections.singleton("c"));
+            Map<String, String> loaded = new HashMap<>();
+            missing.forEach(key -> loaded.put(key, this.loader.apply(key)));
+            return loaded;
+        });
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals("a1", this.cache.getIfPresent("a"));
+        Assert.assertNull(this.cache.getIfPresent("b"));
+        Assert.assertNull(this.cache.getIfPresent("c"));
+    }
+
+    @Test
+    public void testPutIfUnchanged() {
+        long version = this.cache.version();
+        this.cache.putIfUnchanged("a", "a1", version);
+        Assert.assertEquals("a1", this.cache.getIfPresent("a"));
+
+        this.cache.invalidate(Collections.singleton("other"));
+        this.cache.putIfUnchanged("b", "b1", version);
+        Assert.assertNull(this.cache.getIfPresent("b"));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        this.cache.get("a", this.loader);
+        this.cache.get("b", this.loader);
+        long version = this.cache.version();
+        this.cache.invalidateAll();
+        Assert.assertTrue(this.cache.version() > version);
+        Assert.assertNull(this.cache.getIfPresent("a"));
+        Assert.assertNull(this.cache.getIfPresent("b"));
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bulletjournal.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link DeltaHtmlConverter}
+ */
+public class DeltaHtmlConverterTest {
+
+    @Test
+    public void testParagraphsAndInlineFormats() {
+        String ops = "[{\"insert\":\"Hello \"},{\"insert\":\"world\",\"attributes\":{\"bold\":true,\"italic\":true}},"
+                + "{\"insert\":\"\\n\\n<script>\\n\"}]";
+        Assert.assertEquals("<p>Hello <strong><em>world</em></strong></p><p><br></p><p>&lt;script&gt;</p>",
+                DeltaHtmlConverter.toHtml(ops));
+    }
+
+    @Test
+    public void testBlocks() {
+        String ops = "[{\"insert\":\"Title\"},{\"insert\":\"\\n\",\"attributes\":{\"header\":2}},"
+                + "{\"insert\":\"a\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"bullet\"}},"
+                + "{\"insert\":\"b\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"bullet\"}},"
+                + "{\"insert\":\"c\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"ordered\"}},"
+                + "{\"insert\":\"link\",\"attributes\":{\"link\":\"https://bulletjournal.us\"}},"
+                + "{\"insert\":{\"image\":\"https://bulletjournal.us/a.png\"}},{\"insert\":\"\\n\"}]";
+        Assert.assertEquals("<h2>Title</h2><ul><li>a</li><li>b</li></ul><ol><li>c</li></ol>"
+                        + "<p><a href=\"https://bulletjournal.us\" target=\"_blank\">link</a>"
+                        + "<img src=\"https://bulletjournal.us/a.png\"></p>",
+                DeltaHtmlConverter.toHtml(ops));
+    }
+}
@@ -0,0 +1,38 @@
+package com.bulletjournal.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link ExpiringLruCache}
+ */
+public class ExpiringLruCacheTest {
+
+    @Test
+    public void testExpiration() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 1000);
+        cache.setCurrentTime(0L);
+        cache.put("k", "v");
+        Assert.assertEquals("v", cache.get("k"));
+
+        cache.setCurrentTime(999L);
+        Assert.assertEquals("v", cache.get("k"));
+
+        cache.setCurrentTime(1000L);
+        Assert.assertNull(cache.get("k"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ExpiringLruCache<Integer, Integer> cache = new ExpiringLruCache<>(2, 1000);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.get(1);
+        cache.put(3, 3);
+
+        Assert.assertEquals(Integer.valueOf(1), cache.get(1));
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals(Integer.valueOf(3), cache.get(3));
+    }
+}
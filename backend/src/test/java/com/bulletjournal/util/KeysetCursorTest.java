@@ -0,0 +1,51 @@
+package com.bulletjournal.util;
+
+import com.bulletjournal.exceptions.BadRequestException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+/**
+ * Tests {@link KeysetCursor}
+ */
+public class KeysetCursorTest {
+
+    @Test
+    public void testKeepsMicroseconds() {
+        Timestamp time = Timestamp.valueOf("2020-08-01 10:20:30.123456");
+        String cursor = KeysetCursor.format(time, 42L);
+        Assert.assertEquals(KeysetCursor.toMicros(time) + "_42", cursor);
+        Assert.assertEquals(123456, KeysetCursor.toMicros(time) % 1_000_000);
+
+        KeysetCursor position = KeysetCursor.parse(cursor, 2);
+        Assert.assertEquals(time, position.getTime(0));
+        Assert.assertEquals(123456000, position.getTime(0).getNanos());
+        Assert.assertEquals(42L, position.getKey(1));
+    }
+
+    @Test
+    public void testFirstPage() {
+        Assert.assertNull(KeysetCursor.parse(null, 2));
+        Assert.assertNull(KeysetCursor.parse(" ", 2));
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        for (String cursor : Arrays.asList("1", "1_2_3", "a_1", "1_-1", "99999999999999999999_1")) {
+            try {
+                KeysetCursor.parse(cursor, 2);
+                Assert.fail(cursor);
+            } catch (BadRequestException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testClampPageSize() {
+        Assert.assertEquals(1, KeysetCursor.clampPageSize(0));
+        Assert.assertEquals(50, KeysetCursor.clampPageSize(50));
+        Assert.assertEquals(KeysetCursor.MAX_PAGE_SIZE, KeysetCursor.clampPageSize(Integer.MAX_VALUE));
+    }
+}
@@ -330,3 +330,22 @@ func (s *SubscribeRpcServer) ConvertDeltaToHtml(ctx context.Context, request *ty
 	}
 	return &res, err
 }
+
+func (s *SubscribeRpcServer) ConvertDeltasToHtml(ctx context.Context, request *types.ConvertDeltasToHtmlRequest) (*types.ConvertDeltasToHtmlResponse, error) {
+	responses := make([]*types.ConvertJsonObjectsToHtmlResponse, len(request.Requests))
+	for i, r := range request.Requests {
+		html, err := quill.Render([]byte(r.DeltaString))
+		if err != nil {
+			// leave html_output empty so that the caller falls back for this delta only
+			logger.Error(err.Error())
+			responses[i] = &types.ConvertJsonObjectsToHtmlResponse{}
+			continue
+		}
+		responses[i] = &types.ConvertJsonObjectsToHtmlResponse{
+			HtmlOutput: string(html),
+		}
+	}
+	return &types.ConvertDeltasToHtmlResponse{
+		Responses: responses,
+	}, nil
+}
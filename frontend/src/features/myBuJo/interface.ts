@@ -25,6 +25,11 @@ export interface ProjectItem {
   shared: boolean
 }
 
+export interface ProjectItemsDelta {
+  removedIds: number[];
+  hierarchyVersion?: number;
+}
+
 export interface Content {
   id: number;
   owner: User;
@@ -53,10 +53,11 @@ import {
 } from '../../apis/noteApis';
 import {IState} from '../../store';
 import {updateNoteContents, updateNotes} from './actions';
-import {Content, ProjectItems, Revision} from '../myBuJo/interface';
+import {Content, ProjectItems, ProjectItemsDelta, Revision} from '../myBuJo/interface';
 import {projectLabelsUpdate, updateItemsByLabels} from '../label/actions';
 import {actions as SystemActions} from '../system/reducer';
 import {Note} from './interface';
+import {removeFromHierarchy} from '../../utils/Util';
 import {ProjectItemUIType} from "../project/constants";
 import {ContentType} from "../myBuJo/constants";
 import {recentItemsReceived} from "../recent/actions";
@@ -458,15 +459,15 @@ function* notesDelete(action: PayloadAction<DeleteNotes>) {
   try {
     const { projectId, notesId, type } = action.payload;
     const data = yield call(deleteNotesApi, projectId, notesId);
-    const notes: Note[] = yield data.json();
+    const delta: ProjectItemsDelta = yield data.json();
+    const state: IState = yield select();
     yield put(
       notesActions.notesReceived({
-        notes: notes,
+        notes: removeFromHierarchy(state.note.notes, delta.removedIds, 'subNotes'),
       })
     );
 
     yield put(notesActions.noteReceived({ note: undefined }));
-    const state: IState = yield select();
 
     if (type === ProjectItemUIType.OWNER) {
       const notesByOwner = state.note.notesByOwner.filter(
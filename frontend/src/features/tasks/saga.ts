@@ -70,11 +70,12 @@ import {
 import {updateLoadingCompletedTask, updateTaskContents, updateTasks } from './actions';
 import {getProjectItemsAfterUpdateSelect} from '../myBuJo/actions';
 import {IState} from '../../store';
-import {Content, ProjectItems, Revision} from '../myBuJo/interface';
+import {Content, ProjectItems, ProjectItemsDelta, Revision} from '../myBuJo/interface';
 import {projectLabelsUpdate, updateItemsByLabels} from '../label/actions';
 import {actions as SystemActions} from '../system/reducer';
 import {completedTaskPageSize, ProjectItemUIType} from '../project/constants';
 import {Task, TaskStatistics} from './interface';
+import {removeFromHierarchy} from '../../utils/Util';
 import {recentItemsReceived} from '../recent/actions';
 import {ContentType} from '../myBuJo/constants';
 import {setDisplayMore, updateTargetContent} from "../content/actions";
@@ -699,16 +700,16 @@ function* deleteTasks(action: PayloadAction<DeleteTasks>) {
     const {projectId, tasksId, type} = action.payload;
 
     const data = yield call(deleteTasksApi, projectId, tasksId);
-    const tasks: Task[] = yield data.json();
+    const delta: ProjectItemsDelta = yield data.json();
+    const state: IState = yield select();
 
     yield put(
         tasksActions.tasksReceived({
-          tasks: tasks,
+          tasks: removeFromHierarchy(state.task.tasks, delta.removedIds, 'subTasks'),
         })
     );
 
     yield put(tasksActions.taskReceived({task: undefined}));
-    const state: IState = yield select();
 
     if (type === ProjectItemUIType.ASSIGNEE) {
       const tasksByAssignee = state.task.tasksByAssignee.filter(
@@ -750,11 +751,11 @@ function* completeTasks(action: PayloadAction<CompleteTasks>) {
     const {projectId, tasksId, type} = action.payload;
     const state: IState = yield select();
     const data = yield call(completeTasksApi, projectId, tasksId);
-    const tasks: Task[] = yield data.json();
+    const delta: ProjectItemsDelta = yield data.json();
 
     yield put(
         tasksActions.tasksReceived({
-          tasks: tasks,
+          tasks: removeFromHierarchy(state.task.tasks, delta.removedIds, 'subTasks'),
         })
     );
 
@@ -104,4 +104,16 @@ const resizeFloatButtonCall = (button: HTMLElement, enlarge: boolean, count: num
     button.style.height = enlarge ? '160px' : '';
     button.style.fontSize = enlarge ? '120px' : '25px';
     setTimeout(() => resizeFloatButtonCall(button, !enlarge, count - 1), 1000);
-}
\ No newline at end of file
+}
+
+// drops removed items from a hierarchy, sub items of a removed item take its place
+export const removeFromHierarchy = <T extends ProjectItem>(
+    items: T[], removedIds: number[], subItemsKey: keyof T): T[] => {
+    return items.reduce((result: T[], item: T) => {
+        const subItems = removeFromHierarchy(item[subItemsKey] as unknown as T[], removedIds, subItemsKey);
+        if (removedIds.includes(item.id)) {
+            return result.concat(subItems);
+        }
+        return result.concat({...item, [subItemsKey]: subItems});
+    }, []);
+}